@@ -0,0 +1,76 @@
+package ru.practicum.shareit.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import ru.practicum.shareit.booking.interval.BookingIntervalIndex;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.storage.BookingStorage;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.storage.ItemStorage;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/*
+Проверка периода нового бронирования по подтвержденным бронированиям вещи (BookingIntervalIndex.checkFree)
+при size подтвержденных бронированиях: warm - вещь уже в индексе, cold - первое обращение,
+когда бронирования вещи загружаются из хранилища и раскладываются по дереву.
+Проверяется свободный промежуток в середине истории бронирований.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BookingIntervalBenchmark {
+    @Param({"1", "100", "10000"})
+    private int size;
+
+    private BookingStorage bookingStorage;
+    //checkFree не блокирует вещь в базе
+    private final ItemStorage itemStorage = Fixtures.stub(ItemStorage.class, Map.of());
+    private BookingIntervalIndex warmIndex;
+    private Booking candidate;
+
+    @Setup
+    public void setUp() {
+        User owner = Fixtures.user(1);
+        User booker = Fixtures.user(2);
+        Item item = Fixtures.item(1, owner);
+        //индекс не хранит закончившиеся бронирования, поэтому история начинается завтра
+        LocalDateTime from = LocalDate.now().plusDays(1).atTime(10, 0);
+        List<Booking> approved = Fixtures.bookings(item, booker, size, 1, from);
+        bookingStorage = Fixtures.stub(BookingStorage.class,
+                Map.of("findAllByItemIdAndStatusAndEndAfter", args -> approved));
+
+        //вторая половина дня после бронирования из середины истории свободна
+        Booking middle = approved.get(size / 2);
+        candidate = new Booking();
+        candidate.setId(size + 1);
+        candidate.setItem(item);
+        candidate.setBooker(booker);
+        candidate.setStart(middle.getEnd());
+        candidate.setEnd(middle.getEnd().plusHours(6));
+        candidate.setStatus(BookingStatus.WAITING);
+
+        warmIndex = new BookingIntervalIndex(bookingStorage, itemStorage);
+        warmIndex.checkFree(candidate);
+    }
+
+    @Benchmark
+    public void checkFreeWarm() {
+        warmIndex.checkFree(candidate);
+    }
+
+    @Benchmark
+    public BookingIntervalIndex checkFreeCold() {
+        BookingIntervalIndex index = new BookingIntervalIndex(bookingStorage, itemStorage);
+        index.checkFree(candidate);
+        return index;
+    }
+}
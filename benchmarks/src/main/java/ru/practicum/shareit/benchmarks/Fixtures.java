@@ -0,0 +1,143 @@
+package ru.practicum.shareit.benchmarks;
+
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import ru.practicum.shareit.booking.mapper.SimpleBookingMapperImpl;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.service.LastAndNextBookingsService;
+import ru.practicum.shareit.change.storage.ChangeLogStorage;
+import ru.practicum.shareit.comment.mapper.SimpleCommentMapperImpl;
+import ru.practicum.shareit.comment.model.Comment;
+import ru.practicum.shareit.comment.storage.CommentStorage;
+import ru.practicum.shareit.common.ParallelReads;
+import ru.practicum.shareit.item.mapper.SimpleItemMapperImpl;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.item.service.ItemLookup;
+import ru.practicum.shareit.item.service.ItemServiceImpl;
+import ru.practicum.shareit.item.storage.ItemStorage;
+import ru.practicum.shareit.request.service.ItemRequestService;
+import ru.practicum.shareit.user.mapper.SimpleUserMapperImpl;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/*
+Данные и заглушки для бенчмарков. Все данные детерминированы, чтобы замеры "до" и "после" шли на одном наборе.
+Бронирования вещи идут подряд по дню, не пересекаясь, как подтвержденные бронирования в базе.
+ */
+final class Fixtures {
+    static final LocalDateTime EPOCH = LocalDateTime.of(2024, 1, 1, 10, 0);
+
+    private Fixtures() {
+    }
+
+    static User user(int id) {
+        User user = new User();
+        user.setId(id);
+        user.setName("Пользователь " + id);
+        user.setEmail("user" + id + "@mail.ru");
+        return user;
+    }
+
+    static Item item(int id, User owner) {
+        Item item = new Item();
+        item.setId(id);
+        item.setName("Дрель " + id);
+        item.setDescription("Аккумуляторная дрель, два аккумулятора");
+        item.setAvailable(true);
+        item.setOwner(owner);
+        return item;
+    }
+
+    static List<Booking> bookings(Item item, User booker, int count, int firstId) {
+        return bookings(item, booker, count, firstId, EPOCH);
+    }
+
+    static List<Booking> bookings(Item item, User booker, int count, int firstId, LocalDateTime from) {
+        List<Booking> bookings = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Booking booking = new Booking();
+            booking.setId(firstId + i);
+            booking.setItem(item);
+            booking.setBooker(booker);
+            booking.setStart(from.plusDays(i));
+            booking.setEnd(from.plusDays(i).plusHours(12));
+            booking.setStatus(BookingStatus.APPROVED);
+            bookings.add(booking);
+        }
+        return bookings;
+    }
+
+    static List<Comment> comments(Item item, User author, int count, int firstId) {
+        List<Comment> comments = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Comment comment = new Comment();
+            comment.setId(firstId + i);
+            comment.setItem(item);
+            comment.setAuthor(author);
+            comment.setText("Отличная дрель, спасибо " + i);
+            comment.setCreated(EPOCH.plusDays(i).plusHours(13));
+            comments.add(comment);
+        }
+        return comments;
+    }
+
+    //сгенерированные MapStruct мапперы, связанные между собой так же, как в приложении
+    static AnnotationConfigApplicationContext mappers() {
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+        context.registerBean(UserService.class, () -> stub(UserService.class, Map.of()));
+        registerMappers(context);
+        context.refresh();
+        return context;
+    }
+
+    /* ItemServiceImpl над заглушками хранилищ. Сервис собирает контекст по типам зависимостей, а не вызов
+       конструктора по позициям: новая зависимость без бина здесь уронит бенчмарк при старте с именем
+       недостающего типа. Ненужные замеру зависимости - настоящие бины или заглушки, бросающие исключение */
+    static AnnotationConfigApplicationContext itemService(ItemStorage itemStorage, UserService userService,
+                                                          LastAndNextBookingsService lastAndNextBookingsService,
+                                                          CommentStorage commentStorage) {
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+        context.registerBean(ItemStorage.class, () -> itemStorage);
+        context.registerBean(UserService.class, () -> userService);
+        context.registerBean(LastAndNextBookingsService.class, () -> lastAndNextBookingsService);
+        context.registerBean(CommentStorage.class, () -> commentStorage);
+        context.registerBean(ChangeLogStorage.class, () -> stub(ChangeLogStorage.class, Map.of()));
+        context.registerBean(ItemRequestService.class, () -> stub(ItemRequestService.class, Map.of()));
+        //без исполнителя ветки чтения выполняются по очереди в потоке замера
+        context.registerBean(ParallelReads.class, () -> new ParallelReads(null, null));
+        registerMappers(context);
+        context.register(ItemLookup.class, ItemSearchIndex.class, ItemServiceImpl.class);
+        context.refresh();
+        return context;
+    }
+
+    private static void registerMappers(AnnotationConfigApplicationContext context) {
+        context.register(SimpleItemMapperImpl.class, SimpleBookingMapperImpl.class, SimpleCommentMapperImpl.class,
+                SimpleUserMapperImpl.class);
+    }
+
+    //заглушка интерфейса: методы из answers отвечают по имени, остальные бросают исключение
+    static <T> T stub(Class<T> type, Map<String, Function<Object[], Object>> answers) {
+        Object proxy = Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (self, method, args) -> {
+            Function<Object[], Object> answer = answers.get(method.getName());
+            if (answer != null) {
+                return answer.apply(args);
+            }
+            return switch (method.getName()) {
+                case "toString" -> type.getSimpleName() + "Stub";
+                case "hashCode" -> System.identityHashCode(self);
+                case "equals" -> self == args[0];
+                default -> throw new UnsupportedOperationException(method.getName());
+            };
+        });
+        return type.cast(proxy);
+    }
+}
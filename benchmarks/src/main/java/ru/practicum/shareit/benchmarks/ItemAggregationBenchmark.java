@@ -0,0 +1,79 @@
+package ru.practicum.shareit.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.LastAndNextBookings;
+import ru.practicum.shareit.booking.service.LastAndNextBookingsService;
+import ru.practicum.shareit.comment.model.Comment;
+import ru.practicum.shareit.comment.storage.CommentStorage;
+import ru.practicum.shareit.item.dto.ItemOutDtoWithDates;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.service.ItemServiceImpl;
+import ru.practicum.shareit.item.storage.ItemStorage;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/*
+Сборка списка вещей владельца (ItemServiceImpl.getUsersItems) без базы: хранилища отдают готовые списки,
+так что замер - это группировка отзывов по вещам (getCommentsMap), склейка с последним/следующим
+бронированием из витрины и маппинг в DTO. У владельца ITEMS вещей, у каждой size отзывов.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ItemAggregationBenchmark {
+    private static final int ITEMS = 10;
+
+    @Param({"1", "100", "10000"})
+    private int size;
+
+    private AnnotationConfigApplicationContext context;
+    private ItemServiceImpl itemService;
+    private User owner;
+
+    @Setup
+    public void setUp() {
+        owner = Fixtures.user(1);
+        User booker = Fixtures.user(2);
+        List<Item> items = new ArrayList<>();
+        List<Comment> comments = new ArrayList<>();
+        Map<Integer, LastAndNextBookings> lastAndNext = new HashMap<>();
+        for (int i = 1; i <= ITEMS; i++) {
+            Item item = Fixtures.item(i, owner);
+            items.add(item);
+            comments.addAll(Fixtures.comments(item, booker, size, i * size));
+            List<Booking> bookings = Fixtures.bookings(item, booker, 2, i * 2);
+            LastAndNextBookings twoBookings = new LastAndNextBookings(item.getId());
+            twoBookings.setLastBooking(bookings.getFirst());
+            twoBookings.setNextBooking(bookings.getLast());
+            lastAndNext.put(item.getId(), twoBookings);
+        }
+
+        context = Fixtures.itemService(
+                Fixtures.stub(ItemStorage.class, Map.of("findAllByOwner", args -> items)),
+                Fixtures.stub(UserService.class, Map.of("getUserById", args -> owner)),
+                Fixtures.stub(LastAndNextBookingsService.class, Map.of("getByItemIds", args -> lastAndNext)),
+                Fixtures.stub(CommentStorage.class, Map.of("findAllByItemInOrderByCreatedDesc", args -> comments)));
+        itemService = context.getBean(ItemServiceImpl.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<ItemOutDtoWithDates> getUsersItems() {
+        return itemService.getUsersItems(owner.getId());
+    }
+}
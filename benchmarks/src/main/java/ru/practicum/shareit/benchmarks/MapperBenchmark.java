@@ -0,0 +1,72 @@
+package ru.practicum.shareit.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import ru.practicum.shareit.booking.mapper.SimpleBookingMapper;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.LastAndNextBookings;
+import ru.practicum.shareit.comment.model.Comment;
+import ru.practicum.shareit.item.dto.ItemOutDtoWithDates;
+import ru.practicum.shareit.item.mapper.SimpleItemMapper;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/*
+Маппинг в DTO: страница бронирований (bookingToDto на каждую запись)
+и карточка вещи с последним/следующим бронированием и size отзывами (toItemOutDtoWithDate).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperBenchmark {
+    @Param({"1", "100", "10000"})
+    private int size;
+
+    private AnnotationConfigApplicationContext context;
+    private SimpleBookingMapper bookingMapper;
+    private SimpleItemMapper itemMapper;
+    private List<Booking> bookings;
+    private Item item;
+    private LastAndNextBookings twoBookings;
+    private List<Comment> comments;
+
+    @Setup
+    public void setUp() {
+        context = Fixtures.mappers();
+        bookingMapper = context.getBean(SimpleBookingMapper.class);
+        itemMapper = context.getBean(SimpleItemMapper.class);
+
+        User owner = Fixtures.user(1);
+        User booker = Fixtures.user(2);
+        item = Fixtures.item(1, owner);
+        bookings = Fixtures.bookings(item, booker, size, 1);
+        twoBookings = new LastAndNextBookings(item.getId());
+        twoBookings.setLastBooking(bookings.getFirst());
+        twoBookings.setNextBooking(bookings.getLast());
+        comments = Fixtures.comments(item, booker, size, 1);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void bookingToDto(Blackhole blackhole) {
+        for (Booking booking : bookings) {
+            blackhole.consume(bookingMapper.bookingToDto(booking, itemMapper));
+        }
+    }
+
+    @Benchmark
+    public ItemOutDtoWithDates toItemOutDtoWithDate() {
+        return itemMapper.toItemOutDtoWithDate(item, twoBookings, comments);
+    }
+}
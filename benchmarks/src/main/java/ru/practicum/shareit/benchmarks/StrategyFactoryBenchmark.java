@@ -0,0 +1,52 @@
+package ru.practicum.shareit.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import ru.practicum.shareit.booking.strategy.BookingFindStrategy;
+import ru.practicum.shareit.booking.strategy.BookingStrategyFactory;
+import ru.practicum.shareit.booking.strategy.FindBookingStateEnum;
+import ru.practicum.shareit.booking.strategy.ownersbooking.AllOwnersBookings;
+import ru.practicum.shareit.booking.strategy.ownersbooking.CurrentOwnersBookings;
+import ru.practicum.shareit.booking.strategy.ownersbooking.FutureOwnersBookings;
+import ru.practicum.shareit.booking.strategy.ownersbooking.PastOwnersBookings;
+import ru.practicum.shareit.booking.strategy.ownersbooking.RejectedOwnersBookings;
+import ru.practicum.shareit.booking.strategy.ownersbooking.WaitingOwnersBookings;
+import ru.practicum.shareit.booking.strategy.usersbooking.AllUsersBookings;
+import ru.practicum.shareit.booking.strategy.usersbooking.CurrentUsersBookings;
+import ru.practicum.shareit.booking.strategy.usersbooking.FutureUsersBookings;
+import ru.practicum.shareit.booking.strategy.usersbooking.PastUsersBookings;
+import ru.practicum.shareit.booking.strategy.usersbooking.RejectedUsersBookings;
+import ru.practicum.shareit.booking.strategy.usersbooking.WaitingUsersBookings;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/*
+Выбор стратегии поиска бронирований по state (BookingStrategyFactory.getStrategyByState) для каждого state:
+стратегии перебираются по списку, поэтому время зависит от позиции state в нем.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StrategyFactoryBenchmark {
+    @Param
+    private FindBookingStateEnum state;
+
+    private BookingStrategyFactory factory;
+
+    @Setup
+    public void setUp() {
+        factory = new BookingStrategyFactory(List.of(
+                new AllUsersBookings(), new CurrentUsersBookings(), new PastUsersBookings(),
+                new FutureUsersBookings(), new WaitingUsersBookings(), new RejectedUsersBookings(),
+                new AllOwnersBookings(), new CurrentOwnersBookings(), new PastOwnersBookings(),
+                new FutureOwnersBookings(), new WaitingOwnersBookings(), new RejectedOwnersBookings()));
+    }
+
+    @Benchmark
+    public BookingFindStrategy getStrategyByState() {
+        return factory.getStrategyByState(state);
+    }
+}
@@ -0,0 +1,93 @@
+package ru.practicum.shareit.threads;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/*
+Следит за блокировкой несущего потока виртуальным (pinning): пока виртуальный поток ждет внутри synchronized
+или нативного вызова, несущий поток не может обслуживать другие запросы.
+События jdk.VirtualThreadPinned читаются из JFR и пишутся в таймер shareit.threads.virtual.pinned
+с тегом source - библиотекой, в коде которой поток был закреплен, чтобы было видно, кто именно держит несущие потоки.
+Бин создает VirtualThreadPinningAutoConfiguration, одна и та же реализация работает в server и gateway.
+ */
+@Slf4j
+public class VirtualThreadPinningMonitor {
+    static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    static final String PINNED_METRIC = "shareit.threads.virtual.pinned";
+    static final String OTHER_SOURCE = "other";
+
+    //первый кадр стека из этих пакетов определяет источник; порядок важен - ищем по стеку сверху вниз
+    private static final Map<String, String> SOURCES = new LinkedHashMap<>();
+
+    static {
+        SOURCES.put("org.hibernate.", "hibernate");
+        SOURCES.put("com.zaxxer.hikari.", "hikari");
+        SOURCES.put("org.postgresql.", "jdbc");
+        SOURCES.put("org.h2.", "jdbc");
+        SOURCES.put("org.apache.hc.", "httpclient");
+        SOURCES.put("org.apache.tomcat.", "tomcat");
+        SOURCES.put("org.apache.coyote.", "tomcat");
+    }
+
+    private final MeterRegistry meterRegistry;
+    private final Duration threshold;
+    private RecordingStream stream;
+
+    public VirtualThreadPinningMonitor(MeterRegistry meterRegistry, Duration threshold) {
+        this.meterRegistry = meterRegistry;
+        this.threshold = threshold;
+    }
+
+    public void start() {
+        stream = new RecordingStream();
+        stream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        stream.onEvent(PINNED_EVENT, this::record);
+        stream.startAsync();
+        log.info("Запущен мониторинг закрепления виртуальных потоков, порог {}", threshold);
+    }
+
+    public void stop() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    private void record(RecordedEvent event) {
+        Timer.builder(PINNED_METRIC)
+                .description("Время, на которое виртуальный поток закреплял несущий поток")
+                .tag("source", source(event.getStackTrace()))
+                .register(meterRegistry)
+                .record(event.getDuration());
+    }
+
+    static String source(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return OTHER_SOURCE;
+        }
+        for (RecordedFrame frame : stackTrace.getFrames()) {
+            String source = sourceOf(frame.getMethod().getType().getName());
+            if (source != null) {
+                return source;
+            }
+        }
+        return OTHER_SOURCE;
+    }
+
+    static String sourceOf(String className) {
+        for (Map.Entry<String, String> source : SOURCES.entrySet()) {
+            if (className.startsWith(source.getKey())) {
+                return source.getValue();
+            }
+        }
+        return null;
+    }
+}
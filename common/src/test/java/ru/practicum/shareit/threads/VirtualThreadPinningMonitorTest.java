@@ -0,0 +1,93 @@
+package ru.practicum.shareit.threads;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VirtualThreadPinningMonitorTest {
+    private static final long WAIT_MILLIS = 10_000;
+
+    private final Object monitor = new Object();
+    private SimpleMeterRegistry meterRegistry;
+    private VirtualThreadPinningMonitor pinningMonitor;
+
+    @BeforeEach
+    void beforeEach() {
+        meterRegistry = new SimpleMeterRegistry();
+        pinningMonitor = new VirtualThreadPinningMonitor(meterRegistry, Duration.ZERO);
+        pinningMonitor.start();
+    }
+
+    @AfterEach
+    void afterEach() {
+        pinningMonitor.stop();
+    }
+
+    @DisplayName("Ожидание внутри synchronized в виртуальном потоке попадает в метрику закрепления")
+    @Test
+    void shouldRecordPinnedVirtualThread() throws InterruptedException {
+        Thread.ofVirtual().start(this::sleepWhileHoldingMonitor).join();
+
+        //JFR отдает события потоку чтения примерно раз в секунду
+        long deadline = System.currentTimeMillis() + WAIT_MILLIS;
+        Timer timer = null;
+        while (timer == null && System.currentTimeMillis() < deadline) {
+            Thread.sleep(100);
+            timer = meterRegistry.find(VirtualThreadPinningMonitor.PINNED_METRIC)
+                    .tag("source", VirtualThreadPinningMonitor.OTHER_SOURCE)
+                    .timer();
+        }
+        assertNotNull(timer);
+        assertTrue(timer.count() > 0);
+    }
+
+    @DisplayName("Источник закрепления определяется по пакету класса")
+    @Test
+    void shouldResolveSourceByPackage() {
+        assertEquals("hibernate", VirtualThreadPinningMonitor.sourceOf("org.hibernate.internal.SessionImpl"));
+        assertEquals("jdbc", VirtualThreadPinningMonitor.sourceOf("org.postgresql.core.QueryExecutorBase"));
+        assertEquals("httpclient", VirtualThreadPinningMonitor.sourceOf("org.apache.hc.core5.pool.StrictConnPool"));
+        assertEquals("tomcat", VirtualThreadPinningMonitor.sourceOf("org.apache.coyote.http11.Http11Processor"));
+        assertNull(VirtualThreadPinningMonitor.sourceOf("java.lang.Object"));
+    }
+
+    @DisplayName("Монитор создается автоконфигурацией только при включенных виртуальных потоках")
+    @Test
+    void shouldCreateMonitorOnlyWithVirtualThreads() {
+        ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+                .withConfiguration(AutoConfigurations.of(VirtualThreadPinningAutoConfiguration.class))
+                .withBean(MeterRegistry.class, SimpleMeterRegistry::new)
+                //порог задается строкой вида 20ms, как в приложении
+                .withInitializer(context -> context.getBeanFactory()
+                        .setConversionService(ApplicationConversionService.getSharedInstance()));
+
+        contextRunner.withPropertyValues("spring.threads.virtual.enabled=true")
+                .run(context -> assertEquals(1, context.getBeansOfType(VirtualThreadPinningMonitor.class).size()));
+        contextRunner.withPropertyValues("spring.threads.virtual.enabled=false")
+                .run(context -> assertTrue(context.getBeansOfType(VirtualThreadPinningMonitor.class).isEmpty()));
+    }
+
+    private void sleepWhileHoldingMonitor() {
+        synchronized (monitor) {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -1,52 +1,87 @@
 package shareit.booking.client;
 
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.boot.web.client.RestTemplateBuilder;
-import org.springframework.http.ResponseEntity;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import shareit.booking.dto.BookingDto;
 import shareit.client.BaseClient;
+import shareit.client.EventStreamClient;
+import shareit.client.RequestCoalescer;
+import shareit.client.ResponseCache;
 import shareit.common.Common;
 
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @Service
 public class BookingClient extends BaseClient {
+    private final EventStreamClient eventStreams;
 
     public BookingClient(@Value("${shareit-server.url}") String url,
-                         RestTemplateBuilder restBuilder) {
+                         RestTemplateBuilder restBuilder,
+                         HttpComponentsClientHttpRequestFactory requestFactory,
+                         RequestCoalescer coalescer,
+                         ResponseCache cache,
+                         EventStreamClient eventStreams) {
         super(restBuilder.uriTemplateHandler(new DefaultUriBuilderFactory(url + Common.BOOKING_API_PREFIX))
-                .requestFactory(() -> new HttpComponentsClientHttpRequestFactory())
-                .build());
+                .requestFactory(() -> requestFactory)
+                .build(), coalescer, cache);
+        this.eventStreams = eventStreams;
     }
 
-    public ResponseEntity<Object> createBooking(long userId, BookingDto bookingDto) {
-        return post("", userId, bookingDto);
+    public void createBooking(long userId, BookingDto bookingDto, HttpServletResponse response) {
+        proxy(HttpMethod.POST, "", userId, bookingDto, response);
     }
 
-    public ResponseEntity<Object> updateBooking(long userId, long bookingId, Boolean isApprove) {
-        return patch("/" + bookingId + "?approved=" + isApprove, userId);
+    public void createBookings(long userId, List<BookingDto> bookingDtoList, HttpServletResponse response) {
+        proxy(HttpMethod.POST, "/batch", userId, bookingDtoList, response);
     }
 
-    public ResponseEntity<Object> getBookingById(long bookingId, long userId) {
-        return get("/" + bookingId, userId);
+    public void updateBooking(long userId, long bookingId, Boolean isApprove, HttpServletResponse response) {
+        proxy(HttpMethod.PATCH, "/" + bookingId + "?approved=" + isApprove, userId, response);
     }
 
+    public void getBookingById(long bookingId, long userId, HttpServletResponse response) {
+        proxy(HttpMethod.GET, "/" + bookingId, userId, response);
+    }
+
+
+    public void getUsersBooking(long userId, String state, String after, Integer limit, HttpServletResponse response) {
+        proxy(HttpMethod.GET, withPage("?state={state}", after, limit), userId, pageParameters(state, after, limit), null,
+                response);
+    }
 
-    public ResponseEntity<Object> getUsersBooking(long userId, String state) {
-        Map<String, Object> parameters = Map.of(
-                "state", state
-        );
-        return get("?state={state}", userId, parameters);
+    public void getBookingsForOwner(long userId, String state, String after, Integer limit,
+                                    HttpServletResponse response) {
+        proxy(HttpMethod.GET, withPage("/owner?state={state}", after, limit), userId, pageParameters(state, after, limit),
+                null, response);
     }
 
+    public void streamEvents(long userId, HttpServletResponse response) {
+        eventStreams.proxy(Common.BOOKING_API_PREFIX + "/events", userId, response);
+    }
+
+    //без limit сервер отдает список целиком
+    private String withPage(String path, String after, Integer limit) {
+        return path + (limit == null ? "" : "&limit={limit}") + (after == null ? "" : "&after={after}");
+    }
 
-    public ResponseEntity<Object> getBookingsForOwner(long userId, String state) {
-        Map<String, Object> parameters = Map.of(
-                "state", state
-        );
-        return get("/owner?state={state}", userId, parameters);
+    private Map<String, Object> pageParameters(String state, String after, Integer limit) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("state", state);
+        if (limit != null) {
+            parameters.put("limit", limit);
+        }
+        if (after != null) {
+            parameters.put("after", after);
+        }
+        return parameters;
     }
 }
@@ -0,0 +1,79 @@
+package shareit.booking.client;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import shareit.booking.dto.BookingDto;
+import shareit.client.ReactiveBaseClient;
+import shareit.client.ReactiveEventStreamClient;
+import shareit.common.Common;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@Service
+public class ReactiveBookingClient extends ReactiveBaseClient {
+    private final ReactiveEventStreamClient eventStreams;
+
+    public ReactiveBookingClient(@Value("${shareit-server.url}") String url, WebClient shareitWebClient,
+                                 ReactiveEventStreamClient eventStreams) {
+        super(shareitWebClient.mutate().baseUrl(url + Common.BOOKING_API_PREFIX).build());
+        this.eventStreams = eventStreams;
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> createBooking(long userId, BookingDto bookingDto) {
+        return proxy(HttpMethod.POST, "", userId, bookingDto);
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> createBookings(long userId, List<BookingDto> bookingDtoList) {
+        return proxy(HttpMethod.POST, "/batch", userId, bookingDtoList);
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> updateBooking(long userId, long bookingId, Boolean isApprove) {
+        return proxy(HttpMethod.PATCH, "/" + bookingId + "?approved=" + isApprove, userId);
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getBookingById(long bookingId, long userId) {
+        return proxy(HttpMethod.GET, "/" + bookingId, userId);
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getUsersBooking(long userId, String state, String after, Integer limit) {
+        return proxy(HttpMethod.GET, withPage("?state={state}", after, limit), userId, pageParameters(state, after, limit),
+                null);
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getBookingsForOwner(long userId, String state, String after,
+                                                                      Integer limit) {
+        return proxy(HttpMethod.GET, withPage("/owner?state={state}", after, limit), userId,
+                pageParameters(state, after, limit), null);
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> streamEvents(long userId) {
+        return eventStreams.proxy(Common.BOOKING_API_PREFIX + "/events", userId);
+    }
+
+    //без limit сервер отдает список целиком
+    private String withPage(String path, String after, Integer limit) {
+        return path + (limit == null ? "" : "&limit={limit}") + (after == null ? "" : "&after={after}");
+    }
+
+    private Map<String, Object> pageParameters(String state, String after, Integer limit) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("state", state);
+        if (limit != null) {
+            parameters.put("limit", limit);
+        }
+        if (after != null) {
+            parameters.put("after", after);
+        }
+        return parameters;
+    }
+}
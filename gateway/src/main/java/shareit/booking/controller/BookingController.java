@@ -1,14 +1,24 @@
 package shareit.booking.controller;
 
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
 import lombok.RequiredArgsConstructor;
-import org.springframework.http.ResponseEntity;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import shareit.booking.client.BookingClient;
 import shareit.booking.dto.BookingDto;
 import shareit.common.Common;
 
+import java.util.List;
 
+
+@Validated
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RestController
 @RequestMapping(path = "/bookings")
 @RequiredArgsConstructor
@@ -16,34 +26,62 @@ public class BookingController {
     private final BookingClient bookingClient;
 
     @PostMapping()
-    public ResponseEntity<Object> createBooking(@Valid @RequestBody BookingDto bookingDto,
-                                                @RequestHeader(value = Common.USER_HEADER) Long bookerId) {
+    public void createBooking(@Valid @RequestBody BookingDto bookingDto,
+                              @RequestHeader(value = Common.USER_HEADER) Long bookerId,
+                              HttpServletResponse response) {
+
+        bookingClient.createBooking(bookerId, bookingDto, response);
+    }
 
-        return bookingClient.createBooking(bookerId, bookingDto);
+    @PostMapping("/batch")
+    public void createBookings(@RequestBody @NotEmpty @Size(max = Common.MAX_BATCH_SIZE)
+                               List<@Valid BookingDto> bookingDtoList,
+                               @RequestHeader(value = Common.USER_HEADER) Long bookerId,
+                               HttpServletResponse response) {
+        bookingClient.createBookings(bookerId, bookingDtoList, response);
     }
 
     @PatchMapping("/{bookingId}")
-    public ResponseEntity<Object> approveBooking(@RequestHeader(value = Common.USER_HEADER) Long userId,
-                                                 @PathVariable("bookingId") Long bookingId,
-                                                 @RequestParam(name = "approved") Boolean isApprove) {
-        return bookingClient.updateBooking(userId, bookingId, isApprove);
+    public void approveBooking(@RequestHeader(value = Common.USER_HEADER) Long userId,
+                               @PathVariable("bookingId") Long bookingId,
+                               @RequestParam(name = "approved") Boolean isApprove,
+                               HttpServletResponse response) {
+        bookingClient.updateBooking(userId, bookingId, isApprove, response);
+    }
+
+    //поток событий бронирований сервера (text/event-stream), см. EventStreamClient
+    @GetMapping("/events")
+    public void streamEvents(@RequestHeader(value = Common.USER_HEADER) Long userId,
+                             HttpServletResponse response) {
+        bookingClient.streamEvents(userId, response);
     }
 
     @GetMapping("/{bookingId}")
-    public ResponseEntity<Object> getBooking(@RequestHeader(value = Common.USER_HEADER) Long userId,
-                                             @PathVariable("bookingId") Long bookingId) {
-        return bookingClient.getBookingById(bookingId, userId);
+    public void getBooking(@RequestHeader(value = Common.USER_HEADER) Long userId,
+                           @PathVariable("bookingId") Long bookingId,
+                           HttpServletResponse response) {
+        bookingClient.getBookingById(bookingId, userId, response);
     }
 
     @GetMapping
-    public ResponseEntity<Object> getUsersBookings(@RequestHeader(value = Common.USER_HEADER) Long userId,
-                                                   @RequestParam(name = "state", defaultValue = "ALL") String state) {
-        return bookingClient.getUsersBooking(userId, state);
+    public void getUsersBookings(
+            @RequestHeader(value = Common.USER_HEADER) Long userId,
+            @RequestParam(name = "state", defaultValue = "ALL") String state,
+            @RequestParam(name = "after", required = false) String after,
+            @RequestParam(name = "limit", required = false)
+            @Positive @Max(Common.MAX_PAGE_SIZE) Integer limit,
+            HttpServletResponse response) {
+        bookingClient.getUsersBooking(userId, state, after, limit, response);
     }
 
     @GetMapping("/owner")
-    public ResponseEntity<Object> getOwnersBookings(@RequestHeader(value = Common.USER_HEADER) Long userId,
-                                                    @RequestParam(name = "state", defaultValue = "ALL") String state) {
-        return bookingClient.getBookingsForOwner(userId, state);
+    public void getOwnersBookings(
+            @RequestHeader(value = Common.USER_HEADER) Long userId,
+            @RequestParam(name = "state", defaultValue = "ALL") String state,
+            @RequestParam(name = "after", required = false) String after,
+            @RequestParam(name = "limit", required = false)
+            @Positive @Max(Common.MAX_PAGE_SIZE) Integer limit,
+            HttpServletResponse response) {
+        bookingClient.getBookingsForOwner(userId, state, after, limit, response);
     }
 }
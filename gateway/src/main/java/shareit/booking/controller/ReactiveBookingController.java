@@ -0,0 +1,83 @@
+package shareit.booking.controller;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import shareit.booking.client.ReactiveBookingClient;
+import shareit.booking.dto.BookingDto;
+import shareit.common.Common;
+
+import java.util.List;
+
+//BookingController реактивного режима: та же проверка запросов, ответ сервера передается без разбора
+@Validated
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RestController
+@RequestMapping(path = "/bookings")
+@RequiredArgsConstructor
+public class ReactiveBookingController {
+    private final ReactiveBookingClient bookingClient;
+
+    @PostMapping()
+    public Mono<ResponseEntity<Flux<DataBuffer>>> createBooking(@Valid @RequestBody BookingDto bookingDto,
+                                                                @RequestHeader(value = Common.USER_HEADER) Long bookerId) {
+        return bookingClient.createBooking(bookerId, bookingDto);
+    }
+
+    @PostMapping("/batch")
+    public Mono<ResponseEntity<Flux<DataBuffer>>> createBookings(@RequestBody @NotEmpty
+                                                                 @Size(max = Common.MAX_BATCH_SIZE)
+                                                                 List<@Valid BookingDto> bookingDtoList,
+                                                                 @RequestHeader(value = Common.USER_HEADER)
+                                                                 Long bookerId) {
+        return bookingClient.createBookings(bookerId, bookingDtoList);
+    }
+
+    @PatchMapping("/{bookingId}")
+    public Mono<ResponseEntity<Flux<DataBuffer>>> approveBooking(@RequestHeader(value = Common.USER_HEADER) Long userId,
+                                                                 @PathVariable("bookingId") Long bookingId,
+                                                                 @RequestParam(name = "approved") Boolean isApprove) {
+        return bookingClient.updateBooking(userId, bookingId, isApprove);
+    }
+
+    @GetMapping("/events")
+    public Mono<ResponseEntity<Flux<DataBuffer>>> streamEvents(@RequestHeader(value = Common.USER_HEADER) Long userId) {
+        return bookingClient.streamEvents(userId);
+    }
+
+    @GetMapping("/{bookingId}")
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getBooking(@RequestHeader(value = Common.USER_HEADER) Long userId,
+                                                             @PathVariable("bookingId") Long bookingId) {
+        return bookingClient.getBookingById(bookingId, userId);
+    }
+
+    @GetMapping
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getUsersBookings(
+            @RequestHeader(value = Common.USER_HEADER) Long userId,
+            @RequestParam(name = "state", defaultValue = "ALL") String state,
+            @RequestParam(name = "after", required = false) String after,
+            @RequestParam(name = "limit", required = false)
+            @Positive @Max(Common.MAX_PAGE_SIZE) Integer limit) {
+        return bookingClient.getUsersBooking(userId, state, after, limit);
+    }
+
+    @GetMapping("/owner")
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getOwnersBookings(
+            @RequestHeader(value = Common.USER_HEADER) Long userId,
+            @RequestParam(name = "state", defaultValue = "ALL") String state,
+            @RequestParam(name = "after", required = false) String after,
+            @RequestParam(name = "limit", required = false)
+            @Positive @Max(Common.MAX_PAGE_SIZE) Integer limit) {
+        return bookingClient.getBookingsForOwner(userId, state, after, limit);
+    }
+}
@@ -0,0 +1,48 @@
+package shareit.change.client;
+
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+import shareit.client.BaseClient;
+import shareit.client.RequestCoalescer;
+import shareit.common.Common;
+
+import java.util.HashMap;
+import java.util.Map;
+
+//журнал изменений не кэшируется: курсор в заголовке ответа сдвигается с каждым изменением
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@Service
+public class ChangeClient extends BaseClient {
+
+    public ChangeClient(@Value("${shareit-server.url}") String url,
+                        RestTemplateBuilder restBuilder,
+                        HttpComponentsClientHttpRequestFactory requestFactory,
+                        RequestCoalescer coalescer) {
+        super(restBuilder.uriTemplateHandler(new DefaultUriBuilderFactory(url + Common.CHANGE_API_PREFIX))
+                .requestFactory(() -> requestFactory)
+                .build(), coalescer);
+    }
+
+    public void getChanges(long userId, Long since, int limit, HttpServletResponse response) {
+        proxy(HttpMethod.GET, withSince(since), userId, pageParameters(since, limit), null, response);
+    }
+
+    private String withSince(Long since) {
+        return "?limit={limit}" + (since == null ? "" : "&since={since}");
+    }
+
+    private Map<String, Object> pageParameters(Long since, int limit) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("limit", limit);
+        if (since != null) {
+            parameters.put("since", since);
+        }
+        return parameters;
+    }
+}
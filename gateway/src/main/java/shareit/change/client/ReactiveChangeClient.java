@@ -0,0 +1,42 @@
+package shareit.change.client;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import shareit.client.ReactiveBaseClient;
+import shareit.common.Common;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@Service
+public class ReactiveChangeClient extends ReactiveBaseClient {
+
+    public ReactiveChangeClient(@Value("${shareit-server.url}") String url, WebClient shareitWebClient) {
+        super(shareitWebClient.mutate().baseUrl(url + Common.CHANGE_API_PREFIX).build());
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getChanges(long userId, Long since, int limit) {
+        return proxy(HttpMethod.GET, withSince(since), userId, pageParameters(since, limit), null);
+    }
+
+    private String withSince(Long since) {
+        return "?limit={limit}" + (since == null ? "" : "&since={since}");
+    }
+
+    private Map<String, Object> pageParameters(Long since, int limit) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("limit", limit);
+        if (since != null) {
+            parameters.put("since", since);
+        }
+        return parameters;
+    }
+}
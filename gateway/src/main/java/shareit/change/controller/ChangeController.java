@@ -0,0 +1,31 @@
+package shareit.change.controller;
+
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import shareit.change.client.ChangeClient;
+import shareit.common.Common;
+
+//журнал изменений бронирований и вещей пользователя после курсора since, следующий курсор - в X-Next-Cursor
+@Validated
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RestController
+@RequestMapping(path = "/changes")
+@RequiredArgsConstructor
+public class ChangeController {
+    private final ChangeClient changeClient;
+
+    @GetMapping
+    public void getChanges(@RequestHeader(value = Common.USER_HEADER) Long userId,
+                           @RequestParam(name = "since", required = false) @PositiveOrZero Long since,
+                           @RequestParam(name = "limit", defaultValue = Common.DEFAULT_PAGE_SIZE)
+                           @Positive @Max(Common.MAX_PAGE_SIZE) Integer limit,
+                           HttpServletResponse response) {
+        changeClient.getChanges(userId, since, limit, response);
+    }
+}
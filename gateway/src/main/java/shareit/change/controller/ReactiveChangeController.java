@@ -0,0 +1,34 @@
+package shareit.change.controller;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import shareit.change.client.ReactiveChangeClient;
+import shareit.common.Common;
+
+//ChangeController реактивного режима
+@Validated
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RestController
+@RequestMapping(path = "/changes")
+@RequiredArgsConstructor
+public class ReactiveChangeController {
+    private final ReactiveChangeClient changeClient;
+
+    @GetMapping
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getChanges(
+            @RequestHeader(value = Common.USER_HEADER) Long userId,
+            @RequestParam(name = "since", required = false) @PositiveOrZero Long since,
+            @RequestParam(name = "limit", defaultValue = Common.DEFAULT_PAGE_SIZE)
+            @Positive @Max(Common.MAX_PAGE_SIZE) Integer limit) {
+        return changeClient.getChanges(userId, since, limit);
+    }
+}
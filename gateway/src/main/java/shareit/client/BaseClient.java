@@ -1,109 +1,212 @@
 package shareit.client;
 
-import io.micrometer.common.lang.Nullable;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.http.*;
-import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.lang.Nullable;
+import org.springframework.web.client.ResponseErrorHandler;
+import org.springframework.web.client.ResponseExtractor;
 import org.springframework.web.client.RestTemplate;
 import shareit.common.Common;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.List;
 import java.util.Map;
-
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/*
+Ответ сервера не разбирается в gateway: статус, заголовки и тело копируются клиенту как есть,
+тело - потоком через буфер из пула, без построения дерева объектов и повторной сериализации.
+Ответы с ошибками (4xx/5xx) проксируются так же, поэтому RestTemplate не должен на них бросать исключения.
+Одинаковые одновременные GET-запросы одного пользователя объединяются в один запрос к серверу, см. RequestCoalescer.
+Ответы маршрутов ResponseCache.Route отдаются из кэша, если он включен; заголовок Common.CHANGED_HEADER
+ответа сервера сбрасывает кэш и клиенту не передается.
+ */
 public class BaseClient {
-    protected final RestTemplate rest;
-
-    public BaseClient(RestTemplate rest) {
-        this.rest = rest;
-    }
-
-    private static ResponseEntity<Object> prepareGatewayResponse(ResponseEntity<Object> response) {
-        if (response.getStatusCode().is2xxSuccessful()) {
-            return response;
+    private static final int BUFFER_SIZE = 8192;
+    private static final int POOLED_BUFFERS = 256;
+    private static final BufferPool BUFFERS = new BufferPool(BUFFER_SIZE, POOLED_BUFFERS);
+
+    //заголовки, относящиеся к соединению с сервером, а не к ответу
+    static final Set<String> HOP_BY_HOP_HEADERS = Set.of(
+            HttpHeaders.CONNECTION.toLowerCase(),
+            "keep-alive",
+            HttpHeaders.TRANSFER_ENCODING.toLowerCase(),
+            HttpHeaders.TE.toLowerCase(),
+            HttpHeaders.TRAILER.toLowerCase(),
+            HttpHeaders.UPGRADE.toLowerCase(),
+            HttpHeaders.PROXY_AUTHENTICATE.toLowerCase(),
+            HttpHeaders.PROXY_AUTHORIZATION.toLowerCase()
+    );
+
+    static final ResponseErrorHandler PASS_THROUGH_ERRORS = new ResponseErrorHandler() {
+        @Override
+        public boolean hasError(ClientHttpResponse response) {
+            return false;
         }
 
-        ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(response.getStatusCode());
-
-        if (response.hasBody()) {
-            return responseBuilder.body(response.getBody());
+        @Override
+        public void handleError(ClientHttpResponse response) {
         }
+    };
 
-        return responseBuilder.build();
-    }
-
-    protected ResponseEntity<Object> get(String path) {
-        return get(path, null, null);
-    }
-
-    protected ResponseEntity<Object> get(String path, long userId) {
-        return get(path, userId, null);
-    }
-
-    protected ResponseEntity<Object> get(String path, Long userId, @Nullable Map<String, Object> parameters) {
-        return makeAndSendRequest(HttpMethod.GET, path, userId, parameters, null);
-    }
-
-    protected <T> ResponseEntity<Object> post(String path, T body) {
-        return post(path, null, null, body);
-    }
-
-    protected <T> ResponseEntity<Object> post(String path, long userId, T body) {
-        return post(path, userId, null, body);
-    }
-
-    protected <T> ResponseEntity<Object> post(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
-        return makeAndSendRequest(HttpMethod.POST, path, userId, parameters, body);
-    }
-
-    protected <T> ResponseEntity<Object> put(String path, long userId, T body) {
-        return put(path, userId, null, body);
-    }
-
-    protected <T> ResponseEntity<Object> put(String path, long userId, @Nullable Map<String, Object> parameters, T body) {
-        return makeAndSendRequest(HttpMethod.PUT, path, userId, parameters, body);
-    }
+    protected final RestTemplate rest;
+    @Nullable
+    private final RequestCoalescer coalescer;
+    @Nullable
+    private final ResponseCache cache;
+    //базовый адрес клиента: пустой путь у разных клиентов означает разные ресурсы сервера
+    private final String coalescingPrefix;
 
-    protected <T> ResponseEntity<Object> patch(String path, T body) {
-        return patch(path, null, null, body);
+    public BaseClient(RestTemplate rest) {
+        this(rest, null);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, long userId) {
-        return patch(path, userId, null, null);
+    public BaseClient(RestTemplate rest, @Nullable RequestCoalescer coalescer) {
+        this(rest, coalescer, null);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, long userId, T body) {
-        return patch(path, userId, null, body);
+    public BaseClient(RestTemplate rest, @Nullable RequestCoalescer coalescer, @Nullable ResponseCache cache) {
+        this.rest = rest;
+        this.rest.setErrorHandler(PASS_THROUGH_ERRORS);
+        this.coalescer = coalescer;
+        this.cache = cache;
+        this.coalescingPrefix = rest.getUriTemplateHandler().expand("") + " ";
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
-        return makeAndSendRequest(HttpMethod.PATCH, path, userId, parameters, body);
+    protected void proxy(HttpMethod method, String path, Long userId, HttpServletResponse response) {
+        proxy(method, path, userId, null, null, response);
     }
 
-    protected ResponseEntity<Object> delete(String path) {
-        return delete(path, null, null);
+    protected void proxy(HttpMethod method, String path, Long userId, @Nullable Object body,
+                         HttpServletResponse response) {
+        proxy(method, path, userId, null, body, response);
     }
 
-    protected ResponseEntity<Object> delete(String path, long userId) {
-        return delete(path, userId, null);
+    protected void proxy(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters,
+                         @Nullable Object body, HttpServletResponse response) {
+        Map<String, Object> uriVariables = parameters != null ? parameters : Map.of();
+        HttpEntity<Object> requestEntity = new HttpEntity<>(body, defaultHeaders(userId));
+        if (method != HttpMethod.GET || coalescer == null) {
+            rest.execute(path, method, rest.httpEntityCallback(requestEntity), copyTo(response, null), uriVariables);
+            return;
+        }
+        coalescer.execute(coalescingKey(path, userId, uriVariables),
+                recorder -> rest.execute(path, method, rest.httpEntityCallback(requestEntity),
+                        copyTo(response, recorder), uriVariables),
+                response);
+    }
+
+    //GET-запрос маршрута route об объекте id: ответ берется из кэша и попадает в него
+    protected void proxyCached(ResponseCache.Route route, @Nullable Object id, String path, Long userId,
+                               @Nullable Map<String, Object> parameters, HttpServletResponse response) {
+        if (cache == null || !cache.isEnabled()) {
+            proxy(HttpMethod.GET, path, userId, parameters, null, response);
+            return;
+        }
+        Map<String, Object> uriVariables = parameters != null ? parameters : Map.of();
+        String key = coalescingKey(path, route.isPerUser() ? userId : null, uriVariables);
+        RecordedResponse cached = cache.get(key);
+        if (cached != null) {
+            cached.writeTo(response);
+            return;
+        }
+        ResponseCache.ReadStart start = cache.readStart();
+        HttpEntity<Object> requestEntity = new HttpEntity<>(null, defaultHeaders(userId));
+        RecordedResponse recorded;
+        //в кэш кладет ответ только запрос, сам сходивший на сервер: объединенные получили тот же ответ
+        AtomicBoolean calledServer = new AtomicBoolean();
+        if (coalescer != null) {
+            recorded = coalescer.execute(key, recorder -> {
+                calledServer.set(true);
+                rest.execute(path, HttpMethod.GET, rest.httpEntityCallback(requestEntity),
+                        copyTo(response, recorder), uriVariables);
+            }, response);
+        } else {
+            ResponseRecorder recorder = cache.recorder();
+            calledServer.set(true);
+            rest.execute(path, HttpMethod.GET, rest.httpEntityCallback(requestEntity), copyTo(response, recorder),
+                    uriVariables);
+            recorded = recorder.recorded();
+        }
+        if (recorded != null && calledServer.get()) {
+            cache.put(key, route, id, recorded, start);
+        }
     }
 
-    protected ResponseEntity<Object> delete(String path, Long userId, @Nullable Map<String, Object> parameters) {
-        return makeAndSendRequest(HttpMethod.DELETE, path, userId, parameters, null);
+    //ответ сервера зависит от пользователя (например, владелец вещи видит ее бронирования), поэтому он входит в ключ
+    private String coalescingKey(String path, @Nullable Long userId, Map<String, Object> uriVariables) {
+        return coalescingPrefix + path + " " + new TreeMap<>(uriVariables) + " " + userId;
     }
 
-    private <T> ResponseEntity<Object> makeAndSendRequest(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body) {
-        HttpEntity<T> requestEntity = new HttpEntity<>(body, defaultHeaders(userId));
-
-        ResponseEntity<Object> shareitServerResponse;
+    private ResponseExtractor<Void> copyTo(HttpServletResponse response, @Nullable ResponseRecorder recorder) {
+        return shareitServerResponse -> {
+            int status = shareitServerResponse.getStatusCode().value();
+            response.setStatus(status);
+            if (recorder != null) {
+                recorder.status(status);
+            }
+            shareitServerResponse.getHeaders().forEach((name, values) -> {
+                if (Common.CHANGED_HEADER.equalsIgnoreCase(name)) {
+                    if (cache != null) {
+                        values.forEach(cache::invalidate);
+                    }
+                } else if (!HOP_BY_HOP_HEADERS.contains(name.toLowerCase())) {
+                    values.forEach(value -> {
+                        response.addHeader(name, value);
+                        if (recorder != null) {
+                            recorder.header(name, value);
+                        }
+                    });
+                }
+            });
+            copyBody(shareitServerResponse.getBody(), response.getOutputStream(), recorder);
+            return null;
+        };
+    }
+
+    /* Копия ответа не зависит от клиента: если он отключился, ответ сервера дочитывается в recorder
+       для объединенных запросов, а ошибка записи клиенту выбрасывается уже после этого */
+    private static void copyBody(InputStream in, OutputStream out,
+                                 @Nullable ResponseRecorder recorder) throws IOException {
+        byte[] buffer = BUFFERS.acquire();
         try {
-            if (parameters != null) {
-                shareitServerResponse = rest.exchange(path, method, requestEntity, Object.class, parameters);
-            } else {
-                shareitServerResponse = rest.exchange(path, method, requestEntity, Object.class);
+            IOException clientError = null;
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                if (clientError == null) {
+                    try {
+                        out.write(buffer, 0, read);
+                    } catch (IOException e) {
+                        if (recorder == null) {
+                            throw e;
+                        }
+                        recorder.clientFailed();
+                        clientError = e;
+                    }
+                }
+                if (recorder != null) {
+                    recorder.write(buffer, read);
+                    //копия все равно не получится - дочитывать ответ незачем
+                    if (clientError != null && recorder.isOverflow()) {
+                        throw clientError;
+                    }
+                }
+            }
+            if (recorder != null) {
+                recorder.complete();
+            }
+            if (clientError != null) {
+                throw clientError;
             }
-        } catch (HttpStatusCodeException e) {
-            return ResponseEntity.status(e.getStatusCode()).body(e.getResponseBodyAsByteArray());
+            out.flush();
+        } finally {
+            BUFFERS.release(buffer);
         }
-        return prepareGatewayResponse(shareitServerResponse);
     }
 
     private HttpHeaders defaultHeaders(Long userId) {
@@ -0,0 +1,28 @@
+package shareit.client;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/*
+Пул буферов для копирования ответов сервера клиенту.
+Буферы переиспользуются между запросами, поэтому проксирование не выделяет память под каждый ответ.
+Если пул пуст, выдается новый буфер; если переполнен, возвращенный буфер просто отдается сборщику мусора.
+ */
+final class BufferPool {
+    private final int bufferSize;
+    private final BlockingQueue<byte[]> buffers;
+
+    BufferPool(int bufferSize, int capacity) {
+        this.bufferSize = bufferSize;
+        this.buffers = new ArrayBlockingQueue<>(capacity);
+    }
+
+    byte[] acquire() {
+        byte[] buffer = buffers.poll();
+        return buffer != null ? buffer : new byte[bufferSize];
+    }
+
+    void release(byte[] buffer) {
+        buffers.offer(buffer);
+    }
+}
@@ -0,0 +1,110 @@
+package shareit.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import jakarta.servlet.http.HttpServletResponse;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+import shareit.common.Common;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.List;
+
+/*
+Прокси потоков событий сервера (text/event-stream) в сервлетном режиме.
+Поток держит соединение с сервером, пока клиент не отключится, поэтому у потоков свой пул (EventStreamProperties,
+метрики httpcomponents.httpclient.pool.* с тегом httpclient=shareit-server-events): в общем пуле HttpClientConfig
+открытые потоки заняли бы соединения обычных запросов.
+Каждый полученный фрагмент сразу отправляется клиенту. Отключившийся клиент обнаруживается на записи
+очередного события или heartbeat сервера, после чего закрывается и соединение с сервером.
+ */
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@Component
+public class EventStreamClient implements DisposableBean {
+    static final String POOL_NAME = "shareit-server-events";
+    private static final int BUFFER_SIZE = 1024;
+
+    private final CloseableHttpClient httpClient;
+    private final RestTemplate rest;
+
+    public EventStreamClient(@Value("${shareit-server.url}") String url,
+                             RestTemplateBuilder restBuilder,
+                             EventStreamProperties properties,
+                             MeterRegistry meterRegistry) {
+        this.httpClient = httpClient(properties, meterRegistry);
+        this.rest = restBuilder.uriTemplateHandler(new DefaultUriBuilderFactory(url))
+                .requestFactory(() -> new HttpComponentsClientHttpRequestFactory(httpClient))
+                .errorHandler(BaseClient.PASS_THROUGH_ERRORS)
+                .build();
+    }
+
+    public void proxy(String path, Long userId, HttpServletResponse response) {
+        rest.execute(path, HttpMethod.GET, request -> {
+            //ответ с ошибкой (неизвестный пользователь) сервер отдает в JSON
+            request.getHeaders().setAccept(List.of(MediaType.TEXT_EVENT_STREAM, MediaType.APPLICATION_JSON));
+            request.getHeaders().set(Common.USER_HEADER, String.valueOf(userId));
+        }, shareitServerResponse -> {
+            response.setStatus(shareitServerResponse.getStatusCode().value());
+            shareitServerResponse.getHeaders().forEach((name, values) -> {
+                if (!BaseClient.HOP_BY_HOP_HEADERS.contains(name.toLowerCase())) {
+                    values.forEach(value -> response.addHeader(name, value));
+                }
+            });
+            response.flushBuffer();
+            copyFlushing(shareitServerResponse.getBody(), response.getOutputStream());
+            return null;
+        });
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        httpClient.close();
+    }
+
+    private static void copyFlushing(InputStream in, OutputStream out) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+            out.flush();
+        }
+    }
+
+    private static CloseableHttpClient httpClient(EventStreamProperties properties, MeterRegistry meterRegistry) {
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(properties.maxConnections());
+        connectionManager.setDefaultMaxPerRoute(properties.maxConnections());
+        connectionManager.setDefaultConnectionConfig(ConnectionConfig.custom()
+                .setConnectTimeout(timeout(properties.connectTimeout()))
+                .build());
+        new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, POOL_NAME).bindTo(meterRegistry);
+        return HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(timeout(properties.leaseTimeout()))
+                        .setResponseTimeout(timeout(properties.readTimeout()))
+                        .build())
+                .build();
+    }
+
+    private static Timeout timeout(Duration duration) {
+        return Timeout.ofMilliseconds(duration.toMillis());
+    }
+}
@@ -0,0 +1,19 @@
+package shareit.client;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/*
+Отдельный пул соединений для потоков событий сервера (shareit.gateway.event-streams.*), см. EventStreamClient:
+ max-connections - открытых потоков к серверу одновременно, lease-timeout - сколько подключение ждет свободного,
+ connect-timeout - установки соединения;
+ read-timeout - простой потока, после которого он закрывается; должен быть больше heartbeat сервера.
+ */
+@ConfigurationProperties("shareit.gateway.event-streams")
+public record EventStreamProperties(@DefaultValue("1000") int maxConnections,
+                                    @DefaultValue("1s") Duration leaseTimeout,
+                                    @DefaultValue("2s") Duration connectTimeout,
+                                    @DefaultValue("60s") Duration readTimeout) {
+}
@@ -0,0 +1,61 @@
+package shareit.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+
+import java.time.Duration;
+
+/*
+Один HTTP-клиент с общим пулом соединений для всех клиентов gateway, настройки - HttpClientProperties.
+Кроме метрик MeteredConnectionManager пул публикует httpcomponents.httpclient.pool.* с тегом httpclient=shareit-server.
+ */
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@Configuration
+public class HttpClientConfig {
+    static final String POOL_NAME = "shareit-server";
+
+    @Bean
+    public HttpComponentsClientHttpRequestFactory shareitRequestFactory(HttpClientProperties properties,
+                                                                        MeterRegistry meterRegistry) {
+        return new HttpComponentsClientHttpRequestFactory(httpClient(properties, meterRegistry));
+    }
+
+    private static CloseableHttpClient httpClient(HttpClientProperties properties, MeterRegistry meterRegistry) {
+        MeteredConnectionManager connectionManager = new MeteredConnectionManager(meterRegistry);
+        connectionManager.setMaxTotal(properties.maxTotal());
+        connectionManager.setDefaultMaxPerRoute(properties.maxPerRoute());
+        connectionManager.setDefaultConnectionConfig(ConnectionConfig.custom()
+                .setConnectTimeout(timeout(properties.connectTimeout()))
+                .setValidateAfterInactivity(timeValue(properties.validateAfterInactivity()))
+                .build());
+        new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, POOL_NAME).bindTo(meterRegistry);
+        return HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(timeout(properties.leaseTimeout()))
+                        .setResponseTimeout(timeout(properties.responseTimeout()))
+                        .setConnectionKeepAlive(timeValue(properties.keepAlive()))
+                        .build())
+                .evictExpiredConnections()
+                .evictIdleConnections(timeValue(properties.idleTimeout()))
+                .build();
+    }
+
+    private static Timeout timeout(Duration duration) {
+        return Timeout.ofMilliseconds(duration.toMillis());
+    }
+
+    private static TimeValue timeValue(Duration duration) {
+        return TimeValue.ofMilliseconds(duration.toMillis());
+    }
+}
@@ -0,0 +1,26 @@
+package shareit.client;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/*
+Пул соединений gateway с сервером (shareit.gateway.http-client.*), общий для всех клиентов:
+ max-total - соединений всего, max-per-route - к одному адресу сервера;
+ lease-timeout - сколько запрос ждет свободного соединения, connect-timeout - установки соединения,
+ response-timeout - ответа сервера (между пакетами);
+ idle-timeout - простаивающие дольше соединения закрываются фоновым потоком,
+ keep-alive - сколько держать соединение, если сервер не прислал Keep-Alive,
+ validate-after-inactivity - соединение, простоявшее дольше, проверяется перед выдачей из пула.
+ */
+@ConfigurationProperties("shareit.gateway.http-client")
+public record HttpClientProperties(@DefaultValue("200") int maxTotal,
+                                   @DefaultValue("100") int maxPerRoute,
+                                   @DefaultValue("5s") Duration leaseTimeout,
+                                   @DefaultValue("2s") Duration connectTimeout,
+                                   @DefaultValue("30s") Duration responseTimeout,
+                                   @DefaultValue("30s") Duration idleTimeout,
+                                   @DefaultValue("60s") Duration keepAlive,
+                                   @DefaultValue("2s") Duration validateAfterInactivity) {
+}
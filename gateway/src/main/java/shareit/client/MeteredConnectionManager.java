@@ -0,0 +1,97 @@
+package shareit.client;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.io.ConnectionEndpoint;
+import org.apache.hc.client5.http.io.LeaseRequest;
+import org.apache.hc.core5.util.Timeout;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+Пул соединений, который измеряет ожидание соединения по адресам сервера (route = host:port):
+ shareit.gateway.http.lease - время от запроса соединения до его выдачи, outcome = acquired|timeout|failed;
+ shareit.gateway.http.pending - запросы, ждущие соединения сейчас.
+Рост lease и pending означает, что запросам не хватает max-per-route или max-total.
+ */
+class MeteredConnectionManager extends PoolingHttpClientConnectionManager {
+    static final String LEASE_METRIC = "shareit.gateway.http.lease";
+    static final String PENDING_METRIC = "shareit.gateway.http.pending";
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, AtomicInteger> pendingByRoute = new ConcurrentHashMap<>();
+
+    MeteredConnectionManager(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public LeaseRequest lease(String id, HttpRoute route, Timeout requestTimeout, Object state) {
+        String routeTag = route.getTargetHost().toHostString();
+        AtomicInteger pending = pending(routeTag);
+        pending.incrementAndGet();
+        long start = System.nanoTime();
+        LeaseRequest leaseRequest;
+        try {
+            leaseRequest = super.lease(id, route, requestTimeout, state);
+        } catch (RuntimeException e) {
+            pending.decrementAndGet();
+            throw e;
+        }
+        //запрос соединения перестает ждать один раз: при выдаче, ошибке или отмене
+        AtomicBoolean waiting = new AtomicBoolean(true);
+        return new LeaseRequest() {
+            @Override
+            public ConnectionEndpoint get(Timeout timeout)
+                    throws InterruptedException, ExecutionException, TimeoutException {
+                String outcome = "failed";
+                try {
+                    ConnectionEndpoint endpoint = leaseRequest.get(timeout);
+                    outcome = "acquired";
+                    return endpoint;
+                } catch (TimeoutException e) {
+                    outcome = "timeout";
+                    throw e;
+                } finally {
+                    if (waiting.compareAndSet(true, false)) {
+                        pending.decrementAndGet();
+                    }
+                    Timer.builder(LEASE_METRIC)
+                            .description("Ожидание соединения с сервером из пула")
+                            .tag("route", routeTag)
+                            .tag("outcome", outcome)
+                            .register(meterRegistry)
+                            .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                }
+            }
+
+            @Override
+            public boolean cancel() {
+                if (waiting.compareAndSet(true, false)) {
+                    pending.decrementAndGet();
+                }
+                return leaseRequest.cancel();
+            }
+        };
+    }
+
+    private AtomicInteger pending(String routeTag) {
+        return pendingByRoute.computeIfAbsent(routeTag, tag -> {
+            AtomicInteger pending = new AtomicInteger();
+            Gauge.builder(PENDING_METRIC, pending, AtomicInteger::get)
+                    .description("Запросы к серверу, ждущие соединения из пула")
+                    .tag("route", tag)
+                    .register(meterRegistry);
+            return pending;
+        });
+    }
+}
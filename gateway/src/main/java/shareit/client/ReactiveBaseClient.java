@@ -0,0 +1,73 @@
+package shareit.client;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import shareit.common.Common;
+
+import java.util.List;
+import java.util.Map;
+
+/*
+BaseClient для реактивного режима gateway (spring.profiles.active=reactive): запрос к серверу не занимает поток,
+тело ответа передается клиенту потоком буферов Netty по мере получения, без сборки в памяти.
+Статус и заголовки сервера передаются как есть, ответы с ошибками (4xx/5xx) - тоже.
+Объединения запросов и кэша ответов в этом режиме нет: они построены на блокирующем ожидании ответа.
+ */
+public class ReactiveBaseClient {
+    protected final WebClient webClient;
+
+    public ReactiveBaseClient(WebClient webClient) {
+        this.webClient = webClient;
+    }
+
+    protected Mono<ResponseEntity<Flux<DataBuffer>>> proxy(HttpMethod method, String path, Long userId) {
+        return proxy(method, path, userId, null, null);
+    }
+
+    protected Mono<ResponseEntity<Flux<DataBuffer>>> proxy(HttpMethod method, String path, Long userId,
+                                                           @Nullable Object body) {
+        return proxy(method, path, userId, null, body);
+    }
+
+    protected Mono<ResponseEntity<Flux<DataBuffer>>> proxy(HttpMethod method, String path, Long userId,
+                                                           @Nullable Map<String, Object> parameters,
+                                                           @Nullable Object body) {
+        WebClient.RequestBodySpec request = webClient.method(method)
+                .uri(path, parameters != null ? parameters : Map.of())
+                .headers(headers -> defaultHeaders(headers, userId));
+        WebClient.RequestHeadersSpec<?> withBody = body != null ? request.bodyValue(body) : request;
+        return withBody.retrieve()
+                //ответ с ошибкой не исключение, а ответ клиенту
+                .onStatus(status -> true, response -> Mono.empty())
+                .toEntityFlux(DataBuffer.class)
+                .map(ReactiveBaseClient::toClientResponse);
+    }
+
+    private static ResponseEntity<Flux<DataBuffer>> toClientResponse(ResponseEntity<Flux<DataBuffer>> serverResponse) {
+        HttpHeaders headers = new HttpHeaders();
+        serverResponse.getHeaders().forEach((name, values) -> {
+            if (!BaseClient.HOP_BY_HOP_HEADERS.contains(name.toLowerCase())
+                    && !Common.CHANGED_HEADER.equalsIgnoreCase(name)) {
+                headers.addAll(name, values);
+            }
+        });
+        return ResponseEntity.status(serverResponse.getStatusCode())
+                .headers(headers)
+                .body(serverResponse.getBody());
+    }
+
+    private static void defaultHeaders(HttpHeaders headers, Long userId) {
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.setAccept(List.of(MediaType.APPLICATION_JSON));
+        if (userId != null) {
+            headers.set(Common.USER_HEADER, String.valueOf(userId));
+        }
+    }
+}
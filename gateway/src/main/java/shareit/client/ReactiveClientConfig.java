@@ -0,0 +1,44 @@
+package shareit.client;
+
+import io.netty.channel.ChannelOption;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+/*
+Неблокирующий HTTP-клиент реактивного режима с общим пулом соединений, настройки - те же HttpClientProperties.
+Пул Netty ограничивает соединения к каждому адресу сервера (max-per-route), общего предела max-total у него нет.
+Клиенты gateway получают копию этого WebClient со своим базовым адресом (mutate).
+Метрики пула - reactor.netty.connection.provider.* с тегом name=shareit-server, в том числе
+pending.connections (ждущие соединения) и pending.connections.time (время ожидания соединения).
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveClientConfig {
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider shareitConnectionProvider(HttpClientProperties properties) {
+        return ConnectionProvider.builder(HttpClientConfig.POOL_NAME)
+                .maxConnections(properties.maxPerRoute())
+                .pendingAcquireTimeout(properties.leaseTimeout())
+                .maxIdleTime(properties.idleTimeout())
+                .evictInBackground(properties.idleTimeout())
+                .metrics(true)
+                .build();
+    }
+
+    @Bean
+    public WebClient shareitWebClient(WebClient.Builder webClientBuilder,
+                                      ConnectionProvider shareitConnectionProvider,
+                                      HttpClientProperties properties) {
+        HttpClient httpClient = HttpClient.create(shareitConnectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) properties.connectTimeout().toMillis())
+                .responseTimeout(properties.responseTimeout());
+        return webClientBuilder.clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+    }
+}
@@ -0,0 +1,79 @@
+package shareit.client;
+
+import io.netty.channel.ChannelOption;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+import shareit.common.Common;
+
+import java.util.List;
+
+/*
+EventStreamClient для реактивного режима: у потоков событий свой пул Netty (метрики reactor.netty.connection.provider.*
+с тегом name=shareit-server-events), фрагменты ответа сервера передаются клиенту по мере получения.
+Клиент отключился - подписка на ответ отменяется, соединение с сервером закрывается.
+ */
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@Component
+public class ReactiveEventStreamClient {
+    private final ConnectionProvider connectionProvider;
+    private final WebClient webClient;
+
+    public ReactiveEventStreamClient(@Value("${shareit-server.url}") String url,
+                                     WebClient.Builder webClientBuilder,
+                                     EventStreamProperties properties) {
+        this.connectionProvider = ConnectionProvider.builder(EventStreamClient.POOL_NAME)
+                .maxConnections(properties.maxConnections())
+                .pendingAcquireTimeout(properties.leaseTimeout())
+                .metrics(true)
+                .build();
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) properties.connectTimeout().toMillis())
+                //между пакетами ответа, а не на весь ответ
+                .responseTimeout(properties.readTimeout());
+        this.webClient = webClientBuilder.clientConnector(new ReactorClientHttpConnector(httpClient))
+                .baseUrl(url)
+                .build();
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> proxy(String path, Long userId) {
+        return webClient.get()
+                .uri(path)
+                .headers(headers -> {
+                    headers.setAccept(List.of(MediaType.TEXT_EVENT_STREAM, MediaType.APPLICATION_JSON));
+                    headers.set(Common.USER_HEADER, String.valueOf(userId));
+                })
+                .retrieve()
+                .onStatus(status -> true, response -> Mono.empty())
+                .toEntityFlux(DataBuffer.class)
+                .map(ReactiveEventStreamClient::toClientResponse);
+    }
+
+    @PreDestroy
+    public void dispose() {
+        connectionProvider.dispose();
+    }
+
+    private static ResponseEntity<Flux<DataBuffer>> toClientResponse(ResponseEntity<Flux<DataBuffer>> serverResponse) {
+        HttpHeaders headers = new HttpHeaders();
+        serverResponse.getHeaders().forEach((name, values) -> {
+            if (!BaseClient.HOP_BY_HOP_HEADERS.contains(name.toLowerCase())) {
+                headers.addAll(name, values);
+            }
+        });
+        return ResponseEntity.status(serverResponse.getStatusCode())
+                .headers(headers)
+                .body(serverResponse.getBody());
+    }
+}
@@ -0,0 +1,41 @@
+package shareit.client;
+
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.lang.Nullable;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+//записанный ответ сервера: его получают объединенные запросы (RequestCoalescer) и попадания в ResponseCache
+record RecordedResponse(int status, List<String[]> headers, byte[] body) {
+
+    void writeTo(HttpServletResponse response) {
+        response.setStatus(status);
+        headers.forEach(header -> response.addHeader(header[0], header[1]));
+        try {
+            response.getOutputStream().write(body);
+            response.getOutputStream().flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Nullable
+    String header(String name) {
+        return headers.stream()
+                .filter(header -> header[0].equalsIgnoreCase(name))
+                .map(header -> header[1])
+                .findFirst()
+                .orElse(null);
+    }
+
+    //приблизительный размер в памяти для ограничения кэша
+    int weight() {
+        int weight = body.length;
+        for (String[] header : headers) {
+            weight += header[0].length() + header[1].length();
+        }
+        return weight;
+    }
+}
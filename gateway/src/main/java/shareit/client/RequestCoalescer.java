@@ -0,0 +1,101 @@
+package shareit.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/*
+Объединение одинаковых одновременных GET-запросов (single-flight): пока запрос к серверу выполняется,
+такие же запросы (тот же путь, параметры и пользователь) не уходят на сервер, а ждут его ответ.
+Первый запрос по-прежнему копирует ответ клиенту потоком и попутно записывает его в память,
+ожидающие получают записанную копию. Ответ больше shareit.gateway.coalescing.max-body-size не записывается,
+ожидающие тогда идут на сервер сами. Ошибка соединения с сервером передается всем ожидающим,
+а отключение клиента первого запроса - нет: ответ сервера дочитывается в копию для ожидающих.
+Запросы к серверу и объединенные запросы считаются в shareit.gateway.coalescing с тегом result.
+ */
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@Component
+public class RequestCoalescer {
+    static final String METRIC = "shareit.gateway.coalescing";
+
+    private final Map<String, CompletableFuture<RecordedResponse>> inFlight = new ConcurrentHashMap<>();
+    private final int maxBodySize;
+    private final Counter upstream;
+    private final Counter coalesced;
+
+    public RequestCoalescer(MeterRegistry meterRegistry,
+                            @Value("${shareit.gateway.coalescing.max-body-size:1MB}") DataSize maxBodySize) {
+        this.maxBodySize = (int) maxBodySize.toBytes();
+        this.upstream = counter(meterRegistry, "upstream", "GET-запросы, ушедшие на сервер");
+        this.coalesced = counter(meterRegistry, "coalesced", "GET-запросы, получившие ответ другого такого же запроса");
+    }
+
+    /* call выполняет запрос к серверу и копирует ответ в response; recorder, если не null, получает копию ответа.
+       Возвращает копию ответа, полученного запросом, или null, если ответ был слишком велик для копии */
+    @Nullable
+    RecordedResponse execute(String key, Consumer<ResponseRecorder> call, HttpServletResponse response) {
+        CompletableFuture<RecordedResponse> flight = new CompletableFuture<>();
+        CompletableFuture<RecordedResponse> leader = inFlight.putIfAbsent(key, flight);
+        if (leader != null) {
+            RecordedResponse recorded = await(leader);
+            if (recorded != null) {
+                coalesced.increment();
+                recorded.writeTo(response);
+                return recorded;
+            }
+            upstream.increment();
+            call.accept(null);
+            return null;
+        }
+        upstream.increment();
+        ResponseRecorder recorder = new ResponseRecorder(maxBodySize);
+        try {
+            call.accept(recorder);
+            RecordedResponse recorded = recorder.recorded();
+            flight.complete(recorded);
+            return recorded;
+        } catch (RuntimeException e) {
+            if (recorder.isComplete()) {
+                //отключился клиент первого запроса, а ответ сервера записан целиком
+                flight.complete(recorder.recorded());
+            } else if (recorder.isClientFailed()) {
+                //ответ не записан из-за клиента первого запроса, а не сервера: ожидающие идут на сервер сами
+                flight.complete(null);
+            } else {
+                flight.completeExceptionally(e);
+            }
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    private static RecordedResponse await(CompletableFuture<RecordedResponse> leader) {
+        try {
+            return leader.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String result, String description) {
+        return Counter.builder(METRIC)
+                .description(description)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
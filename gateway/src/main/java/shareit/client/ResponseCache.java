@@ -0,0 +1,264 @@
+package shareit.client;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+Кэш успешных ответов сервера на безопасные GET-запросы маршрутов Route.
+Ответ хранится, пока не изменится сущность, о которой он: сервер перечисляет изменившиеся сущности
+в заголовке Common.CHANGED_HEADER ответа на запрос записи, и gateway сбрасывает ответы о них до того,
+как отдать этот ответ клиенту. Время жизни ответа - ttl маршрута, но не дольше Cache-Control: max-age сервера.
+Ответ, прочитанный сервером до изменения и пришедший после сброса, в кэш не попадает:
+при записи ответа проверяется, не сбрасывались ли его сущности с начала запроса.
+Сбросы видны только тому gateway, через который прошла запись, - при нескольких gateway ttl надо выбирать меньше.
+Метрики кэша - cache.* с тегом cache=gateway-responses, сбросы - shareit.gateway.cache.invalidations.
+ */
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@Component
+public class ResponseCache {
+    static final String CACHE_NAME = "gateway-responses";
+    static final String INVALIDATIONS_METRIC = "shareit.gateway.cache.invalidations";
+    //сколько помнить сброс сущности: дольше любого запроса к серверу
+    private static final Duration INVALIDATION_MEMORY = Duration.ofMinutes(10);
+    private static final String ENTITY_ITEMS = "items";
+
+    /* Маршруты с кэшем и сущности, от которых зависит ответ.
+       Ответ поиска зависит от всех вещей и сбрасывается при изменении любой из них */
+    public enum Route {
+        ITEM(ENTITY_ITEMS, true),
+        ITEM_SEARCH(ENTITY_ITEMS, false),
+        REQUEST("requests", false),
+        USER("users", false);
+
+        private final String entity;
+        //ответ зависит от пользователя: владелец вещи видит ее бронирования
+        private final boolean perUser;
+
+        Route(String entity, boolean perUser) {
+            this.entity = entity;
+            this.perUser = perUser;
+        }
+
+        public boolean isPerUser() {
+            return perUser;
+        }
+
+        Set<String> tags(@Nullable Object id) {
+            return id == null ? Set.of(entity) : Set.of(entity + ":" + id);
+        }
+    }
+
+    private final ResponseCacheProperties properties;
+    private final Cache<String, Entry> entries;
+    private final Map<String, Set<Entry>> entriesByTag = new ConcurrentHashMap<>();
+    private final AtomicLong invalidationSequence = new AtomicLong();
+    private final Cache<String, Invalidation> invalidations;
+    private final Counter invalidated;
+
+    public ResponseCache(ResponseCacheProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.entries = Caffeine.newBuilder()
+                .maximumWeight(properties.maxSize().toBytes())
+                .weigher((String key, Entry entry) -> key.length() + entry.response().weight())
+                .expireAfter(new Expiry<String, Entry>() {
+                    @Override
+                    public long expireAfterCreate(String key, Entry entry, long currentTime) {
+                        return entry.ttlNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Entry entry, long currentTime, long currentDuration) {
+                        return entry.ttlNanos();
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Entry entry, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .executor(Runnable::run)
+                .removalListener((String key, Entry entry, RemovalCause cause) -> unindex(entry))
+                .recordStats()
+                .build();
+        this.invalidations = Caffeine.newBuilder()
+                .expireAfterWrite(INVALIDATION_MEMORY.plus(properties.invalidationDelay()))
+                .build();
+        this.invalidated = Counter.builder(INVALIDATIONS_METRIC)
+                .description("Сброшенные ответы кэша gateway после изменения сущностей на сервере")
+                .register(meterRegistry);
+        CaffeineCacheMetrics.monitor(meterRegistry, entries, CACHE_NAME);
+    }
+
+    public boolean isEnabled() {
+        return properties.enabled();
+    }
+
+    @Nullable
+    RecordedResponse get(String key) {
+        Entry entry = entries.getIfPresent(key);
+        return entry != null ? entry.response() : null;
+    }
+
+    //момент начала запроса к серверу: сбросы после него не дают записать ответ в кэш
+    ReadStart readStart() {
+        return new ReadStart(invalidationSequence.get(), System.nanoTime());
+    }
+
+    ResponseRecorder recorder() {
+        return new ResponseRecorder((int) properties.maxEntrySize().toBytes());
+    }
+
+    void put(String key, Route route, @Nullable Object id, RecordedResponse response, ReadStart start) {
+        if (response.status() != HttpStatus.OK.value() || response.weight() > properties.maxEntrySize().toBytes()) {
+            return;
+        }
+        Duration ttl = ttl(route, response);
+        Set<String> tags = route.tags(id);
+        if (!ttl.isPositive() || invalidatedSince(tags, start)) {
+            return;
+        }
+        Entry entry = new Entry(key, tags, response, ttl.toNanos());
+        entries.put(key, entry);
+        /* добавление - внутри compute по тегу, как и удаление в unindex: иначе удаление опустевшего набора
+           могло бы выбросить его из индекса уже после того, как в него добавлена эта запись */
+        tags.forEach(tag -> entriesByTag.compute(tag, (t, tagged) -> {
+            Set<Entry> newTagged = (tagged == null) ? ConcurrentHashMap.newKeySet() : tagged;
+            newTagged.add(entry);
+            return newTagged;
+        }));
+        //сброс между проверкой выше и индексированием записи не нашел бы ее по тегу
+        if (invalidatedSince(tags, start)) {
+            entries.asMap().remove(key, entry);
+        }
+    }
+
+    //значение заголовка Common.CHANGED_HEADER: <сущность>:<Id> через запятую
+    void invalidate(String changed) {
+        if (!isEnabled()) {
+            return;
+        }
+        for (String tag : changed.split(",")) {
+            tag = tag.trim();
+            if (tag.isEmpty()) {
+                continue;
+            }
+            invalidateTag(tag);
+            int separator = tag.indexOf(':');
+            if (separator > 0) {
+                invalidateTag(tag.substring(0, separator));
+            }
+        }
+    }
+
+    private void invalidateTag(String tag) {
+        invalidations.put(tag, new Invalidation(invalidationSequence.incrementAndGet(), System.nanoTime()));
+        Set<Entry> tagged = entriesByTag.remove(tag);
+        if (tagged == null) {
+            return;
+        }
+        for (Entry entry : tagged) {
+            if (entries.asMap().remove(entry.key(), entry)) {
+                invalidated.increment();
+            }
+        }
+    }
+
+    private boolean invalidatedSince(Set<String> tags, ReadStart start) {
+        long delayNanos = properties.invalidationDelay().toNanos();
+        for (String tag : tags) {
+            Invalidation invalidation = invalidations.getIfPresent(tag);
+            if (invalidation != null && (invalidation.sequence() > start.sequence()
+                    || invalidation.nanos() - (start.nanos() - delayNanos) > 0)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void unindex(@Nullable Entry entry) {
+        if (entry == null) {
+            return;
+        }
+        entry.tags().forEach(tag -> entriesByTag.computeIfPresent(tag, (t, tagged) -> {
+            tagged.remove(entry);
+            return tagged.isEmpty() ? null : tagged;
+        }));
+    }
+
+    private Duration ttl(Route route, RecordedResponse response) {
+        Duration ttl = properties.ttl(route);
+        String cacheControl = response.header(HttpHeaders.CACHE_CONTROL);
+        if (cacheControl == null) {
+            return ttl;
+        }
+        for (String directive : cacheControl.toLowerCase(Locale.ROOT).split(",")) {
+            directive = directive.trim();
+            if (directive.equals("no-store") || directive.equals("no-cache")) {
+                return Duration.ZERO;
+            }
+            if (directive.startsWith("max-age=")) {
+                try {
+                    Duration maxAge = Duration.ofSeconds(Long.parseLong(directive.substring("max-age=".length())));
+                    ttl = maxAge.compareTo(ttl) < 0 ? maxAge : ttl;
+                } catch (NumberFormatException e) {
+                    return Duration.ZERO;
+                }
+            }
+        }
+        return ttl;
+    }
+
+    record ReadStart(long sequence, long nanos) {
+    }
+
+    private record Invalidation(long sequence, long nanos) {
+    }
+
+    //запись сравнивается по ссылке: сброс старой записи не должен задеть новую с тем же ключом
+    private static final class Entry {
+        private final String key;
+        private final Set<String> tags;
+        private final RecordedResponse response;
+        private final long ttlNanos;
+
+        Entry(String key, Set<String> tags, RecordedResponse response, long ttlNanos) {
+            this.key = key;
+            this.tags = tags;
+            this.response = response;
+            this.ttlNanos = ttlNanos;
+        }
+
+        String key() {
+            return key;
+        }
+
+        Set<String> tags() {
+            return tags;
+        }
+
+        RecordedResponse response() {
+            return response;
+        }
+
+        long ttlNanos() {
+            return ttlNanos;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package shareit.client;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.Map;
+
+/*
+Кэш ответов gateway (shareit.gateway.cache.*):
+ enabled - включен ли кэш, по умолчанию выключен;
+ max-size - сколько памяти занимают все ответы, max-entry-size - наибольший хранимый ответ;
+ ttl.<маршрут> - время жизни ответа маршрута (item, item-search, request, user), по умолчанию default-ttl;
+ invalidation-delay - сколько после изменения сущности ответы о ней не кэшируются: при чтении с реплик
+ сервер какое-то время может отдавать старые данные, значение - допустимое отставание реплик сервера.
+ */
+@ConfigurationProperties("shareit.gateway.cache")
+public record ResponseCacheProperties(@DefaultValue("false") boolean enabled,
+                                      @DefaultValue("64MB") DataSize maxSize,
+                                      @DefaultValue("256KB") DataSize maxEntrySize,
+                                      @DefaultValue("1m") Duration defaultTtl,
+                                      Map<ResponseCache.Route, Duration> ttl,
+                                      @DefaultValue("0s") Duration invalidationDelay) {
+
+    public ResponseCacheProperties {
+        ttl = ttl == null ? Map.of() : Map.copyOf(ttl);
+    }
+
+    public Duration ttl(ResponseCache.Route route) {
+        return ttl.getOrDefault(route, defaultTtl);
+    }
+}
@@ -0,0 +1,69 @@
+package shareit.client;
+
+import org.springframework.lang.Nullable;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+//копия ответа сервера, которую запрос собирает, пока копирует ответ своему клиенту; ответ больше maxBodySize не копируется
+final class ResponseRecorder {
+    private final int maxBodySize;
+    private final List<String[]> headers = new ArrayList<>();
+    private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+    private int status;
+    private boolean overflow;
+    private boolean complete;
+    private boolean clientFailed;
+
+    ResponseRecorder(int maxBodySize) {
+        this.maxBodySize = maxBodySize;
+    }
+
+    void status(int status) {
+        this.status = status;
+    }
+
+    void header(String name, String value) {
+        headers.add(new String[]{name, value});
+    }
+
+    void write(byte[] buffer, int length) {
+        if (overflow) {
+            return;
+        }
+        if (body.size() + length > maxBodySize) {
+            overflow = true;
+            body.reset();
+            return;
+        }
+        body.write(buffer, 0, length);
+    }
+
+    boolean isOverflow() {
+        return overflow;
+    }
+
+    //ответ сервера прочитан до конца
+    void complete() {
+        complete = true;
+    }
+
+    boolean isComplete() {
+        return complete;
+    }
+
+    //клиент запроса, собирающего копию, отключился, но ответ сервера продолжает записываться для ожидающих
+    void clientFailed() {
+        clientFailed = true;
+    }
+
+    boolean isClientFailed() {
+        return clientFailed;
+    }
+
+    @Nullable
+    RecordedResponse recorded() {
+        return overflow ? null : new RecordedResponse(status, List.copyOf(headers), body.toByteArray());
+    }
+}
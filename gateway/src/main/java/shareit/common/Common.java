@@ -8,9 +8,16 @@ public class Common {
     public static final String USER_API_PREFIX = "/users";
 
     public static final String USER_HEADER = "X-Sharer-User-Id";
+    //сущности, изменившиеся в запросе записи, в виде <сущность>:<Id>; сообщает сервер, см. ResponseCache
+    public static final String CHANGED_HEADER = "X-Shareit-Changed";
     public static final String ITEM_API_PREFIX = "/items";
     public static final String REQUEST_API_PREFIX = "/requests";
     public static final String BOOKING_API_PREFIX = "/bookings";
+    public static final String CHANGE_API_PREFIX = "/changes";
+    //размер страницы журнала изменений по умолчанию; списки без limit сервер отдает целиком
+    public static final String DEFAULT_PAGE_SIZE = "100";
+    public static final int MAX_PAGE_SIZE = 1000;
+    public static final int MAX_BATCH_SIZE = 1000;
 
     public static LocalDateTime getLocalDateTime() {
         return LocalDateTime.ofInstant(Instant.now(), ZoneId.of("Europe/Moscow"));
@@ -7,6 +7,7 @@ import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.bind.support.WebExchangeBindException;
 
 
 @RestControllerAdvice
@@ -29,6 +30,13 @@ public class ErrorHandler {
         return new ErrorResponse("Некорректный запрос", exception.getBindingResult().getFieldError().getDefaultMessage());
     }
 
+    //в реактивном режиме WebFlux сообщает о некорректном теле запроса этим исключением
+    @ExceptionHandler
+    @ResponseStatus(value = HttpStatus.BAD_REQUEST)
+    public ErrorResponse handleConstraintException(WebExchangeBindException exception) {
+        return new ErrorResponse("Некорректный запрос", exception.getBindingResult().getFieldError().getDefaultMessage());
+    }
+
     @ExceptionHandler
     @ResponseStatus(value = HttpStatus.FORBIDDEN)
     public ErrorResponse handleRightsException(RightsException exception) {
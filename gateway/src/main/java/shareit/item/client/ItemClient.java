@@ -1,53 +1,77 @@
 package shareit.item.client;
 
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.boot.web.client.RestTemplateBuilder;
-import org.springframework.http.ResponseEntity;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import shareit.client.BaseClient;
+import shareit.client.RequestCoalescer;
+import shareit.client.ResponseCache;
 import shareit.common.Common;
 import shareit.item.dto.CommentDto;
 import shareit.item.dto.ItemDto;
 
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @Service
 public class ItemClient extends BaseClient {
 
     public ItemClient(@Value("${shareit-server.url}") String url,
-                      RestTemplateBuilder restBuilder) {
+                      RestTemplateBuilder restBuilder,
+                      HttpComponentsClientHttpRequestFactory requestFactory,
+                      RequestCoalescer coalescer,
+                      ResponseCache cache) {
         super(restBuilder.uriTemplateHandler(new DefaultUriBuilderFactory(url + Common.ITEM_API_PREFIX))
-                .requestFactory(() -> new HttpComponentsClientHttpRequestFactory())
-                .build());
+                .requestFactory(() -> requestFactory)
+                .build(), coalescer, cache);
     }
 
-    public ResponseEntity<Object> createItem(ItemDto itemDto, long userId) {
-        return post("", userId, itemDto);
+    public void createItem(ItemDto itemDto, long userId, HttpServletResponse response) {
+        proxy(HttpMethod.POST, "", userId, itemDto, response);
     }
 
-    public ResponseEntity<Object> updateItem(long userId, long itemId, ItemDto itemDto) {
-        return patch("/" + itemId, userId, itemDto);
+    public void createItems(List<ItemDto> itemDtoList, long userId, HttpServletResponse response) {
+        proxy(HttpMethod.POST, "/batch", userId, itemDtoList, response);
     }
 
-    public ResponseEntity<Object> getItemById(long itemId, long userId) {
-        return get("/" + itemId, userId);
+    public void updateItem(long userId, long itemId, ItemDto itemDto, HttpServletResponse response) {
+        proxy(HttpMethod.PATCH, "/" + itemId, userId, itemDto, response);
     }
 
-    public ResponseEntity<Object> getUsersItems(long userId) {
-        return get("", userId);
+    public void getItemById(long itemId, long userId, HttpServletResponse response) {
+        proxyCached(ResponseCache.Route.ITEM, itemId, "/" + itemId, userId, null, response);
     }
 
-    public ResponseEntity<Object> getItemsByContext(long userId, String context) {
-        Map<String, Object> parameters = Map.of(
-                "text", context
-        );
-        return get("/search?text={text}", userId, parameters);
+    public void getUsersItems(long userId, HttpServletResponse response) {
+        proxy(HttpMethod.GET, "", userId, response);
     }
 
-    public ResponseEntity<Object> addCommentToItem(long userId, long itemId, CommentDto commentDto) {
-        return post("/" + itemId + "/comment", userId, commentDto);
+    public void getItemsByContext(long userId, String context, int from, Integer limit,
+                                  HttpServletResponse response) {
+        Map<String, Object> parameters = new HashMap<>();
+        proxyCached(ResponseCache.Route.ITEM_SEARCH, null, searchPath(context, from, limit, parameters), userId,
+                parameters, response);
     }
 
+    public void addCommentToItem(long userId, long itemId, CommentDto commentDto, HttpServletResponse response) {
+        proxy(HttpMethod.POST, "/" + itemId + "/comment", userId, commentDto, response);
+    }
+
+    //без limit сервер отдает все найденные вещи
+    private String searchPath(String context, int from, Integer limit, Map<String, Object> parameters) {
+        parameters.put("text", context);
+        parameters.put("from", from);
+        if (limit == null) {
+            return "/search?text={text}&from={from}";
+        }
+        parameters.put("limit", limit);
+        return "/search?text={text}&from={from}&limit={limit}";
+    }
 }
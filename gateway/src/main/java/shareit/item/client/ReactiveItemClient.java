@@ -0,0 +1,69 @@
+package shareit.item.client;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import shareit.client.ReactiveBaseClient;
+import shareit.common.Common;
+import shareit.item.dto.CommentDto;
+import shareit.item.dto.ItemDto;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@Service
+public class ReactiveItemClient extends ReactiveBaseClient {
+
+    public ReactiveItemClient(@Value("${shareit-server.url}") String url, WebClient shareitWebClient) {
+        super(shareitWebClient.mutate().baseUrl(url + Common.ITEM_API_PREFIX).build());
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> createItem(ItemDto itemDto, long userId) {
+        return proxy(HttpMethod.POST, "", userId, itemDto);
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> createItems(List<ItemDto> itemDtoList, long userId) {
+        return proxy(HttpMethod.POST, "/batch", userId, itemDtoList);
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> updateItem(long userId, long itemId, ItemDto itemDto) {
+        return proxy(HttpMethod.PATCH, "/" + itemId, userId, itemDto);
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getItemById(long itemId, long userId) {
+        return proxy(HttpMethod.GET, "/" + itemId, userId);
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getUsersItems(long userId) {
+        return proxy(HttpMethod.GET, "", userId);
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getItemsByContext(long userId, String context, int from,
+                                                                    Integer limit) {
+        Map<String, Object> parameters = new HashMap<>();
+        return proxy(HttpMethod.GET, searchPath(context, from, limit, parameters), userId, parameters, null);
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> addCommentToItem(long userId, long itemId, CommentDto commentDto) {
+        return proxy(HttpMethod.POST, "/" + itemId + "/comment", userId, commentDto);
+    }
+
+    //без limit сервер отдает все найденные вещи
+    private String searchPath(String context, int from, Integer limit, Map<String, Object> parameters) {
+        parameters.put("text", context);
+        parameters.put("from", from);
+        if (limit == null) {
+            return "/search?text={text}&from={from}";
+        }
+        parameters.put("limit", limit);
+        return "/search?text={text}&from={from}&limit={limit}";
+    }
+}
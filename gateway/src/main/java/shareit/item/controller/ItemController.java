@@ -1,14 +1,25 @@
 package shareit.item.controller;
 
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
+import jakarta.validation.constraints.Size;
 import lombok.RequiredArgsConstructor;
-import org.springframework.http.ResponseEntity;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import shareit.common.Common;
 import shareit.item.client.ItemClient;
 import shareit.item.dto.CommentDto;
 import shareit.item.dto.ItemDto;
 
+import java.util.List;
+
+@Validated
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RestController
 @RequestMapping("/items")
 @RequiredArgsConstructor
@@ -16,40 +27,57 @@ public class ItemController {
     private final ItemClient itemClient;
 
     @PostMapping
-    public ResponseEntity<Object> createItem(@RequestBody @Valid ItemDto itemDto,
-                                             @RequestHeader(value = Common.USER_HEADER) Long userId) {
-        return itemClient.createItem(itemDto, userId);
+    public void createItem(@RequestBody @Valid ItemDto itemDto,
+                           @RequestHeader(value = Common.USER_HEADER) Long userId,
+                           HttpServletResponse response) {
+        itemClient.createItem(itemDto, userId, response);
+    }
+
+    @PostMapping("/batch")
+    public void createItems(@RequestBody @NotEmpty @Size(max = Common.MAX_BATCH_SIZE)
+                            List<@Valid ItemDto> itemDtoList,
+                            @RequestHeader(value = Common.USER_HEADER) Long userId,
+                            HttpServletResponse response) {
+        itemClient.createItems(itemDtoList, userId, response);
     }
 
     @PatchMapping("/{itemId}")
-    public ResponseEntity<Object> updateItem(@RequestBody ItemDto itemDto,
-                                             @PathVariable Long itemId,
-                                             @RequestHeader(value = Common.USER_HEADER) Long userId) {
-        return itemClient.updateItem(userId, itemId, itemDto);
+    public void updateItem(@RequestBody ItemDto itemDto,
+                           @PathVariable Long itemId,
+                           @RequestHeader(value = Common.USER_HEADER) Long userId,
+                           HttpServletResponse response) {
+        itemClient.updateItem(userId, itemId, itemDto, response);
     }
 
     @GetMapping("/{itemId}")
-    public ResponseEntity<Object> getItemById(@RequestHeader(value = Common.USER_HEADER) Long userId,
-                                              @PathVariable Long itemId) {
-        return itemClient.getItemById(itemId, userId);
+    public void getItemById(@RequestHeader(value = Common.USER_HEADER) Long userId,
+                            @PathVariable Long itemId,
+                            HttpServletResponse response) {
+        itemClient.getItemById(itemId, userId, response);
     }
 
     @GetMapping
-    public ResponseEntity<Object> getUsersItems(@RequestHeader(value = Common.USER_HEADER) Long userId) {
-        return itemClient.getUsersItems(userId);
+    public void getUsersItems(@RequestHeader(value = Common.USER_HEADER) Long userId, HttpServletResponse response) {
+        itemClient.getUsersItems(userId, response);
     }
 
     @GetMapping("/search")
-    public ResponseEntity<Object> getItemsByContext(@RequestParam("text") String context,
-                                                    @RequestHeader(value = Common.USER_HEADER) Long userId) {
-        return itemClient.getItemsByContext(userId, context);
+    public void getItemsByContext(
+            @RequestParam("text") String context,
+            @RequestHeader(value = Common.USER_HEADER) Long userId,
+            @RequestParam(name = "from", defaultValue = "0") @PositiveOrZero Integer from,
+            @RequestParam(name = "limit", required = false)
+            @Positive @Max(Common.MAX_PAGE_SIZE) Integer limit,
+            HttpServletResponse response) {
+        itemClient.getItemsByContext(userId, context, from, limit, response);
     }
 
 
     @PostMapping("/{itemId}/comment")
-    public ResponseEntity<Object> addComment(@RequestBody @Valid CommentDto commentDto,
-                                             @PathVariable Integer itemId,
-                                             @RequestHeader(value = Common.USER_HEADER) Integer authorId) {
-        return itemClient.addCommentToItem(authorId, itemId, commentDto);
+    public void addComment(@RequestBody @Valid CommentDto commentDto,
+                           @PathVariable Integer itemId,
+                           @RequestHeader(value = Common.USER_HEADER) Integer authorId,
+                           HttpServletResponse response) {
+        itemClient.addCommentToItem(authorId, itemId, commentDto, response);
     }
 }
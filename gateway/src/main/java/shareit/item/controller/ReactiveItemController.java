@@ -0,0 +1,80 @@
+package shareit.item.controller;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
+import jakarta.validation.constraints.Size;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import shareit.common.Common;
+import shareit.item.client.ReactiveItemClient;
+import shareit.item.dto.CommentDto;
+import shareit.item.dto.ItemDto;
+
+import java.util.List;
+
+//ItemController реактивного режима: та же проверка запросов, ответ сервера передается без разбора
+@Validated
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RestController
+@RequestMapping("/items")
+@RequiredArgsConstructor
+public class ReactiveItemController {
+    private final ReactiveItemClient itemClient;
+
+    @PostMapping
+    public Mono<ResponseEntity<Flux<DataBuffer>>> createItem(@RequestBody @Valid ItemDto itemDto,
+                                                             @RequestHeader(value = Common.USER_HEADER) Long userId) {
+        return itemClient.createItem(itemDto, userId);
+    }
+
+    @PostMapping("/batch")
+    public Mono<ResponseEntity<Flux<DataBuffer>>> createItems(@RequestBody @NotEmpty @Size(max = Common.MAX_BATCH_SIZE)
+                                                              List<@Valid ItemDto> itemDtoList,
+                                                              @RequestHeader(value = Common.USER_HEADER) Long userId) {
+        return itemClient.createItems(itemDtoList, userId);
+    }
+
+    @PatchMapping("/{itemId}")
+    public Mono<ResponseEntity<Flux<DataBuffer>>> updateItem(@RequestBody ItemDto itemDto,
+                                                             @PathVariable Long itemId,
+                                                             @RequestHeader(value = Common.USER_HEADER) Long userId) {
+        return itemClient.updateItem(userId, itemId, itemDto);
+    }
+
+    @GetMapping("/{itemId}")
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getItemById(@RequestHeader(value = Common.USER_HEADER) Long userId,
+                                                              @PathVariable Long itemId) {
+        return itemClient.getItemById(itemId, userId);
+    }
+
+    @GetMapping
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getUsersItems(@RequestHeader(value = Common.USER_HEADER) Long userId) {
+        return itemClient.getUsersItems(userId);
+    }
+
+    @GetMapping("/search")
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getItemsByContext(
+            @RequestParam("text") String context,
+            @RequestHeader(value = Common.USER_HEADER) Long userId,
+            @RequestParam(name = "from", defaultValue = "0") @PositiveOrZero Integer from,
+            @RequestParam(name = "limit", required = false)
+            @Positive @Max(Common.MAX_PAGE_SIZE) Integer limit) {
+        return itemClient.getItemsByContext(userId, context, from, limit);
+    }
+
+    @PostMapping("/{itemId}/comment")
+    public Mono<ResponseEntity<Flux<DataBuffer>>> addComment(@RequestBody @Valid CommentDto commentDto,
+                                                             @PathVariable Integer itemId,
+                                                             @RequestHeader(value = Common.USER_HEADER) Integer authorId) {
+        return itemClient.addCommentToItem(authorId, itemId, commentDto);
+    }
+}
@@ -0,0 +1,53 @@
+package shareit.request.client;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import shareit.client.ReactiveBaseClient;
+import shareit.common.Common;
+import shareit.request.dto.ItemRequestInDto;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@Service
+public class ReactiveRequestClient extends ReactiveBaseClient {
+
+    public ReactiveRequestClient(@Value("${shareit-server.url}") String url, WebClient shareitWebClient) {
+        super(shareitWebClient.mutate().baseUrl(url + Common.REQUEST_API_PREFIX).build());
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> createRequest(long userId, ItemRequestInDto itemRequestDto) {
+        return proxy(HttpMethod.POST, "", userId, itemRequestDto);
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getRequestsByUser(long userId) {
+        return proxy(HttpMethod.GET, "", userId);
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getItemRequestDtoById(long requestId, long userId) {
+        return proxy(HttpMethod.GET, "/" + requestId, userId);
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getAll(long userId, String after, Integer limit) {
+        Map<String, Object> parameters = new HashMap<>();
+        //без limit сервер отдает ленту целиком
+        String path = "/all";
+        if (limit != null) {
+            parameters.put("limit", limit);
+            path += "?limit={limit}";
+        }
+        if (after != null) {
+            parameters.put("after", after);
+            path += (limit == null ? "?" : "&") + "after={after}";
+        }
+        return proxy(HttpMethod.GET, path, userId, parameters, null);
+    }
+}
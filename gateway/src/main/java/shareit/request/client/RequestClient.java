@@ -1,38 +1,60 @@
 package shareit.request.client;
 
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.boot.web.client.RestTemplateBuilder;
-import org.springframework.http.ResponseEntity;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import shareit.client.BaseClient;
+import shareit.client.RequestCoalescer;
+import shareit.client.ResponseCache;
 import shareit.common.Common;
 import shareit.request.dto.ItemRequestInDto;
 
+import java.util.HashMap;
+import java.util.Map;
+
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @Service
 public class RequestClient extends BaseClient {
 
     public RequestClient(@Value("${shareit-server.url}") String url,
-                         RestTemplateBuilder restBuilder) {
+                         RestTemplateBuilder restBuilder,
+                         HttpComponentsClientHttpRequestFactory requestFactory,
+                         RequestCoalescer coalescer,
+                         ResponseCache cache) {
         super(restBuilder.uriTemplateHandler(new DefaultUriBuilderFactory(url + Common.REQUEST_API_PREFIX))
-                .requestFactory(() -> new HttpComponentsClientHttpRequestFactory())
-                .build());
+                .requestFactory(() -> requestFactory)
+                .build(), coalescer, cache);
     }
 
-    public ResponseEntity<Object> createRequest(long userId, ItemRequestInDto itemRequestDto) {
-        return post("", userId, itemRequestDto);
+    public void createRequest(long userId, ItemRequestInDto itemRequestDto, HttpServletResponse response) {
+        proxy(HttpMethod.POST, "", userId, itemRequestDto, response);
     }
 
-    public ResponseEntity<Object> getRequestsByUser(long userId) {
-        return get("", userId);
+    public void getRequestsByUser(long userId, HttpServletResponse response) {
+        proxy(HttpMethod.GET, "", userId, response);
     }
 
-    public ResponseEntity<Object> getItemRequestDtoById(long requestId, long userId) {
-        return get("/" + requestId, userId);
+    public void getItemRequestDtoById(long requestId, long userId, HttpServletResponse response) {
+        proxyCached(ResponseCache.Route.REQUEST, requestId, "/" + requestId, userId, null, response);
     }
 
-    public ResponseEntity<Object> getAll(long userId) {
-        return get("/all", userId);
+    public void getAll(long userId, String after, Integer limit, HttpServletResponse response) {
+        Map<String, Object> parameters = new HashMap<>();
+        //без limit сервер отдает ленту целиком
+        String path = "/all";
+        if (limit != null) {
+            parameters.put("limit", limit);
+            path += "?limit={limit}";
+        }
+        if (after != null) {
+            parameters.put("after", after);
+            path += (limit == null ? "?" : "&") + "after={after}";
+        }
+        proxy(HttpMethod.GET, path, userId, parameters, null, response);
     }
 }
@@ -1,13 +1,19 @@
 package shareit.request.controller;
 
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Positive;
 import lombok.RequiredArgsConstructor;
-import org.springframework.http.ResponseEntity;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import shareit.common.Common;
 import shareit.request.client.RequestClient;
 import shareit.request.dto.ItemRequestInDto;
 
+@Validated
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RestController
 @RequestMapping(path = "/requests")
 @RequiredArgsConstructor
@@ -15,24 +21,30 @@ public class ItemRequestController {
     private final RequestClient requestClient;
 
     @PostMapping
-    public ResponseEntity<Object> createRequest(@RequestHeader(Common.USER_HEADER) Long userId,
-                                                @Valid @RequestBody ItemRequestInDto itemRequestDto) {
-        return requestClient.createRequest(userId, itemRequestDto);
+    public void createRequest(@RequestHeader(Common.USER_HEADER) Long userId,
+                              @Valid @RequestBody ItemRequestInDto itemRequestDto,
+                              HttpServletResponse response) {
+        requestClient.createRequest(userId, itemRequestDto, response);
     }
 
     @GetMapping
-    public ResponseEntity<Object> getRequest(@RequestHeader(Common.USER_HEADER) Long userId) {
-        return requestClient.getRequestsByUser(userId);
+    public void getRequest(@RequestHeader(Common.USER_HEADER) Long userId, HttpServletResponse response) {
+        requestClient.getRequestsByUser(userId, response);
     }
 
     @GetMapping("/all")
-    public ResponseEntity<Object> getAll(@RequestHeader(Common.USER_HEADER) Long userId) {
-        return requestClient.getAll(userId);
+    public void getAll(@RequestHeader(Common.USER_HEADER) Long userId,
+                       @RequestParam(name = "after", required = false) String after,
+                       @RequestParam(name = "limit", required = false)
+                       @Positive @Max(Common.MAX_PAGE_SIZE) Integer limit,
+                       HttpServletResponse response) {
+        requestClient.getAll(userId, after, limit, response);
     }
 
     @GetMapping("/{requestId}")
-    public ResponseEntity<Object> getById(@PathVariable Long requestId,
-                                          @RequestHeader(Common.USER_HEADER) Long userId) {
-        return requestClient.getItemRequestDtoById(requestId, userId);
+    public void getById(@PathVariable Long requestId,
+                        @RequestHeader(Common.USER_HEADER) Long userId,
+                        HttpServletResponse response) {
+        requestClient.getItemRequestDtoById(requestId, userId, response);
     }
 }
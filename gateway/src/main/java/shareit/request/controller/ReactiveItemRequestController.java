@@ -0,0 +1,51 @@
+package shareit.request.controller;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Positive;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import shareit.common.Common;
+import shareit.request.client.ReactiveRequestClient;
+import shareit.request.dto.ItemRequestInDto;
+
+//ItemRequestController реактивного режима: та же проверка запросов, ответ сервера передается без разбора
+@Validated
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RestController
+@RequestMapping(path = "/requests")
+@RequiredArgsConstructor
+public class ReactiveItemRequestController {
+    private final ReactiveRequestClient requestClient;
+
+    @PostMapping
+    public Mono<ResponseEntity<Flux<DataBuffer>>> createRequest(@RequestHeader(Common.USER_HEADER) Long userId,
+                                                                @Valid @RequestBody ItemRequestInDto itemRequestDto) {
+        return requestClient.createRequest(userId, itemRequestDto);
+    }
+
+    @GetMapping
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getRequest(@RequestHeader(Common.USER_HEADER) Long userId) {
+        return requestClient.getRequestsByUser(userId);
+    }
+
+    @GetMapping("/all")
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getAll(@RequestHeader(Common.USER_HEADER) Long userId,
+                                                         @RequestParam(name = "after", required = false) String after,
+                                                         @RequestParam(name = "limit", required = false)
+                                                         @Positive @Max(Common.MAX_PAGE_SIZE) Integer limit) {
+        return requestClient.getAll(userId, after, limit);
+    }
+
+    @GetMapping("/{requestId}")
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getById(@PathVariable Long requestId,
+                                                          @RequestHeader(Common.USER_HEADER) Long userId) {
+        return requestClient.getItemRequestDtoById(requestId, userId);
+    }
+}
@@ -0,0 +1,49 @@
+package shareit.user.client;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import shareit.client.ReactiveBaseClient;
+import shareit.common.Common;
+import shareit.user.dto.UserDto;
+
+import java.util.List;
+
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@Service
+public class ReactiveUserClient extends ReactiveBaseClient {
+
+    public ReactiveUserClient(@Value("${shareit-server.url}") String url, WebClient shareitWebClient) {
+        super(shareitWebClient.mutate().baseUrl(url + Common.USER_API_PREFIX).build());
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> createUser(UserDto userDto) {
+        return proxy(HttpMethod.POST, "", null, userDto);
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> createUsers(List<UserDto> userDtoList) {
+        return proxy(HttpMethod.POST, "/batch", null, userDtoList);
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getUserById(long userId) {
+        return proxy(HttpMethod.GET, "/" + userId, null);
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getUserList() {
+        return proxy(HttpMethod.GET, "", null);
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> deleteUser(long userId) {
+        return proxy(HttpMethod.DELETE, "/" + userId, null);
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> updateUser(long userId, UserDto userDto) {
+        return proxy(HttpMethod.PATCH, "/" + userId, null, userDto);
+    }
+}
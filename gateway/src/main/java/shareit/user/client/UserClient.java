@@ -1,43 +1,57 @@
 package shareit.user.client;
 
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.boot.web.client.RestTemplateBuilder;
-import org.springframework.http.ResponseEntity;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import shareit.client.BaseClient;
+import shareit.client.RequestCoalescer;
+import shareit.client.ResponseCache;
 import shareit.common.Common;
 import shareit.user.dto.UserDto;
 
+import java.util.List;
+
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @Service
 public class UserClient extends BaseClient {
 
 
     public UserClient(@Value("${shareit-server.url}") String url,
-                      RestTemplateBuilder restBuilder) {
+                      RestTemplateBuilder restBuilder,
+                      HttpComponentsClientHttpRequestFactory requestFactory,
+                      RequestCoalescer coalescer,
+                      ResponseCache cache) {
         super(restBuilder.uriTemplateHandler(new DefaultUriBuilderFactory(url + Common.USER_API_PREFIX))
-                .requestFactory(() -> new HttpComponentsClientHttpRequestFactory())
-                .build());
+                .requestFactory(() -> requestFactory)
+                .build(), coalescer, cache);
+    }
+
+    public void createUser(UserDto userDto, HttpServletResponse response) {
+        proxy(HttpMethod.POST, "", null, userDto, response);
     }
 
-    public ResponseEntity<Object> createUser(UserDto userDto) {
-        return post("", userDto);
+    public void createUsers(List<UserDto> userDtoList, HttpServletResponse response) {
+        proxy(HttpMethod.POST, "/batch", null, userDtoList, response);
     }
 
-    public ResponseEntity<Object> getUserById(long userId) {
-        return get("/" + userId);
+    public void getUserById(long userId, HttpServletResponse response) {
+        proxyCached(ResponseCache.Route.USER, userId, "/" + userId, null, null, response);
     }
 
-    public ResponseEntity<Object> getUserList() {
-        return get("");
+    public void getUserList(HttpServletResponse response) {
+        proxy(HttpMethod.GET, "", null, response);
     }
 
-    public ResponseEntity<Object> deleteUser(long userId) {
-        return delete("/" + userId);
+    public void deleteUser(long userId, HttpServletResponse response) {
+        proxy(HttpMethod.DELETE, "/" + userId, null, response);
     }
 
-    public ResponseEntity<Object> updateUser(long userId, UserDto userDto) {
-        return patch("/" + userId, userDto);
+    public void updateUser(long userId, UserDto userDto, HttpServletResponse response) {
+        proxy(HttpMethod.PATCH, "/" + userId, null, userDto, response);
     }
 }
@@ -0,0 +1,68 @@
+package shareit.user.controller;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import shareit.common.Common;
+import shareit.user.client.ReactiveUserClient;
+import shareit.user.dto.UserDto;
+
+import java.util.List;
+
+//UserController реактивного режима: та же проверка запросов, ответ сервера передается без разбора
+@Slf4j
+@Validated
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RestController
+@RequestMapping(path = "/users")
+@RequiredArgsConstructor
+public class ReactiveUserController {
+
+    private final ReactiveUserClient userClient;
+
+    @GetMapping("/{userId}")
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getUserById(@PathVariable Long userId) {
+        log.info("GateWay: возвращаю пользователя № {}", userId);
+        return userClient.getUserById(userId);
+    }
+
+    @GetMapping
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getUserList() {
+        log.info("GateWay: возвращаю всех пользователей");
+        return userClient.getUserList();
+    }
+
+    @PostMapping
+    public Mono<ResponseEntity<Flux<DataBuffer>>> createUser(@RequestBody @Valid UserDto userDto) {
+        log.info("Gateway: создаю пользователя с именем {}", userDto.getName());
+        return userClient.createUser(userDto);
+    }
+
+    @PostMapping("/batch")
+    public Mono<ResponseEntity<Flux<DataBuffer>>> createUsers(@RequestBody @NotEmpty @Size(max = Common.MAX_BATCH_SIZE)
+                                                              List<@Valid UserDto> userDtoList) {
+        log.info("Gateway: создаю пакет из {} пользователей", userDtoList.size());
+        return userClient.createUsers(userDtoList);
+    }
+
+    @DeleteMapping("/{userId}")
+    public Mono<ResponseEntity<Flux<DataBuffer>>> deleteUser(@PathVariable Long userId) {
+        log.info("GateWay: удаляю пользователя № {}", userId);
+        return userClient.deleteUser(userId);
+    }
+
+    @PatchMapping("/{userId}")
+    public Mono<ResponseEntity<Flux<DataBuffer>>> updateUser(@RequestBody UserDto userDto, @PathVariable Long userId) {
+        log.info("GateWay: изменяю пользователя № {}", userId);
+        return userClient.updateUser(userId, userDto);
+    }
+}
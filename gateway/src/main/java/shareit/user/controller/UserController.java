@@ -1,14 +1,23 @@
 package shareit.user.controller;
 
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.http.ResponseEntity;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import shareit.common.Common;
 import shareit.user.client.UserClient;
 import shareit.user.dto.UserDto;
 
+import java.util.List;
+
 @Slf4j
+@Validated
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RestController
 @RequestMapping(path = "/users")
 @RequiredArgsConstructor
@@ -17,32 +26,40 @@ public class UserController {
     private final UserClient userClient;
 
     @GetMapping("/{userId}")
-    public ResponseEntity<Object> getUserById(@PathVariable Long userId) {
+    public void getUserById(@PathVariable Long userId, HttpServletResponse response) {
         log.info("GateWay: возвращаю пользователя № {}", userId);
-        return userClient.getUserById(userId);
+        userClient.getUserById(userId, response);
     }
 
     @GetMapping
-    public ResponseEntity<Object> getUserList() {
+    public void getUserList(HttpServletResponse response) {
         log.info("GateWay: возвращаю всех пользователей");
-        return userClient.getUserList();
+        userClient.getUserList(response);
     }
 
     @PostMapping
-    public ResponseEntity<Object> createUser(@RequestBody @Valid UserDto userDto) {
+    public void createUser(@RequestBody @Valid UserDto userDto, HttpServletResponse response) {
         log.info("Gateway: создаю пользователя с именем {}", userDto.getName());
-        return userClient.createUser(userDto);
+        userClient.createUser(userDto, response);
+    }
+
+    @PostMapping("/batch")
+    public void createUsers(@RequestBody @NotEmpty @Size(max = Common.MAX_BATCH_SIZE)
+                            List<@Valid UserDto> userDtoList,
+                            HttpServletResponse response) {
+        log.info("Gateway: создаю пакет из {} пользователей", userDtoList.size());
+        userClient.createUsers(userDtoList, response);
     }
 
     @DeleteMapping("/{userId}")
-    public void deleteUser(@PathVariable Long userId) {
+    public void deleteUser(@PathVariable Long userId, HttpServletResponse response) {
         log.info("GateWay: удаляю пользователя № {}", userId);
-        userClient.deleteUser(userId);
+        userClient.deleteUser(userId, response);
     }
 
     @PatchMapping("/{userId}")
-    public ResponseEntity<Object> updateUser(@RequestBody UserDto userDto, @PathVariable Long userId) {
+    public void updateUser(@RequestBody UserDto userDto, @PathVariable Long userId, HttpServletResponse response) {
         log.info("GateWay: изменяю пользователя № {}", userId);
-        return userClient.updateUser(userId, userDto);
+        userClient.updateUser(userId, userDto, response);
     }
 }
@@ -0,0 +1,200 @@
+package shareit;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import shareit.common.Common;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+//сервер shareit заменен HTTP-сервером JDK, который отвечает заданным ответом и запоминает запросы
+@SpringBootTest
+@AutoConfigureWebTestClient
+@ActiveProfiles("reactive")
+class ReactiveGatewayTest {
+    private static final HttpServer SERVER = startServer();
+    private static final List<String> REQUESTS = new CopyOnWriteArrayList<>();
+    private static final CountDownLatch EVENTS_RECEIVED = new CountDownLatch(1);
+    private static volatile int status;
+    private static volatile String body;
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @DynamicPropertySource
+    static void serverUrl(DynamicPropertyRegistry registry) {
+        registry.add("shareit-server.url", () -> "http://localhost:" + SERVER.getAddress().getPort());
+    }
+
+    @AfterAll
+    static void afterAll() {
+        SERVER.stop(0);
+    }
+
+    @BeforeEach
+    void beforeEach() {
+        REQUESTS.clear();
+        status = 200;
+        body = "{\"id\":1,\"name\":\"Дрель\"}";
+    }
+
+    @Test
+    @DisplayName("Ответ сервера передается клиенту без изменений, пользователь - в заголовке")
+    void shouldProxyResponse() {
+        webTestClient.get().uri("/items/1")
+                .header(Common.USER_HEADER, "2")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(MediaType.APPLICATION_JSON)
+                .expectHeader().doesNotExist(Common.CHANGED_HEADER)
+                .expectBody().json(body);
+
+        assertEquals(List.of("GET /items/1 user=2"), REQUESTS);
+    }
+
+    @Test
+    @DisplayName("Ответ сервера с ошибкой передается клиенту как есть")
+    void shouldProxyErrorResponse() {
+        status = 404;
+        body = "{\"error\":\"ресурс не найден\",\"description\":\"Не нашел вещь с Id = 1\"}";
+
+        webTestClient.get().uri("/items/1")
+                .header(Common.USER_HEADER, "2")
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody().json(body);
+    }
+
+    @Test
+    @DisplayName("Некорректное тело запроса отклоняется той же ошибкой, что и в обычном режиме, без запроса к серверу")
+    void shouldRejectInvalidBody() {
+        webTestClient.post().uri("/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"name\":\"Андрей\",\"email\":\"не почта\"}")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("$.error").isEqualTo("Некорректный запрос");
+
+        assertTrue(REQUESTS.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Некорректный параметр страницы отклоняется без запроса к серверу")
+    void shouldRejectInvalidPage() {
+        webTestClient.get().uri("/items/search?text=дрель&limit=0")
+                .header(Common.USER_HEADER, "2")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("$.error").isEqualTo("Ошибка при выполнении запроса");
+
+        assertTrue(REQUESTS.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Список без limit запрашивается у сервера без limit, чтобы тот отдал его целиком")
+    void shouldProxyListWithoutLimit() {
+        body = "[]";
+
+        webTestClient.get().uri("/requests/all")
+                .header(Common.USER_HEADER, "2")
+                .exchange()
+                .expectStatus().isOk();
+        webTestClient.get().uri("/bookings?state=ALL")
+                .header(Common.USER_HEADER, "2")
+                .exchange()
+                .expectStatus().isOk();
+
+        assertEquals(List.of("GET /requests/all user=2", "GET /bookings?state=ALL user=2"), REQUESTS);
+    }
+
+    @Test
+    @DisplayName("Журнал изменений запрашивается с курсором и размером страницы, отрицательный курсор отклоняется")
+    void shouldProxyChanges() {
+        body = "[]";
+
+        webTestClient.get().uri("/changes?since=5")
+                .header(Common.USER_HEADER, "2")
+                .exchange()
+                .expectStatus().isOk();
+        webTestClient.get().uri("/changes?since=-1")
+                .header(Common.USER_HEADER, "2")
+                .exchange()
+                .expectStatus().isBadRequest();
+
+        assertEquals(List.of("GET /changes?limit=100&since=5 user=2"), REQUESTS);
+    }
+
+    @Test
+    @DisplayName("Событие потока передается клиенту сразу, не дожидаясь конца ответа сервера")
+    void shouldStreamEvents() {
+        Flux<String> events = webTestClient.get().uri("/bookings/events")
+                .header(Common.USER_HEADER, "2")
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(String.class)
+                .getResponseBody();
+
+        assertEquals("{\"bookingId\":1}", events.blockFirst(Duration.ofSeconds(5)));
+        EVENTS_RECEIVED.countDown();
+        assertEquals(List.of("GET /bookings/events accept=text/event-stream, application/json user=2"), REQUESTS);
+    }
+
+    private static HttpServer startServer() {
+        try {
+            HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+            server.createContext("/", exchange -> {
+                REQUESTS.add(exchange.getRequestMethod() + " " + exchange.getRequestURI()
+                        + " user=" + exchange.getRequestHeaders().getFirst(Common.USER_HEADER));
+                byte[] response = body.getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().add("Content-Type", MediaType.APPLICATION_JSON_VALUE);
+                exchange.getResponseHeaders().add(Common.CHANGED_HEADER, "items:1");
+                exchange.sendResponseHeaders(status, response.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(response);
+                }
+            });
+            //событие отправляется сразу, ответ закрывается, только когда тест его получил
+            server.createContext("/bookings/events", exchange -> {
+                REQUESTS.add(exchange.getRequestMethod() + " " + exchange.getRequestURI()
+                        + " accept=" + exchange.getRequestHeaders().getFirst("Accept")
+                        + " user=" + exchange.getRequestHeaders().getFirst(Common.USER_HEADER));
+                exchange.getResponseHeaders().add("Content-Type", MediaType.TEXT_EVENT_STREAM_VALUE);
+                exchange.sendResponseHeaders(200, 0);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(":connected\n\nevent:booking\ndata:{\"bookingId\":1}\n\n".getBytes(StandardCharsets.UTF_8));
+                    out.flush();
+                    EVENTS_RECEIVED.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            server.start();
+            return server;
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
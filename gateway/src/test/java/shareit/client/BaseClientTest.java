@@ -0,0 +1,94 @@
+package shareit.client;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+import shareit.common.Common;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.content;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.header;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+class BaseClientTest {
+    private static final String SERVER_URL = "http://shareit-server";
+
+    private MockRestServiceServer server;
+    private BaseClient client;
+
+    @BeforeEach
+    void beforeEach() {
+        RestTemplate rest = new RestTemplate();
+        rest.setUriTemplateHandler(new DefaultUriBuilderFactory(SERVER_URL));
+        server = MockRestServiceServer.bindTo(rest).build();
+        client = new BaseClient(rest);
+    }
+
+    @Test
+    @DisplayName("Тело, статус и заголовки успешного ответа сервера передаются клиенту без изменений")
+    void proxyCopiesSuccessfulResponse() {
+        String body = "[{\"id\":1,\"start\":\"2024-01-01T10:00:00\"}]";
+        server.expect(requestTo(SERVER_URL + "/bookings?state=ALL&limit=10"))
+                .andExpect(method(HttpMethod.GET))
+                .andExpect(header(Common.USER_HEADER, "1"))
+                .andRespond(withSuccess(body, MediaType.APPLICATION_JSON).header("X-Next-Cursor", "abc"));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        client.proxy(HttpMethod.GET, "/bookings?state={state}&limit={limit}", 1L,
+                Map.of("state", "ALL", "limit", 10), null, response);
+
+        server.verify();
+        assertEquals(HttpStatus.OK.value(), response.getStatus());
+        assertEquals(MediaType.APPLICATION_JSON_VALUE, response.getContentType());
+        assertEquals("abc", response.getHeader("X-Next-Cursor"));
+        assertArrayEquals(body.getBytes(StandardCharsets.UTF_8), response.getContentAsByteArray());
+    }
+
+    @Test
+    @DisplayName("Ответ сервера с ошибкой передается клиенту с тем же статусом и телом")
+    void proxyCopiesErrorResponse() {
+        String body = "{\"error\":\"ресурс не найден\",\"description\":\"Не найден пользователь с Id = 2\"}";
+        server.expect(requestTo(SERVER_URL + "/users/2"))
+                .andRespond(withStatus(HttpStatus.NOT_FOUND).contentType(MediaType.APPLICATION_JSON).body(body));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        client.proxy(HttpMethod.GET, "/users/2", null, response);
+
+        assertEquals(HttpStatus.NOT_FOUND.value(), response.getStatus());
+        assertArrayEquals(body.getBytes(StandardCharsets.UTF_8), response.getContentAsByteArray());
+    }
+
+    @Test
+    @DisplayName("Тело запроса уходит на сервер, ответ больше буфера копируется целиком")
+    void proxySendsBodyAndCopiesLargeResponse() {
+        byte[] body = "x".repeat(100_000).getBytes(StandardCharsets.UTF_8);
+        server.expect(requestTo(SERVER_URL + "/items"))
+                .andExpect(method(HttpMethod.POST))
+                .andExpect(content().json("{\"name\":\"Дрель\"}"))
+                .andRespond(withStatus(HttpStatus.CREATED).contentType(MediaType.APPLICATION_JSON).body(body)
+                        .header(HttpHeaders.TRANSFER_ENCODING, "chunked"));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        client.proxy(HttpMethod.POST, "/items", 1L, Map.of("name", "Дрель"), response);
+
+        assertEquals(HttpStatus.CREATED.value(), response.getStatus());
+        assertNull(response.getHeader(HttpHeaders.TRANSFER_ENCODING));
+        assertArrayEquals(body, response.getContentAsByteArray());
+    }
+}
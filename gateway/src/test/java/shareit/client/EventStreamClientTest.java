@@ -0,0 +1,103 @@
+package shareit.client;
+
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import shareit.common.Common;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+//сервер shareit заменен HTTP-сервером JDK: отправляет событие и держит поток открытым, пока тест его не получит
+class EventStreamClientTest {
+    private static final String EVENT = "event:booking\ndata:{\"bookingId\":1}\n\n";
+
+    private final CountDownLatch received = new CountDownLatch(1);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private HttpServer server;
+    private EventStreamClient client;
+
+    @BeforeEach
+    void beforeEach() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/bookings/events", exchange -> {
+            boolean known = "2".equals(exchange.getRequestHeaders().getFirst(Common.USER_HEADER));
+            exchange.getResponseHeaders().add("Content-Type",
+                    known ? MediaType.TEXT_EVENT_STREAM_VALUE : MediaType.APPLICATION_JSON_VALUE);
+            exchange.sendResponseHeaders(known ? 200 : 404, 0);
+            try (OutputStream out = exchange.getResponseBody()) {
+                if (!known) {
+                    out.write("{\"error\":\"ресурс не найден\"}".getBytes(StandardCharsets.UTF_8));
+                    return;
+                }
+                out.write(EVENT.getBytes(StandardCharsets.UTF_8));
+                out.flush();
+                received.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        server.start();
+        client = new EventStreamClient("http://localhost:" + server.getAddress().getPort(), new RestTemplateBuilder(),
+                new EventStreamProperties(10, Duration.ofSeconds(1), Duration.ofSeconds(2), Duration.ofSeconds(10)),
+                meterRegistry);
+    }
+
+    @AfterEach
+    void afterEach() throws IOException {
+        received.countDown();
+        client.destroy();
+        server.stop(0);
+    }
+
+    @Test
+    @DisplayName("Событие передается клиенту сразу, не дожидаясь конца ответа сервера")
+    void proxyFlushesEvents() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        CompletableFuture<Void> stream = CompletableFuture.runAsync(() -> client.proxy("/bookings/events", 2L, response));
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!response.getContentAsString().contains(EVENT) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(EVENT, response.getContentAsString());
+        assertEquals(MediaType.TEXT_EVENT_STREAM_VALUE, response.getContentType());
+        assertFalse(stream.isDone());
+        received.countDown();
+        stream.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    @DisplayName("Ответ сервера с ошибкой передается клиенту как есть")
+    void proxyCopiesErrorResponse() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        client.proxy("/bookings/events", 3L, response);
+
+        assertEquals(404, response.getStatus());
+        assertEquals("{\"error\":\"ресурс не найден\"}", response.getContentAsString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("У потоков свой пул соединений")
+    void usesSeparatePool() {
+        assertEquals(10.0, meterRegistry.get("httpcomponents.httpclient.pool.total.max")
+                .tag("httpclient", EventStreamClient.POOL_NAME).gauge().value());
+    }
+}
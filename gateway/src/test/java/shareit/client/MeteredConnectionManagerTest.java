@@ -0,0 +1,76 @@
+package shareit.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.io.ConnectionEndpoint;
+import org.apache.hc.client5.http.io.LeaseRequest;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MeteredConnectionManagerTest {
+    private static final HttpRoute ROUTE = new HttpRoute(new HttpHost("shareit-server", 9090));
+    private static final Timeout LEASE_TIMEOUT = Timeout.ofMilliseconds(50);
+
+    private SimpleMeterRegistry meterRegistry;
+    private MeteredConnectionManager connectionManager;
+
+    @BeforeEach
+    void beforeEach() {
+        meterRegistry = new SimpleMeterRegistry();
+        connectionManager = new MeteredConnectionManager(meterRegistry);
+        connectionManager.setDefaultMaxPerRoute(1);
+    }
+
+    @AfterEach
+    void afterEach() {
+        connectionManager.close(CloseMode.IMMEDIATE);
+    }
+
+    @Test
+    @DisplayName("Выдача соединения и ожидание сверх max-per-route попадают в метрики адреса сервера")
+    void shouldMeasureLeaseByRoute() throws Exception {
+        ConnectionEndpoint endpoint = connectionManager.lease("1", ROUTE, LEASE_TIMEOUT, null).get(LEASE_TIMEOUT);
+        LeaseRequest waiting = connectionManager.lease("2", ROUTE, LEASE_TIMEOUT, null);
+
+        assertEquals(1.0, pending());
+        assertThrows(TimeoutException.class, () -> waiting.get(LEASE_TIMEOUT));
+        assertEquals(0.0, pending());
+        assertEquals(1, leases("acquired"));
+        assertEquals(1, leases("timeout"));
+
+        connectionManager.release(endpoint, null, TimeValue.ZERO_MILLISECONDS);
+    }
+
+    @Test
+    @DisplayName("Отмененный запрос соединения больше не считается ожидающим")
+    void shouldNotCountCancelledLease() throws Exception {
+        ConnectionEndpoint endpoint = connectionManager.lease("1", ROUTE, LEASE_TIMEOUT, null).get(LEASE_TIMEOUT);
+        LeaseRequest waiting = connectionManager.lease("2", ROUTE, LEASE_TIMEOUT, null);
+
+        waiting.cancel();
+
+        assertEquals(0.0, pending());
+        connectionManager.release(endpoint, null, TimeValue.ZERO_MILLISECONDS);
+    }
+
+    private double pending() {
+        return meterRegistry.get(MeteredConnectionManager.PENDING_METRIC).tag("route", "shareit-server:9090")
+                .gauge().value();
+    }
+
+    private long leases(String outcome) {
+        return meterRegistry.get(MeteredConnectionManager.LEASE_METRIC).tag("route", "shareit-server:9090")
+                .tag("outcome", outcome).timer().count();
+    }
+}
@@ -0,0 +1,193 @@
+package shareit.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.client.ExpectedCount;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.test.web.client.ResponseCreator;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+class RequestCoalescerTest {
+    private static final String SERVER_URL = "http://shareit-server";
+    private static final String BODY = "{\"id\":1,\"name\":\"Дрель\"}";
+    private static final long WAIT_MILLIS = 10_000;
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private SimpleMeterRegistry meterRegistry;
+    private RestTemplate rest;
+    private MockRestServiceServer server;
+
+    @BeforeEach
+    void beforeEach() {
+        meterRegistry = new SimpleMeterRegistry();
+        rest = new RestTemplate();
+        rest.setUriTemplateHandler(new DefaultUriBuilderFactory(SERVER_URL));
+        server = MockRestServiceServer.bindTo(rest).ignoreExpectOrder(true).build();
+    }
+
+    @Test
+    @DisplayName("Одинаковые одновременные GET-запросы уходят на сервер одним запросом, ответ получают все")
+    void shouldCoalesceIdenticalGets() throws InterruptedException {
+        server.expect(ExpectedCount.once(), requestTo(SERVER_URL + "/items/1")).andRespond(blocked());
+        BaseClient client = new BaseClient(rest, coalescer(DataSize.ofMegabytes(1)));
+
+        List<MockHttpServletResponse> responses = runConcurrently(5,
+                i -> response -> client.proxy(HttpMethod.GET, "/items/1", 1L, response));
+
+        server.verify();
+        for (MockHttpServletResponse response : responses) {
+            assertEquals(200, response.getStatus());
+            assertEquals(MediaType.APPLICATION_JSON_VALUE, response.getContentType());
+            assertArrayEquals(BODY.getBytes(StandardCharsets.UTF_8), response.getContentAsByteArray());
+        }
+        assertEquals(1.0, count("upstream"));
+        assertEquals(4.0, count("coalesced"));
+    }
+
+    @Test
+    @DisplayName("Одинаковые запросы разных пользователей не объединяются")
+    void shouldNotCoalesceDifferentUsers() throws InterruptedException {
+        server.expect(ExpectedCount.twice(), requestTo(SERVER_URL + "/items/1")).andRespond(blocked());
+        BaseClient client = new BaseClient(rest, coalescer(DataSize.ofMegabytes(1)));
+
+        runConcurrently(2, i -> response -> client.proxy(HttpMethod.GET, "/items/1", (long) i, response));
+
+        server.verify();
+        assertEquals(2.0, count("upstream"));
+        assertEquals(0.0, count("coalesced"));
+    }
+
+    @Test
+    @DisplayName("Ответ больше допустимого не разделяется, ожидающие запросы идут на сервер сами")
+    void shouldCallServerWhenResponseIsTooLarge() throws InterruptedException {
+        server.expect(ExpectedCount.twice(), requestTo(SERVER_URL + "/items/1")).andRespond(blocked());
+        BaseClient client = new BaseClient(rest, coalescer(DataSize.ofBytes(4)));
+
+        List<MockHttpServletResponse> responses = runConcurrently(2,
+                i -> response -> client.proxy(HttpMethod.GET, "/items/1", 1L, response));
+
+        server.verify();
+        for (MockHttpServletResponse response : responses) {
+            assertArrayEquals(BODY.getBytes(StandardCharsets.UTF_8), response.getContentAsByteArray());
+        }
+        assertEquals(2.0, count("upstream"));
+    }
+
+    @Test
+    @DisplayName("Отключение клиента первого запроса не роняет объединенные с ним запросы")
+    void shouldServeWaitersWhenLeaderClientDisconnects() throws InterruptedException {
+        server.expect(ExpectedCount.once(), requestTo(SERVER_URL + "/items/1")).andRespond(blocked());
+        BaseClient client = new BaseClient(rest, coalescer(DataSize.ofMegabytes(1)));
+        MockHttpServletResponse waiting = new MockHttpServletResponse();
+
+        Thread leader = Thread.ofPlatform().start(() -> assertThrows(RuntimeException.class,
+                () -> client.proxy(HttpMethod.GET, "/items/1", 1L, disconnected())));
+        awaitWaiting(leader);
+        Thread waiter = Thread.ofPlatform().start(() -> client.proxy(HttpMethod.GET, "/items/1", 1L, waiting));
+        awaitWaiting(waiter);
+        release.countDown();
+        leader.join(WAIT_MILLIS);
+        waiter.join(WAIT_MILLIS);
+
+        server.verify();
+        assertEquals(200, waiting.getStatus());
+        assertArrayEquals(BODY.getBytes(StandardCharsets.UTF_8), waiting.getContentAsByteArray());
+        assertEquals(1.0, count("coalesced"));
+    }
+
+    private RequestCoalescer coalescer(DataSize maxBodySize) {
+        return new RequestCoalescer(meterRegistry, maxBodySize);
+    }
+
+    //ответ сервера задерживается, пока все запросы теста не встанут в ожидание
+    private ResponseCreator blocked() {
+        return request -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return withSuccess(BODY, MediaType.APPLICATION_JSON).createResponse(request);
+        };
+    }
+
+    private List<MockHttpServletResponse> runConcurrently(int count,
+                                                       IntFunction<Consumer<MockHttpServletResponse>> call) throws InterruptedException {
+        List<MockHttpServletResponse> responses = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            Consumer<MockHttpServletResponse> request = call.apply(i);
+            responses.add(response);
+            threads.add(Thread.ofPlatform().start(() -> request.accept(response)));
+        }
+        long deadline = System.currentTimeMillis() + WAIT_MILLIS;
+        while (threads.stream().anyMatch(thread -> thread.getState() != Thread.State.WAITING)
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        release.countDown();
+        for (Thread thread : threads) {
+            thread.join(WAIT_MILLIS);
+        }
+        return responses;
+    }
+
+    //ответ клиенту, который отключился: запись тела падает
+    private static MockHttpServletResponse disconnected() {
+        return new MockHttpServletResponse() {
+            @Override
+            public ServletOutputStream getOutputStream() {
+                return new ServletOutputStream() {
+                    @Override
+                    public boolean isReady() {
+                        return true;
+                    }
+
+                    @Override
+                    public void setWriteListener(WriteListener writeListener) {
+                    }
+
+                    @Override
+                    public void write(int b) throws IOException {
+                        throw new IOException("Broken pipe");
+                    }
+                };
+            }
+        };
+    }
+
+    private static void awaitWaiting(Thread thread) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + WAIT_MILLIS;
+        while (thread.getState() != Thread.State.WAITING && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private double count(String result) {
+        return meterRegistry.get(RequestCoalescer.METRIC).tag("result", result).counter().count();
+    }
+}
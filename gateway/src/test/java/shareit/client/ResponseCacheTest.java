@@ -0,0 +1,166 @@
+package shareit.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.client.ExpectedCount;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+import shareit.common.Common;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+class ResponseCacheTest {
+    private static final String SERVER_URL = "http://shareit-server";
+    private static final String BODY = "{\"id\":1,\"name\":\"Дрель\"}";
+    private static final String SEARCH = "/search?text={text}&from={from}&limit={limit}";
+    private static final Map<String, Object> SEARCH_PARAMETERS = Map.of("text", "дрель", "from", 0, "limit", 10);
+
+    private SimpleMeterRegistry meterRegistry;
+    private RestTemplate rest;
+    private MockRestServiceServer server;
+    private BaseClient client;
+
+    @BeforeEach
+    void beforeEach() {
+        meterRegistry = new SimpleMeterRegistry();
+        rest = new RestTemplate();
+        rest.setUriTemplateHandler(new DefaultUriBuilderFactory(SERVER_URL));
+        server = MockRestServiceServer.bindTo(rest).build();
+        client = new BaseClient(rest, null, cache(Duration.ZERO));
+    }
+
+    @Test
+    @DisplayName("Повторный GET отдается из кэша без запроса к серверу")
+    void shouldServeRepeatedGetFromCache() {
+        server.expect(ExpectedCount.once(), requestTo(SERVER_URL + "/1"))
+                .andRespond(withSuccess(BODY, MediaType.APPLICATION_JSON));
+
+        getItem(1L);
+        MockHttpServletResponse cached = getItem(1L);
+
+        server.verify();
+        assertEquals(200, cached.getStatus());
+        assertEquals(MediaType.APPLICATION_JSON_VALUE, cached.getContentType());
+        assertArrayEquals(BODY.getBytes(StandardCharsets.UTF_8), cached.getContentAsByteArray());
+    }
+
+    @Test
+    @DisplayName("Ответ вещи кэшируется для каждого пользователя отдельно")
+    void shouldKeepItemPerUser() {
+        server.expect(ExpectedCount.twice(), requestTo(SERVER_URL + "/1"))
+                .andRespond(withSuccess(BODY, MediaType.APPLICATION_JSON));
+
+        getItem(1L);
+        getItem(2L);
+
+        server.verify();
+    }
+
+    @Test
+    @DisplayName("Заголовок изменения в ответе на запись сбрасывает кэш вещи и поиска и не передается клиенту")
+    void shouldInvalidateOnChangedHeader() {
+        server.expect(requestTo(SERVER_URL + "/1")).andRespond(withSuccess(BODY, MediaType.APPLICATION_JSON));
+        server.expect(requestTo(SERVER_URL + "/search?text=%D0%B4%D1%80%D0%B5%D0%BB%D1%8C&from=0&limit=10"))
+                .andRespond(withSuccess("[" + BODY + "]", MediaType.APPLICATION_JSON));
+        server.expect(method(HttpMethod.PATCH)).andRespond(withSuccess(BODY, MediaType.APPLICATION_JSON)
+                .header(Common.CHANGED_HEADER, "items:1"));
+        server.expect(requestTo(SERVER_URL + "/1")).andRespond(withSuccess(BODY, MediaType.APPLICATION_JSON));
+        server.expect(requestTo(SERVER_URL + "/search?text=%D0%B4%D1%80%D0%B5%D0%BB%D1%8C&from=0&limit=10"))
+                .andRespond(withSuccess("[" + BODY + "]", MediaType.APPLICATION_JSON));
+
+        getItem(1L);
+        search();
+        MockHttpServletResponse patched = new MockHttpServletResponse();
+        client.proxy(HttpMethod.PATCH, "/1", 1L, Map.of("name", "Дрель"), patched);
+        getItem(1L);
+        search();
+
+        server.verify();
+        assertNull(patched.getHeader(Common.CHANGED_HEADER));
+        assertEquals(2.0, meterRegistry.get(ResponseCache.INVALIDATIONS_METRIC).counter().count());
+    }
+
+    @Test
+    @DisplayName("Изменение другой вещи не сбрасывает ответ о вещи")
+    void shouldKeepUnchangedItem() {
+        server.expect(ExpectedCount.once(), requestTo(SERVER_URL + "/1"))
+                .andRespond(withSuccess(BODY, MediaType.APPLICATION_JSON));
+        server.expect(method(HttpMethod.PATCH)).andRespond(withSuccess(BODY, MediaType.APPLICATION_JSON)
+                .header(Common.CHANGED_HEADER, "items:2"));
+
+        getItem(1L);
+        client.proxy(HttpMethod.PATCH, "/2", 1L, Map.of("name", "Дрель"), new MockHttpServletResponse());
+        getItem(1L);
+
+        server.verify();
+    }
+
+    @Test
+    @DisplayName("Ответ с Cache-Control: no-store и ответ с ошибкой не кэшируются")
+    void shouldNotCacheUncacheableResponses() {
+        server.expect(ExpectedCount.twice(), requestTo(SERVER_URL + "/1"))
+                .andRespond(withSuccess(BODY, MediaType.APPLICATION_JSON).header(HttpHeaders.CACHE_CONTROL, "no-store"));
+        server.expect(ExpectedCount.twice(), requestTo(SERVER_URL + "/2"))
+                .andRespond(withStatus(HttpStatus.NOT_FOUND).contentType(MediaType.APPLICATION_JSON));
+
+        getItem(1L);
+        getItem(1L);
+        client.proxyCached(ResponseCache.Route.ITEM, 2L, "/2", 1L, null, new MockHttpServletResponse());
+        MockHttpServletResponse notFound = new MockHttpServletResponse();
+        client.proxyCached(ResponseCache.Route.ITEM, 2L, "/2", 1L, null, notFound);
+
+        server.verify();
+        assertEquals(404, notFound.getStatus());
+    }
+
+    @Test
+    @DisplayName("Ответ, прочитанный в пределах invalidation-delay после изменения, не кэшируется")
+    void shouldNotCacheWithinInvalidationDelay() {
+        ResponseCache cache = cache(Duration.ofMinutes(1));
+        client = new BaseClient(rest, null, cache);
+        cache.invalidate("items:1");
+        server.expect(ExpectedCount.twice(), requestTo(SERVER_URL + "/1"))
+                .andRespond(withSuccess(BODY, MediaType.APPLICATION_JSON));
+
+        getItem(1L);
+        getItem(1L);
+
+        server.verify();
+    }
+
+    private ResponseCache cache(Duration invalidationDelay) {
+        ResponseCacheProperties properties = new ResponseCacheProperties(true, DataSize.ofMegabytes(1),
+                DataSize.ofKilobytes(16), Duration.ofMinutes(1), Map.of(), invalidationDelay);
+        return new ResponseCache(properties, meterRegistry);
+    }
+
+    private MockHttpServletResponse getItem(long userId) {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        client.proxyCached(ResponseCache.Route.ITEM, 1L, "/1", userId, null, response);
+        return response;
+    }
+
+    private void search() {
+        client.proxyCached(ResponseCache.Route.ITEM_SEARCH, null, SEARCH, 1L, SEARCH_PARAMETERS,
+                new MockHttpServletResponse());
+    }
+}
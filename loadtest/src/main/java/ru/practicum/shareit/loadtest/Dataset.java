@@ -0,0 +1,55 @@
+package ru.practicum.shareit.loadtest;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.random.RandomGenerator;
+
+/*
+Засеянные данные в том виде, в каком их видит нагрузка: число пользователей и владелец каждой вещи.
+Читается из базы после наполнения, Id пользователей и вещей идут подряд с 1.
+ */
+public final class Dataset {
+    private final int users;
+    private final int[] owners;
+
+    private Dataset(int users, int[] owners) {
+        this.users = users;
+        this.owners = owners;
+    }
+
+    public static Dataset read(JdbcTemplate jdbc) {
+        Integer users = jdbc.queryForObject("SELECT COUNT(*) FROM USERS", Integer.class);
+        Integer items = jdbc.queryForObject("SELECT COUNT(*) FROM ITEMS", Integer.class);
+        int[] owners = new int[items == null ? 0 : items];
+        jdbc.query("SELECT ID, OWNER_ID FROM ITEMS", rs -> {
+            owners[rs.getInt("ID") - 1] = rs.getInt("OWNER_ID");
+        });
+        return new Dataset(users == null ? 0 : users, owners);
+    }
+
+    public int users() {
+        return users;
+    }
+
+    public int items() {
+        return owners.length;
+    }
+
+    public int ownerOf(int itemId) {
+        return owners[itemId - 1];
+    }
+
+    public int randomUser(RandomGenerator random) {
+        return 1 + random.nextInt(users);
+    }
+
+    public int randomItem(RandomGenerator random) {
+        return 1 + random.nextInt(owners.length);
+    }
+
+    //любой пользователь, кроме указанного
+    public int otherUser(int userId, RandomGenerator random) {
+        int other = 1 + random.nextInt(users - 1);
+        return other >= userId ? other + 1 : other;
+    }
+}
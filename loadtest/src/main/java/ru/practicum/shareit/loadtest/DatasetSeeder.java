@@ -0,0 +1,50 @@
+package ru.practicum.shareit.loadtest;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.booking.service.LastAndNextBookingsServiceImpl;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.loadtest.dataset.BatchInsertSink;
+import ru.practicum.shareit.loadtest.dataset.DatasetGenerator;
+import ru.practicum.shareit.loadtest.dataset.DumpReader;
+import ru.practicum.shareit.loadtest.dataset.RowSink;
+import ru.practicum.shareit.loadtest.dataset.Table;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/*
+Наполнение пустой базы сервера пакетными вставками в обход API:
+набор данных генерируется DatasetGenerator или загружается из дампа loadtest.dump.
+Поисковый индекс и витрина последнего/следующего бронирования строятся при старте по пустой базе,
+поэтому после наполнения пересобираются.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class DatasetSeeder {
+    private final ApplicationContext serverContext;
+    private final LoadTestConfig config;
+
+    public Dataset seed() throws IOException {
+        JdbcTemplate jdbc = serverContext.getBean(JdbcTemplate.class);
+        Map<Table, Long> counts;
+        try (RowSink sink = new BatchInsertSink(jdbc)) {
+            if (config.dump() != null) {
+                try (InputStream dump = Files.newInputStream(config.dump())) {
+                    counts = DumpReader.read(dump, sink);
+                }
+            } else {
+                counts = new DatasetGenerator(config.dataset(), LocalDateTime.now()).generate(sink);
+            }
+        }
+        serverContext.getBean(ItemSearchIndex.class).rebuild();
+        serverContext.getBean(LastAndNextBookingsServiceImpl.class).rebuild();
+        log.info("База наполнена: {}", counts);
+        return Dataset.read(jdbc);
+    }
+}
@@ -0,0 +1,109 @@
+package ru.practicum.shareit.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+Задержки одного этапа прогона по эндпоинтам в HdrHistogram (микросекунды, 3 значащие цифры)
+и число ответов не из 2xx. Печатается таблицей процентилей, гистограммы сохраняются в .hgrm
+для построения графиков (HdrHistogram Plotter).
+ */
+public class LatencyReport {
+    private static final String TOTAL = "ВСЕГО";
+    private static final double MICROS_IN_MILLI = 1000.0;
+
+    private final Map<String, Histogram> histograms = new LinkedHashMap<>();
+    private final Map<String, LongAdder> errors = new LinkedHashMap<>();
+    private long elapsedNanos;
+
+    public LatencyReport(List<String> endpoints) {
+        endpoints.forEach(endpoint -> {
+            histograms.put(endpoint, new ConcurrentHistogram(3));
+            errors.put(endpoint, new LongAdder());
+        });
+    }
+
+    public void record(String endpoint, long latencyNanos, boolean success) {
+        histograms.get(endpoint).recordValue(Math.max(1, TimeUnit.NANOSECONDS.toMicros(latencyNanos)));
+        if (!success) {
+            errors.get(endpoint).increment();
+        }
+    }
+
+    public void finish(long elapsedNanos) {
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public long count() {
+        return total().getTotalCount();
+    }
+
+    public long errorCount() {
+        return errors.values().stream().mapToLong(LongAdder::sum).sum();
+    }
+
+    //успешных ответов в секунду
+    public double throughput() {
+        return (count() - errorCount()) * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+    }
+
+    public double percentileMillis(double percentile) {
+        return total().getValueAtPercentile(percentile) / MICROS_IN_MILLI;
+    }
+
+    public void print(PrintStream out, String title) {
+        out.println();
+        out.println(title);
+        out.printf("%-20s %9s %7s %9s %9s %9s %9s %9s%n",
+                "эндпоинт", "запросов", "ошибок", "p50, мс", "p90, мс", "p99, мс", "p99.9, мс", "max, мс");
+        histograms.forEach((endpoint, histogram) -> printRow(out, endpoint, histogram, errors.get(endpoint).sum()));
+        printRow(out, TOTAL, total(), errorCount());
+        out.printf("Длительность %.1f с, успешных ответов в секунду %.1f%n",
+                elapsedNanos / (double) TimeUnit.SECONDS.toNanos(1), throughput());
+    }
+
+    public void write(Path directory, String prefix) throws IOException {
+        Files.createDirectories(directory);
+        for (Map.Entry<String, Histogram> entry : histograms.entrySet()) {
+            write(directory.resolve(prefix + "-" + fileName(entry.getKey()) + ".hgrm"), entry.getValue());
+        }
+        write(directory.resolve(prefix + "-total.hgrm"), total());
+    }
+
+    private Histogram total() {
+        Histogram total = new Histogram(3);
+        histograms.values().forEach(total::add);
+        return total;
+    }
+
+    private static void printRow(PrintStream out, String endpoint, Histogram histogram, long errorCount) {
+        out.printf("%-20s %9d %7d %9.2f %9.2f %9.2f %9.2f %9.2f%n", endpoint, histogram.getTotalCount(), errorCount,
+                histogram.getValueAtPercentile(50) / MICROS_IN_MILLI,
+                histogram.getValueAtPercentile(90) / MICROS_IN_MILLI,
+                histogram.getValueAtPercentile(99) / MICROS_IN_MILLI,
+                histogram.getValueAtPercentile(99.9) / MICROS_IN_MILLI,
+                histogram.getMaxValue() / MICROS_IN_MILLI);
+    }
+
+    private static void write(Path file, Histogram histogram) throws IOException {
+        try (PrintStream out = new PrintStream(Files.newOutputStream(file), false, StandardCharsets.UTF_8)) {
+            histogram.outputPercentileDistribution(out, MICROS_IN_MILLI);
+        }
+    }
+
+    //"GET /items/{id}" -> "get-items-id"
+    private static String fileName(String endpoint) {
+        return endpoint.toLowerCase().replaceAll("[^a-z0-9]+", "-").replaceAll("(^-|-$)", "");
+    }
+}
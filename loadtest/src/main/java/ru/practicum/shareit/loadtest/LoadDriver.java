@@ -0,0 +1,81 @@
+package ru.practicum.shareit.loadtest;
+
+import lombok.RequiredArgsConstructor;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/*
+Подача нагрузки на шлюз.
+fixedRate - открытая модель: запросы отправляются по расписанию с заданной частотой независимо от того,
+ответил ли шлюз на предыдущие, каждый в своем виртуальном потоке. Задержка считается от запланированного
+момента отправки, а не от фактического, иначе медленные ответы прячут очередь перед собой
+(coordinated omission).
+closedLoop - закрытая модель: concurrency потоков шлют запросы друг за другом без пауз,
+пропускная способность при росте concurrency выходит на насыщение.
+ */
+@RequiredArgsConstructor
+public class LoadDriver {
+    private final HttpClient client;
+    private final Workload workload;
+    private final long seed;
+
+    public LatencyReport fixedRate(int rate, Duration duration) {
+        LatencyReport report = new LatencyReport(workload.endpointNames());
+        SplittableRandom random = new SplittableRandom(seed);
+        long interval = TimeUnit.SECONDS.toNanos(1) / rate;
+        long calls = duration.toNanos() / interval;
+        long begin = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long i = 0; i < calls; i++) {
+                long intended = begin + i * interval;
+                for (long wait = intended - System.nanoTime(); wait > 0; wait = intended - System.nanoTime()) {
+                    LockSupport.parkNanos(wait);
+                }
+                Workload.Call call = workload.next(random);
+                executor.execute(() -> send(call, intended, report));
+            }
+        }
+        report.finish(System.nanoTime() - begin);
+        return report;
+    }
+
+    public LatencyReport closedLoop(int concurrency, Duration duration) {
+        LatencyReport report = new LatencyReport(workload.endpointNames());
+        long begin = System.nanoTime();
+        long deadline = begin + duration.toNanos();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int worker = 0; worker < concurrency; worker++) {
+                SplittableRandom random = new SplittableRandom(seed + worker);
+                executor.execute(() -> {
+                    while (System.nanoTime() < deadline && !Thread.currentThread().isInterrupted()) {
+                        send(workload.next(random), System.nanoTime(), report);
+                    }
+                });
+            }
+        }
+        report.finish(System.nanoTime() - begin);
+        return report;
+    }
+
+    private void send(Workload.Call call, long startNanos, LatencyReport report) {
+        boolean success;
+        try {
+            HttpResponse<Void> response = client.send(call.request(), HttpResponse.BodyHandlers.discarding());
+            success = response.statusCode() / 100 == 2;
+        } catch (IOException e) {
+            success = false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        report.record(call.endpoint(), System.nanoTime() - startNanos, success);
+    }
+}
@@ -0,0 +1,90 @@
+package ru.practicum.shareit.loadtest;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.practicum.shareit.ShareItServer;
+import shareit.GateWay;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/*
+Сквозной нагрузочный прогон в одном процессе: сервер на H2 в памяти, засеянной DatasetSeeder,
+шлюз перед ним и нагрузка через java.net.http.HttpClient на шлюз.
+Этапы: прогрев, фиксированная частота rate в течение duration (задержки по эндпоинтам),
+затем поиск насыщения - закрытый цикл на каждом уровне параллельности из concurrency.
+Отчет печатается в stdout, гистограммы складываются в каталог output.
+ */
+@Slf4j
+public final class LoadTest {
+    private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(5);
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        LoadTestConfig config = LoadTestConfig.fromSystemProperties();
+        PrintStream out = new PrintStream(System.out, true, StandardCharsets.UTF_8);
+        try (ConfigurableApplicationContext server = new SpringApplicationBuilder(ShareItServer.class)
+                .properties("spring.config.name=loadtest-server")
+                .run(args)) {
+            Dataset dataset = new DatasetSeeder(server, config).seed();
+            try (ConfigurableApplicationContext gateway = new SpringApplicationBuilder(GateWay.class)
+                    .properties("spring.config.name=loadtest-gateway",
+                            "shareit-server.url=http://localhost:" + port(server))
+                    .run(args);
+                 ExecutorService clientExecutor = Executors.newVirtualThreadPerTaskExecutor();
+                 HttpClient client = HttpClient.newBuilder()
+                         .version(HttpClient.Version.HTTP_1_1)
+                         .connectTimeout(CONNECT_TIMEOUT)
+                         .executor(clientExecutor)
+                         .build()) {
+                URI base = URI.create("http://localhost:" + port(gateway));
+                LoadDriver driver = new LoadDriver(client, new Workload(base, dataset), config.dataset().seed());
+                run(driver, config, out);
+            }
+        }
+    }
+
+    private static void run(LoadDriver driver, LoadTestConfig config, PrintStream out) throws IOException {
+        log.info("Прогрев: {} запросов/с в течение {} с", config.rate(), config.warmup().toSeconds());
+        driver.fixedRate(config.rate(), config.warmup());
+
+        log.info("Фиксированная нагрузка: {} запросов/с в течение {} с", config.rate(), config.duration().toSeconds());
+        LatencyReport fixedRate = driver.fixedRate(config.rate(), config.duration());
+        fixedRate.print(out, "Фиксированная нагрузка %d запросов/с, задержка от запланированного момента отправки"
+                .formatted(config.rate()));
+        fixedRate.write(config.output(), "rate-" + config.rate());
+
+        out.println();
+        out.println("Насыщение, закрытый цикл по " + config.saturationStep().toSeconds() + " с на уровень");
+        out.printf("%-12s %12s %9s %9s %9s%n", "потоков", "ответов/с", "ошибок", "p50, мс", "p99, мс");
+        double best = 0;
+        int bestConcurrency = 0;
+        for (int concurrency : config.concurrency()) {
+            log.info("Насыщение: {} потоков в течение {} с", concurrency, config.saturationStep().toSeconds());
+            LatencyReport step = driver.closedLoop(concurrency, config.saturationStep());
+            step.write(config.output(), "concurrency-" + concurrency);
+            out.printf("%-12d %12.1f %9d %9.2f %9.2f%n", concurrency, step.throughput(), step.errorCount(),
+                    step.percentileMillis(50), step.percentileMillis(99));
+            if (step.throughput() > best) {
+                best = step.throughput();
+                bestConcurrency = concurrency;
+            }
+        }
+        out.printf("Пропускная способность при насыщении: %.1f ответов/с (%d потоков)%n", best, bestConcurrency);
+        out.println("Гистограммы: " + config.output().toAbsolutePath());
+    }
+
+    private static int port(ConfigurableApplicationContext context) {
+        return ((WebServerApplicationContext) context).getWebServer().getPort();
+    }
+}
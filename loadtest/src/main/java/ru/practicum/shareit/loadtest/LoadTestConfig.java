@@ -0,0 +1,41 @@
+package ru.practicum.shareit.loadtest;
+
+import ru.practicum.shareit.loadtest.dataset.DatasetSpec;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+/*
+Параметры прогона, задаются системными свойствами -Dloadtest.*:
+набор данных (см. DatasetSpec) или дамп для загрузки вместо генерации,
+частота и длительность фиксированной нагрузки, уровни параллельности для поиска насыщения.
+ */
+public record LoadTestConfig(DatasetSpec dataset,
+                             Path dump,
+                             int rate,
+                             Duration warmup,
+                             Duration duration,
+                             List<Integer> concurrency,
+                             Duration saturationStep,
+                             Path output) {
+
+    private static final DatasetSpec DATASET = new DatasetSpec(1000, 5, 500, 20, 2000, 10, 30, 3.0, 42L);
+
+    public static LoadTestConfig fromSystemProperties() {
+        String dump = System.getProperty("loadtest.dump");
+        return new LoadTestConfig(
+                DatasetSpec.fromSystemProperties("loadtest", DATASET),
+                dump != null ? Path.of(dump) : null,
+                Integer.getInteger("loadtest.rate", 200),
+                Duration.ofSeconds(Long.getLong("loadtest.warmup", 10L)),
+                Duration.ofSeconds(Long.getLong("loadtest.duration", 60L)),
+                Arrays.stream(System.getProperty("loadtest.concurrency", "8,32,128").split(","))
+                        .map(String::trim)
+                        .map(Integer::valueOf)
+                        .toList(),
+                Duration.ofSeconds(Long.getLong("loadtest.saturation-step", 20L)),
+                Path.of(System.getProperty("loadtest.output", "loadtest-results")));
+    }
+}
@@ -0,0 +1,123 @@
+package ru.practicum.shareit.loadtest;
+
+import ru.practicum.shareit.loadtest.dataset.DatasetGenerator;
+import shareit.common.Common;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+/*
+Смесь запросов к шлюзу: в основном чтение (карточка и список вещей, поиск, бронирования пользователя
+и владельца, чужие запросы, пользователь) и небольшая доля записи - новые бронирования далеко в будущем,
+чтобы они не пересекались с засеянными. Каждый запрос выбирается случайно по весу.
+ */
+public class Workload {
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+    private static final int PAGE_SIZE = 20;
+
+    private final URI gateway;
+    private final Dataset dataset;
+    private final List<Endpoint> endpoints;
+    private final int totalWeight;
+
+    public Workload(URI gateway, Dataset dataset) {
+        this.gateway = gateway;
+        this.dataset = dataset;
+        this.endpoints = List.of(
+                new Endpoint("GET /items/{id}", 25, this::getItem),
+                new Endpoint("GET /items", 10, this::getUsersItems),
+                new Endpoint("GET /items/search", 15, this::searchItems),
+                new Endpoint("GET /bookings", 15, this::getUsersBookings),
+                new Endpoint("GET /bookings/owner", 10, this::getOwnersBookings),
+                new Endpoint("GET /requests/all", 10, this::getOtherUsersRequests),
+                new Endpoint("GET /users/{id}", 10, this::getUser),
+                new Endpoint("POST /bookings", 5, this::createBooking));
+        this.totalWeight = endpoints.stream().mapToInt(Endpoint::weight).sum();
+    }
+
+    public List<String> endpointNames() {
+        return endpoints.stream().map(Endpoint::name).toList();
+    }
+
+    public Call next(RandomGenerator random) {
+        int point = random.nextInt(totalWeight);
+        for (Endpoint endpoint : endpoints) {
+            point -= endpoint.weight();
+            if (point < 0) {
+                return new Call(endpoint.name(), endpoint.request().build(random));
+            }
+        }
+        throw new IllegalStateException("Вес запросов посчитан неверно");
+    }
+
+    private HttpRequest getItem(RandomGenerator random) {
+        return get("/items/" + dataset.randomItem(random), dataset.randomUser(random));
+    }
+
+    private HttpRequest getUsersItems(RandomGenerator random) {
+        return get("/items", dataset.randomUser(random));
+    }
+
+    private HttpRequest searchItems(RandomGenerator random) {
+        String text = DatasetGenerator.WORDS.get(random.nextInt(DatasetGenerator.WORDS.size()));
+        return get("/items/search?limit=" + PAGE_SIZE + "&text=" + URLEncoder.encode(text, StandardCharsets.UTF_8),
+                dataset.randomUser(random));
+    }
+
+    private HttpRequest getUsersBookings(RandomGenerator random) {
+        return get("/bookings?state=ALL&limit=" + PAGE_SIZE, dataset.randomUser(random));
+    }
+
+    private HttpRequest getOwnersBookings(RandomGenerator random) {
+        return get("/bookings/owner?state=PAST&limit=" + PAGE_SIZE, dataset.randomUser(random));
+    }
+
+    private HttpRequest getOtherUsersRequests(RandomGenerator random) {
+        return get("/requests/all?limit=" + PAGE_SIZE, dataset.randomUser(random));
+    }
+
+    private HttpRequest getUser(RandomGenerator random) {
+        int userId = dataset.randomUser(random);
+        return get("/users/" + userId, userId);
+    }
+
+    private HttpRequest createBooking(RandomGenerator random) {
+        int itemId = dataset.randomItem(random);
+        LocalDateTime start = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS)
+                .plusDays(400 + random.nextInt(3600))
+                .plusHours(random.nextInt(24));
+        String body = "{\"itemId\":%d,\"start\":\"%s\",\"end\":\"%s\"}".formatted(itemId, start, start.plusHours(1));
+        return HttpRequest.newBuilder(gateway.resolve("/bookings"))
+                .timeout(TIMEOUT)
+                .header(Common.USER_HEADER, String.valueOf(dataset.otherUser(dataset.ownerOf(itemId), random)))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private HttpRequest get(String path, int userId) {
+        return HttpRequest.newBuilder(gateway.resolve(path))
+                .timeout(TIMEOUT)
+                .header(Common.USER_HEADER, String.valueOf(userId))
+                .GET()
+                .build();
+    }
+
+    public record Call(String endpoint, HttpRequest request) {
+    }
+
+    private record Endpoint(String name, int weight, RequestFactory request) {
+    }
+
+    @FunctionalInterface
+    private interface RequestFactory {
+        HttpRequest build(RandomGenerator random);
+    }
+}
@@ -0,0 +1,57 @@
+package ru.practicum.shareit.loadtest.dataset;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+//Запись строк пакетными INSERT через JDBC с Id подряд с 1, подходит для любой базы
+@RequiredArgsConstructor
+public class BatchInsertSink implements RowSink {
+    private static final int BATCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbc;
+    private final List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+    private Table current;
+    private long rows;
+
+    @Override
+    public void row(Table table, Object... values) {
+        if (table != current) {
+            endTable();
+            current = table;
+        }
+        Object[] row = new Object[values.length + 1];
+        row[0] = ++rows;
+        for (int i = 0; i < values.length; i++) {
+            row[i + 1] = values[i] instanceof LocalDateTime time ? Timestamp.valueOf(time) : values[i];
+        }
+        batch.add(row);
+        if (batch.size() == BATCH_SIZE) {
+            flush();
+        }
+    }
+
+    @Override
+    public void close() {
+        endTable();
+    }
+
+    private void endTable() {
+        flush();
+        if (current != null) {
+            jdbc.execute(current.restartSequenceSql(rows));
+            rows = 0;
+        }
+    }
+
+    private void flush() {
+        if (!batch.isEmpty()) {
+            jdbc.batchUpdate(current.insertSql(), batch);
+            batch.clear();
+        }
+    }
+}
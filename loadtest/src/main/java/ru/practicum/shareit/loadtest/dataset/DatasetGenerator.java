@@ -0,0 +1,192 @@
+package ru.practicum.shareit.loadtest.dataset;
+
+import ru.practicum.shareit.booking.model.BookingStatus;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+
+/*
+Синтетический набор данных для таблиц схемы сервера, одинаковый для одинаковых DatasetSpec.
+- вещи раздаются владельцам с перекосом: у немногих пользователей большие каталоги, у большинства - по одной-две;
+- часть вещей выложена в ответ на запросы, популярные запросы собирают по нескольку ответов;
+- длина истории бронирований вещи распределена по Парето (alpha = 2): у большинства вещей десяток бронирований,
+  у популярных - тысячи. Бронирования вещи не пересекаются, арендаторы тоже выбираются с перекосом;
+- у части вещей есть текущее бронирование, у многих - подтвержденные и ожидающие будущие;
+- отзывы оставляют арендаторы завершенных подтвержденных бронирований вскоре после окончания.
+Бронирования и отзывы вещи строятся от собственного зерна вещи, поэтому отзывы генерируются отдельным
+проходом после всех бронирований (таблицы заполняются по очереди, как требует COPY) и сходятся с ними.
+ */
+public class DatasetGenerator {
+    public static final List<String> WORDS = List.of("дрель", "пила", "лестница", "палатка", "велосипед",
+            "шуруповерт", "самокат", "проектор", "перфоратор", "байдарка");
+    private static final List<String> REVIEWS = List.of("Все отлично", "Как в описании", "Немного потертая",
+            "Рекомендую", "Брал на выходные, выручила", "Владелец на связи");
+    private static final int HOUR = 3600;
+    private static final long YEAR = 365L * 24 * HOUR;
+    private static final int CURRENT_PERCENT = 10;
+    private static final int REJECTED_PERCENT = 10;
+    //владелец так и не ответил на запрос бронирования
+    private static final int FORGOTTEN_PERCENT = 5;
+    private static final int FUTURE_APPROVED_PERCENT = 60;
+    private static final int MAX_FUTURE = 3;
+    private static final long ITEM_SEED_STEP = 0x9E3779B97F4A7C15L;
+
+    private final DatasetSpec spec;
+    private final LocalDateTime now;
+    private final Popularity bookers;
+
+    public DatasetGenerator(DatasetSpec spec, LocalDateTime now) {
+        this.spec = spec;
+        this.now = now.truncatedTo(ChronoUnit.SECONDS);
+        this.bookers = new Popularity(spec.users(), spec.skew(), 3);
+    }
+
+    public Map<Table, Long> generate(RowSink sink) {
+        Map<Table, Long> counts = new EnumMap<>(Table.class);
+        SplittableRandom random = new SplittableRandom(spec.seed());
+
+        for (int userId = 1; userId <= spec.users(); userId++) {
+            emit(sink, counts, Table.USERS, "user" + userId, "user" + userId + "@shareit.ru");
+        }
+
+        for (int requestId = 1; requestId <= spec.requests(); requestId++) {
+            emit(sink, counts, Table.REQUESTS, "Нужна " + word(random), 1 + random.nextInt(spec.users()),
+                    now.minusSeconds(random.nextLong(YEAR)));
+        }
+
+        Popularity owners = new Popularity(spec.users(), spec.skew(), 1);
+        Popularity answeredRequests = spec.requests() > 0 ? new Popularity(spec.requests(), spec.skew(), 2) : null;
+        int[] ownerOf = new int[spec.items() + 1];
+        for (int itemId = 1; itemId <= spec.items(); itemId++) {
+            String word = word(random);
+            ownerOf[itemId] = owners.next(random);
+            Integer requestId = answeredRequests != null && random.nextInt(100) < spec.answerPercent()
+                    ? answeredRequests.next(random) : null;
+            emit(sink, counts, Table.ITEMS, word + " " + itemId, "Хорошая " + word, true, ownerOf[itemId], requestId);
+        }
+
+        for (int itemId = 1; itemId <= spec.items(); itemId++) {
+            for (Booking booking : bookings(itemId, ownerOf[itemId], itemRandom(itemId))) {
+                emit(sink, counts, Table.BOOKINGS, booking.start(), booking.end(), itemId, ownerOf[itemId],
+                        booking.bookerId(), booking.status().name());
+            }
+        }
+
+        for (int itemId = 1; itemId <= spec.items(); itemId++) {
+            SplittableRandom itemRandom = itemRandom(itemId);
+            for (Booking booking : bookings(itemId, ownerOf[itemId], itemRandom)) {
+                if (booking.status() == BookingStatus.APPROVED && booking.end().isBefore(now)
+                        && itemRandom.nextInt(100) < spec.commentPercent()) {
+                    LocalDateTime created = booking.end().plusSeconds(itemRandom.nextInt(1, 72 * HOUR));
+                    emit(sink, counts, Table.COMMENTS, REVIEWS.get(itemRandom.nextInt(REVIEWS.size())), itemId,
+                            booking.bookerId(), created.isAfter(now) ? now : created);
+                }
+            }
+        }
+        return counts;
+    }
+
+    //бронирования вещи по времени: история, текущее, будущие
+    private List<Booking> bookings(int itemId, int ownerId, SplittableRandom random) {
+        int history = (int) Math.min(spec.maxBookingsPerItem(),
+                spec.bookingsPerItem() / 2.0 / Math.sqrt(1 - random.nextDouble()));
+        List<Booking> bookings = new ArrayList<>(history + 1 + MAX_FUTURE);
+
+        Booking current = null;
+        if (random.nextInt(100) < CURRENT_PERCENT) {
+            current = new Booking(now.minusSeconds(random.nextInt(1, 24 * HOUR)),
+                    now.plusSeconds(random.nextInt(1, 72 * HOUR)), booker(ownerId, random), BookingStatus.APPROVED);
+        }
+
+        LocalDateTime cursor = current != null ? current.start() : now;
+        for (int i = 0; i < history; i++) {
+            LocalDateTime end = cursor.minusSeconds(random.nextInt(0, 48 * HOUR));
+            LocalDateTime start = end.minusSeconds(random.nextInt(HOUR, 48 * HOUR));
+            int status = random.nextInt(100);
+            bookings.add(new Booking(start, end, booker(ownerId, random),
+                    status < FORGOTTEN_PERCENT ? BookingStatus.WAITING
+                            : status < FORGOTTEN_PERCENT + REJECTED_PERCENT ? BookingStatus.REJECTED
+                            : BookingStatus.APPROVED));
+            cursor = start;
+        }
+        Collections.reverse(bookings);
+
+        if (current != null) {
+            bookings.add(current);
+        }
+
+        cursor = current != null ? current.end() : now;
+        for (int i = random.nextInt(MAX_FUTURE + 1); i > 0; i--) {
+            LocalDateTime start = cursor.plusSeconds(random.nextInt(HOUR, 96 * HOUR));
+            LocalDateTime end = start.plusSeconds(random.nextInt(HOUR, 48 * HOUR));
+            bookings.add(new Booking(start, end, booker(ownerId, random),
+                    random.nextInt(100) < FUTURE_APPROVED_PERCENT ? BookingStatus.APPROVED : BookingStatus.WAITING));
+            cursor = end;
+        }
+        return bookings;
+    }
+
+    //свою вещь владелец не бронирует
+    private int booker(int ownerId, RandomGenerator random) {
+        int bookerId;
+        do {
+            bookerId = bookers.next(random);
+        } while (bookerId == ownerId);
+        return bookerId;
+    }
+
+    private SplittableRandom itemRandom(int itemId) {
+        return new SplittableRandom(spec.seed() + itemId * ITEM_SEED_STEP);
+    }
+
+    private static String word(RandomGenerator random) {
+        return WORDS.get(random.nextInt(WORDS.size()));
+    }
+
+    private static void emit(RowSink sink, Map<Table, Long> counts, Table table, Object... values) {
+        sink.row(table, values);
+        counts.merge(table, 1L, Long::sum);
+    }
+
+    private record Booking(LocalDateTime start, LocalDateTime end, int bookerId, BookingStatus status) {
+    }
+
+    /*
+    Id от 1 до size с перекосом: ранг floor(size * u^skew) при равномерном u чаще маленький,
+    а перестановка rank * stride + offset по модулю size разбрасывает популярные Id по всему диапазону,
+    чтобы популярность не совпадала с порядком вставки и у владельцев и арендаторов были разные лидеры.
+     */
+    private static final class Popularity {
+        private final int size;
+        private final double skew;
+        private final long stride;
+        private final long offset;
+
+        Popularity(int size, double skew, int salt) {
+            this.size = size;
+            this.skew = skew;
+            long candidate = (size / 2 + 7919L * salt) % size;
+            while (gcd(Math.max(candidate, 1), size) != 1) {
+                candidate++;
+            }
+            this.stride = Math.max(candidate, 1);
+            this.offset = (long) salt * 104729 % size;
+        }
+
+        int next(RandomGenerator random) {
+            long rank = (long) (size * Math.pow(random.nextDouble(), skew));
+            return (int) ((rank * stride + offset) % size) + 1;
+        }
+
+        private static long gcd(long a, long b) {
+            return b == 0 ? a : gcd(b, a % b);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package ru.practicum.shareit.loadtest.dataset;
+
+/*
+Параметры синтетического набора данных:
+users - пользователей, itemsPerUser - в среднем вещей на пользователя, requests - запросов вещей,
+bookingsPerItem - в среднем бронирований в истории вещи (распределение Парето, длинный хвост популярных вещей),
+maxBookingsPerItem - ограничение хвоста, answerPercent - доля вещей, выложенных в ответ на запрос,
+commentPercent - доля завершенных бронирований с отзывом, skew - перекос популярности
+(1 - равномерно, 3 - пятая часть пользователей владеет больше чем половиной вещей), seed - зерно генератора.
+ */
+public record DatasetSpec(int users,
+                          int itemsPerUser,
+                          int requests,
+                          int bookingsPerItem,
+                          int maxBookingsPerItem,
+                          int answerPercent,
+                          int commentPercent,
+                          double skew,
+                          long seed) {
+
+    public DatasetSpec {
+        if (users < 2) {
+            throw new IllegalArgumentException("Пользователей должно быть хотя бы два: владелец и арендатор");
+        }
+        if (itemsPerUser < 1 || bookingsPerItem < 0 || maxBookingsPerItem < bookingsPerItem || requests < 0) {
+            throw new IllegalArgumentException("Некорректные размеры набора данных");
+        }
+        if (skew < 1) {
+            throw new IllegalArgumentException("Перекос популярности skew не может быть меньше 1");
+        }
+    }
+
+    public int items() {
+        return Math.multiplyExact(users, itemsPerUser);
+    }
+
+    //значения из системных свойств prefix.users, prefix.items-per-user, ..., по умолчанию - из defaults
+    public static DatasetSpec fromSystemProperties(String prefix, DatasetSpec defaults) {
+        return new DatasetSpec(
+                Integer.getInteger(prefix + ".users", defaults.users()),
+                Integer.getInteger(prefix + ".items-per-user", defaults.itemsPerUser()),
+                Integer.getInteger(prefix + ".requests", defaults.requests()),
+                Integer.getInteger(prefix + ".bookings-per-item", defaults.bookingsPerItem()),
+                Integer.getInteger(prefix + ".max-bookings-per-item", defaults.maxBookingsPerItem()),
+                Integer.getInteger(prefix + ".answer-percent", defaults.answerPercent()),
+                Integer.getInteger(prefix + ".comment-percent", defaults.commentPercent()),
+                Double.parseDouble(System.getProperty(prefix + ".skew", String.valueOf(defaults.skew()))),
+                Long.getLong(prefix + ".seed", defaults.seed()));
+    }
+}
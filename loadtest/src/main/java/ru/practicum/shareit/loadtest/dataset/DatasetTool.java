@@ -0,0 +1,99 @@
+package ru.practicum.shareit.loadtest.dataset;
+
+import org.flywaydb.core.Flyway;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/*
+Генерация набора данных промышленного размера вне приложения:
+  generate - сгенерировать прямо в базу dataset.url пакетными INSERT;
+  dump     - сгенерировать в файл дампа dataset.file;
+  load     - загрузить дамп dataset.file в базу dataset.url (в Postgres через COPY).
+База должна быть пустой, таблицы создаются миграциями сервера db/migration.
+Размеры задаются свойствами dataset.*, см. DatasetSpec.
+ */
+public final class DatasetTool {
+    private static final DatasetSpec DEFAULTS = new DatasetSpec(100_000, 3, 20_000, 10, 5_000, 10, 30, 3.0, 42L);
+
+    private DatasetTool() {
+    }
+
+    public static void main(String[] args) throws IOException, SQLException {
+        String command = args.length > 0 ? args[0] : "";
+        PrintStream out = new PrintStream(System.out, true, StandardCharsets.UTF_8);
+        long begin = System.nanoTime();
+        Map<Table, Long> counts = switch (command) {
+            case "generate" -> {
+                DatasetGenerator generator = new DatasetGenerator(spec(), LocalDateTime.now());
+                try (SingleConnectionDataSource dataSource = dataSource()) {
+                    JdbcTemplate jdbc = prepare(dataSource);
+                    try (RowSink sink = new BatchInsertSink(jdbc)) {
+                        yield generator.generate(sink);
+                    }
+                }
+            }
+            case "dump" -> {
+                LocalDateTime now = LocalDateTime.now();
+                DatasetGenerator generator = new DatasetGenerator(spec(), now);
+                try (OutputStream file = Files.newOutputStream(file());
+                     RowSink sink = new DumpWriter(file, now)) {
+                    yield generator.generate(sink);
+                }
+            }
+            case "load" -> {
+                try (SingleConnectionDataSource dataSource = dataSource();
+                     InputStream file = Files.newInputStream(file())) {
+                    JdbcTemplate jdbc = prepare(dataSource);
+                    Connection connection = dataSource.getConnection();
+                    try (RowSink sink = "PostgreSQL".equals(connection.getMetaData().getDatabaseProductName())
+                            ? new CopySink(connection) : new BatchInsertSink(jdbc)) {
+                        yield DumpReader.read(file, sink);
+                    }
+                }
+            }
+            default -> throw new IllegalArgumentException("Укажите команду: generate, dump или load");
+        };
+        counts.forEach((table, count) -> out.printf("%-10s %,12d%n", table, count));
+        out.printf("Готово за %d с%n", TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - begin));
+    }
+
+    private static DatasetSpec spec() {
+        return DatasetSpec.fromSystemProperties("dataset", DEFAULTS);
+    }
+
+    private static Path file() {
+        return Path.of(System.getProperty("dataset.file", "shareit-dataset.bin.gz"));
+    }
+
+    private static SingleConnectionDataSource dataSource() {
+        String url = System.getProperty("dataset.url");
+        if (url == null) {
+            throw new IllegalArgumentException("Не указана база: -Ddataset.url=jdbc:postgresql://...");
+        }
+        return new SingleConnectionDataSource(url, System.getProperty("dataset.username", ""),
+                System.getProperty("dataset.password", ""), true);
+    }
+
+    private static JdbcTemplate prepare(SingleConnectionDataSource dataSource) {
+        Flyway.configure().dataSource(dataSource).load().migrate();
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        Long users = jdbc.queryForObject("SELECT COUNT(*) FROM USERS", Long.class);
+        if (users != null && users > 0) {
+            throw new IllegalStateException("База не пустая: Id сгенерированных строк не совпадут со ссылками");
+        }
+        return jdbc;
+    }
+}
@@ -0,0 +1,56 @@
+package ru.practicum.shareit.loadtest.dataset;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+//Чтение дампа DumpWriter в приемник, время отсчитывается от момента загрузки
+public final class DumpReader {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private DumpReader() {
+    }
+
+    public static Map<Table, Long> read(InputStream source, RowSink sink) {
+        LocalDateTime base = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        Map<Table, Long> counts = new EnumMap<>(Table.class);
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(new GZIPInputStream(source, BUFFER_SIZE)))) {
+            if (!DumpWriter.MAGIC.equals(in.readUTF()) || in.readInt() != DumpWriter.VERSION) {
+                throw new IllegalArgumentException("Файл не является дампом набора данных ShareIt этой версии");
+            }
+            for (int tag = in.readUnsignedByte(); tag != DumpWriter.END; tag = in.readUnsignedByte()) {
+                Table table = Table.values()[tag];
+                List<Table.Column> columns = table.columns();
+                int rows = in.readInt();
+                for (int row = 0; row < rows; row++) {
+                    Object[] values = new Object[columns.size()];
+                    for (int i = 0; i < values.length; i++) {
+                        values[i] = switch (columns.get(i).type()) {
+                            case TEXT -> in.readUTF();
+                            case ID -> {
+                                int id = in.readInt();
+                                yield id == 0 ? null : id;
+                            }
+                            case BOOL -> in.readBoolean();
+                            case TIME -> base.plusSeconds(in.readInt());
+                        };
+                    }
+                    sink.row(table, values);
+                }
+                counts.merge(table, (long) rows, Long::sum);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return counts;
+    }
+}
@@ -0,0 +1,94 @@
+package ru.practicum.shareit.loadtest.dataset;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.zip.GZIPOutputStream;
+
+/*
+Компактный дамп набора данных: двоичные строки в gzip, блоками по таблицам
+(байт - номер таблицы, int - число строк, строки). Ссылка - int (0 вместо null),
+время - int секунд от момента генерации, поэтому при загрузке даты отсчитываются от текущего момента
+и будущие бронирования остаются будущими.
+ */
+public class DumpWriter implements RowSink {
+    static final String MAGIC = "shareit-dataset";
+    //2: в BOOKINGS добавлен OWNER_ID
+    static final int VERSION = 2;
+    static final int END = 0xFF;
+    private static final int BLOCK_ROWS = 10_000;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final DataOutputStream out;
+    private final LocalDateTime base;
+    private final ByteArrayOutputStream blockBytes = new ByteArrayOutputStream(BUFFER_SIZE);
+    private final DataOutputStream block = new DataOutputStream(blockBytes);
+    private Table current;
+    private int blockRows;
+
+    public DumpWriter(OutputStream target, LocalDateTime base) {
+        this.base = base;
+        try {
+            this.out = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(target, BUFFER_SIZE)));
+            out.writeUTF(MAGIC);
+            out.writeInt(VERSION);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void row(Table table, Object... values) {
+        if (table != current) {
+            flushBlock();
+            current = table;
+        }
+        try {
+            for (int i = 0; i < values.length; i++) {
+                Object value = values[i];
+                switch (table.columns().get(i).type()) {
+                    case TEXT -> block.writeUTF((String) value);
+                    case ID -> block.writeInt(value == null ? 0 : (Integer) value);
+                    case BOOL -> block.writeBoolean((Boolean) value);
+                    case TIME -> block.writeInt(
+                            Math.toIntExact(Duration.between(base, (LocalDateTime) value).toSeconds()));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (++blockRows == BLOCK_ROWS) {
+            flushBlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        flushBlock();
+        try (out) {
+            out.writeByte(END);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void flushBlock() {
+        if (blockRows == 0) {
+            return;
+        }
+        try {
+            out.writeByte(current.ordinal());
+            out.writeInt(blockRows);
+            blockBytes.writeTo(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        blockBytes.reset();
+        blockRows = 0;
+    }
+}
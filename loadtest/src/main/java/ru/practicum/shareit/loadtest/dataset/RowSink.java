@@ -0,0 +1,14 @@
+package ru.practicum.shareit.loadtest.dataset;
+
+/*
+Приемник строк генератора или дампа. Строки приходят таблица за таблицей в порядке Table,
+значения - в порядке колонок таблицы: String, Integer (null для пустой ссылки), Boolean, LocalDateTime.
+close дописывает то, что осталось в буфере.
+ */
+public interface RowSink extends AutoCloseable {
+
+    void row(Table table, Object... values);
+
+    @Override
+    void close();
+}
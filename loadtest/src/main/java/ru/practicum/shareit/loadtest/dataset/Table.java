@@ -0,0 +1,54 @@
+package ru.practicum.shareit.loadtest.dataset;
+
+import java.util.List;
+
+/*
+Таблицы схемы сервера в порядке заполнения (по внешним ключам) и их колонки без ID.
+Id строк идут подряд с 1 в порядке вставки: приемник проставляет их сам, а после таблицы переставляет
+ее последовательность за последний Id, иначе сервер начнет выдавать уже занятые.
+ */
+public enum Table {
+    USERS(new Column("NAME", Type.TEXT), new Column("EMAIL", Type.TEXT)),
+    REQUESTS(new Column("DESCRIPTION", Type.TEXT), new Column("REQUESTER_ID", Type.ID),
+            new Column("CREATED", Type.TIME)),
+    ITEMS(new Column("NAME", Type.TEXT), new Column("DESCRIPTION", Type.TEXT),
+            new Column("IS_AVIALABLE", Type.BOOL), new Column("OWNER_ID", Type.ID),
+            new Column("REQUEST_ID", Type.ID)),
+    BOOKINGS(new Column("START_DATE", Type.TIME), new Column("END_DATE", Type.TIME),
+            new Column("ITEM_ID", Type.ID), new Column("OWNER_ID", Type.ID), new Column("BOOKER_ID", Type.ID),
+            new Column("STATUS", Type.TEXT)),
+    COMMENTS(new Column("TEXT", Type.TEXT), new Column("ITEM_ID", Type.ID), new Column("AUTHOR_ID", Type.ID),
+            new Column("CREATED", Type.TIME));
+
+    private final List<Column> columns;
+
+    Table(Column... columns) {
+        this.columns = List.of(columns);
+    }
+
+    public List<Column> columns() {
+        return columns;
+    }
+
+    //колонки для вставки: ID первым, затем колонки таблицы
+    public String columnList() {
+        return "ID, " + String.join(", ", columns.stream().map(Column::name).toList());
+    }
+
+    public String insertSql() {
+        return "INSERT INTO " + name() + " (" + columnList() + ") VALUES (?, "
+                + String.join(", ", columns.stream().map(column -> "?").toList()) + ")";
+    }
+
+    public String restartSequenceSql(long rows) {
+        return "ALTER SEQUENCE " + name() + "_SEQ RESTART WITH " + (rows + 1);
+    }
+
+    public record Column(String name, Type type) {
+    }
+
+    //ID - ссылка на другую таблицу, может быть null; TIME - LocalDateTime с точностью до секунды
+    public enum Type {
+        TEXT, ID, BOOL, TIME
+    }
+}
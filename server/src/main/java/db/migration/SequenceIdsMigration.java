@@ -0,0 +1,61 @@
+package db.migration;
+
+import org.flywaydb.core.api.MigrationVersion;
+import org.flywaydb.core.api.migration.Context;
+import org.flywaydb.core.api.migration.JavaMigration;
+import ru.practicum.shareit.common.Common;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+/*
+Версия 3: Id выдает приложение из последовательностей вместо IDENTITY-колонок.
+С IDENTITY Hibernate узнает Id только после INSERT и поэтому не может собрать вставки в пакеты,
+а из последовательности он берет сразу блок Id (Common.ID_ALLOCATION_SIZE) и шлет INSERT-ы пакетами.
+Последовательность начинается после максимального Id таблицы - в SQL-миграции это не выразить одинаково
+для Postgres и H2. Значения по умолчанию у колонки ID нет: вставки в обход приложения указывают Id сами.
+ */
+public class SequenceIdsMigration implements JavaMigration {
+    private static final List<String> TABLES = List.of("USERS", "REQUESTS", "ITEMS", "BOOKINGS", "COMMENTS");
+
+    @Override
+    public MigrationVersion getVersion() {
+        return MigrationVersion.fromVersion("3");
+    }
+
+    @Override
+    public String getDescription() {
+        return "sequence ids";
+    }
+
+    @Override
+    public Integer getChecksum() {
+        return null;
+    }
+
+    @Override
+    public boolean canExecuteInTransaction() {
+        return true;
+    }
+
+    @Override
+    public void migrate(Context context) throws SQLException {
+        try (Statement statement = context.getConnection().createStatement()) {
+            for (String table : TABLES) {
+                long start = maxId(statement, table) + 1;
+                statement.execute(String.format("CREATE SEQUENCE %s_SEQ START WITH %d INCREMENT BY %d",
+                        table, start, Common.ID_ALLOCATION_SIZE));
+                statement.execute(String.format("ALTER TABLE %s ALTER COLUMN ID DROP IDENTITY", table));
+            }
+        }
+    }
+
+    private static long maxId(Statement statement, String table) throws SQLException {
+        try (ResultSet rs = statement.executeQuery(String.format("SELECT COALESCE(MAX(ID), 0) FROM %s", table))) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+}
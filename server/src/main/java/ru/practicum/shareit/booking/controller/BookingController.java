@@ -1,13 +1,19 @@
 package ru.practicum.shareit.booking.controller;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.booking.dto.BookingPageDto;
 import ru.practicum.shareit.booking.dto.InputBookingDto;
 import ru.practicum.shareit.booking.dto.OutputBookingDto;
+import ru.practicum.shareit.booking.events.BookingEventStream;
 import ru.practicum.shareit.booking.service.BookingService;
 
 import java.util.List;
 
+import static ru.practicum.shareit.common.Common.NEXT_CURSOR_HEADER;
 import static ru.practicum.shareit.common.Common.USER_HEADER;
 
 
@@ -16,6 +22,7 @@ import static ru.practicum.shareit.common.Common.USER_HEADER;
 @RequiredArgsConstructor
 public class BookingController {
     private final BookingService bookingService;
+    private final BookingEventStream bookingEventStream;
 
     @PostMapping()
     public OutputBookingDto createBooking(@RequestBody InputBookingDto bookingDto, @RequestHeader(value = USER_HEADER) Integer bookerId) {
@@ -23,12 +30,25 @@ public class BookingController {
         return bookingService.createBooking(bookingDto);
     }
 
+    @PostMapping("/batch")
+    public List<OutputBookingDto> createBookings(@RequestBody List<InputBookingDto> bookingDtoList,
+                                                 @RequestHeader(value = USER_HEADER) Integer bookerId) {
+        bookingDtoList.forEach(bookingDto -> bookingDto.setBookerId(bookerId));
+        return bookingService.createBookings(bookingDtoList);
+    }
+
     @PatchMapping("/{bookingId}")
     public OutputBookingDto approveBooking(@RequestHeader(value = USER_HEADER) Integer userId,
                                            @PathVariable("bookingId") Integer bookingId, @RequestParam(name = "approved") Boolean isApprove) {
         return bookingService.updateBooking(userId, bookingId, isApprove);
     }
 
+    //события создания и смены статуса бронирований пользователя - арендатора или владельца вещи
+    @GetMapping(path = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamEvents(@RequestHeader(value = USER_HEADER) Integer userId) {
+        return bookingEventStream.subscribe(userId);
+    }
+
     @GetMapping("/{bookingId}")
     public OutputBookingDto getBooking(@RequestHeader(value = USER_HEADER) Integer userId,
                                        @PathVariable("bookingId") Integer bookingId) {
@@ -36,15 +56,29 @@ public class BookingController {
     }
 
     @GetMapping
-    public List<OutputBookingDto> getUsersBookings(@RequestHeader(value = USER_HEADER) Integer userId,
-                                                   @RequestParam(name = "state", defaultValue = "ALL") String state) {
-        return bookingService.getUsersBooking(userId, state);
+    public ResponseEntity<List<OutputBookingDto>> getUsersBookings(
+            @RequestHeader(value = USER_HEADER) Integer userId,
+            @RequestParam(name = "state", defaultValue = "ALL") String state,
+            @RequestParam(name = "after", required = false) String after,
+            @RequestParam(name = "limit", required = false) Integer limit) {
+        return toResponse(bookingService.getUsersBooking(userId, state, after, limit));
     }
 
     @GetMapping("/owner")
-    public List<OutputBookingDto> getOwnersBookings(@RequestHeader(value = USER_HEADER) Integer userId,
-                                                    @RequestParam(name = "state", defaultValue = "ALL") String state) {
-        return bookingService.getOwnersBookings(userId, state);
+    public ResponseEntity<List<OutputBookingDto>> getOwnersBookings(
+            @RequestHeader(value = USER_HEADER) Integer userId,
+            @RequestParam(name = "state", defaultValue = "ALL") String state,
+            @RequestParam(name = "after", required = false) String after,
+            @RequestParam(name = "limit", required = false) Integer limit) {
+        return toResponse(bookingService.getOwnersBookings(userId, state, after, limit));
     }
 
+    //тело ответа остается списком, курсор следующей страницы передается в заголовке
+    private ResponseEntity<List<OutputBookingDto>> toResponse(BookingPageDto page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getBookings());
+    }
 }
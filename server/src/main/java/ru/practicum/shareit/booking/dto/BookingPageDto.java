@@ -0,0 +1,14 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.List;
+
+@Getter
+@RequiredArgsConstructor
+public class BookingPageDto {
+    private final List<OutputBookingDto> bookings;
+    //курсор следующей страницы, null - если страница последняя
+    private final String nextCursor;
+}
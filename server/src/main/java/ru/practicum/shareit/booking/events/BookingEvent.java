@@ -0,0 +1,15 @@
+package ru.practicum.shareit.booking.events;
+
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+
+/*
+Бронирование создано или изменился его статус. После фиксации транзакции уходит подписчикам GET /bookings/events -
+арендатору и владельцу вещи (см. BookingEventStream). Он же - тело события в потоке.
+ */
+public record BookingEvent(Integer bookingId, Integer itemId, Integer bookerId, Integer ownerId, BookingStatus status) {
+    public static BookingEvent of(Booking booking) {
+        return new BookingEvent(booking.getId(), booking.getItem().getId(), booking.getBooker().getId(),
+                booking.getItem().getOwner().getId(), booking.getStatus());
+    }
+}
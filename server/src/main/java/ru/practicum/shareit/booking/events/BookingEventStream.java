@@ -0,0 +1,173 @@
+package ru.practicum.shareit.booking.events;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+Поток событий бронирований GET /bookings/events: арендатор и владелец вещи получают BookingEvent после фиксации
+создания бронирования и смены его статуса.
+У каждого подключения своя очередь на buffer-size событий и свой виртуальный поток-отправитель: медленный клиент
+не задерживает ни транзакцию, ни других подписчиков. Переполненная очередь значит, что клиент не успевает читать, -
+такое подключение закрывается (метрика shareit.bookings.events.overflows), клиент переподключается и догоняет
+пропущенное по журналу GET /changes.
+Пока событий нет, раз в heartbeat уходит комментарий: соединение не закрывают по простою прокси,
+а отключившийся клиент обнаруживается на очередной записи.
+ */
+@Slf4j
+@Component
+public class BookingEventStream {
+    static final String EVENT_NAME = "booking";
+
+    private final UserService userService;
+    private final Duration heartbeat;
+    private final Duration timeout;
+    private final int bufferSize;
+    private final Counter overflows;
+    private final AtomicInteger connections = new AtomicInteger();
+    private final Map<Integer, Set<Subscription>> subscriptions = new ConcurrentHashMap<>();
+
+    public BookingEventStream(UserService userService, MeterRegistry meterRegistry,
+                              @Value("${shareit.bookings.events.heartbeat:15s}") Duration heartbeat,
+                              @Value("${shareit.bookings.events.timeout:30m}") Duration timeout,
+                              @Value("${shareit.bookings.events.buffer-size:64}") int bufferSize) {
+        this.userService = userService;
+        this.heartbeat = heartbeat;
+        this.timeout = timeout;
+        this.bufferSize = bufferSize;
+        Gauge.builder("shareit.bookings.events.connections", connections, AtomicInteger::get)
+                .description("Открытые подключения к потоку событий бронирований")
+                .register(meterRegistry);
+        this.overflows = Counter.builder("shareit.bookings.events.overflows")
+                .description("Подключения, закрытые из-за переполнения очереди событий")
+                .register(meterRegistry);
+    }
+
+    public SseEmitter subscribe(Integer userId) {
+        userService.getUserById(userId);
+        Subscription subscription = new Subscription(userId, createEmitter(timeout.toMillis()));
+        subscriptions.compute(userId, (id, userSubscriptions) -> {
+            Set<Subscription> result = userSubscriptions == null ? ConcurrentHashMap.newKeySet() : userSubscriptions;
+            result.add(subscription);
+            return result;
+        });
+        connections.incrementAndGet();
+        subscription.start();
+        log.debug("Пользователь {} подписался на события бронирований", userId);
+        return subscription.emitter;
+    }
+
+    protected SseEmitter createEmitter(long timeout) {
+        return new SseEmitter(timeout);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookingEvent(BookingEvent event) {
+        deliver(event.bookerId(), event);
+        deliver(event.ownerId(), event);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        List<Subscription> all = new ArrayList<>();
+        subscriptions.values().forEach(all::addAll);
+        all.forEach(Subscription::close);
+    }
+
+    private void deliver(Integer userId, BookingEvent event) {
+        Set<Subscription> userSubscriptions = subscriptions.get(userId);
+        if (userSubscriptions != null) {
+            userSubscriptions.forEach(subscription -> subscription.offer(event));
+        }
+    }
+
+    private void unsubscribe(Subscription subscription) {
+        subscriptions.computeIfPresent(subscription.userId, (id, userSubscriptions) -> {
+            userSubscriptions.remove(subscription);
+            return userSubscriptions.isEmpty() ? null : userSubscriptions;
+        });
+        connections.decrementAndGet();
+    }
+
+    private class Subscription implements Runnable {
+        private final Integer userId;
+        private final SseEmitter emitter;
+        private final BlockingQueue<BookingEvent> queue = new ArrayBlockingQueue<>(bufferSize);
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        Subscription(Integer userId, SseEmitter emitter) {
+            this.userId = userId;
+            this.emitter = emitter;
+        }
+
+        void start() {
+            emitter.onCompletion(this::close);
+            emitter.onTimeout(this::close);
+            emitter.onError(error -> close());
+            Thread.ofVirtual().name("booking-events-" + userId).start(this);
+        }
+
+        void offer(BookingEvent event) {
+            if (!closed.get() && !queue.offer(event)) {
+                overflows.increment();
+                log.warn("Пользователь {} не успевает читать события бронирований, подключение закрыто", userId);
+                close();
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                //первая запись отправляет заголовки ответа, не дожидаясь события или heartbeat
+                emitter.send(SseEmitter.event().comment("connected"));
+                while (!closed.get()) {
+                    BookingEvent event = queue.poll(heartbeat.toMillis(), TimeUnit.MILLISECONDS);
+                    if (closed.get()) {
+                        break;
+                    }
+                    if (event == null) {
+                        emitter.send(SseEmitter.event().comment("heartbeat"));
+                    } else {
+                        emitter.send(SseEmitter.event()
+                                .name(EVENT_NAME)
+                                .id(String.valueOf(event.bookingId()))
+                                .data(event));
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Подключение пользователя {} к событиям бронирований разорвано: {}", userId, e.getMessage());
+            } finally {
+                close();
+            }
+        }
+
+        void close() {
+            if (closed.compareAndSet(false, true)) {
+                unsubscribe(this);
+                emitter.complete();
+            }
+        }
+    }
+}
@@ -0,0 +1,298 @@
+package ru.practicum.shareit.booking.interval;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.storage.BookingStorage;
+import ru.practicum.shareit.exceptions.CustomValidationException;
+import ru.practicum.shareit.item.storage.ItemStorage;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/*
+Подтвержденные бронирования каждой вещи, упорядоченные по дате начала.
+Подтвержденные бронирования одной вещи не пересекаются, поэтому для проверки нового периода [start, end)
+достаточно одного соседа: бронирования с наибольшим началом, меньшим end. Проверка стоит O(log n).
+Индекс живет в памяти одного экземпляра сервера и подгружается из базы при первом обращении к вещи,
+поэтому подтверждения, сделанные на других экземплярах, он может не знать. Проверка при создании бронирования
+(checkFree) идет только по индексу и лишь отсекает заведомо занятые периоды. Подтверждение (reserve) решает
+по базе: строка вещи блокируется (SELECT ... FOR UPDATE), и под этой блокировкой пересечения ищутся
+среди зафиксированных подтвержденных бронирований, так что на всех экземплярах подтверждения одной вещи
+идут по очереди и не пересекаются. Занятый период сразу попадает в индекс и убирается, если транзакция откатилась.
+Закончившиеся зафиксированные бронирования в индексе не хранятся: период, начавшийся в прошлом, дополнительно
+сверяется с базой. Вещи, к которым долго не обращались, выгружаются из памяти по расписанию,
+число вещей в памяти ограничено.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BookingIntervalIndex {
+    private static final int LOCK_STRIPES = 64;
+    //вещь без обращений дольше этого выгружается; намного дольше любой транзакции, занявшей период
+    private static final Duration IDLE_TIMEOUT = Duration.ofMinutes(10);
+    //сверх этого числа вещей выгружаются давно не использованные, но не моложе MIN_IDLE
+    private static final int MAX_ITEMS = 100_000;
+    private static final Duration MIN_IDLE = Duration.ofMinutes(1);
+
+    private final BookingStorage bookingStorage;
+    private final ItemStorage itemStorage;
+
+    private final Lock[] locks = createLocks();
+    private final Map<Integer, ItemIntervals> approvedByItem = new ConcurrentHashMap<>();
+
+    //свободен ли период бронирования от подтвержденных бронирований вещи
+    public void checkFree(Booking booking) {
+        Integer itemId = booking.getItem().getId();
+        Lock lock = getLock(itemId);
+        lock.lock();
+        try {
+            checkConflict(getIntervals(itemId), booking);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /* Занять период под подтверждаемое бронирование; вызывается до смены статуса в той же транзакции.
+       Блокировка строки вещи берется до блокировки полосы индекса: поток, ждущий базу, не должен держать полосу.
+       Период этого бронирования в индексе может появиться только из этой же транзакции (подгрузка вещи
+       видит ее изменения), поэтому при откате этот вызов всегда убирает свой период */
+    public void reserve(Booking booking) {
+        Integer itemId = booking.getItem().getId();
+        itemStorage.lockItem(itemId);
+        checkDatabase(booking);
+        Interval interval = new Interval(booking.getId(), booking.getStart(), booking.getEnd());
+        //до фиксации период есть только в памяти, поэтому выгружать его нельзя, даже если он уже закончился
+        interval.setPending(true);
+        withLock(itemId, () -> {
+            NavigableMap<LocalDateTime, Interval> intervals = getIntervals(itemId);
+            //база пересечений не нашла: пересекающиеся периоды индекса отклонены на другом экземпляре
+            removeOverlapping(intervals, booking);
+            intervals.put(booking.getStart(), interval);
+        });
+        afterCompletion(committed -> {
+            interval.setPending(false);
+            if (!committed) {
+                withLock(itemId, () -> {
+                    ItemIntervals item = approvedByItem.get(itemId);
+                    if (item != null) {
+                        item.getIntervals().remove(interval.getStart(), interval);
+                    }
+                });
+            }
+        });
+    }
+
+    //освободить период отклоненного бронирования, когда отказ зафиксирован
+    public void release(Booking booking) {
+        afterCompletion(committed -> {
+            if (committed) {
+                remove(booking);
+            }
+        });
+    }
+
+    private void checkConflict(NavigableMap<LocalDateTime, Interval> intervals, Booking booking) {
+        Map.Entry<LocalDateTime, Interval> previous = intervals.lowerEntry(booking.getEnd());
+        if (previous != null && previous.getValue().getEnd().isAfter(booking.getStart())
+                && !previous.getValue().getBookingId().equals(booking.getId())) {
+            throw conflict(booking, previous.getValue());
+        }
+        //закончившиеся бронирования выгружены из памяти: период, начавшийся в прошлом, сверяется с базой
+        if (booking.getStart().isBefore(LocalDateTime.now())) {
+            checkDatabase(booking);
+        }
+    }
+
+    private void checkDatabase(Booking booking) {
+        bookingStorage.findAllByItemIdAndStatusAndStartBeforeAndEndAfter(booking.getItem().getId(),
+                        BookingStatus.APPROVED, booking.getEnd(), booking.getStart()).stream()
+                .filter(approved -> !approved.getId().equals(booking.getId()))
+                .findFirst()
+                .ifPresent(approved -> {
+                    throw conflict(booking, new Interval(approved.getId(), approved.getStart(), approved.getEnd()));
+                });
+    }
+
+    //периоды индекса не пересекаются между собой, поэтому период, начавшийся раньше бронирования, может быть один
+    private static void removeOverlapping(NavigableMap<LocalDateTime, Interval> intervals, Booking booking) {
+        LocalDateTime from = intervals.lowerKey(booking.getStart());
+        intervals.subMap(from != null ? from : booking.getStart(), true, booking.getEnd(), false).values()
+                .removeIf(interval -> interval.getEnd().isAfter(booking.getStart()));
+    }
+
+    private static CustomValidationException conflict(Booking booking, Interval conflict) {
+        log.error("Вещь {} уже забронирована с {} по {} (бронирование {})", booking.getItem().getId(),
+                conflict.getStart(), conflict.getEnd(), conflict.getBookingId());
+        return new CustomValidationException(String.format("Вещь %d уже забронирована с %s по %s",
+                booking.getItem().getId(), conflict.getStart(), conflict.getEnd()));
+    }
+
+    private void remove(Booking booking) {
+        Integer itemId = booking.getItem().getId();
+        Lock lock = getLock(itemId);
+        lock.lock();
+        try {
+            ItemIntervals item = approvedByItem.get(itemId);
+            if (item != null) {
+                Interval interval = item.getIntervals().get(booking.getStart());
+                if (interval != null && interval.getBookingId().equals(booking.getId())) {
+                    item.getIntervals().remove(booking.getStart());
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /* Вызывается только под блокировкой вещи, поэтому вещь грузится из базы одним потоком,
+       и запрос к базе не держит блокировку ConcurrentHashMap, общую для нескольких ключей */
+    private NavigableMap<LocalDateTime, Interval> getIntervals(Integer itemId) {
+        ItemIntervals item = approvedByItem.get(itemId);
+        if (item == null) {
+            item = new ItemIntervals(load(itemId));
+            approvedByItem.put(itemId, item);
+        }
+        item.touch();
+        removeEnded(item.getIntervals(), LocalDateTime.now());
+        return item.getIntervals();
+    }
+
+    //выгрузка закончившихся бронирований и давно не использованных вещей
+    @Scheduled(fixedDelayString = "${shareit.bookings.interval-index.evict-delay:60000}")
+    public void evict() {
+        long now = System.nanoTime();
+        LocalDateTime dateNow = LocalDateTime.now();
+        for (Integer itemId : List.copyOf(approvedByItem.keySet())) {
+            withLock(itemId, () -> {
+                ItemIntervals item = approvedByItem.get(itemId);
+                if (item == null) {
+                    return;
+                }
+                removeEnded(item.getIntervals(), dateNow);
+                if (item.idleNanos(now) > IDLE_TIMEOUT.toNanos()) {
+                    approvedByItem.remove(itemId);
+                }
+            });
+        }
+        int excess = approvedByItem.size() - MAX_ITEMS;
+        if (excess <= 0) {
+            return;
+        }
+        approvedByItem.entrySet().stream()
+                .filter(entry -> entry.getValue().idleNanos(now) > MIN_IDLE.toNanos())
+                .sorted(Comparator.comparingLong((Map.Entry<Integer, ItemIntervals> entry) ->
+                        entry.getValue().idleNanos(now)).reversed())
+                .limit(excess)
+                .forEach(entry -> withLock(entry.getKey(),
+                        () -> approvedByItem.remove(entry.getKey(), entry.getValue())));
+        log.info("Индекс бронирований превысил {} вещей, выгружены давно не использованные", MAX_ITEMS);
+    }
+
+    //периоды вещи не пересекаются, поэтому закончившиеся - всегда первые по дате начала
+    private static void removeEnded(NavigableMap<LocalDateTime, Interval> intervals, LocalDateTime now) {
+        Iterator<Interval> iterator = intervals.values().iterator();
+        while (iterator.hasNext()) {
+            Interval interval = iterator.next();
+            if (interval.getEnd().isAfter(now)) {
+                return;
+            }
+            if (!interval.isPending()) {
+                iterator.remove();
+            }
+        }
+    }
+
+    private void withLock(Integer itemId, Runnable action) {
+        Lock lock = getLock(itemId);
+        lock.lock();
+        try {
+            action.run();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private NavigableMap<LocalDateTime, Interval> load(Integer itemId) {
+        NavigableMap<LocalDateTime, Interval> intervals = new TreeMap<>();
+        for (Booking booking : bookingStorage.findAllByItemIdAndStatusAndEndAfter(itemId, BookingStatus.APPROVED,
+                LocalDateTime.now())) {
+            Interval old = intervals.put(booking.getStart(),
+                    new Interval(booking.getId(), booking.getStart(), booking.getEnd()));
+            if (old != null) {
+                log.warn("У вещи {} пересекаются подтвержденные бронирования {} и {}", itemId, old.getBookingId(),
+                        booking.getId());
+            }
+        }
+        return intervals;
+    }
+
+    private Lock getLock(Integer itemId) {
+        return locks[Math.floorMod(itemId.hashCode(), LOCK_STRIPES)];
+    }
+
+    private void afterCompletion(Consumer<Boolean> action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.accept(true);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                action.accept(status == STATUS_COMMITTED);
+            }
+        });
+    }
+
+    private static Lock[] createLocks() {
+        Lock[] locks = new Lock[LOCK_STRIPES];
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        return locks;
+    }
+
+    //периоды вещи и время последнего обращения к ней; меняются только под блокировкой вещи
+    @Getter
+    @RequiredArgsConstructor
+    private static final class ItemIntervals {
+        private final NavigableMap<LocalDateTime, Interval> intervals;
+        private volatile long lastAccess = System.nanoTime();
+
+        private void touch() {
+            lastAccess = System.nanoTime();
+        }
+
+        private long idleNanos(long now) {
+            return now - lastAccess;
+        }
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    private static final class Interval {
+        private final Integer bookingId;
+        private final LocalDateTime start;
+        private final LocalDateTime end;
+        //занят транзакцией, которая еще не завершилась
+        @Setter
+        private volatile boolean pending;
+    }
+}
@@ -4,6 +4,7 @@ import jakarta.persistence.*;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.Setter;
+import ru.practicum.shareit.common.Common;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.model.User;
 
@@ -14,9 +15,22 @@ import java.time.LocalDateTime;
 @EqualsAndHashCode(of = {"id"})
 @Entity
 @Table(name = "BOOKINGS")
+//все, что нужно для OutputBookingDto: вещь с владельцем и запросом и автор бронирования
+@NamedEntityGraph(name = Booking.WITH_ITEM_AND_BOOKER,
+        attributeNodes = {
+                @NamedAttributeNode(value = "item", subgraph = "item"),
+                @NamedAttributeNode("booker")
+        },
+        subgraphs = @NamedSubgraph(name = "item", attributeNodes = {
+                @NamedAttributeNode("owner"),
+                @NamedAttributeNode("request")
+        }))
 public class Booking {
+    public static final String WITH_ITEM_AND_BOOKER = "Booking.withItemAndBooker";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "bookings_seq")
+    @SequenceGenerator(name = "bookings_seq", sequenceName = "BOOKINGS_SEQ", allocationSize = Common.ID_ALLOCATION_SIZE)
     @Column(name = "ID")
     private Integer id;
 
@@ -30,10 +44,19 @@ public class Booking {
     @JoinColumn(name = "ITEM_ID", nullable = false)
     private Item item;
 
+    //копия владельца вещи для списков бронирований владельца по индексу, заполняется при сохранении
+    @Column(name = "OWNER_ID", nullable = false, updatable = false)
+    private Integer ownerId;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "BOOKER_ID", nullable = false)
     private User booker;
 
     @Enumerated(EnumType.STRING)
     private BookingStatus status;
+
+    @PrePersist
+    void fillOwnerId() {
+        ownerId = item.getOwner().getId();
+    }
 }
@@ -1,9 +1,53 @@
 package ru.practicum.shareit.booking.model;
 
-import lombok.Data;
+import jakarta.persistence.*;
+import lombok.AccessLevel;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
 
-@Data
+import java.time.LocalDateTime;
+
+/*
+Последнее и следующее подтвержденные бронирования вещи.
+Хранятся готовыми, чтобы не перебирать все бронирования вещи при каждом ее показе владельцу.
+Пересчитываются при создании/подтверждении бронирования и по расписанию, когда следующее бронирование началось.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@EqualsAndHashCode(of = {"itemId"})
+@Entity
+@Table(name = "ITEM_LAST_NEXT_BOOKINGS")
 public class LastAndNextBookings {
+    @Id
+    @Column(name = "ITEM_ID")
+    private Integer itemId;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "LAST_BOOKING_ID")
+    @OnDelete(action = OnDeleteAction.SET_NULL)
     private Booking lastBooking;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "NEXT_BOOKING_ID")
+    @OnDelete(action = OnDeleteAction.SET_NULL)
     private Booking nextBooking;
+
+    //копия начала следующего бронирования: по ней rollover находит вещи, не соединяя витрину с бронированиями
+    @Setter(AccessLevel.NONE)
+    @Column(name = "NEXT_START")
+    private LocalDateTime nextStart;
+
+    public LastAndNextBookings(Integer itemId) {
+        this.itemId = itemId;
+    }
+
+    public void setNextBooking(Booking nextBooking) {
+        this.nextBooking = nextBooking;
+        this.nextStart = nextBooking == null ? null : nextBooking.getStart();
+    }
 }
@@ -1,5 +1,6 @@
 package ru.practicum.shareit.booking.service;
 
+import ru.practicum.shareit.booking.dto.BookingPageDto;
 import ru.practicum.shareit.booking.dto.InputBookingDto;
 import ru.practicum.shareit.booking.dto.OutputBookingDto;
 
@@ -9,11 +10,13 @@ import java.util.List;
 public interface BookingService {
     OutputBookingDto createBooking(InputBookingDto bookingDto);
 
+    List<OutputBookingDto> createBookings(List<InputBookingDto> bookingDtoList);
+
     OutputBookingDto updateBooking(Integer userId, Integer bookingId, Boolean isApprove);
 
     OutputBookingDto getBookingById(Integer bookingId, Integer userId);
 
-    List<OutputBookingDto> getUsersBooking(Integer userId, String state);
+    BookingPageDto getUsersBooking(Integer userId, String state, String after, Integer limit);
 
-    List<OutputBookingDto> getOwnersBookings(Integer userId, String state);
+    BookingPageDto getOwnersBookings(Integer userId, String state, String after, Integer limit);
 }
@@ -2,10 +2,14 @@ package ru.practicum.shareit.booking.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dto.BookingPageDto;
 import ru.practicum.shareit.booking.dto.InputBookingDto;
 import ru.practicum.shareit.booking.dto.OutputBookingDto;
+import ru.practicum.shareit.booking.events.BookingEvent;
+import ru.practicum.shareit.booking.interval.BookingIntervalIndex;
 import ru.practicum.shareit.booking.mapper.SimpleBookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
@@ -15,9 +19,12 @@ import ru.practicum.shareit.booking.strategy.BookingStrategyFactory;
 import ru.practicum.shareit.booking.strategy.FindBookingStateEnum;
 import ru.practicum.shareit.booking.strategy.FindBookingsManager;
 import ru.practicum.shareit.common.Common;
+import ru.practicum.shareit.common.KeysetCursor;
+import ru.practicum.shareit.common.change.EntityChangedEvent;
 import ru.practicum.shareit.exceptions.LogicalException;
 import ru.practicum.shareit.exceptions.ResourceNotFoundException;
 import ru.practicum.shareit.exceptions.RightsException;
+import ru.practicum.shareit.exceptions.ValidationException;
 import ru.practicum.shareit.item.mapper.SimpleItemMapper;
 import ru.practicum.shareit.item.service.ItemService;
 import ru.practicum.shareit.user.model.User;
@@ -38,27 +45,82 @@ public class BookingServiceImpl implements BookingService {
     private final ItemService itemService;
     private final SimpleItemMapper itemMapper;
     private final BookingStrategyFactory strategyFactory;
+    private final LastAndNextBookingsService lastAndNextBookingsService;
+    private final BookingIntervalIndex bookingIntervalIndex;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     @Override
     public OutputBookingDto createBooking(InputBookingDto bookingDto) {
+        Booking createdBooking = bookingStorage.save(newBooking(bookingDto));
+        afterCreate(createdBooking);
+        return bookingMapper.bookingToDto(createdBooking, itemMapper);
+    }
+
+    //Id всем бронированиям пакета выдаются из последовательности заранее, поэтому INSERT-ы уходят пакетами
+    @Transactional
+    @Override
+    public List<OutputBookingDto> createBookings(List<InputBookingDto> bookingDtoList) {
+        checkBatchSize(bookingDtoList.size());
+        List<Booking> bookingList = bookingDtoList.stream()
+                .map(this::newBooking)
+                .toList();
+        List<Booking> createdBookings = bookingStorage.saveAll(bookingList);
+        createdBookings.forEach(this::afterCreate);
+        return createdBookings.stream()
+                .map(booking -> bookingMapper.bookingToDto(booking, itemMapper))
+                .toList();
+    }
+
+    private Booking newBooking(InputBookingDto bookingDto) {
         Booking booking = bookingMapper.dtoToBooking(bookingDto, itemService);
         booking.setStatus(Common.DEFAULT_BOOKING_STATUS);
         checkBookingBeforeCreate(booking);
-        return bookingMapper.bookingToDto(bookingStorage.save(booking), itemMapper);
+        //ожидающие бронирования могут претендовать на одно время, занятым его делает только подтверждение
+        bookingIntervalIndex.checkFree(booking);
+        return booking;
+    }
+
+    private void afterCreate(Booking createdBooking) {
+        publishChanged(createdBooking);
+        if (createdBooking.getStatus() == BookingStatus.APPROVED) {
+            bookingIntervalIndex.reserve(createdBooking);
+            lastAndNextBookingsService.refresh(createdBooking.getItem().getId());
+        }
     }
 
     @Transactional
     @Override
     public OutputBookingDto updateBooking(Integer userId, Integer bookingId, Boolean isApprove) {
-        Booking booking = getBookingById(bookingId);
+        Booking booking = bookingStorage.lockById(bookingId).orElseThrow(() -> notFound(bookingId));
         checkRightsForUpdate(booking, userId);
+        BookingStatus oldStatus = booking.getStatus();
+        BookingStatus newStatus = isApprove ? BookingStatus.APPROVED : BookingStatus.REJECTED;
+        //повторное подтверждение или отказ ничего не меняют
+        if (oldStatus == newStatus) {
+            return bookingMapper.bookingToDto(booking, itemMapper);
+        }
+        /* период занимается до смены статуса: запросы reserve к бронированиям не должны видеть
+           еще не зафиксированный статус этой транзакции. Конфликт с другим бронированием откатит транзакцию */
+        boolean wasApproved = oldStatus == BookingStatus.APPROVED;
         if (isApprove) {
-            booking.setStatus(BookingStatus.APPROVED);
-        } else {
-            booking.setStatus(BookingStatus.REJECTED);
+            bookingIntervalIndex.reserve(booking);
+        } else if (wasApproved) {
+            bookingIntervalIndex.release(booking);
+        }
+        //строка заблокирована, UPDATE статуса уходит при фиксации
+        booking.setStatus(newStatus);
+        publishChanged(booking);
+        //последнее/следующее бронирования вещи меняются, только если меняется набор подтвержденных
+        if (wasApproved || isApprove) {
+            lastAndNextBookingsService.refresh(booking.getItem().getId());
         }
-        return bookingMapper.bookingToDto(bookingStorage.save(booking), itemMapper);
+        return bookingMapper.bookingToDto(booking, itemMapper);
+    }
+
+    private void publishChanged(Booking booking) {
+        eventPublisher.publishEvent(new EntityChangedEvent(EntityChangedEvent.BOOKINGS, booking.getId()));
+        eventPublisher.publishEvent(BookingEvent.of(booking));
     }
 
     private void checkBookingBeforeCreate(Booking booking) {
@@ -83,37 +145,62 @@ public class BookingServiceImpl implements BookingService {
     }
 
     @Override
-    public List<OutputBookingDto> getUsersBooking(Integer userId, String state) {
-        return commonGetBookings(userId, state + "_USERS");
+    public BookingPageDto getUsersBooking(Integer userId, String state, String after, Integer limit) {
+        return commonGetBookings(userId, state + "_USERS", after, limit);
     }
 
     @Override
-    public List<OutputBookingDto> getOwnersBookings(Integer userId, String state) {
-        return commonGetBookings(userId, state + "_OWNERS");
+    public BookingPageDto getOwnersBookings(Integer userId, String state, String after, Integer limit) {
+        return commonGetBookings(userId, state + "_OWNERS", after, limit);
     }
 
-    private List<OutputBookingDto> commonGetBookings(Integer userId, String newState) {
+    private BookingPageDto commonGetBookings(Integer userId, String newState, String after, Integer limit) {
+        checkLimit(limit);
         User user = userService.getUserById(userId);
         BookingFindStrategy strategy = strategyFactory.getStrategyByState(FindBookingStateEnum.parse(newState));
         strategy.setBookingStorage(bookingStorage);
         FindBookingsManager findBookings = new FindBookingsManager();
         findBookings.setStrategy(strategy);
 
-        return findBookings.findBookings(user)
-                .stream()
+        //без limit список отдается целиком, как до постраничного чтения
+        List<Booking> bookingList = findBookings.findBookings(user, KeysetCursor.decode(after), Common.pageLimit(limit));
+        String nextCursor = null;
+        if (limit != null && bookingList.size() > limit) {
+            bookingList = bookingList.subList(0, limit);
+            Booking last = bookingList.getLast();
+            nextCursor = new KeysetCursor(last.getStart(), last.getId()).encode();
+        }
+        List<OutputBookingDto> bookingDtoList = bookingList.stream()
                 .map(booking -> bookingMapper.bookingToDto(booking, itemMapper))
                 .collect(Collectors.toList());
+        return new BookingPageDto(bookingDtoList, nextCursor);
+    }
+
+    private void checkLimit(Integer limit) {
+        if (limit != null && (limit < 1 || limit > Common.MAX_PAGE_SIZE)) {
+            log.error("Недопустимый размер страницы бронирований limit = {}", limit);
+            throw new ValidationException(String.format("Размер страницы должен быть от 1 до %d", Common.MAX_PAGE_SIZE));
+        }
+    }
+
+    private void checkBatchSize(int size) {
+        if (size > Common.MAX_BATCH_SIZE) {
+            log.error("Слишком большой пакет бронирований: {}", size);
+            throw new ValidationException(String.format("В пакете может быть не больше %d бронирований", Common.MAX_BATCH_SIZE));
+        }
     }
 
     private Booking getBookingById(Integer bookingId) {
-        return bookingStorage.findById(bookingId).orElseThrow(() -> {
-            log.error("Бронирование {} не найдено!", bookingId);
-            throw new ResourceNotFoundException(String.format("Бронирование %d не найдено!", bookingId));
-        });
+        return bookingStorage.findById(bookingId).orElseThrow(() -> notFound(bookingId));
+    }
+
+    private static ResourceNotFoundException notFound(Integer bookingId) {
+        log.error("Бронирование {} не найдено!", bookingId);
+        return new ResourceNotFoundException(String.format("Бронирование %d не найдено!", bookingId));
     }
 
     private void checkRightsForUpdate(Booking booking, Integer userId) {
-        if (!Objects.equals(booking.getItem().getOwner().getId(), userId)) {
+        if (!Objects.equals(booking.getOwnerId(), userId)) {
             log.error("Подтвердить/отменить  бронирование {} может только владелец!", booking.getId());
             throw new RightsException(String.format("Подтвердить/отменить  бронирование %d может только владелец!", booking.getId()));
         }
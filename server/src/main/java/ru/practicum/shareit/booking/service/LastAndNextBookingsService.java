@@ -0,0 +1,14 @@
+package ru.practicum.shareit.booking.service;
+
+import ru.practicum.shareit.booking.model.LastAndNextBookings;
+
+import java.util.List;
+import java.util.Map;
+
+public interface LastAndNextBookingsService {
+    void refresh(Integer itemId);
+
+    LastAndNextBookings getByItemId(Integer itemId);
+
+    Map<Integer, LastAndNextBookings> getByItemIds(List<Integer> itemIds);
+}
@@ -0,0 +1,131 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.model.LastAndNextBookings;
+import ru.practicum.shareit.booking.storage.BookingStorage;
+import ru.practicum.shareit.booking.storage.LastAndNextBookingsStorage;
+import ru.practicum.shareit.common.change.EntityChangedEvent;
+import ru.practicum.shareit.item.storage.ItemStorage;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Slf4j
+@Service
+@Transactional(readOnly = true)
+public class LastAndNextBookingsServiceImpl implements LastAndNextBookingsService {
+    private static final int REBUILD_BATCH_SIZE = 500;
+
+    private final LastAndNextBookingsStorage lastAndNextStorage;
+    private final BookingStorage bookingStorage;
+    private final ItemStorage itemStorage;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+
+    public LastAndNextBookingsServiceImpl(LastAndNextBookingsStorage lastAndNextStorage, BookingStorage bookingStorage,
+                                          ItemStorage itemStorage, ApplicationEventPublisher eventPublisher,
+                                          PlatformTransactionManager transactionManager) {
+        this.lastAndNextStorage = lastAndNextStorage;
+        this.bookingStorage = bookingStorage;
+        this.itemStorage = itemStorage;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Transactional
+    @Override
+    public void refresh(Integer itemId) {
+        itemStorage.lockItem(itemId);
+        LocalDateTime now = LocalDateTime.now();
+        LastAndNextBookings twoBookings = lastAndNextStorage.findById(itemId)
+                .orElseGet(() -> new LastAndNextBookings(itemId));
+        fill(twoBookings, now);
+        lastAndNextStorage.save(twoBookings);
+        //последнее и следующее бронирования входят в ответ на запрос вещи
+        eventPublisher.publishEvent(new EntityChangedEvent(EntityChangedEvent.ITEMS, itemId));
+    }
+
+    @Override
+    public LastAndNextBookings getByItemId(Integer itemId) {
+        return getByItemIds(List.of(itemId)).get(itemId);
+    }
+
+    @Override
+    public Map<Integer, LastAndNextBookings> getByItemIds(List<Integer> itemIds) {
+        LocalDateTime now = LocalDateTime.now();
+        Map<Integer, LastAndNextBookings> result = new HashMap<>();
+        for (LastAndNextBookings twoBookings : lastAndNextStorage.findAllByItemIdIn(itemIds)) {
+            /* следующее бронирование уже началось, а плановый пересчет еще не прошел:
+               для ответа считаем вещь заново, запись в базе поправит rollover */
+            if (twoBookings.getNextBooking() != null && !twoBookings.getNextBooking().getStart().isAfter(now)) {
+                LastAndNextBookings actual = new LastAndNextBookings(twoBookings.getItemId());
+                fill(actual, now);
+                result.put(actual.getItemId(), actual);
+            } else {
+                result.put(twoBookings.getItemId(), twoBookings);
+            }
+        }
+        itemIds.forEach(itemId -> result.computeIfAbsent(itemId, LastAndNextBookings::new));
+        return result;
+    }
+
+    //следующее бронирование со временем становится последним
+    @Scheduled(fixedDelayString = "${shareit.bookings.rollover-delay:60000}")
+    @Transactional
+    public void rollover() {
+        List<Integer> itemIds = lastAndNextStorage.getItemsWithStartedNextBooking(LocalDateTime.now());
+        itemIds.forEach(this::refresh);
+        if (!itemIds.isEmpty()) {
+            log.info("Пересчитаны последнее и следующее бронирования для {} вещей", itemIds.size());
+        }
+    }
+
+    /* Заполнение для бронирований, подтвержденных до появления таблицы. Считаются только вещи без записи
+       витрины - остальные поддерживают refresh и rollover, так что обычный перезапуск ничего не пересчитывает.
+       Каждая пачка - своя транзакция: блокировки вещей и память под пачку не копятся до конца пересборки */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        int total = 0;
+        Integer lastItemId = 0;
+        List<Integer> batch;
+        do {
+            Integer afterItemId = lastItemId;
+            batch = transactionTemplate.execute(status -> {
+                List<Integer> itemIds = bookingStorage.getItemsWithoutLastAndNext(afterItemId,
+                        Limit.of(REBUILD_BATCH_SIZE));
+                itemIds.forEach(this::refresh);
+                return itemIds;
+            });
+            if (!batch.isEmpty()) {
+                lastItemId = batch.get(batch.size() - 1);
+                total += batch.size();
+            }
+        } while (batch.size() == REBUILD_BATCH_SIZE);
+        if (total > 0) {
+            log.info("Последнее и следующее бронирования посчитаны для {} вещей", total);
+        }
+    }
+
+    private void fill(LastAndNextBookings twoBookings, LocalDateTime now) {
+        /*
+        Последнее бронирование таково, что началось в самом ближайшем прошлом.
+        А следующее, которое начнется в самом ближайшем будущем.
+         */
+        twoBookings.setLastBooking(bookingStorage.findFirstByItemIdAndStatusAndStartBeforeOrderByStartDesc(
+                twoBookings.getItemId(), BookingStatus.APPROVED, now).orElse(null));
+        twoBookings.setNextBooking(bookingStorage.findFirstByItemIdAndStatusAndStartAfterOrderByStart(
+                twoBookings.getItemId(), BookingStatus.APPROVED, now).orElse(null));
+    }
+}
@@ -1,45 +1,109 @@
 package ru.practicum.shareit.booking.storage;
 
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
-import ru.practicum.shareit.item.model.Item;
-import ru.practicum.shareit.user.model.User;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 public interface BookingStorage extends JpaRepository<Booking, Integer> {
-    List<Booking> findBookingByBooker(User user);
+    /* Списки бронирований отдаются страницами по курсору (start, id): ?2 и ?3 - позиция последнего
+       бронирования предыдущей страницы, сортировка всегда (start DESC, id DESC).
+       Условие start <= ?2 вынесено из OR, чтобы курсор был диапазоном по индексу (..., START_DATE, ID).
+       Вещь и автор читаются тем же запросом, иначе маппинг страницы в DTO дочитывал бы их построчно */
+    String AFTER_CURSOR = "AND B.start <= ?2 AND (B.start < ?2 OR B.id < ?3) ";
+    String KEYSET_ORDER = "ORDER BY B.start DESC, B.id DESC";
 
-    List<Booking> findBookingByBookerAndStatus(User user, BookingStatus status);
+    @EntityGraph(Booking.WITH_ITEM_AND_BOOKER)
+    @Override
+    Optional<Booking> findById(Integer id);
 
-    List<Booking> findBookingByBookerAndStartBeforeAndEndAfter(User user, LocalDateTime dateTime,
-                                                               LocalDateTime dateTime1);
+    @EntityGraph(Booking.WITH_ITEM_AND_BOOKER)
+    @Query(value = "SELECT B FROM Booking B WHERE B.booker.id = ?1 " + AFTER_CURSOR + KEYSET_ORDER)
+    List<Booking> getAllBookingsForBooker(Integer bookerId, LocalDateTime afterStart, Integer afterId, Limit limit);
 
-    List<Booking> findBookingByBookerAndEndBefore(User user, LocalDateTime dateTime);
+    @EntityGraph(Booking.WITH_ITEM_AND_BOOKER)
+    @Query(value = "SELECT B FROM Booking B WHERE B.booker.id = ?1 " + AFTER_CURSOR + "AND B.status = ?4 " +
+            KEYSET_ORDER)
+    List<Booking> getBookingsForBookerByStatus(Integer bookerId, LocalDateTime afterStart, Integer afterId,
+                                               BookingStatus bookingStatus, Limit limit);
 
-    List<Booking> findBookingByBookerAndStartAfter(User user, LocalDateTime dateTime);
+    @EntityGraph(Booking.WITH_ITEM_AND_BOOKER)
+    @Query(value = "SELECT B FROM Booking B WHERE B.booker.id = ?1 " + AFTER_CURSOR + "AND B.start < ?4 " +
+            "AND B.end > ?4 " + KEYSET_ORDER)
+    List<Booking> getCurrentBookingForBooker(Integer bookerId, LocalDateTime afterStart, Integer afterId,
+                                             LocalDateTime date, Limit limit);
 
-    @Query(value = "SELECT B FROM Booking B WHERE B.item.owner.id = ?1 AND B.status = ?2 order by B.start desc")
-    List<Booking> getBookingsForOwnerByStatus(Integer ownerId, BookingStatus bookingStatus);
+    @EntityGraph(Booking.WITH_ITEM_AND_BOOKER)
+    @Query(value = "SELECT B FROM Booking B WHERE B.booker.id = ?1 " + AFTER_CURSOR + "AND B.end < ?4 " +
+            KEYSET_ORDER)
+    List<Booking> getPastBookingForBooker(Integer bookerId, LocalDateTime afterStart, Integer afterId,
+                                          LocalDateTime date, Limit limit);
 
-    @Query(value = "SELECT B FROM Booking B WHERE B.item.owner.id = ?1 ORDER BY B.start DESC")
-    List<Booking> getAllBookingsForOwner(Integer ownerId);
+    @EntityGraph(Booking.WITH_ITEM_AND_BOOKER)
+    @Query(value = "SELECT B FROM Booking B WHERE B.booker.id = ?1 " + AFTER_CURSOR + "AND B.start > ?4 " +
+            KEYSET_ORDER)
+    List<Booking> getFutureBookingForBooker(Integer bookerId, LocalDateTime afterStart, Integer afterId,
+                                            LocalDateTime date, Limit limit);
 
-    @Query(value = "SELECT B FROM Booking B WHERE B.item.owner.id = ?1 AND B.start < ?2 AND B.end > ?3 ORDER BY B.start DESC")
-    List<Booking> getCurrentBookingForOwner(Integer ownerId, LocalDateTime date1, LocalDateTime date2);
+    @EntityGraph(Booking.WITH_ITEM_AND_BOOKER)
+    @Query(value = "SELECT B FROM Booking B WHERE B.ownerId = ?1 " + AFTER_CURSOR + "AND B.status = ?4 " +
+            KEYSET_ORDER)
+    List<Booking> getBookingsForOwnerByStatus(Integer ownerId, LocalDateTime afterStart, Integer afterId,
+                                              BookingStatus bookingStatus, Limit limit);
 
-    @Query(value = "SELECT B FROM Booking B WHERE B.item.owner.id = ?1 AND B.end < ?2 ORDER BY B.start DESC")
-    List<Booking> getPastBookingForOwner(Integer ownerId, LocalDateTime date);
+    @EntityGraph(Booking.WITH_ITEM_AND_BOOKER)
+    @Query(value = "SELECT B FROM Booking B WHERE B.ownerId = ?1 " + AFTER_CURSOR + KEYSET_ORDER)
+    List<Booking> getAllBookingsForOwner(Integer ownerId, LocalDateTime afterStart, Integer afterId, Limit limit);
 
-    @Query(value = "SELECT B FROM Booking B WHERE B.item.owner.id = ?1 AND B.start > ?2 ORDER BY B.start DESC")
-    List<Booking> getFutureBookingForOwner(Integer ownerId, LocalDateTime date);
+    @EntityGraph(Booking.WITH_ITEM_AND_BOOKER)
+    @Query(value = "SELECT B FROM Booking B WHERE B.ownerId = ?1 " + AFTER_CURSOR + "AND B.start < ?4 " +
+            "AND B.end > ?4 " + KEYSET_ORDER)
+    List<Booking> getCurrentBookingForOwner(Integer ownerId, LocalDateTime afterStart, Integer afterId,
+                                            LocalDateTime date, Limit limit);
 
-    @Query(value = "SELECT B FROM Booking B WHERE B.item.id = ?1 AND B.status = 'APPROVED' AND B.item.owner.id = ?2 " +
-            "ORDER BY B.end")
-    List<Booking> getBookingsByItemOwner(Integer itemId, Integer userId);
+    @EntityGraph(Booking.WITH_ITEM_AND_BOOKER)
+    @Query(value = "SELECT B FROM Booking B WHERE B.ownerId = ?1 " + AFTER_CURSOR + "AND B.end < ?4 " +
+            KEYSET_ORDER)
+    List<Booking> getPastBookingForOwner(Integer ownerId, LocalDateTime afterStart, Integer afterId,
+                                         LocalDateTime date, Limit limit);
 
-    List<Booking> findAllByItemInAndStatusOrderByStart(List<Item> itemList, BookingStatus status);
+    @EntityGraph(Booking.WITH_ITEM_AND_BOOKER)
+    @Query(value = "SELECT B FROM Booking B WHERE B.ownerId = ?1 " + AFTER_CURSOR + "AND B.start > ?4 " +
+            KEYSET_ORDER)
+    List<Booking> getFutureBookingForOwner(Integer ownerId, LocalDateTime afterStart, Integer afterId,
+                                           LocalDateTime date, Limit limit);
+
+    Optional<Booking> findFirstByItemIdAndStatusAndStartBeforeOrderByStartDesc(Integer itemId, BookingStatus status,
+                                                                               LocalDateTime date);
+
+    Optional<Booking> findFirstByItemIdAndStatusAndStartAfterOrderByStart(Integer itemId, BookingStatus status,
+                                                                          LocalDateTime date);
+
+    List<Booking> findAllByItemIdAndStatusAndEndAfter(Integer itemId, BookingStatus status, LocalDateTime end);
+
+    //подтвержденные бронирования вещи, пересекающиеся с периодом [?4, ?3)
+    List<Booking> findAllByItemIdAndStatusAndStartBeforeAndEndAfter(Integer itemId, BookingStatus status,
+                                                                    LocalDateTime end, LocalDateTime start);
+
+    //вещи с подтвержденными бронированиями, но без записи витрины LastAndNextBookings, по возрастанию Id после ?1
+    @Query(value = "SELECT DISTINCT B.item.id FROM Booking B WHERE B.status = 'APPROVED' AND B.item.id > ?1 " +
+            "AND NOT EXISTS (SELECT S.itemId FROM LastAndNextBookings S WHERE S.itemId = B.item.id) " +
+            "ORDER BY B.item.id")
+    List<Integer> getItemsWithoutLastAndNext(Integer afterItemId, Limit limit);
+
+    /* Смена статуса: бронирование читается вместе с вещью и автором под блокировкой строки, статус меняется
+       в этой же строке при фиксации. Параллельный запрос к тому же бронированию ждет блокировку
+       и читает уже зафиксированный статус, поэтому смена статуса выполняется строго по очереди */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @EntityGraph(Booking.WITH_ITEM_AND_BOOKER)
+    @Query(value = "SELECT B FROM Booking B WHERE B.id = ?1")
+    Optional<Booking> lockById(Integer bookingId);
 }
@@ -0,0 +1,18 @@
+package ru.practicum.shareit.booking.storage;
+
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import ru.practicum.shareit.booking.model.LastAndNextBookings;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface LastAndNextBookingsStorage extends JpaRepository<LastAndNextBookings, Integer> {
+    @EntityGraph(attributePaths = {"lastBooking", "lastBooking.booker", "nextBooking", "nextBooking.booker"})
+    List<LastAndNextBookings> findAllByItemIdIn(Collection<Integer> itemIds);
+
+    @Query(value = "SELECT S.itemId FROM LastAndNextBookings S WHERE S.nextStart <= ?1")
+    List<Integer> getItemsWithStartedNextBooking(LocalDateTime date);
+}
@@ -1,8 +1,10 @@
 package ru.practicum.shareit.booking.strategy;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.storage.BookingStorage;
+import ru.practicum.shareit.common.KeysetCursor;
 import ru.practicum.shareit.user.model.User;
 
 import java.util.List;
@@ -17,5 +19,5 @@ public abstract class BookingFindStrategy {
 
     public abstract FindBookingStateEnum getState();
 
-    public abstract List<Booking> findBooking(User user);
+    public abstract List<Booking> findBooking(User user, KeysetCursor cursor, Limit limit);
 }
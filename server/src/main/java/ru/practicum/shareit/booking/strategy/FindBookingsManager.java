@@ -1,6 +1,8 @@
 package ru.practicum.shareit.booking.strategy;
 
+import org.springframework.data.domain.Limit;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.common.KeysetCursor;
 import ru.practicum.shareit.user.model.User;
 
 import java.util.List;
@@ -12,7 +14,7 @@ public class FindBookingsManager {
         this.findStrategy = findStrategy;
     }
 
-    public List<Booking> findBookings(User user) {
-        return findStrategy.findBooking(user);
+    public List<Booking> findBookings(User user, KeysetCursor cursor, Limit limit) {
+        return findStrategy.findBooking(user, cursor, limit);
     }
 }
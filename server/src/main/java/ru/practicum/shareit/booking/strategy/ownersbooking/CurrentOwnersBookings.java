@@ -1,9 +1,11 @@
 package ru.practicum.shareit.booking.strategy.ownersbooking;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Component;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.strategy.BookingFindStrategy;
 import ru.practicum.shareit.booking.strategy.FindBookingStateEnum;
+import ru.practicum.shareit.common.KeysetCursor;
 import ru.practicum.shareit.user.model.User;
 
 import java.time.LocalDateTime;
@@ -17,8 +19,9 @@ public class CurrentOwnersBookings extends BookingFindStrategy {
     }
 
     @Override
-    public List<Booking> findBooking(User user) {
+    public List<Booking> findBooking(User user, KeysetCursor cursor, Limit limit) {
         LocalDateTime dateTime = LocalDateTime.now();
-        return bookingStorage.getCurrentBookingForOwner(user.getId(), dateTime, dateTime);
+        return bookingStorage.getCurrentBookingForOwner(user.getId(), cursor.getTime(), cursor.getId(),
+                dateTime, limit);
     }
 }
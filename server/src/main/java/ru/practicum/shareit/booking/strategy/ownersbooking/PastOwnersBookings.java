@@ -1,9 +1,11 @@
 package ru.practicum.shareit.booking.strategy.ownersbooking;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Component;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.strategy.BookingFindStrategy;
 import ru.practicum.shareit.booking.strategy.FindBookingStateEnum;
+import ru.practicum.shareit.common.KeysetCursor;
 import ru.practicum.shareit.user.model.User;
 
 import java.time.LocalDateTime;
@@ -12,8 +14,9 @@ import java.util.List;
 @Component
 public class PastOwnersBookings extends BookingFindStrategy {
     @Override
-    public List<Booking> findBooking(User user) {
-        return bookingStorage.getPastBookingForOwner(user.getId(), LocalDateTime.now());
+    public List<Booking> findBooking(User user, KeysetCursor cursor, Limit limit) {
+        return bookingStorage.getPastBookingForOwner(user.getId(), cursor.getTime(), cursor.getId(),
+                LocalDateTime.now(), limit);
     }
 
     @Override
@@ -1,10 +1,12 @@
 package ru.practicum.shareit.booking.strategy.ownersbooking;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Component;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.strategy.BookingFindStrategy;
 import ru.practicum.shareit.booking.strategy.FindBookingStateEnum;
+import ru.practicum.shareit.common.KeysetCursor;
 import ru.practicum.shareit.user.model.User;
 
 import java.util.List;
@@ -12,8 +14,9 @@ import java.util.List;
 @Component
 public class RejectedOwnersBookings extends BookingFindStrategy {
     @Override
-    public List<Booking> findBooking(User user) {
-        return bookingStorage.getBookingsForOwnerByStatus(user.getId(), BookingStatus.REJECTED);
+    public List<Booking> findBooking(User user, KeysetCursor cursor, Limit limit) {
+        return bookingStorage.getBookingsForOwnerByStatus(user.getId(), cursor.getTime(), cursor.getId(),
+                BookingStatus.REJECTED, limit);
     }
 
     @Override
@@ -1,9 +1,11 @@
 package ru.practicum.shareit.booking.strategy.usersbooking;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Component;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.strategy.BookingFindStrategy;
 import ru.practicum.shareit.booking.strategy.FindBookingStateEnum;
+import ru.practicum.shareit.common.KeysetCursor;
 import ru.practicum.shareit.user.model.User;
 
 import java.time.LocalDateTime;
@@ -12,9 +14,10 @@ import java.util.List;
 @Component
 public class CurrentUsersBookings extends BookingFindStrategy {
     @Override
-    public List<Booking> findBooking(User user) {
+    public List<Booking> findBooking(User user, KeysetCursor cursor, Limit limit) {
         LocalDateTime dateTime = LocalDateTime.now();
-        return bookingStorage.findBookingByBookerAndStartBeforeAndEndAfter(user, dateTime, dateTime);
+        return bookingStorage.getCurrentBookingForBooker(user.getId(), cursor.getTime(), cursor.getId(),
+                dateTime, limit);
     }
 
     @Override
@@ -0,0 +1,33 @@
+package ru.practicum.shareit.change.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.change.dto.ChangeDto;
+import ru.practicum.shareit.change.dto.ChangePageDto;
+import ru.practicum.shareit.change.service.ChangeLogService;
+
+import java.util.List;
+
+import static ru.practicum.shareit.common.Common.DEFAULT_PAGE_SIZE;
+import static ru.practicum.shareit.common.Common.NEXT_CURSOR_HEADER;
+import static ru.practicum.shareit.common.Common.USER_HEADER;
+
+@RestController
+@RequestMapping(path = "/changes")
+@RequiredArgsConstructor
+public class ChangeController {
+    private final ChangeLogService changeLogService;
+
+    //тело ответа - список изменений, курсор для следующего запроса передается в заголовке, как у списков бронирований
+    @GetMapping
+    public ResponseEntity<List<ChangeDto>> getChanges(
+            @RequestHeader(value = USER_HEADER) Integer userId,
+            @RequestParam(name = "since", required = false) Long since,
+            @RequestParam(name = "limit", defaultValue = DEFAULT_PAGE_SIZE) Integer limit) {
+        ChangePageDto page = changeLogService.getChanges(userId, since, limit);
+        return ResponseEntity.ok()
+                .header(NEXT_CURSOR_HEADER, String.valueOf(page.getNextCursor()))
+                .body(page.getChanges());
+    }
+}
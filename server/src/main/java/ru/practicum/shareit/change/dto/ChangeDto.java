@@ -0,0 +1,14 @@
+package ru.practicum.shareit.change.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+public class ChangeDto {
+    //позиция в журнале: с нее клиент продолжает чтение
+    private Long id;
+    private String entity;
+    private Integer entityId;
+    private LocalDateTime changed;
+}
@@ -0,0 +1,14 @@
+package ru.practicum.shareit.change.dto;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.List;
+
+@Getter
+@RequiredArgsConstructor
+public class ChangePageDto {
+    private final List<ChangeDto> changes;
+    //курсор, с которого читать дальше; есть всегда, даже если изменений пока нет
+    private final Long nextCursor;
+}
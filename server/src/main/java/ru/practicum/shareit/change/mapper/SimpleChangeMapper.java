@@ -0,0 +1,11 @@
+package ru.practicum.shareit.change.mapper;
+
+import org.mapstruct.Mapper;
+import org.mapstruct.MappingConstants;
+import ru.practicum.shareit.change.dto.ChangeDto;
+import ru.practicum.shareit.change.model.ChangeLogEntry;
+
+@Mapper(componentModel = MappingConstants.ComponentModel.SPRING)
+public interface SimpleChangeMapper {
+    ChangeDto entryToDto(ChangeLogEntry entry);
+}
@@ -0,0 +1,5 @@
+package ru.practicum.shareit.change.model;
+
+//пользователь, в списках которого видна изменившаяся сущность
+public record ChangeAudience(Integer entityId, Integer userId) {
+}
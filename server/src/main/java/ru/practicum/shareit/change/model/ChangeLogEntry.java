@@ -0,0 +1,63 @@
+package ru.practicum.shareit.change.model;
+
+import jakarta.persistence.*;
+import lombok.AccessLevel;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+/*
+Изменение сущности в журнале пользователя (см. ChangeLogService).
+Id - позиция в журнале, ее выдает CHANGE_LOG_POSITION, а не последовательность: позиции идут в порядке фиксации.
+Запись всегда новая, поэтому save вставляет ее сразу, не проверяя по Id, есть ли она уже в базе.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@EqualsAndHashCode(of = {"id"})
+@Entity
+@Table(name = "CHANGE_LOG")
+public class ChangeLogEntry implements Persistable<Long> {
+    @Id
+    @Column(name = "ID")
+    private Long id;
+
+    @Column(name = "USER_ID", nullable = false)
+    private Integer userId;
+
+    @Column(name = "ENTITY", nullable = false, length = 20)
+    private String entity;
+
+    @Column(name = "ENTITY_ID", nullable = false)
+    private Integer entityId;
+
+    @Column(name = "CHANGED", nullable = false)
+    private LocalDateTime changed;
+
+    @Setter(AccessLevel.NONE)
+    @Transient
+    private boolean stored;
+
+    public ChangeLogEntry(Long id, Integer userId, String entity, Integer entityId, LocalDateTime changed) {
+        this.id = id;
+        this.userId = userId;
+        this.entity = entity;
+        this.entityId = entityId;
+        this.changed = changed;
+    }
+
+    @Override
+    public boolean isNew() {
+        return !stored;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markStored() {
+        stored = true;
+    }
+}
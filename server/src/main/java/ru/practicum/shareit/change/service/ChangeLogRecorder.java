@@ -0,0 +1,24 @@
+package ru.practicum.shareit.change.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.common.change.EntityChangedEvent;
+import ru.practicum.shareit.outbox.service.OutboxHandler;
+
+import java.util.List;
+
+/*
+Пишет изменения в журнал при обработке outbox, в транзакции обработки: строка позиции журнала блокируется
+только обработчиком, а не каждой транзакцией записи. Изменение появляется в журнале с задержкой обработки outbox.
+Повторно обработанный пакет добавит те же изменения еще раз - клиент лишний раз перечитает сущности.
+ */
+@Component
+@RequiredArgsConstructor
+public class ChangeLogRecorder implements OutboxHandler {
+    private final ChangeLogService changeLogService;
+
+    @Override
+    public void handle(List<EntityChangedEvent> events) {
+        changeLogService.append(events);
+    }
+}
@@ -0,0 +1,12 @@
+package ru.practicum.shareit.change.service;
+
+import ru.practicum.shareit.change.dto.ChangePageDto;
+import ru.practicum.shareit.common.change.EntityChangedEvent;
+
+import java.util.Collection;
+
+public interface ChangeLogService {
+    ChangePageDto getChanges(Integer userId, Long since, Integer limit);
+
+    void append(Collection<EntityChangedEvent> events);
+}
@@ -0,0 +1,143 @@
+package ru.practicum.shareit.change.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.change.dto.ChangePageDto;
+import ru.practicum.shareit.change.mapper.SimpleChangeMapper;
+import ru.practicum.shareit.change.model.ChangeAudience;
+import ru.practicum.shareit.change.model.ChangeLogEntry;
+import ru.practicum.shareit.change.storage.ChangeLogStorage;
+import ru.practicum.shareit.common.Common;
+import ru.practicum.shareit.common.change.EntityChangedEvent;
+import ru.practicum.shareit.exceptions.ExpiredCursorException;
+import ru.practicum.shareit.exceptions.ValidationException;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/*
+Журнал изменений бронирований и вещей для синхронизации клиентов: вместо полных списков клиент читает
+изменения после своего курсора и перечитывает изменившиеся сущности.
+Изменение попадает в журнал каждого пользователя, в чьих списках оно видно: бронирование - арендатору и владельцу
+вещи, вещь (в том числе ее отзывы и последнее/следующее бронирования) - владельцу.
+Записи старше shareit.changes.retention удаляются; клиент с курсором старше журнала получает 410 и
+загружает списки заново.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class ChangeLogServiceImpl implements ChangeLogService {
+    private final ChangeLogStorage changeLogStorage;
+    private final SimpleChangeMapper changeMapper;
+    private final UserService userService;
+
+    @Value("${shareit.changes.retention:7d}")
+    private Duration retention;
+
+    /* Без since возвращается только текущий курсор: клиент запоминает его, затем загружает полные списки.
+       Изменения с позицией не больше прочитанной уже зафиксированы (см. V4__change_log.sql), поэтому на неполной
+       странице курсор сдвигается до нее, даже если у пользователя изменений не было. */
+    @Override
+    public ChangePageDto getChanges(Integer userId, Long since, Integer limit) {
+        if ((since != null && since < 0) || limit < 1 || limit > Common.MAX_PAGE_SIZE) {
+            log.error("Некорректные параметры журнала изменений: since = {}, limit = {}", since, limit);
+            throw new ValidationException(String.format("Некорректные параметры журнала изменений: since = %d, limit = %d",
+                    since, limit));
+        }
+        userService.getUserById(userId);
+        long position = changeLogStorage.getPosition();
+        if (since == null) {
+            return new ChangePageDto(List.of(), position);
+        }
+        checkNotExpired(since, position);
+        List<ChangeLogEntry> entries = changeLogStorage.findAllByUserIdAndIdGreaterThanOrderById(userId, since,
+                Limit.of(limit));
+        long nextCursor;
+        if (entries.size() == limit) {
+            nextCursor = entries.getLast().getId();
+        } else {
+            //реплика может отставать от базы, с которой клиент получил курсор: назад курсор не сдвигается
+            nextCursor = Math.max(since, position);
+            if (!entries.isEmpty()) {
+                nextCursor = Math.max(nextCursor, entries.getLast().getId());
+            }
+        }
+        return new ChangePageDto(entries.stream()
+                .map(changeMapper::entryToDto)
+                .toList(), nextCursor);
+    }
+
+    //позиции выдаются подряд, поэтому первая оставшаяся запись показывает, до какой позиции журнал удален
+    private void checkNotExpired(long since, long position) {
+        Long firstId = changeLogStorage.getFirstId();
+        long retainedFrom = firstId != null ? firstId : position + 1;
+        if (since + 1 < retainedFrom) {
+            log.error("Курсор журнала изменений {} старше журнала, журнал начинается с {}", since, retainedFrom);
+            throw new ExpiredCursorException(String.format("Изменения после %d уже удалены из журнала, "
+                    + "загрузите списки заново", since));
+        }
+    }
+
+    @Transactional
+    @Override
+    public void append(Collection<EntityChangedEvent> events) {
+        List<Integer> bookingIds = idsOf(events, EntityChangedEvent.BOOKINGS);
+        List<Integer> itemIds = idsOf(events, EntityChangedEvent.ITEMS);
+        Set<ChangeAudience> bookingAudience = new LinkedHashSet<>();
+        Set<ChangeAudience> itemAudience = new LinkedHashSet<>();
+        if (!bookingIds.isEmpty()) {
+            bookingAudience.addAll(changeLogStorage.getBookers(bookingIds));
+            bookingAudience.addAll(changeLogStorage.getBookedItemOwners(bookingIds));
+        }
+        if (!itemIds.isEmpty()) {
+            itemAudience.addAll(changeLogStorage.getItemOwners(itemIds));
+        }
+        int count = bookingAudience.size() + itemAudience.size();
+        if (count == 0) {
+            return;
+        }
+        changeLogStorage.reservePositions(count);
+        long nextId = changeLogStorage.getPosition() - count + 1;
+        LocalDateTime now = LocalDateTime.now();
+        List<ChangeLogEntry> entries = new ArrayList<>(count);
+        for (ChangeAudience audience : bookingAudience) {
+            entries.add(new ChangeLogEntry(nextId++, audience.userId(), EntityChangedEvent.BOOKINGS,
+                    audience.entityId(), now));
+        }
+        for (ChangeAudience audience : itemAudience) {
+            entries.add(new ChangeLogEntry(nextId++, audience.userId(), EntityChangedEvent.ITEMS,
+                    audience.entityId(), now));
+        }
+        changeLogStorage.saveAll(entries);
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.changes.purge-delay:3600000}")
+    @Transactional
+    public void purge() {
+        int deleted = changeLogStorage.deleteAllByChangedBefore(LocalDateTime.now().minus(retention));
+        if (deleted > 0) {
+            log.info("Из журнала изменений удалено {} записей старше {}", deleted, retention);
+        }
+    }
+
+    //пользователи, отзывы и запросы в журнал не пишутся: их изменения отражены в изменениях вещей
+    private static List<Integer> idsOf(Collection<EntityChangedEvent> events, String entity) {
+        return events.stream()
+                .filter(event -> event.entity().equals(entity))
+                .map(EntityChangedEvent::id)
+                .distinct()
+                .toList();
+    }
+}
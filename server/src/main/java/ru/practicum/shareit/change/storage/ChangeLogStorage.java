@@ -0,0 +1,47 @@
+package ru.practicum.shareit.change.storage;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import ru.practicum.shareit.change.model.ChangeAudience;
+import ru.practicum.shareit.change.model.ChangeLogEntry;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface ChangeLogStorage extends JpaRepository<ChangeLogEntry, Long> {
+    List<ChangeLogEntry> findAllByUserIdAndIdGreaterThanOrderById(Integer userId, Long id, Limit limit);
+
+    //журнал целиком, для тех, кто следит за изменениями всех пользователей (поисковый индекс)
+    List<ChangeLogEntry> findAllByIdGreaterThanOrderById(Long id, Limit limit);
+
+    //строка позиции блокируется до конца транзакции: журнал пишут по очереди, в порядке фиксаций
+    @Modifying
+    @Query(value = "UPDATE CHANGE_LOG_POSITION SET POSITION = POSITION + ?1 WHERE ID = 1", nativeQuery = true)
+    void reservePositions(long count);
+
+    @Query(value = "SELECT POSITION FROM CHANGE_LOG_POSITION WHERE ID = 1", nativeQuery = true)
+    long getPosition();
+
+    @Query(value = "SELECT MIN(C.id) FROM ChangeLogEntry C")
+    Long getFirstId();
+
+    @Modifying
+    @Query(value = "DELETE FROM ChangeLogEntry C WHERE C.changed < ?1")
+    int deleteAllByChangedBefore(LocalDateTime date);
+
+    //бронирование видно в списках арендатора и владельца вещи
+    @Query(value = "SELECT new ru.practicum.shareit.change.model.ChangeAudience(B.id, B.booker.id) "
+            + "FROM Booking B WHERE B.id IN ?1")
+    List<ChangeAudience> getBookers(Collection<Integer> bookingIds);
+
+    @Query(value = "SELECT new ru.practicum.shareit.change.model.ChangeAudience(B.id, I.owner.id) "
+            + "FROM Booking B JOIN B.item I WHERE B.id IN ?1")
+    List<ChangeAudience> getBookedItemOwners(Collection<Integer> bookingIds);
+
+    @Query(value = "SELECT new ru.practicum.shareit.change.model.ChangeAudience(I.id, I.owner.id) "
+            + "FROM Item I WHERE I.id IN ?1 AND I.owner IS NOT NULL")
+    List<ChangeAudience> getItemOwners(Collection<Integer> itemIds);
+}
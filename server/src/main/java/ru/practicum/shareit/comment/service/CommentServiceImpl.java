@@ -2,12 +2,14 @@ package ru.practicum.shareit.comment.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.comment.dto.CommentDto;
 import ru.practicum.shareit.comment.mapper.SimpleCommentMapper;
 import ru.practicum.shareit.comment.model.Comment;
 import ru.practicum.shareit.comment.storage.CommentStorage;
+import ru.practicum.shareit.common.change.EntityChangedEvent;
 import ru.practicum.shareit.exceptions.LogicalException;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.service.ItemService;
@@ -24,13 +26,18 @@ public class CommentServiceImpl implements CommentService {
     private final SimpleCommentMapper commentMapper;
     private final ItemService itemService;
     private final UserService userService;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     @Override
     public CommentDto addComment(CommentDto inputCommentDto) {
         Comment comment = commentMapper.dtoToComment(inputCommentDto, itemService, userService);
         checkComment(comment);
-        return commentMapper.commentToDto(commentStorage.save(comment));
+        Comment createdComment = commentStorage.save(comment);
+        eventPublisher.publishEvent(new EntityChangedEvent(EntityChangedEvent.COMMENTS, createdComment.getId()));
+        //комментарии входят в ответ на запрос вещи
+        eventPublisher.publishEvent(new EntityChangedEvent(EntityChangedEvent.ITEMS, createdComment.getItem().getId()));
+        return commentMapper.commentToDto(createdComment);
     }
 
     private void checkComment(Comment comment) {
@@ -1,12 +1,19 @@
 package ru.practicum.shareit.comment.storage;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import ru.practicum.shareit.comment.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 
+import java.util.Collection;
 import java.util.List;
 
+//авторы читаются вместе с отзывами: отзывы вещи могут читаться в отдельной транзакции, см. ParallelReads
 public interface CommentStorage extends JpaRepository<Comment, Integer> {
 
+    @EntityGraph(attributePaths = "author")
     List<Comment> findAllByItemInOrderByCreatedDesc(List<Item> itemList);
+
+    @EntityGraph(attributePaths = "author")
+    List<Comment> findAllByItemIdInOrderByCreatedDesc(Collection<Integer> itemIds);
 }
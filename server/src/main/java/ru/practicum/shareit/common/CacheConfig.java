@@ -0,0 +1,19 @@
+package ru.practicum.shareit.common;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/*
+Кэш сущностей, которые ищутся по Id почти на каждом запросе (пользователь, вещь, запрос вещи).
+В кэше лежат неизменяемые снимки (UserSnapshot, ItemSnapshot, ItemRequestSnapshot), а не сущности JPA:
+кэш общий для всех потоков, а каждый вызывающий получает из снимка свою отсоединенную копию сущности.
+Кэшируемые методы вынесены в отдельные бины *Lookup, чтобы вызовы изнутри сервисов тоже шли через прокси.
+Размер и время жизни задаются в spring.cache.caffeine.spec.
+Кэширующий прокси стоит снаружи транзакционного, поэтому сброс записи при изменении
+происходит уже после фиксации транзакции и параллельный запрос не вернет в кэш старое значение.
+ */
+@Configuration
+@EnableCaching(order = Ordered.HIGHEST_PRECEDENCE)
+public class CacheConfig {
+}
@@ -1,8 +1,26 @@
 package ru.practicum.shareit.common;
 
+import org.springframework.data.domain.Limit;
 import ru.practicum.shareit.booking.model.BookingStatus;
 
 public class Common {
     public static final String USER_HEADER = "X-Sharer-User-Id";
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    //сущности, изменившиеся в запросе записи, в виде <сущность>:<Id>, см. EntityChangedEvent
+    public static final String CHANGED_HEADER = "X-Shareit-Changed";
     public static final BookingStatus DEFAULT_BOOKING_STATUS = BookingStatus.WAITING;
+    //размер страницы журнала изменений по умолчанию; списки без limit отдаются целиком
+    public static final String DEFAULT_PAGE_SIZE = "100";
+    public static final int MAX_PAGE_SIZE = 1000;
+    public static final String USERS_CACHE = "users";
+    public static final String ITEMS_CACHE = "items";
+    public static final String REQUESTS_CACHE = "requests";
+    //сколько Id Hibernate берет из последовательности за одно обращение, он же шаг последовательности
+    public static final int ID_ALLOCATION_SIZE = 50;
+    public static final int MAX_BATCH_SIZE = 1000;
+
+    //на строку больше страницы, чтобы без count-запроса понять, есть ли следующая; без limit - весь список
+    public static Limit pageLimit(Integer limit) {
+        return limit == null ? Limit.unlimited() : Limit.of(limit + 1);
+    }
 }
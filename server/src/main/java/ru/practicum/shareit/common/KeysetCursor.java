@@ -0,0 +1,52 @@
+package ru.practicum.shareit.common;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import ru.practicum.shareit.exceptions.ValidationException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/*
+Позиция в списке, отсортированном по (время DESC, id DESC): бронирования по start, лента запросов по created.
+Следующая страница начинается строго после элемента с этими временем и id,
+поэтому стоимость запроса не зависит от того, насколько далеко пролистан список.
+Клиенту курсор отдается непрозрачной строкой Base64.
+ */
+@Getter
+@EqualsAndHashCode
+@RequiredArgsConstructor
+public class KeysetCursor {
+    //позиция "до первого элемента": дальше любой реальной даты и любого Id
+    private static final KeysetCursor FIRST = new KeysetCursor(LocalDateTime.of(9999, 12, 31, 23, 59, 59),
+            Integer.MAX_VALUE);
+
+    private final LocalDateTime time;
+    private final Integer id;
+
+    public static KeysetCursor first() {
+        return FIRST;
+    }
+
+    public static KeysetCursor decode(String raw) {
+        if (raw == null || raw.isBlank()) {
+            return FIRST;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(raw), StandardCharsets.UTF_8);
+            int separator = decoded.lastIndexOf(',');
+            return new KeysetCursor(LocalDateTime.parse(decoded.substring(0, separator)),
+                    Integer.valueOf(decoded.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new ValidationException(String.format("Некорректный курсор = %s", raw));
+        }
+    }
+
+    public String encode() {
+        String raw = time + "," + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
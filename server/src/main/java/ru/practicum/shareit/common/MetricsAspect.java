@@ -0,0 +1,117 @@
+package ru.practicum.shareit.common;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.strategy.BookingFindStrategy;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+Метрики горячих путей сервера:
+ shareit.service - время каждого метода сервисов (теги class, method, exception);
+ shareit.bookings.find - время поиска бронирований по стратегии (тег state);
+ shareit.repository.rows - сколько строк вернул метод репозитория (теги repository, method).
+Время самих методов репозиториев пишет Spring Data в spring.data.repository.invocations.
+Гистограммы и процентили для всех метрик задаются в application.properties.
+Пользователей в теги не пишем: число их значений не ограничено.
+Аспект стоит снаружи транзакции (время включает фиксацию), но внутри кэша: попадания в кэш видны в метриках кэша.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+@RequiredArgsConstructor
+public class MetricsAspect {
+    static final String SERVICE_METRIC = "shareit.service";
+    static final String FIND_BOOKINGS_METRIC = "shareit.bookings.find";
+    static final String REPOSITORY_ROWS_METRIC = "shareit.repository.rows";
+    private static final String NO_EXCEPTION = "none";
+    private static final String UNKNOWN_REPOSITORY = "unknown";
+
+    private final MeterRegistry meterRegistry;
+    private final Map<Class<?>, String> repositoryNames = new ConcurrentHashMap<>();
+
+    @Around("execution(public * ru.practicum.shareit..service.*ServiceImpl.*(..))")
+    public Object timeService(ProceedingJoinPoint joinPoint) throws Throwable {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String exception = NO_EXCEPTION;
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            sample.stop(Timer.builder(SERVICE_METRIC)
+                    .tag("class", joinPoint.getSignature().getDeclaringType().getSimpleName())
+                    .tag("method", joinPoint.getSignature().getName())
+                    .tag("exception", exception)
+                    .register(meterRegistry));
+        }
+    }
+
+    @Around("execution(* ru.practicum.shareit.booking.strategy.BookingFindStrategy+.findBooking(..)) && target(strategy)")
+    public Object timeFindBookings(ProceedingJoinPoint joinPoint, BookingFindStrategy strategy) throws Throwable {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            return joinPoint.proceed();
+        } finally {
+            sample.stop(Timer.builder(FIND_BOOKINGS_METRIC)
+                    .tag("state", strategy.getState().name())
+                    .register(meterRegistry));
+        }
+    }
+
+    @Around("execution(* ru.practicum.shareit..storage.*Storage+.*(..))")
+    public Object countRepositoryRows(ProceedingJoinPoint joinPoint) throws Throwable {
+        Object result = joinPoint.proceed();
+        Integer rows = countRows(result);
+        if (rows != null) {
+            DistributionSummary.builder(REPOSITORY_ROWS_METRIC)
+                    .baseUnit("rows")
+                    .tag("repository", repositoryName(joinPoint.getThis()))
+                    .tag("method", joinPoint.getSignature().getName())
+                    .register(meterRegistry)
+                    .record(rows);
+        }
+        return result;
+    }
+
+    //считаем только результаты выборок; save, delete и count строк не возвращают
+    private static Integer countRows(Object result) {
+        if (result instanceof Collection<?> collection) {
+            return collection.size();
+        }
+        if (result instanceof Slice<?> slice) {
+            return slice.getNumberOfElements();
+        }
+        if (result instanceof Optional<?> optional) {
+            return optional.isPresent() ? 1 : 0;
+        }
+        return null;
+    }
+
+    //вызов идет через прокси репозитория, наш интерфейс - один из интерфейсов прокси
+    private String repositoryName(Object repositoryProxy) {
+        if (repositoryProxy == null) {
+            return UNKNOWN_REPOSITORY;
+        }
+        return repositoryNames.computeIfAbsent(repositoryProxy.getClass(), proxyClass ->
+                Arrays.stream(proxyClass.getInterfaces())
+                        .filter(type -> type.getPackageName().startsWith("ru.practicum.shareit"))
+                        .map(Class::getSimpleName)
+                        .findFirst()
+                        .orElse(UNKNOWN_REPOSITORY));
+    }
+}
@@ -0,0 +1,87 @@
+package ru.practicum.shareit.common;
+
+import org.springframework.lang.Nullable;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.common.replica.ReplicaRoutingDataSource;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Supplier;
+
+/*
+Параллельное выполнение независимых запросов чтения одного ответа: время ответа - самый долгий запрос, а не их сумма.
+Каждый запрос (ветка) выполняется в своей транзакции readOnly на отдельном соединении - с реплики, если они есть;
+ветка получает пользователя запроса для выбора базы (см. ReplicaRoutingDataSource).
+Сущности ветки возвращаются уже отсоединенными, поэтому все нужные ответу связи ветка должна загрузить сама.
+Вызывающий метод не должен открывать свою транзакцию, пока ждет ветки (Propagation.SUPPORTS): иначе запрос занимает
+несколько соединений пула и при нехватке соединений запросы ждут друг друга.
+Если транзакция у вызывающего все же есть (вызов из другого сервиса, тесты), ветки выполняются в ней по очереди:
+в других потоках они не увидели бы ее незафиксированных изменений.
+Без исполнителя (shareit.parallel-reads.enabled=false) ветки тоже выполняются по очереди в вызывающем потоке.
+ */
+public class ParallelReads implements AutoCloseable {
+    @Nullable
+    private final ExecutorService executor;
+    @Nullable
+    private final TransactionTemplate readOnlyTransaction;
+
+    public ParallelReads(@Nullable ExecutorService executor, @Nullable PlatformTransactionManager transactionManager) {
+        this.executor = executor;
+        if (transactionManager != null) {
+            this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+            this.readOnlyTransaction.setReadOnly(true);
+        } else {
+            this.readOnlyTransaction = null;
+        }
+    }
+
+    public <T> CompletableFuture<T> fork(Supplier<T> read) {
+        Supplier<T> branch = readOnlyTransaction != null ? () -> readOnlyTransaction.execute(status -> read.get()) : read;
+        if (executor == null || TransactionSynchronizationManager.isActualTransactionActive()) {
+            try {
+                return CompletableFuture.completedFuture(branch.get());
+            } catch (RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+        Integer userId = ReplicaRoutingDataSource.getCurrentUser();
+        return CompletableFuture.supplyAsync(() -> asUser(userId, branch), executor);
+    }
+
+    //исключение ветки (например, ResourceNotFoundException) бросается как есть
+    public static <T> T join(CompletableFuture<T> branch) {
+        try {
+            return branch.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public void close() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    //при переполненной очереди ветка выполняется в потоке запроса, поэтому его пользователь восстанавливается
+    private static <T> T asUser(Integer userId, Supplier<T> branch) {
+        Integer previous = ReplicaRoutingDataSource.getCurrentUser();
+        ReplicaRoutingDataSource.setCurrentUser(userId);
+        try {
+            return branch.get();
+        } finally {
+            if (previous != null) {
+                ReplicaRoutingDataSource.setCurrentUser(previous);
+            } else {
+                ReplicaRoutingDataSource.clearCurrentUser();
+            }
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package ru.practicum.shareit.common;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/*
+Исполнитель веток ParallelReads (shareit.parallel-reads.*): threads потоков и очередь queue-capacity.
+Когда очередь заполнена, ветка выполняется в вызывающем потоке, поэтому под нагрузкой задачи не копятся без предела.
+Каждый поток держит соединение, пока выполняет ветку: threads должно быть заметно меньше размера пула соединений.
+Исполнитель не регистрируется бином Executor, чтобы не заменить исполнитель приложения по умолчанию;
+его метрики - executor.* с тегом name=parallel-reads.
+ */
+@Configuration
+public class ParallelReadsConfig {
+    static final String EXECUTOR_NAME = "parallel-reads";
+
+    @Bean
+    public ParallelReads parallelReads(@Value("${shareit.parallel-reads.enabled:false}") boolean enabled,
+                                       @Value("${shareit.parallel-reads.threads:8}") int threads,
+                                       @Value("${shareit.parallel-reads.queue-capacity:64}") int queueCapacity,
+                                       PlatformTransactionManager transactionManager,
+                                       ObjectProvider<MeterRegistry> meterRegistry) {
+        if (!enabled) {
+            return new ParallelReads(null, transactionManager);
+        }
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory(EXECUTOR_NAME + "-"),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        ExecutorService monitored = registry != null
+                ? ExecutorServiceMetrics.monitor(registry, executor, EXECUTOR_NAME)
+                : executor;
+        return new ParallelReads(monitored, transactionManager);
+    }
+}
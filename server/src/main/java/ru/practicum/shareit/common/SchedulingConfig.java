@@ -0,0 +1,12 @@
+package ru.practicum.shareit.common;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+//фоновые задачи выключаются shareit.scheduling.enabled=false: тесты вызывают их сами, когда им это нужно
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(name = "shareit.scheduling.enabled", matchIfMissing = true)
+public class SchedulingConfig {
+}
@@ -0,0 +1,45 @@
+package ru.practicum.shareit.common.change;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import ru.practicum.shareit.common.Common;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/*
+Добавляет изменения, зафиксированные в транзакции запроса, в заголовок ответа Common.CHANGED_HEADER.
+Срабатывает после фиксации: откаченное изменение в заголовок не попадает.
+Изменения вне HTTP-запроса (плановые задачи) сюда не доходят - их gateway не видит.
+ */
+@Component
+public class ChangedHeaderListener {
+    private static final String REPORTED_ATTRIBUTE = ChangedHeaderListener.class.getName() + ".reported";
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onChange(EntityChangedEvent event) {
+        if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes)) {
+            return;
+        }
+        HttpServletResponse response = attributes.getResponse();
+        if (response == null || response.isCommitted() || !reported(attributes.getRequest()).add(event.tag())) {
+            return;
+        }
+        response.addHeader(Common.CHANGED_HEADER, event.tag());
+    }
+
+    //пакетное создание и пересчеты могут сообщить об одной сущности несколько раз
+    @SuppressWarnings("unchecked")
+    private static Set<String> reported(HttpServletRequest request) {
+        Set<String> reported = (Set<String>) request.getAttribute(REPORTED_ATTRIBUTE);
+        if (reported == null) {
+            reported = new HashSet<>();
+            request.setAttribute(REPORTED_ATTRIBUTE, reported);
+        }
+        return reported;
+    }
+}
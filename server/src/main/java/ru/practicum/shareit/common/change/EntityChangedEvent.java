@@ -0,0 +1,18 @@
+package ru.practicum.shareit.common.change;
+
+/*
+Изменение сущности, о котором должны узнать те, кто хранит ее представления вне транзакции:
+gateway со своим кэшем ответов узнает о нем из заголовка Common.CHANGED_HEADER ответа на запрос записи.
+Изменившимся считается и представление: комментарий и пересчет последнего/следующего бронирования меняют вещь.
+ */
+public record EntityChangedEvent(String entity, Integer id) {
+    public static final String USERS = "users";
+    public static final String ITEMS = "items";
+    public static final String REQUESTS = "requests";
+    public static final String BOOKINGS = "bookings";
+    public static final String COMMENTS = "comments";
+
+    public String tag() {
+        return entity + ":" + id;
+    }
+}
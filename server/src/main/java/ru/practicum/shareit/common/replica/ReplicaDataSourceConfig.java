@@ -0,0 +1,113 @@
+package ru.practicum.shareit.common.replica;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.TaskScheduler;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+Чтение с реплик включается, только если задана хотя бы одна shareit.datasource.replicas[i].url;
+без реплик остается обычный источник данных Spring Boot.
+Пулы реплик получают размер и таймауты основного пула (spring.datasource.hikari) и работают только на чтение.
+ */
+@Configuration
+@ConditionalOnProperty("shareit.datasource.replicas[0].url")
+@EnableConfigurationProperties(ReplicaProperties.class)
+public class ReplicaDataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        dataSource.setPoolName(ReplicaRoutingDataSource.PRIMARY);
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(HikariDataSource primaryDataSource,
+                                                             DataSourceProperties dataSourceProperties,
+                                                             ReplicaProperties replicaProperties,
+                                                             MeterRegistry meterRegistry) {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        List<ReplicaProperties.Replica> configured = replicaProperties.replicas();
+        for (int i = 0; i < configured.size(); i++) {
+            ReplicaProperties.Replica replica = configured.get(i);
+            HikariDataSource dataSource = new HikariDataSource();
+            dataSource.setDriverClassName(primaryDataSource.getDriverClassName());
+            //незаданный размер основного пула равен -1 до его запуска, тогда остаются значения Hikari по умолчанию
+            if (primaryDataSource.getMaximumPoolSize() > 0) {
+                dataSource.setMaximumPoolSize(primaryDataSource.getMaximumPoolSize());
+            }
+            if (primaryDataSource.getMinimumIdle() >= 0) {
+                dataSource.setMinimumIdle(primaryDataSource.getMinimumIdle());
+            }
+            dataSource.setConnectionTimeout(primaryDataSource.getConnectionTimeout());
+            dataSource.setIdleTimeout(primaryDataSource.getIdleTimeout());
+            dataSource.setMaxLifetime(primaryDataSource.getMaxLifetime());
+            dataSource.setPoolName("replica-" + i);
+            dataSource.setJdbcUrl(replica.url());
+            dataSource.setUsername(replica.username() == null
+                    ? dataSourceProperties.determineUsername() : replica.username());
+            dataSource.setPassword(replica.password() == null
+                    ? dataSourceProperties.determinePassword() : replica.password());
+            dataSource.setReadOnly(true);
+            dataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            replicas.put(dataSource.getPoolName(), dataSource);
+        }
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas, replicaProperties.stickyFor(),
+                meterRegistry);
+    }
+
+    //соединение берется при первом запросе транзакции, а не при ее начале, см. ReplicaRoutingDataSource
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(ReplicaRoutingDataSource replicaRoutingDataSource,
+                                               ReplicaProperties replicaProperties, MeterRegistry meterRegistry) {
+        return new ReplicaLagMonitor(replicaRoutingDataSource, replicaProperties, meterRegistry);
+    }
+
+    @Bean
+    public FilterRegistrationBean<ReplicaUserFilter> replicaUserFilter() {
+        return new FilterRegistrationBean<>(new ReplicaUserFilter());
+    }
+
+    //static: постпроцессор создается раньше остальных бинов, планировщик и настройки берутся при первом сбросе
+    @Bean
+    public static BeanPostProcessor replicaLagCacheManagerPostProcessor(ObjectProvider<TaskScheduler> scheduler,
+                                                                       ObjectProvider<ReplicaProperties> properties) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof CacheManager cacheManager && !(bean instanceof ReplicaLagCacheManager)) {
+                    return new ReplicaLagCacheManager(cacheManager, scheduler::getObject,
+                            () -> properties.getObject().maxLag());
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,86 @@
+package ru.practicum.shareit.common.replica;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/*
+Кэш сущностей при чтении с реплик: после сброса записи параллельный запрос может прочитать старое значение
+с отстающей реплики и положить его обратно в кэш на все время жизни записи.
+Поэтому сброс повторяется еще раз через maxLag - к этому моменту реплика в чтении уже догнала изменение.
+Кэши остаются CaffeineCache над теми же кэшами Caffeine, поэтому их метрики и actuator не меняются.
+ */
+public class ReplicaLagCacheManager implements CacheManager {
+    private final CacheManager delegate;
+    private final Supplier<TaskScheduler> scheduler;
+    private final Supplier<Duration> maxLag;
+    private final Map<String, Cache> caches = new ConcurrentHashMap<>();
+
+    public ReplicaLagCacheManager(CacheManager delegate, Supplier<TaskScheduler> scheduler,
+                                  Supplier<Duration> maxLag) {
+        this.delegate = delegate;
+        this.scheduler = scheduler;
+        this.maxLag = maxLag;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        Cache cache = caches.get(name);
+        if (cache != null) {
+            return cache;
+        }
+        Cache delegateCache = delegate.getCache(name);
+        if (delegateCache instanceof CaffeineCache caffeineCache) {
+            return caches.computeIfAbsent(name, key -> new RepeatedEvictionCache(caffeineCache));
+        }
+        return delegateCache;
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return delegate.getCacheNames();
+    }
+
+    private void repeatLater(Runnable eviction) {
+        scheduler.get().schedule(eviction, Instant.now().plus(maxLag.get()));
+    }
+
+    private class RepeatedEvictionCache extends CaffeineCache {
+
+        RepeatedEvictionCache(CaffeineCache cache) {
+            super(cache.getName(), cache.getNativeCache(), cache.isAllowNullValues());
+        }
+
+        @Override
+        public void evict(Object key) {
+            super.evict(key);
+            repeatLater(() -> super.evict(key));
+        }
+
+        @Override
+        public boolean evictIfPresent(Object key) {
+            repeatLater(() -> super.evict(key));
+            return super.evictIfPresent(key);
+        }
+
+        @Override
+        public void clear() {
+            super.clear();
+            repeatLater(super::clear);
+        }
+
+        @Override
+        public boolean invalidate() {
+            repeatLater(super::clear);
+            return super.invalidate();
+        }
+    }
+}
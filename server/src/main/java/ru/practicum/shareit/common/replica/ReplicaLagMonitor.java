@@ -0,0 +1,64 @@
+package ru.practicum.shareit.common.replica;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+Периодически спрашивает у каждой реплики ее отставание (ReplicaProperties.lagQuery, секунды)
+и включает в чтение только те, что отстают не больше maxLag. Недоступная реплика считается отстающей.
+До первой проверки реплики в чтении не участвуют. Отставание пишется в shareit.datasource.replica.lag.
+ */
+@Slf4j
+public class ReplicaLagMonitor {
+    static final String LAG_METRIC = "shareit.datasource.replica.lag";
+
+    private final ReplicaRoutingDataSource routingDataSource;
+    private final Map<String, JdbcTemplate> replicas;
+    private final String lagQuery;
+    private final double maxLagSeconds;
+    private final Map<String, Double> lags = new ConcurrentHashMap<>();
+
+    public ReplicaLagMonitor(ReplicaRoutingDataSource routingDataSource, ReplicaProperties properties,
+                             MeterRegistry meterRegistry) {
+        this.routingDataSource = routingDataSource;
+        this.replicas = new ConcurrentHashMap<>();
+        routingDataSource.getReplicaDataSources()
+                .forEach((name, dataSource) -> this.replicas.put(name, new JdbcTemplate(dataSource)));
+        this.lagQuery = properties.lagQuery();
+        this.maxLagSeconds = properties.maxLag().toMillis() / 1000.0;
+        this.replicas.keySet().forEach(name -> Gauge.builder(LAG_METRIC, lags, lag -> lag.getOrDefault(name, Double.NaN))
+                .description("Отставание реплики от основной базы на последней проверке, с")
+                .tag("replica", name)
+                .register(meterRegistry));
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.datasource.lag-check-interval:1000}")
+    public void check() {
+        replicas.forEach((name, jdbc) -> {
+            boolean wasHealthy = routingDataSource.isReplicaHealthy(name);
+            boolean healthy;
+            try {
+                Double lag = jdbc.queryForObject(lagQuery, Double.class);
+                lags.put(name, lag == null ? 0 : lag);
+                healthy = lag == null || lag <= maxLagSeconds;
+            } catch (RuntimeException e) {
+                lags.remove(name);
+                healthy = false;
+                if (wasHealthy) {
+                    log.warn("Реплика {} недоступна: {}", name, e.getMessage());
+                }
+            }
+            routingDataSource.setReplicaHealthy(name, healthy);
+            if (healthy != wasHealthy) {
+                log.info("Реплика {} {} чтения, отставание {} с", name, healthy ? "включена в" : "выведена из",
+                        lags.get(name));
+            }
+        });
+    }
+}
@@ -0,0 +1,37 @@
+package ru.practicum.shareit.common.replica;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+/*
+Реплики для чтения (shareit.datasource.*):
+ replicas[i].url, username, password - пулы реплик, логин и пароль по умолчанию как у основной базы;
+ max-lag - допустимое отставание реплики, отстающая сильнее выводится из чтения до следующей проверки;
+ sticky-for - сколько после записи пользователь читает из основной базы, по умолчанию равно max-lag;
+  запись помнит только экземпляр сервера, который ее выполнил (см. ReplicaRoutingDataSource);
+ lag-query - запрос отставания реплики в секундах, по умолчанию для потоковой репликации Postgres.
+ */
+@ConfigurationProperties("shareit.datasource")
+public record ReplicaProperties(List<Replica> replicas,
+                                @DefaultValue("5s") Duration maxLag,
+                                Duration stickyFor,
+                                @DefaultValue(POSTGRES_LAG_QUERY) String lagQuery) {
+    //пока реплика проигрывает WAL, отставание - возраст последней проигранной транзакции;
+    //когда проигрывать нечего, реплика догнала основную базу, сколько бы ни прошло с последней записи
+    static final String POSTGRES_LAG_QUERY = "SELECT CASE WHEN NOT pg_is_in_recovery() "
+            + "OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 "
+            + "ELSE EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) END";
+
+    public ReplicaProperties {
+        replicas = replicas == null ? List.of() : List.copyOf(replicas);
+        if (stickyFor == null) {
+            stickyFor = maxLag;
+        }
+    }
+
+    public record Replica(String url, String username, String password) {
+    }
+}
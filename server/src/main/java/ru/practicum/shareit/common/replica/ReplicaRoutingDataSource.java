@@ -0,0 +1,149 @@
+package ru.practicum.shareit.common.replica;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+Выбор базы для соединения: транзакции readOnly читают с реплик по кругу, все остальное идет в основную базу.
+В основную базу читают и пользователь, недавно (stickyFor) зафиксировавший запись, - иначе он может не увидеть
+собственное изменение на отстающей реплике, - и все, если ни одна реплика сейчас не догнала основную базу.
+Решение принимается при получении соединения, поэтому перед этим источником стоит LazyConnectionDataSourceProxy:
+соединение берется при первом запросе, когда признак readOnly транзакции уже выставлен.
+Чтение своих записей гарантируется только в пределах одного экземпляра сервера: недавние записи помнит
+локальный кэш recentWriters, и запрос, попавший после записи на другой экземпляр, может прочитать отстающую
+реплику. При нескольких экземплярах за балансировщиком нужна привязка пользователя к экземпляру (sticky session)
+либо отказ от реплик для чтения.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+    static final String PRIMARY = "primary";
+    static final String READS_METRIC = "shareit.datasource.reads";
+    private static final ThreadLocal<Integer> CURRENT_USER = new ThreadLocal<>();
+
+    private final Map<String, DataSource> replicaDataSources;
+    private final List<String> replicas;
+    private final Set<String> healthyReplicas = ConcurrentHashMap.newKeySet();
+    //только записи, зафиксированные этим экземпляром сервера
+    private final Cache<Integer, Boolean> recentWriters;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    //ключ ресурса транзакции: синхронизацию записи регистрируем один раз на транзакцию
+    private final Object writeMarker = new Object();
+    private final Counter primaryReads;
+    private final Counter replicaReads;
+
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas, Duration stickyFor,
+                                    MeterRegistry meterRegistry) {
+        Map<Object, Object> targets = new HashMap<>(replicas);
+        targets.put(PRIMARY, primary);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        this.replicaDataSources = Map.copyOf(replicas);
+        this.replicas = List.copyOf(replicas.keySet());
+        this.recentWriters = Caffeine.newBuilder()
+                .expireAfterWrite(stickyFor)
+                .build();
+        this.primaryReads = readsCounter(meterRegistry, PRIMARY);
+        this.replicaReads = readsCounter(meterRegistry, "replica");
+    }
+
+    //пользователь текущего запроса, см. ReplicaUserFilter
+    public static void setCurrentUser(Integer userId) {
+        CURRENT_USER.set(userId);
+    }
+
+    public static void clearCurrentUser() {
+        CURRENT_USER.remove();
+    }
+
+    public static Integer getCurrentUser() {
+        return CURRENT_USER.get();
+    }
+
+    public Map<String, DataSource> getReplicaDataSources() {
+        return replicaDataSources;
+    }
+
+    public void setReplicaHealthy(String replica, boolean healthy) {
+        if (healthy) {
+            healthyReplicas.add(replica);
+        } else {
+            healthyReplicas.remove(replica);
+        }
+    }
+
+    public boolean isReplicaHealthy(String replica) {
+        return healthyReplicas.contains(replica);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        Integer userId = CURRENT_USER.get();
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            rememberWrite(userId);
+            return PRIMARY;
+        }
+        if (userId != null && recentWriters.getIfPresent(userId) != null) {
+            primaryReads.increment();
+            return PRIMARY;
+        }
+        for (int i = 0; i < replicas.size(); i++) {
+            String replica = replicas.get(Math.floorMod(nextReplica.getAndIncrement(), replicas.size()));
+            if (healthyReplicas.contains(replica)) {
+                replicaReads.increment();
+                return replica;
+            }
+        }
+        primaryReads.increment();
+        return PRIMARY;
+    }
+
+    //пользователь читает из основной базы с момента фиксации, а не с начала транзакции записи
+    private void rememberWrite(Integer userId) {
+        if (userId == null || !TransactionSynchronizationManager.isSynchronizationActive()
+                || TransactionSynchronizationManager.hasResource(writeMarker)) {
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(writeMarker, userId);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                recentWriters.put(userId, Boolean.TRUE);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(writeMarker);
+            }
+        });
+    }
+
+    //пулы реплик принадлежат этому источнику, пул основной базы - отдельный бин
+    @Override
+    public void close() throws Exception {
+        for (DataSource replica : replicaDataSources.values()) {
+            if (replica instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    private static Counter readsCounter(MeterRegistry meterRegistry, String target) {
+        return Counter.builder(READS_METRIC)
+                .description("Соединения транзакций readOnly по базе, в которую они ушли")
+                .tag("target", target)
+                .register(meterRegistry);
+    }
+}
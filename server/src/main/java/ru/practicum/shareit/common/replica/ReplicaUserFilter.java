@@ -0,0 +1,37 @@
+package ru.practicum.shareit.common.replica;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+import ru.practicum.shareit.common.Common;
+
+import java.io.IOException;
+
+//Передает ReplicaRoutingDataSource пользователя запроса: после своей записи он какое-то время читает из основной базы
+public class ReplicaUserFilter extends OncePerRequestFilter {
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        ReplicaRoutingDataSource.setCurrentUser(userId(request.getHeader(Common.USER_HEADER)));
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            ReplicaRoutingDataSource.clearCurrentUser();
+        }
+    }
+
+    //некорректный заголовок отклонит контроллер, здесь он просто не участвует в выборе базы
+    private static Integer userId(String header) {
+        if (header == null) {
+            return null;
+        }
+        try {
+            return Integer.valueOf(header.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
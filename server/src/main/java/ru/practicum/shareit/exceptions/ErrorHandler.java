@@ -2,6 +2,7 @@ package ru.practicum.shareit.exceptions;
 
 
 import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -46,6 +47,13 @@ public class ErrorHandler {
         }
     }
 
+    //строку успел изменить параллельный запрос (не совпала @Version)
+    @ExceptionHandler
+    @ResponseStatus(value = HttpStatus.CONFLICT)
+    public ErrorResponse handleOptimisticLock(OptimisticLockingFailureException exception) {
+        return new ErrorResponse("Данные изменены параллельным запросом, повторите запрос", exception.getMessage());
+    }
+
     @ExceptionHandler
     @ResponseStatus(value = HttpStatus.BAD_REQUEST)
     public ErrorResponse handleLogicalException(LogicalException exception) {
@@ -57,4 +65,10 @@ public class ErrorHandler {
     public ErrorResponse handleValidationException(ValidationException exception) {
         return new ErrorResponse("Ошибка при выполнении запроса", exception.getMessage());
     }
+
+    @ExceptionHandler
+    @ResponseStatus(value = HttpStatus.GONE)
+    public ErrorResponse handleExpiredCursorException(ExpiredCursorException exception) {
+        return new ErrorResponse("курсор устарел", exception.getMessage());
+    }
 }
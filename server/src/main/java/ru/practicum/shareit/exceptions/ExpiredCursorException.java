@@ -0,0 +1,7 @@
+package ru.practicum.shareit.exceptions;
+
+public class ExpiredCursorException extends RuntimeException {
+    public ExpiredCursorException(String message) {
+        super(message);
+    }
+}
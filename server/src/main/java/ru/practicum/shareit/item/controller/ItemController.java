@@ -1,6 +1,8 @@
 package ru.practicum.shareit.item.controller;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.comment.dto.CommentDto;
 import ru.practicum.shareit.comment.service.CommentService;
@@ -8,6 +10,7 @@ import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemOutDtoWithDates;
 import ru.practicum.shareit.item.service.ItemService;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -27,6 +30,13 @@ public class ItemController {
         return itemService.createItem(itemDto);
     }
 
+    @PostMapping("/batch")
+    public List<ItemDto> createItems(@RequestBody List<ItemDto> itemDtoList,
+                                     @RequestHeader(value = USER_HEADER) Integer userId) {
+        itemDtoList.forEach(itemDto -> itemDto.setOwner(userId));
+        return itemService.createItems(itemDtoList);
+    }
+
     @PatchMapping("/{itemId}")
     public ItemDto updateItem(@RequestBody ItemDto itemDto,
                               @PathVariable Integer itemId,
@@ -36,10 +46,18 @@ public class ItemController {
         return itemService.updateItem(itemDto);
     }
 
+    /* Ответ владельцу меняется и без записи: когда следующее бронирование начинается, оно становится последним.
+       Поэтому хранить такой ответ в кэше (gateway) можно только до начала следующего бронирования */
     @GetMapping("/{itemId}")
-    public ItemOutDtoWithDates getItemById(@RequestHeader(value = USER_HEADER) Integer userId,
-                                           @PathVariable Integer itemId) {
-        return itemService.getItemDtoById(itemId, userId);
+    public ResponseEntity<ItemOutDtoWithDates> getItemById(@RequestHeader(value = USER_HEADER) Integer userId,
+                                                           @PathVariable Integer itemId) {
+        ItemOutDtoWithDates item = itemService.getItemDtoById(itemId, userId);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (item.getNextBooking() != null) {
+            Duration untilNext = Duration.between(LocalDateTime.now(), item.getNextBooking().getStart());
+            response.cacheControl(CacheControl.maxAge(untilNext.isNegative() ? Duration.ZERO : untilNext));
+        }
+        return response.body(item);
     }
 
     @GetMapping
@@ -48,8 +66,10 @@ public class ItemController {
     }
 
     @GetMapping("/search")
-    public List<ItemDto> getItemsByContext(@RequestParam("text") String context) {
-        return itemService.getItemsByContext(context);
+    public List<ItemDto> getItemsByContext(@RequestParam("text") String context,
+                                           @RequestParam(defaultValue = "0") Integer from,
+                                           @RequestParam(required = false) Integer limit) {
+        return itemService.getItemsByContext(context, from, limit);
     }
 
     @PostMapping("/{itemId}/comment")
@@ -28,6 +28,7 @@ public abstract class SimpleItemMapper {
 
     @Mapping(target = "request", expression = "java((itemDto.getRequestId() == null) ? null : itemRequestService.getRequestById(itemDto.getRequestId())  )")
     @Mapping(target = "owner", expression = "java(userService.getUserById(itemDto.getOwner()))")
+    @Mapping(target = "version", ignore = true)
     public abstract Item dtoToItem(ItemDto itemDto, ItemRequestService itemRequestService);
 
     @Mapping(target = "owner", expression = "java(item.getOwner().getId())")
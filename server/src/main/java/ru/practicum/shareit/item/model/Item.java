@@ -4,6 +4,7 @@ import jakarta.persistence.*;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.Setter;
+import ru.practicum.shareit.common.Common;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.user.model.User;
 
@@ -15,7 +16,8 @@ import ru.practicum.shareit.user.model.User;
 public class Item {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "items_seq")
+    @SequenceGenerator(name = "items_seq", sequenceName = "ITEMS_SEQ", allocationSize = Common.ID_ALLOCATION_SIZE)
     @Column(name = "ID")
     private Integer id;
 
@@ -35,4 +37,9 @@ public class Item {
     @ManyToOne
     @JoinColumn(name = "REQUEST_ID", nullable = true)
     private ItemRequest request;
+
+    //правка вещи, прочитанной до чужой правки, отклоняется (см. V6__entity_versions.sql)
+    @Version
+    @Column(name = "VERSION", nullable = false)
+    private Integer version;
 }
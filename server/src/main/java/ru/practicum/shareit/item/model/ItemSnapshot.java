@@ -0,0 +1,26 @@
+package ru.practicum.shareit.item.model;
+
+import ru.practicum.shareit.request.model.ItemRequestSnapshot;
+import ru.practicum.shareit.user.model.UserSnapshot;
+
+//неизменяемая копия вещи с владельцем и запросом для кэша вещей
+public record ItemSnapshot(Integer id, String name, String description, Boolean available, Integer version,
+                           UserSnapshot owner, ItemRequestSnapshot request) {
+    public static ItemSnapshot of(Item item) {
+        return new ItemSnapshot(item.getId(), item.getName(), item.getDescription(), item.getAvailable(),
+                item.getVersion(), UserSnapshot.of(item.getOwner()),
+                (item.getRequest() == null) ? null : ItemRequestSnapshot.of(item.getRequest()));
+    }
+
+    public Item toItem() {
+        Item item = new Item();
+        item.setId(id);
+        item.setName(name);
+        item.setDescription(description);
+        item.setAvailable(available);
+        item.setVersion(version);
+        item.setOwner(owner.toUser());
+        item.setRequest((request == null) ? null : request.toItemRequest());
+        return item;
+    }
+}
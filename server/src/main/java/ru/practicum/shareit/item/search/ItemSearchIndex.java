@@ -0,0 +1,241 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.change.model.ChangeLogEntry;
+import ru.practicum.shareit.change.storage.ChangeLogStorage;
+import ru.practicum.shareit.common.change.EntityChangedEvent;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.mapper.SimpleItemMapper;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.storage.ItemStorage;
+
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/*
+Инвертированный n-граммный индекс по названию и описанию вещей.
+Для каждой n-граммы (n = 1..3) хранится множество Id вещей, в тексте которых она встречается.
+Запрос длиной до 3 символов - это одна n-грамма, ответ берется прямо из индекса.
+Для более длинного запроса кандидаты берутся из самого короткого списка его триграмм
+и проверяются на вхождение подстроки, так что поиск не просматривает весь каталог.
+Индекс свой у каждого экземпляра сервера. Свои изменения экземпляр видит сразу после фиксации (index),
+изменения других экземпляров - из журнала изменений (sync), с задержкой обработки outbox и sync-delay.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ItemSearchIndex {
+    private static final int MAX_GRAM_LENGTH = 3;
+    private static final int REBUILD_BATCH_SIZE = 1000;
+    private static final int SYNC_BATCH_SIZE = 1000;
+
+    private final ItemStorage itemStorage;
+    private final ChangeLogStorage changeLogStorage;
+    private final SimpleItemMapper itemMapper;
+
+    //поиск читает один снимок целиком; rebuild строит новый снимок и подменяет им текущий
+    private volatile Snapshot snapshot = new Snapshot();
+    //снимок, который строится сейчас: изменения, пришедшие во время построения, пишутся и в него
+    private volatile Snapshot building;
+    //позиция журнала изменений, до которой индекс обновлен; null - индекс еще не построен
+    private volatile Long syncPosition;
+
+    /* Позиция журнала запоминается до чтения каталога: изменения, зафиксированные во время построения,
+       sync применит еще раз поверх прочитанного */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        long position = changeLogStorage.getPosition();
+        Snapshot newSnapshot = new Snapshot();
+        building = newSnapshot;
+        Integer lastId = 0;
+        List<Item> batch;
+        do {
+            batch = itemStorage.findAllByIdGreaterThanOrderById(lastId, Limit.of(REBUILD_BATCH_SIZE));
+            for (Item item : batch) {
+                //вещь, уже проиндексированная по событию createItem/updateItem, свежее прочитанной здесь
+                newSnapshot.put(itemMapper.itemToDto(item), false);
+                lastId = item.getId();
+            }
+        } while (batch.size() == REBUILD_BATCH_SIZE);
+        //сначала подменяется текущий снимок: put, не заставший building, уже пишет в новый снимок
+        snapshot = newSnapshot;
+        building = null;
+        syncPosition = position;
+        log.info("Поисковый индекс вещей построен, вещей в индексе: {}", newSnapshot.documents.size());
+    }
+
+    //переиндексирует вещи из записей журнала изменений, сделанных после syncPosition, в том числе на других экземплярах
+    @Scheduled(fixedDelayString = "${shareit.search.sync-delay:1000}",
+            initialDelayString = "${shareit.search.sync-delay:1000}")
+    @Transactional(readOnly = true)
+    public void sync() {
+        Long position = syncPosition;
+        if (position == null) {
+            return;
+        }
+        List<ChangeLogEntry> entries;
+        do {
+            entries = changeLogStorage.findAllByIdGreaterThanOrderById(position, Limit.of(SYNC_BATCH_SIZE));
+            //одна вещь попадает в журнал каждого, кому видна, и много раз подряд
+            Set<Integer> itemIds = entries.stream()
+                    .filter(entry -> EntityChangedEvent.ITEMS.equals(entry.getEntity()))
+                    .map(ChangeLogEntry::getEntityId)
+                    .collect(Collectors.toSet());
+            if (!itemIds.isEmpty()) {
+                itemStorage.findAllByIdIn(itemIds).forEach(item -> put(itemMapper.itemToDto(item), true));
+            }
+            if (!entries.isEmpty()) {
+                position = entries.getLast().getId();
+            }
+        } while (entries.size() == SYNC_BATCH_SIZE);
+        syncPosition = position;
+    }
+
+    //индекс меняется только после фиксации транзакции, чтобы откаченные изменения не попали в поиск
+    public void index(ItemDto itemDto) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    put(itemDto, true);
+                }
+            });
+        } else {
+            put(itemDto, true);
+        }
+    }
+
+    public List<ItemDto> search(String text, int from, int limit) {
+        String query = text.toUpperCase();
+        Snapshot current = snapshot;
+        Comparator<IndexedItem> byRelevance = Comparator.comparingInt((IndexedItem doc) -> doc.score(query))
+                .reversed()
+                .thenComparing(doc -> doc.getItem().getId());
+        return current.getCandidates(query).stream()
+                .map(current.documents::get)
+                .filter(Objects::nonNull)
+                .filter(doc -> Boolean.TRUE.equals(doc.getItem().getAvailable()))
+                .filter(doc -> doc.score(query) > 0)
+                .sorted(byRelevance)
+                .skip(from)
+                .limit(limit)
+                .map(IndexedItem::getItem)
+                .toList();
+    }
+
+    /* building читается раньше snapshot: rebuild сначала публикует новый снимок и только потом сбрасывает building,
+       поэтому изменение, не заставшее building, пишется уже в новый снимок. Вещь может записаться в новый снимок
+       дважды - повторная запись того же документа ничего не меняет */
+    private void put(ItemDto itemDto, boolean overwrite) {
+        Snapshot pending = building;
+        snapshot.put(itemDto, overwrite);
+        if (pending != null) {
+            pending.put(itemDto, true);
+        }
+    }
+
+    private static final class Snapshot {
+        private final Map<Integer, IndexedItem> documents = new ConcurrentHashMap<>();
+        private final Map<String, Set<Integer>> postings = new ConcurrentHashMap<>();
+
+        private Set<Integer> getCandidates(String query) {
+            if (query.length() <= MAX_GRAM_LENGTH) {
+                return postings.getOrDefault(query, Set.of());
+            }
+            Set<Integer> smallest = null;
+            for (int i = 0; i + MAX_GRAM_LENGTH <= query.length(); i++) {
+                Set<Integer> posting = postings.get(query.substring(i, i + MAX_GRAM_LENGTH));
+                if (posting == null) {
+                    return Set.of();
+                }
+                if (smallest == null || posting.size() < smallest.size()) {
+                    smallest = posting;
+                }
+            }
+            return smallest;
+        }
+
+        private void put(ItemDto itemDto, boolean overwrite) {
+            documents.compute(itemDto.getId(), (id, oldDoc) -> {
+                if (oldDoc != null && !overwrite) {
+                    return oldDoc;
+                }
+                IndexedItem newDoc = new IndexedItem(itemDto);
+                if (oldDoc != null) {
+                    oldDoc.getGrams().stream()
+                            .filter(gram -> !newDoc.getGrams().contains(gram))
+                            .forEach(gram -> postings.computeIfPresent(gram, (key, ids) -> {
+                                ids.remove(id);
+                                return ids.isEmpty() ? null : ids;
+                            }));
+                }
+                /* добавление - тоже внутри compute по n-грамме: иначе параллельное удаление опустевшего списка
+                   могло бы выбросить его из индекса раньше, чем в него добавлен Id этой вещи */
+                newDoc.getGrams().forEach(gram -> postings.compute(gram, (key, ids) -> {
+                    Set<Integer> newIds = (ids == null) ? ConcurrentHashMap.newKeySet() : ids;
+                    newIds.add(id);
+                    return newIds;
+                }));
+                return newDoc;
+            });
+        }
+    }
+
+    /* Документ индекса неизменяем: при обновлении вещи он целиком заменяется новым,
+       поэтому ItemDto из него можно отдавать наружу без копирования */
+    @Getter
+    private static final class IndexedItem {
+        private final ItemDto item;
+        private final String name;
+        private final String description;
+        private final Set<String> grams = new HashSet<>();
+
+        private IndexedItem(ItemDto item) {
+            this.item = item;
+            this.name = Objects.toString(item.getName(), "").toUpperCase();
+            this.description = Objects.toString(item.getDescription(), "").toUpperCase();
+            addGrams(name);
+            addGrams(description);
+        }
+
+        //название весит больше описания, совпадение с начала названия - еще больше
+        private int score(String query) {
+            int score = 0;
+            if (name.startsWith(query)) {
+                score += 2;
+            }
+            if (name.contains(query)) {
+                score += 4;
+            }
+            if (description.contains(query)) {
+                score += 1;
+            }
+            return score;
+        }
+
+        private void addGrams(String text) {
+            for (int length = 1; length <= MAX_GRAM_LENGTH; length++) {
+                for (int i = 0; i + length <= text.length(); i++) {
+                    grams.add(text.substring(i, i + length));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package ru.practicum.shareit.item.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.common.Common;
+import ru.practicum.shareit.exceptions.ResourceNotFoundException;
+import ru.practicum.shareit.item.model.ItemSnapshot;
+import ru.practicum.shareit.item.storage.ItemStorage;
+
+//поиск вещи по Id через кэш, вынесен из ItemServiceImpl по той же причине, что и UserLookup
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ItemLookup {
+    private final ItemStorage itemStorage;
+
+    @Cacheable(cacheNames = Common.ITEMS_CACHE)
+    public ItemSnapshot getItem(int itemId) {
+        return itemStorage.findById(itemId)
+                .map(ItemSnapshot::of)
+                .orElseThrow(() -> notFound(itemId));
+    }
+
+    static ResourceNotFoundException notFound(int itemId) {
+        log.error("Не нашел вещь с Id = {}", itemId);
+        return new ResourceNotFoundException(String.format("Не нашел вещь с Id = %d", itemId));
+    }
+}
@@ -10,6 +10,8 @@ import java.util.List;
 public interface ItemService {
     ItemDto createItem(ItemDto itemDto);
 
+    List<ItemDto> createItems(List<ItemDto> itemDtoList);
+
     ItemDto updateItem(ItemDto itemDto);
 
     Item getItemById(int itemId);
@@ -18,7 +20,7 @@ public interface ItemService {
 
     List<ItemOutDtoWithDates> getUsersItems(Integer userId);
 
-    List<ItemDto> getItemsByContext(String context);
+    List<ItemDto> getItemsByContext(String context, Integer from, Integer limit);
 
     List<Item> getItemsWasCompleteBookingByUser(Integer itemId, Integer userId, LocalDateTime created);
 }
@@ -2,21 +2,26 @@ package ru.practicum.shareit.item.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
-import ru.practicum.shareit.booking.model.Booking;
-import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.model.LastAndNextBookings;
-import ru.practicum.shareit.booking.storage.BookingStorage;
+import ru.practicum.shareit.booking.service.LastAndNextBookingsService;
 import ru.practicum.shareit.comment.model.Comment;
 import ru.practicum.shareit.comment.storage.CommentStorage;
+import ru.practicum.shareit.common.Common;
+import ru.practicum.shareit.common.ParallelReads;
+import ru.practicum.shareit.common.change.EntityChangedEvent;
 import ru.practicum.shareit.exceptions.CustomValidationException;
-import ru.practicum.shareit.exceptions.ResourceNotFoundException;
 import ru.practicum.shareit.exceptions.RightsException;
+import ru.practicum.shareit.exceptions.ValidationException;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemOutDtoWithDates;
 import ru.practicum.shareit.item.mapper.SimpleItemMapper;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
 import ru.practicum.shareit.item.storage.ItemStorage;
 import ru.practicum.shareit.request.service.ItemRequestService;
 import ru.practicum.shareit.user.model.User;
@@ -26,6 +31,7 @@ import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -34,28 +40,51 @@ import java.util.stream.Collectors;
 @Transactional(readOnly = true)
 public class ItemServiceImpl implements ItemService {
     private final ItemStorage itemStorage;
+    private final ItemLookup itemLookup;
     private final UserService userService;
     private final SimpleItemMapper itemMapper;
-    private final BookingStorage bookingStorage;
+    private final LastAndNextBookingsService lastAndNextBookingsService;
     private final CommentStorage commentStorage;
     private final ItemRequestService itemRequestService;
+    private final ItemSearchIndex itemSearchIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ParallelReads parallelReads;
 
     @Transactional
     @Override
     public ItemDto createItem(ItemDto itemDto) {
-        if (itemDto.getId() != null) {
-            log.error("Ошибка при создании вещи: указан Id = {}", itemDto.getId());
-            throw new CustomValidationException(String.format("Ошибка при создании вещи: указан Id = %d", itemDto.getId()));
+        ItemDto createdItem = itemMapper.itemToDto(itemStorage.save(newItem(itemDto)));
+        itemSearchIndex.index(createdItem);
+        publishChanged(createdItem);
+        return createdItem;
+    }
+
+    //Id всем вещам пакета выдаются из последовательности заранее, поэтому INSERT-ы уходят пакетами
+    @Transactional
+    @Override
+    public List<ItemDto> createItems(List<ItemDto> itemDtoList) {
+        if (itemDtoList.size() > Common.MAX_BATCH_SIZE) {
+            log.error("Слишком большой пакет вещей: {}", itemDtoList.size());
+            throw new ValidationException(String.format("В пакете может быть не больше %d вещей", Common.MAX_BATCH_SIZE));
         }
-        Item item = itemMapper.dtoToItem(itemDto, itemRequestService);
-        item.setOwner(userService.getUserById(itemDto.getOwner()));
-        return itemMapper.itemToDto(itemStorage.save(item));
+        List<Item> itemList = itemDtoList.stream()
+                .map(this::newItem)
+                .toList();
+        List<ItemDto> createdItems = itemStorage.saveAll(itemList).stream()
+                .map(itemMapper::itemToDto)
+                .toList();
+        createdItems.forEach(itemSearchIndex::index);
+        createdItems.forEach(this::publishChanged);
+        return createdItems;
     }
 
+    @CacheEvict(cacheNames = Common.ITEMS_CACHE, key = "#itemDto.id")
     @Transactional
     @Override
     public ItemDto updateItem(ItemDto itemDto) {
-        Item itemForUpdate = getItemById(itemDto.getId());
+        //как и пользователь, вещь для правки читается из базы, а не из кэша
+        Item itemForUpdate = itemStorage.findById(itemDto.getId())
+                .orElseThrow(() -> ItemLookup.notFound(itemDto.getId()));
         Item newItem = itemMapper.dtoToItem(itemDto, itemRequestService);
         //отредактировать вещь может только ее владелец
         checkOwner(newItem.getOwner(), itemForUpdate.getOwner());
@@ -70,48 +99,66 @@ public class ItemServiceImpl implements ItemService {
         if (newItem.getAvailable() != null) {
             itemForUpdate.setAvailable(newItem.getAvailable());
         }
-        return itemMapper.itemToDto(itemStorage.save(itemForUpdate));
+        ItemDto updatedItem = itemMapper.itemToDto(itemStorage.save(itemForUpdate));
+        itemSearchIndex.index(updatedItem);
+        publishChanged(updatedItem);
+        return updatedItem;
     }
 
+    /* В отдельной ветке (см. ParallelReads) читаются только отзывы: вещь читается в потоке запроса, пока идет
+       чтение отзывов, а бронирования владельца - после вещи, и пересекаются разве что с еще не законченным чтением
+       отзывов. Ветки работают со своими соединениями, поэтому метод не открывает своей транзакции */
+    @Transactional(propagation = Propagation.SUPPORTS)
     @Override
     public ItemOutDtoWithDates getItemDtoById(Integer itemId, Integer userId) {
+        CompletableFuture<List<Comment>> commentsRead = parallelReads.fork(() ->
+                commentStorage.findAllByItemIdInOrderByCreatedDesc(List.of(itemId)));
         Item item = getItemById(itemId);
-        List<Booking> bookingList = bookingStorage.getBookingsByItemOwner(itemId, userId);
-        LastAndNextBookings twoBookings = getLastAndNextBookings(bookingList);
-        List<Comment> commentList = commentStorage.findAllByItemInOrderByCreatedDesc(List.of(item));
-        return itemMapper.toItemOutDtoWithDate(item, twoBookings, commentList);
+        //даты бронирований видит только владелец вещи
+        CompletableFuture<LastAndNextBookings> bookingsRead = item.getOwner().getId().equals(userId)
+                ? parallelReads.fork(() -> lastAndNextBookingsService.getByItemId(itemId))
+                : CompletableFuture.completedFuture(new LastAndNextBookings(itemId));
+        return itemMapper.toItemOutDtoWithDate(item, ParallelReads.join(bookingsRead),
+                ParallelReads.join(commentsRead));
     }
 
+    //бронирования и отзывы вещей пользователя читаются параллельно, см. getItemDtoById
+    @Transactional(propagation = Propagation.SUPPORTS)
     @Override
     public List<ItemOutDtoWithDates> getUsersItems(Integer userId) {
         List<Item> itemList = itemStorage.findAllByOwner(userService.getUserById(userId));
-        Map<Integer, List<Booking>> bookingMap = getBookingMap(itemList);
-        Map<Integer, List<Comment>> commentMap = getCommentsMap(itemList);
+        List<Integer> itemIds = itemList.stream()
+                .map(Item::getId)
+                .toList();
+        CompletableFuture<Map<Integer, LastAndNextBookings>> bookingsRead = parallelReads.fork(() ->
+                lastAndNextBookingsService.getByItemIds(itemIds));
+        CompletableFuture<Map<Integer, List<Comment>>> commentsRead = parallelReads.fork(() ->
+                getCommentsMap(itemList));
+        Map<Integer, LastAndNextBookings> bookingsMap = ParallelReads.join(bookingsRead);
+        Map<Integer, List<Comment>> commentMap = ParallelReads.join(commentsRead);
         return itemList.stream()
                 .map(item -> {
                     List<Comment> commentList = commentMap.get(item.getId());
                     if (commentList == null) {
                         commentList = new ArrayList<>();
                     }
-                    List<Booking> bookingList = bookingMap.get(item.getId());
-                    if (bookingList == null) {
-                        bookingList = new ArrayList<>();
-                    }
-                    LastAndNextBookings twoBookings = getLastAndNextBookings(bookingList);
-                    return itemMapper.toItemOutDtoWithDate(item, twoBookings, commentList);
+                    return itemMapper.toItemOutDtoWithDate(item, bookingsMap.get(item.getId()), commentList);
                 })
                 .collect(Collectors.toList());
     }
 
+    //без limit найденные вещи отдаются все, как до постраничного поиска
     @Override
-    public List<ItemDto> getItemsByContext(String context) {
+    public List<ItemDto> getItemsByContext(String context, Integer from, Integer limit) {
+        if (from < 0 || (limit != null && (limit < 1 || limit > Common.MAX_PAGE_SIZE))) {
+            log.error("Некорректные параметры страницы: from = {}, limit = {}", from, limit);
+            throw new ValidationException(String.format("Некорректные параметры страницы: from = %d, limit = %d",
+                    from, limit));
+        }
         if (context.isEmpty() || context.isBlank()) {
             return new ArrayList<>();
         }
-
-        return itemStorage.contextSearch(context.toUpperCase()).stream()
-                .map(itemMapper::itemToDto)
-                .collect(Collectors.toList());
+        return itemSearchIndex.search(context, from, limit != null ? limit : Integer.MAX_VALUE);
     }
 
     @Override
@@ -121,48 +168,30 @@ public class ItemServiceImpl implements ItemService {
 
     @Override
     public Item getItemById(int itemId) {
-        return itemStorage.findById(itemId).orElseThrow(() -> {
-            log.error("Не нашел вещь с Id = {}", itemId);
-            throw new ResourceNotFoundException(String.format("Не нашел вещь с Id = %d", itemId));
-        });
+        return itemLookup.getItem(itemId).toItem();
     }
 
-    private void checkOwner(User newOwner, User oldOwner) {
-        if (!newOwner.getId().equals(oldOwner.getId())) {
-            throw new RightsException("Редактировать вещь может только ее владелец");
+    //вещь входит в ответ на запрос, по которому она создана
+    private void publishChanged(ItemDto itemDto) {
+        eventPublisher.publishEvent(new EntityChangedEvent(EntityChangedEvent.ITEMS, itemDto.getId()));
+        if (itemDto.getRequestId() != null) {
+            eventPublisher.publishEvent(new EntityChangedEvent(EntityChangedEvent.REQUESTS, itemDto.getRequestId()));
         }
     }
 
-    private LastAndNextBookings getLastAndNextBookings(List<Booking> bookingList) {
-        /*
-        Букинги на входе отсортированы в порядке возрастания даты начала....
-        Последнее бронирование таково, что началось в самом ближайшем прошлом.
-         А следующее, которое начнется в самом ближайшем будущем.
-         */
-        LastAndNextBookings twoBookings = new LastAndNextBookings();
-        LocalDateTime now = LocalDateTime.now();
-        if (bookingList.isEmpty()) {
-            twoBookings.setLastBooking(null);
-            twoBookings.setNextBooking(null);
-        } else {
-            for (Booking booking : bookingList) {
-                if (booking.getStart().isBefore(now)) {
-                    twoBookings.setLastBooking(booking);
-                }
-                if (booking.getStart().isAfter(now)) {
-                    twoBookings.setNextBooking(booking);
-                    break;
-                }
-            }
+    private Item newItem(ItemDto itemDto) {
+        if (itemDto.getId() != null) {
+            log.error("Ошибка при создании вещи: указан Id = {}", itemDto.getId());
+            throw new CustomValidationException(String.format("Ошибка при создании вещи: указан Id = %d", itemDto.getId()));
         }
-        return twoBookings;
+        //владельца и запрос маппер уже нашел по Id
+        return itemMapper.dtoToItem(itemDto, itemRequestService);
     }
 
-    private Map<Integer, List<Booking>> getBookingMap(List<Item> itemList) {
-        List<Booking> bookingList = bookingStorage.findAllByItemInAndStatusOrderByStart(itemList, BookingStatus.APPROVED);
-
-        return bookingList.stream()
-                .collect(Collectors.groupingBy(booking -> booking.getItem().getId()));
+    private void checkOwner(User newOwner, User oldOwner) {
+        if (!newOwner.getId().equals(oldOwner.getId())) {
+            throw new RightsException("Редактировать вещь может только ее владелец");
+        }
     }
 
     private Map<Integer, List<Comment>> getCommentsMap(List<Item> itemList) {
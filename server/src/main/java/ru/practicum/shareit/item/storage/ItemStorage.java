@@ -1,5 +1,7 @@
 package ru.practicum.shareit.item.storage;
 
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import ru.practicum.shareit.item.model.Item;
@@ -7,14 +9,23 @@ import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.user.model.User;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface ItemStorage extends JpaRepository<Item, Integer> {
-    @Query(nativeQuery = true, value = "SELECT * FROM ITEMS " +
-            "WHERE (UPPER(NAME) LIKE '%' ||  ?1 || '%' OR " +
-            "UPPER(DESCRIPTION) LIKE '%' ||  ?1 || '%') AND " +
-            "IS_AVIALABLE = TRUE")
-    List<Item> contextSearch(String context);
+    //из вещи строится снимок для кэша, поэтому владелец, запрос и автор запроса загружаются сразу
+    @EntityGraph(attributePaths = {"owner", "request", "request.requester"})
+    @Override
+    Optional<Item> findById(Integer id);
+
+    //постраничная выгрузка каталога для построения поискового индекса
+    @EntityGraph(attributePaths = "request")
+    List<Item> findAllByIdGreaterThanOrderById(Integer id, Limit limit);
+
+    //вещи, изменившиеся на других экземплярах сервера, для обновления поискового индекса
+    @EntityGraph(attributePaths = "request")
+    List<Item> findAllByIdIn(Collection<Integer> ids);
 
     List<Item> findAllByOwner(User userById);
 
@@ -24,4 +35,10 @@ public interface ItemStorage extends JpaRepository<Item, Integer> {
     List<Item> findAllByRequestInOrderById(List<ItemRequest> itemRequestList);
 
     List<Item> findAllByRequestOrderById(ItemRequest itemRequest);
+
+    /* Блокировка строки вещи до конца транзакции: подтверждения бронирований вещи и пересчеты ее последнего
+       и следующего бронирования выполняются по очереди на всех экземплярах сервера. Блокируется строка вещи,
+       которая есть всегда, а не витрины: записи витрины может еще не быть, и тогда ее блокировка ничего бы не заняла */
+    @Query(value = "SELECT ID FROM ITEMS WHERE ID = ?1 FOR UPDATE", nativeQuery = true)
+    Optional<Integer> lockItem(Integer itemId);
 }
@@ -0,0 +1,52 @@
+package ru.practicum.shareit.outbox.model;
+
+import jakarta.persistence.*;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import ru.practicum.shareit.common.Common;
+
+import java.time.LocalDateTime;
+
+//изменение сущности, ожидающее фоновой обработки (см. OutboxDispatcher)
+@Getter
+@Setter
+@NoArgsConstructor
+@EqualsAndHashCode(of = {"id"})
+@Entity
+@Table(name = "OUTBOX")
+public class OutboxMessage {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_seq")
+    @SequenceGenerator(name = "outbox_seq", sequenceName = "OUTBOX_SEQ", allocationSize = Common.ID_ALLOCATION_SIZE)
+    @Column(name = "ID")
+    private Long id;
+
+    @Column(name = "ENTITY", nullable = false, length = 20)
+    private String entity;
+
+    @Column(name = "ENTITY_ID", nullable = false)
+    private Integer entityId;
+
+    @Column(name = "CREATED", nullable = false)
+    private LocalDateTime created;
+
+    //неудачные попытки обработки этого изменения отдельно от пакета
+    @Column(name = "ATTEMPTS", nullable = false)
+    private int attempts;
+
+    //до этого момента строка не захватывается; null - можно сразу
+    @Column(name = "NEXT_ATTEMPT")
+    private LocalDateTime nextAttempt;
+
+    //попытки исчерпаны: строка больше не захватывается и ждет разбора
+    @Column(name = "PARKED", nullable = false)
+    private boolean parked;
+
+    public OutboxMessage(String entity, Integer entityId, LocalDateTime created) {
+        this.entity = entity;
+        this.entityId = entityId;
+        this.created = created;
+    }
+}
@@ -0,0 +1,165 @@
+package ru.practicum.shareit.outbox.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.common.change.EntityChangedEvent;
+import ru.practicum.shareit.outbox.model.OutboxMessage;
+import ru.practicum.shareit.outbox.storage.OutboxStorage;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+Фоновая обработка outbox: пакет до batch-size строк захватывается, передается всем OutboxHandler и удаляется
+в одной транзакции. Ошибка обработчика откатывает транзакцию, и строки пакета обрабатываются по одной,
+каждая в своей транзакции, - так одно плохое изменение не держит остальные. Упавшая строка откладывается
+с удваивающейся задержкой от retry-delay, а после max-attempts попыток паркуется (PARKED) и больше
+не захватывается (доставка "хотя бы один раз" для всех остальных изменений).
+Узлы сервера захватывают разные пакеты (SKIP LOCKED), не дожидаясь друг друга.
+Метрики: shareit.outbox.dispatched - обработано изменений, shareit.outbox.failures - неудачных попыток,
+shareit.outbox.parked - припаркованных изменений, shareit.outbox.lag - сколько изменение ждало обработки.
+ */
+@Slf4j
+@Component
+public class OutboxDispatcher {
+    private static final Duration MAX_RETRY_DELAY = Duration.ofHours(1);
+
+    private final OutboxStorage outboxStorage;
+    private final List<OutboxHandler> handlers;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration retryDelay;
+    private final Counter dispatched;
+    private final Counter failures;
+    private final Counter parked;
+    private final Timer lag;
+
+    public OutboxDispatcher(OutboxStorage outboxStorage, List<OutboxHandler> handlers,
+                            PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+                            @Value("${shareit.outbox.batch-size:500}") int batchSize,
+                            @Value("${shareit.outbox.max-attempts:10}") int maxAttempts,
+                            @Value("${shareit.outbox.retry-delay:1s}") Duration retryDelay) {
+        this.outboxStorage = outboxStorage;
+        this.handlers = handlers;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.retryDelay = retryDelay;
+        this.dispatched = Counter.builder("shareit.outbox.dispatched")
+                .description("Обработанные изменения outbox")
+                .register(meterRegistry);
+        this.failures = Counter.builder("shareit.outbox.failures")
+                .description("Попытки обработки outbox, откаченные из-за ошибки обработчика")
+                .register(meterRegistry);
+        this.parked = Counter.builder("shareit.outbox.parked")
+                .description("Изменения outbox, отложенные после исчерпания попыток")
+                .register(meterRegistry);
+        this.lag = Timer.builder("shareit.outbox.lag")
+                .description("Время от записи изменения в outbox до его обработки")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.outbox.dispatch-delay:200}",
+            initialDelayString = "${shareit.outbox.dispatch-delay:200}")
+    public void dispatch() {
+        try {
+            dispatchAll();
+        } catch (RuntimeException e) {
+            log.error("Ошибка обработки outbox, пакет будет обработан повторно", e);
+        }
+    }
+
+    //обрабатывает пакеты, пока в outbox есть готовые к обработке строки; возвращает число обработанных изменений
+    public int dispatchAll() {
+        int total = 0;
+        List<Long> claimed = new ArrayList<>();
+        do {
+            claimed.clear();
+            try {
+                total += transactionTemplate.execute(status -> dispatchBatch(claimed));
+            } catch (RuntimeException e) {
+                failures.increment();
+                log.warn("Пакет outbox из {} изменений не обработан ({}), обрабатываю по одному", claimed.size(),
+                        e.toString());
+                for (Long id : claimed) {
+                    total += dispatchOne(id);
+                }
+            }
+        } while (claimed.size() == batchSize);
+        return total;
+    }
+
+    //Id захваченных строк попадают в claimed до вызова обработчиков, чтобы после отката их можно было разобрать
+    private int dispatchBatch(List<Long> claimed) {
+        List<OutboxMessage> batch = outboxStorage.claimBatch(batchSize, LocalDateTime.now());
+        batch.forEach(message -> claimed.add(message.getId()));
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        //пакетные операции и пересчеты сообщают об одной сущности несколько раз
+        List<EntityChangedEvent> events = batch.stream()
+                .map(message -> new EntityChangedEvent(message.getEntity(), message.getEntityId()))
+                .distinct()
+                .toList();
+        handlers.forEach(handler -> handler.handle(events));
+        complete(batch);
+        return batch.size();
+    }
+
+    private int dispatchOne(Long id) {
+        try {
+            return transactionTemplate.execute(status -> outboxStorage.claim(id, LocalDateTime.now())
+                    .map(message -> {
+                        List<EntityChangedEvent> events = List.of(new EntityChangedEvent(message.getEntity(),
+                                message.getEntityId()));
+                        handlers.forEach(handler -> handler.handle(events));
+                        complete(List.of(message));
+                        return 1;
+                    })
+                    .orElse(0));
+        } catch (RuntimeException e) {
+            failures.increment();
+            transactionTemplate.executeWithoutResult(status -> outboxStorage.claim(id, LocalDateTime.now())
+                    .ifPresent(message -> postpone(message, e)));
+            return 0;
+        }
+    }
+
+    private void postpone(OutboxMessage message, RuntimeException e) {
+        message.setAttempts(message.getAttempts() + 1);
+        if (message.getAttempts() >= maxAttempts) {
+            message.setParked(true);
+            parked.increment();
+            log.error("Изменение outbox {} ({} {}) не обработано за {} попыток и отложено до разбора",
+                    message.getId(), message.getEntity(), message.getEntityId(), message.getAttempts(), e);
+            return;
+        }
+        Duration delay = retryDelay.multipliedBy(1L << Math.min(message.getAttempts() - 1, 20));
+        if (delay.compareTo(MAX_RETRY_DELAY) > 0) {
+            delay = MAX_RETRY_DELAY;
+        }
+        message.setNextAttempt(LocalDateTime.now().plus(delay));
+        log.warn("Изменение outbox {} ({} {}) не обработано, попытка {} из {}, следующая через {}: {}",
+                message.getId(), message.getEntity(), message.getEntityId(), message.getAttempts(), maxAttempts,
+                delay, e.toString());
+    }
+
+    private void complete(List<OutboxMessage> messages) {
+        outboxStorage.deleteAllByIdInBatch(messages.stream()
+                .map(OutboxMessage::getId)
+                .toList());
+        LocalDateTime now = LocalDateTime.now();
+        messages.forEach(message -> lag.record(Duration.between(message.getCreated(), now)));
+        dispatched.increment(messages.size());
+    }
+}
@@ -0,0 +1,14 @@
+package ru.practicum.shareit.outbox.service;
+
+import ru.practicum.shareit.common.change.EntityChangedEvent;
+
+import java.util.List;
+
+/*
+Обработчик изменений из outbox. Вызывается в транзакции, которая удаляет обработанные строки:
+исключение откатывает пакет, и он будет обработан снова, в том числе уже успешными обработчиками,
+поэтому обработка должна быть идемпотентной или допускать повтор.
+ */
+public interface OutboxHandler {
+    void handle(List<EntityChangedEvent> events);
+}
@@ -0,0 +1,32 @@
+package ru.practicum.shareit.outbox.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.common.change.EntityChangedEvent;
+import ru.practicum.shareit.outbox.model.OutboxMessage;
+import ru.practicum.shareit.outbox.storage.OutboxStorage;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+
+/*
+Записывает изменения в outbox в транзакции, которая их публикует: откаченное изменение не обрабатывается,
+зафиксированное будет обработано обязательно. Вставки уходят в базу пакетом вместе с остальными при фиксации.
+ */
+@Component
+@RequiredArgsConstructor
+public class OutboxWriter {
+    //изменения пользователей обрабатывать некому
+    private static final Set<String> ENTITIES = Set.of(EntityChangedEvent.BOOKINGS, EntityChangedEvent.ITEMS,
+            EntityChangedEvent.REQUESTS, EntityChangedEvent.COMMENTS);
+
+    private final OutboxStorage outboxStorage;
+
+    @EventListener
+    public void onChange(EntityChangedEvent event) {
+        if (ENTITIES.contains(event.entity())) {
+            outboxStorage.save(new OutboxMessage(event.entity(), event.id(), LocalDateTime.now()));
+        }
+    }
+}
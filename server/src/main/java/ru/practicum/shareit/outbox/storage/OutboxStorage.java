@@ -0,0 +1,24 @@
+package ru.practicum.shareit.outbox.storage;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import ru.practicum.shareit.outbox.model.OutboxMessage;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface OutboxStorage extends JpaRepository<OutboxMessage, Long> {
+    String CLAIMABLE = "PARKED = FALSE AND (NEXT_ATTEMPT IS NULL OR NEXT_ATTEMPT <= ?2) ";
+
+    /* строки блокируются до конца транзакции; захваченные другим узлом пропускаются, а не ждут его фиксации,
+       отложенные после ошибки - до своего NEXT_ATTEMPT */
+    @Query(value = "SELECT * FROM OUTBOX WHERE " + CLAIMABLE + "ORDER BY ID LIMIT ?1 FOR UPDATE SKIP LOCKED",
+            nativeQuery = true)
+    List<OutboxMessage> claimBatch(int limit, LocalDateTime now);
+
+    //одна строка пакета, упавшего целиком: пусто, если ее уже обработал или захватил другой узел
+    @Query(value = "SELECT * FROM OUTBOX WHERE ID = ?1 AND " + CLAIMABLE + "FOR UPDATE SKIP LOCKED",
+            nativeQuery = true)
+    Optional<OutboxMessage> claim(Long id, LocalDateTime now);
+}
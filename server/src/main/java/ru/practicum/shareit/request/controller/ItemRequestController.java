@@ -1,11 +1,13 @@
 package ru.practicum.shareit.request.controller;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.common.Common;
 import ru.practicum.shareit.request.dto.ItemRequestDtoWithItems;
 import ru.practicum.shareit.request.dto.ItemRequestInDto;
 import ru.practicum.shareit.request.dto.ItemRequestOutDto;
+import ru.practicum.shareit.request.dto.ItemRequestPageDto;
 import ru.practicum.shareit.request.service.ItemRequestService;
 
 import java.util.List;
@@ -29,10 +31,18 @@ public class ItemRequestController {
         return itemRequestService.getRequestByUserId(userId);
     }
 
-    //получить список запросов, созданных другими пользователями.
+    //получить страницу запросов, созданных другими пользователями; курсор следующей страницы - в заголовке.
     @GetMapping("/all")
-    public List<ItemRequestDtoWithItems> getAll() {
-        return itemRequestService.getAllRequests();
+    public ResponseEntity<List<ItemRequestDtoWithItems>> getAll(
+            @RequestHeader(Common.USER_HEADER) Integer userId,
+            @RequestParam(name = "after", required = false) String after,
+            @RequestParam(name = "limit", required = false) Integer limit) {
+        ItemRequestPageDto page = itemRequestService.getAllRequests(userId, after, limit);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(Common.NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getRequests());
     }
 
     // Получить данные об одном конкретном запросе вместе с данными об ответах на него. Доступ любого пользователя.
@@ -0,0 +1,14 @@
+package ru.practicum.shareit.request.dto;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.List;
+
+@Getter
+@RequiredArgsConstructor
+public class ItemRequestPageDto {
+    private final List<ItemRequestDtoWithItems> requests;
+    //курсор следующей страницы, null - если страница последняя
+    private final String nextCursor;
+}
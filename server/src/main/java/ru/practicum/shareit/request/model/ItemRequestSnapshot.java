@@ -0,0 +1,22 @@
+package ru.practicum.shareit.request.model;
+
+import ru.practicum.shareit.user.model.UserSnapshot;
+
+import java.time.LocalDateTime;
+
+//неизменяемая копия запроса вместе с автором для кэша запросов
+public record ItemRequestSnapshot(Integer id, String description, UserSnapshot requester, LocalDateTime created) {
+    public static ItemRequestSnapshot of(ItemRequest itemRequest) {
+        return new ItemRequestSnapshot(itemRequest.getId(), itemRequest.getDescription(),
+                UserSnapshot.of(itemRequest.getRequester()), itemRequest.getCreated());
+    }
+
+    public ItemRequest toItemRequest() {
+        ItemRequest itemRequest = new ItemRequest();
+        itemRequest.setId(id);
+        itemRequest.setDescription(description);
+        itemRequest.setRequester(requester.toUser());
+        itemRequest.setCreated(created);
+        return itemRequest;
+    }
+}
@@ -0,0 +1,28 @@
+package ru.practicum.shareit.request.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.common.Common;
+import ru.practicum.shareit.exceptions.ResourceNotFoundException;
+import ru.practicum.shareit.request.model.ItemRequestSnapshot;
+import ru.practicum.shareit.request.storage.ItemRequestStorage;
+
+//поиск запроса по Id через кэш, вынесен из ItemRequestServiceImpl, как и UserLookup
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ItemRequestLookup {
+    private final ItemRequestStorage itemRequestStorage;
+
+    @Cacheable(cacheNames = Common.REQUESTS_CACHE)
+    public ItemRequestSnapshot getRequest(Integer requestId) {
+        return itemRequestStorage.findById(requestId)
+                .map(ItemRequestSnapshot::of)
+                .orElseThrow(() -> {
+                    log.warn("Не нашел запрос с Id = {}", requestId);
+                    return new ResourceNotFoundException("Не нашел запрос с Id = " + requestId);
+                });
+    }
+}
@@ -3,6 +3,7 @@ package ru.practicum.shareit.request.service;
 import ru.practicum.shareit.request.dto.ItemRequestDtoWithItems;
 import ru.practicum.shareit.request.dto.ItemRequestInDto;
 import ru.practicum.shareit.request.dto.ItemRequestOutDto;
+import ru.practicum.shareit.request.dto.ItemRequestPageDto;
 import ru.practicum.shareit.request.model.ItemRequest;
 
 import java.util.List;
@@ -12,7 +13,7 @@ public interface ItemRequestService {
 
     List<ItemRequestDtoWithItems> getRequestByUserId(Integer userId);
 
-    List<ItemRequestDtoWithItems> getAllRequests();
+    ItemRequestPageDto getAllRequests(Integer userId, String after, Integer limit);
 
     ItemRequestDtoWithItems getRequestDtoById(Integer requestId);
 
@@ -2,15 +2,19 @@ package ru.practicum.shareit.request.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Sort;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import ru.practicum.shareit.exceptions.ResourceNotFoundException;
+import ru.practicum.shareit.common.Common;
+import ru.practicum.shareit.common.KeysetCursor;
+import ru.practicum.shareit.common.change.EntityChangedEvent;
+import ru.practicum.shareit.exceptions.ValidationException;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.storage.ItemStorage;
 import ru.practicum.shareit.request.dto.ItemRequestDtoWithItems;
 import ru.practicum.shareit.request.dto.ItemRequestInDto;
 import ru.practicum.shareit.request.dto.ItemRequestOutDto;
+import ru.practicum.shareit.request.dto.ItemRequestPageDto;
 import ru.practicum.shareit.request.mapper.SimpleItemRequestMapper;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.storage.ItemRequestStorage;
@@ -28,15 +32,19 @@ import java.util.stream.Collectors;
 @Transactional(readOnly = true)
 public class ItemRequestServiceImpl implements ItemRequestService {
     private final ItemRequestStorage itemRequestStorage;
+    private final ItemRequestLookup itemRequestLookup;
     private final ItemStorage itemStorage;
     private final SimpleItemRequestMapper itemRequestMapper;
     private final UserService userService;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     @Override
     public ItemRequestOutDto createRequest(ItemRequestInDto itemRequestDto) {
         ItemRequest itemRequest = itemRequestMapper.dtoToItemRequest(itemRequestDto);
-        return itemRequestMapper.itemRequestToDto(itemRequestStorage.save(itemRequest));
+        ItemRequest createdRequest = itemRequestStorage.save(itemRequest);
+        eventPublisher.publishEvent(new EntityChangedEvent(EntityChangedEvent.REQUESTS, createdRequest.getId()));
+        return itemRequestMapper.itemRequestToDto(createdRequest);
     }
 
     //получить список своих запросов вместе с данными об ответах на них.
@@ -48,21 +56,31 @@ public class ItemRequestServiceImpl implements ItemRequestService {
         return getListOfItemsRequestsDto(itemRequestList, itemMapByRequestId);
     }
 
-    //Получить список запросов, созданных другими пользователями.
+    /* Получить страницу запросов, созданных другими пользователями. Ответы читаются только для запросов страницы.
+       Без limit лента отдается целиком, как до постраничного чтения. */
     @Override
-    public List<ItemRequestDtoWithItems> getAllRequests() {
-        List<ItemRequest> itemRequestList = itemRequestStorage.findAll(Sort.by("created").descending());
+    public ItemRequestPageDto getAllRequests(Integer userId, String after, Integer limit) {
+        if (limit != null && (limit < 1 || limit > Common.MAX_PAGE_SIZE)) {
+            log.error("Недопустимый размер страницы запросов limit = {}", limit);
+            throw new ValidationException(String.format("Размер страницы должен быть от 1 до %d", Common.MAX_PAGE_SIZE));
+        }
+        userService.getUserById(userId);
+        KeysetCursor cursor = KeysetCursor.decode(after);
+        List<ItemRequest> itemRequestList = itemRequestStorage.getOtherUsersRequests(userId, cursor.getTime(),
+                cursor.getId(), Common.pageLimit(limit));
+        String nextCursor = null;
+        if (limit != null && itemRequestList.size() > limit) {
+            itemRequestList = itemRequestList.subList(0, limit);
+            ItemRequest last = itemRequestList.getLast();
+            nextCursor = new KeysetCursor(last.getCreated(), last.getId()).encode();
+        }
         Map<Integer, List<Item>> itemMapByRequestId = getItemsMap(itemRequestList);
-        return getListOfItemsRequestsDto(itemRequestList, itemMapByRequestId);
+        return new ItemRequestPageDto(getListOfItemsRequestsDto(itemRequestList, itemMapByRequestId), nextCursor);
     }
 
     @Override
     public ItemRequest getRequestById(Integer requestId) {
-        return itemRequestStorage.findById(requestId)
-                .orElseThrow(() -> {
-                    log.warn("Не нашел запрос с Id = {}", requestId);
-                    throw new ResourceNotFoundException("Не нашел запрос с Id = " + requestId);
-                });
+        return itemRequestLookup.getRequest(requestId).toItemRequest();
     }
 
     @Override
@@ -73,9 +91,12 @@ public class ItemRequestServiceImpl implements ItemRequestService {
     }
 
     private Map<Integer, List<Item>> getItemsMap(List<ItemRequest> itemRequestList) {
+        if (itemRequestList.isEmpty()) {
+            return Map.of();
+        }
         List<Item> itemList = itemStorage.findAllByRequestInOrderById(itemRequestList);
         return itemList.stream()
-                .collect(Collectors.groupingBy(item -> item.getRequest().getRequester().getId()));
+                .collect(Collectors.groupingBy(item -> item.getRequest().getId()));
     }
 
     private List<ItemRequestDtoWithItems> getListOfItemsRequestsDto(List<ItemRequest> itemRequestList,
@@ -1,15 +1,27 @@
 package ru.practicum.shareit.request.storage;
 
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.user.model.User;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 public interface ItemRequestStorage extends JpaRepository<ItemRequest, Integer> {
+    //из запроса строится снимок для кэша, поэтому автор загружается сразу
+    @EntityGraph(attributePaths = "requester")
+    @Override
+    Optional<ItemRequest> findById(Integer id);
+
     List<ItemRequest> findAllByRequesterOrderByCreatedDesc(User user);
 
-    @Query(value = "SELECT IR FROM ItemRequest IR WHERE IR.requester.id <> ?1 ORDER BY IR.created DESC")
-    List<ItemRequest> findAll(Integer userId);
+    /* Лента чужих запросов страницами по курсору (created, id): ?2 и ?3 - позиция последнего запроса
+       предыдущей страницы. Порядок - от новых запросов к старым, как и до постраничного чтения */
+    @Query(value = "SELECT IR FROM ItemRequest IR WHERE IR.requester.id <> ?1 " +
+            "AND IR.created <= ?2 AND (IR.created < ?2 OR IR.id < ?3) ORDER BY IR.created DESC, IR.id DESC")
+    List<ItemRequest> getOtherUsersRequests(Integer userId, LocalDateTime afterCreated, Integer afterId, Limit limit);
 }
@@ -29,6 +29,11 @@ public class UserController {
         return userService.createUser(userDto);
     }
 
+    @PostMapping("/batch")
+    public List<UserDto> createUsers(@RequestBody List<UserDto> userDtoList) {
+        return userService.createUsers(userDtoList);
+    }
+
     @DeleteMapping("/{userId}")
     public void deleteUser(@PathVariable Integer userId) {
         userService.deleteUser(userId);
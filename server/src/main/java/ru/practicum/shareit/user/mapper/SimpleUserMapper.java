@@ -1,6 +1,7 @@
 package ru.practicum.shareit.user.mapper;
 
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 import org.mapstruct.MappingConstants;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.model.User;
@@ -9,5 +10,7 @@ import ru.practicum.shareit.user.model.User;
 public interface SimpleUserMapper {
     UserDto userToDto(User user);
 
+    //версию новой сущности выставляет Hibernate, а обновления читают ее из базы
+    @Mapping(target = "version", ignore = true)
     User dtoToUser(UserDto userDto);
 }
@@ -4,6 +4,7 @@ import jakarta.persistence.*;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.Setter;
+import ru.practicum.shareit.common.Common;
 
 @EqualsAndHashCode(of = {"id"})
 @Getter
@@ -13,7 +14,8 @@ import lombok.Setter;
 public class User {
     @Id
     @Column(name = "ID")
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "USERS_SEQ", allocationSize = Common.ID_ALLOCATION_SIZE)
     private Integer id;
 
     @Column(name = "NAME", length = 50, nullable = false)
@@ -21,4 +23,9 @@ public class User {
 
     @Column(name = "EMAIL", length = 50, nullable = false, unique = true)
     private String email;
+
+    //см. V6__entity_versions.sql
+    @Version
+    @Column(name = "VERSION", nullable = false)
+    private Integer version;
 }
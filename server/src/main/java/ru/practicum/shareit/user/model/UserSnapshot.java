@@ -0,0 +1,18 @@
+package ru.practicum.shareit.user.model;
+
+//неизменяемая копия пользователя: ее хранит кэш, общий для всех потоков, вместо самой сущности
+public record UserSnapshot(Integer id, String name, String email, Integer version) {
+    public static UserSnapshot of(User user) {
+        return new UserSnapshot(user.getId(), user.getName(), user.getEmail(), user.getVersion());
+    }
+
+    //каждый вызов возвращает новую отсоединенную сущность, ее можно менять, не трогая кэш
+    public User toUser() {
+        User user = new User();
+        user.setId(id);
+        user.setName(name);
+        user.setEmail(email);
+        user.setVersion(version);
+        return user;
+    }
+}
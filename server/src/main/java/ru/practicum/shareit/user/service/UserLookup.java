@@ -0,0 +1,34 @@
+package ru.practicum.shareit.user.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.common.Common;
+import ru.practicum.shareit.exceptions.ResourceNotFoundException;
+import ru.practicum.shareit.user.model.UserSnapshot;
+import ru.practicum.shareit.user.storage.UserStorage;
+
+/*
+Поиск пользователя по Id через кэш (см. CacheConfig).
+Отдельный бин, а не метод UserServiceImpl: вызов метода сервиса изнутри самого сервиса прошел бы мимо
+кэширующего прокси
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UserLookup {
+    private final UserStorage userStorage;
+
+    @Cacheable(cacheNames = Common.USERS_CACHE)
+    public UserSnapshot getUser(int userId) {
+        return userStorage.findById(userId)
+                .map(UserSnapshot::of)
+                .orElseThrow(() -> notFound(userId));
+    }
+
+    static ResourceNotFoundException notFound(int userId) {
+        log.error("Не нашел пользователя с Id = {}", userId);
+        return new ResourceNotFoundException(String.format("Не нашел пользователя с Id = %d", userId));
+    }
+}
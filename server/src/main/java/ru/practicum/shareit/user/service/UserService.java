@@ -15,6 +15,8 @@ public interface UserService {
 
     UserDto createUser(UserDto userDto);
 
+    List<UserDto> createUsers(List<UserDto> userDtoList);
+
     UserDto updateUser(UserDto userDto);
 
     void deleteUser(int userId);
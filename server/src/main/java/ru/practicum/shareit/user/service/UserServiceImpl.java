@@ -2,10 +2,14 @@ package ru.practicum.shareit.user.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.common.Common;
+import ru.practicum.shareit.common.change.EntityChangedEvent;
 import ru.practicum.shareit.exceptions.CustomValidationException;
-import ru.practicum.shareit.exceptions.ResourceNotFoundException;
+import ru.practicum.shareit.exceptions.ValidationException;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.mapper.SimpleUserMapper;
 import ru.practicum.shareit.user.model.User;
@@ -19,15 +23,13 @@ import java.util.List;
 @Transactional(readOnly = true)
 public class UserServiceImpl implements UserService {
     private final UserStorage userStorage;
+    private final UserLookup userLookup;
     private final SimpleUserMapper userMapper;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     public User getUserById(int userId) {
-        return userStorage.findById(userId).orElseThrow(() -> {
-            log.error("Не нашел пользователя с Id = {}", userId);
-            throw new ResourceNotFoundException(String.format("Не нашел пользователя с Id = %d", userId));
-        });
-
+        return userLookup.getUser(userId).toUser();
     }
 
     @Override
@@ -45,34 +47,73 @@ public class UserServiceImpl implements UserService {
     @Transactional()
     @Override
     public UserDto createUser(UserDto userDto) {
-        if (userDto.getId() != null) {
-            log.error("Ошибка при создании пользователя: указан Id = {}", userDto.getId());
-            throw new CustomValidationException(String.format("Ошибка при создании пользователя: указан Id = %d", userDto.getId()));
-        }
-        User user = userMapper.dtoToUser(userDto);
-        return userMapper.userToDto(userStorage.save(user));
+        User createdUser = userStorage.save(newUser(userDto));
+        publishChanged(createdUser.getId());
+        return userMapper.userToDto(createdUser);
+    }
+
+    //Id всем пользователям пакета выдаются из последовательности заранее, поэтому INSERT-ы уходят пакетами
+    @Transactional
+    @Override
+    public List<UserDto> createUsers(List<UserDto> userDtoList) {
+        checkBatchSize(userDtoList.size());
+        List<User> userList = userDtoList.stream()
+                .map(this::newUser)
+                .toList();
+        List<User> createdUsers = userStorage.saveAll(userList);
+        createdUsers.forEach(user -> publishChanged(user.getId()));
+        return createdUsers.stream()
+                .map(userMapper::userToDto)
+                .toList();
     }
 
+    @CacheEvict(cacheNames = Common.USERS_CACHE, key = "#userDto.id")
     @Transactional
     @Override
     public UserDto updateUser(UserDto userDto) {
-        User oldUser = getUserById(userDto.getId());
+        //правка идет по строке из базы, а не из кэша: UPDATE проверит ее текущую версию
+        User oldUser = userStorage.findById(userDto.getId())
+                .orElseThrow(() -> UserLookup.notFound(userDto.getId()));
         User newUser = userMapper.dtoToUser(userDto);
         /*изменять можно только имя и e-mail, причем во входящем DTO
-        в наличии только те поля, которые действительно изменяются*/
-        if (newUser.getEmail() == null) {
-            newUser.setEmail(oldUser.getEmail());
+        в наличии только те поля, которые действительно изменяются.
+        Меняется прочитанный пользователь: при сохранении проверяется его версия*/
+        if (newUser.getEmail() != null) {
+            oldUser.setEmail(newUser.getEmail());
         }
-        if (newUser.getName() == null) {
-            newUser.setName(oldUser.getName());
+        if (newUser.getName() != null) {
+            oldUser.setName(newUser.getName());
         }
-        return userMapper.userToDto(userStorage.save(newUser));
+        User updatedUser = userStorage.save(oldUser);
+        publishChanged(updatedUser.getId());
+        return userMapper.userToDto(updatedUser);
     }
 
+    @CacheEvict(cacheNames = Common.USERS_CACHE)
     @Transactional
     @Override
     public void deleteUser(int userId) {
         User user = getUserById(userId);
         userStorage.deleteById(userId);
+        publishChanged(userId);
+    }
+
+    private void publishChanged(Integer userId) {
+        eventPublisher.publishEvent(new EntityChangedEvent(EntityChangedEvent.USERS, userId));
+    }
+
+    private User newUser(UserDto userDto) {
+        if (userDto.getId() != null) {
+            log.error("Ошибка при создании пользователя: указан Id = {}", userDto.getId());
+            throw new CustomValidationException(String.format("Ошибка при создании пользователя: указан Id = %d", userDto.getId()));
+        }
+        return userMapper.dtoToUser(userDto);
+    }
+
+    private void checkBatchSize(int size) {
+        if (size > Common.MAX_BATCH_SIZE) {
+            log.error("Слишком большой пакет пользователей: {}", size);
+            throw new ValidationException(String.format("В пакете может быть не больше %d пользователей", Common.MAX_BATCH_SIZE));
+        }
     }
 }
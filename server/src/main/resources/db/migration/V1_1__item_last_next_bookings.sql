@@ -0,0 +1,8 @@
+-- Витрина последнего и следующего подтвержденного бронирования вещи (см. LastAndNextBookingsService).
+-- Отдельной миграцией, а не в V1: V1 совпадает со схемой schema.sql, по которой созданы существующие базы,
+-- и на них не выполняется (baseline-version=1), а эта миграция выполняется и на них.
+CREATE TABLE ITEM_LAST_NEXT_BOOKINGS(
+    ITEM_ID INTEGER PRIMARY KEY REFERENCES ITEMS(ID) ON DELETE CASCADE,
+    LAST_BOOKING_ID INTEGER REFERENCES BOOKINGS(ID) ON DELETE SET NULL,
+    NEXT_BOOKING_ID INTEGER REFERENCES BOOKINGS(ID) ON DELETE SET NULL
+);
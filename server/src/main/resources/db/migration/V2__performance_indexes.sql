@@ -0,0 +1,36 @@
+-- Индексы под запросы BookingStorage, ItemStorage, CommentStorage, ItemRequestStorage и LastAndNextBookingsStorage.
+-- Списки бронирований отдаются по курсору (START_DATE, ID) в обратном порядке,
+-- поэтому ключ индекса заканчивается этими колонками и страница читается обратным проходом по индексу.
+
+-- бронирования арендатора: BOOKER_ID = ? [AND STATUS = ?] ORDER BY START_DATE DESC, ID DESC
+CREATE INDEX IDX_BOOKINGS_BOOKER_START ON BOOKINGS (BOOKER_ID, START_DATE, ID);
+CREATE INDEX IDX_BOOKINGS_BOOKER_STATUS_START ON BOOKINGS (BOOKER_ID, STATUS, START_DATE, ID);
+
+-- бронирования вещи: последнее/следующее подтвержденное, подтвержденные для проверки пересечений,
+-- завершенное бронирование автора отзыва; списки владельца соединяются с бронированиями по ITEM_ID
+CREATE INDEX IDX_BOOKINGS_ITEM_STATUS_START ON BOOKINGS (ITEM_ID, STATUS, START_DATE);
+
+-- вещи с подтвержденными бронированиями для пересборки последнего/следующего бронирования
+CREATE INDEX IDX_BOOKINGS_STATUS_ITEM ON BOOKINGS (STATUS, ITEM_ID);
+
+-- вещи владельца (и через них - бронирования владельца), ответы на запросы
+CREATE INDEX IDX_ITEMS_OWNER ON ITEMS (OWNER_ID);
+CREATE INDEX IDX_ITEMS_REQUEST ON ITEMS (REQUEST_ID);
+
+-- отзывы к вещам, новые первыми
+CREATE INDEX IDX_COMMENTS_ITEM_CREATED ON COMMENTS (ITEM_ID, CREATED);
+
+-- свои запросы пользователя и лента чужих запросов по курсору (CREATED, ID)
+CREATE INDEX IDX_REQUESTS_REQUESTER_CREATED ON REQUESTS (REQUESTER_ID, CREATED);
+CREATE INDEX IDX_REQUESTS_CREATED ON REQUESTS (CREATED, ID);
+
+-- начало следующего бронирования хранится рядом со ссылкой на него: rollover выбирает вещи,
+-- у которых следующее бронирование началось, диапазоном по индексу, а не перебором всей витрины
+ALTER TABLE ITEM_LAST_NEXT_BOOKINGS ADD COLUMN NEXT_START TIMESTAMP;
+UPDATE ITEM_LAST_NEXT_BOOKINGS S
+SET NEXT_START = (SELECT B.START_DATE FROM BOOKINGS B WHERE B.ID = S.NEXT_BOOKING_ID);
+CREATE INDEX IDX_LAST_NEXT_NEXT_START ON ITEM_LAST_NEXT_BOOKINGS (NEXT_START);
+
+-- ON DELETE SET NULL по ссылкам витрины на бронирования
+CREATE INDEX IDX_LAST_NEXT_LAST_BOOKING ON ITEM_LAST_NEXT_BOOKINGS (LAST_BOOKING_ID);
+CREATE INDEX IDX_LAST_NEXT_NEXT_BOOKING ON ITEM_LAST_NEXT_BOOKINGS (NEXT_BOOKING_ID);
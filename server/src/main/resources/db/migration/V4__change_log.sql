@@ -0,0 +1,22 @@
+-- Журнал изменений для GET /changes: строка на каждого пользователя, которому изменение видно в его списках.
+-- Позиции выдаются из единственной строки CHANGE_LOG_POSITION, которая остается заблокированной до фиксации
+-- транзакции записи, поэтому порядок позиций совпадает с порядком фиксаций и в журнале нет пропусков:
+-- клиент, прочитавший позицию N, уже не увидит позже изменение с меньшей позицией.
+CREATE TABLE CHANGE_LOG_POSITION (
+    ID INTEGER PRIMARY KEY,
+    POSITION BIGINT NOT NULL
+);
+INSERT INTO CHANGE_LOG_POSITION (ID, POSITION) VALUES (1, 0);
+
+CREATE TABLE CHANGE_LOG (
+    ID BIGINT PRIMARY KEY,
+    USER_ID INTEGER NOT NULL REFERENCES USERS(ID) ON DELETE CASCADE,
+    ENTITY VARCHAR(20) NOT NULL,
+    ENTITY_ID INTEGER NOT NULL,
+    CHANGED TIMESTAMP NOT NULL
+);
+
+-- изменения пользователя после курсора: USER_ID = ? AND ID > ? ORDER BY ID
+CREATE INDEX IDX_CHANGE_LOG_USER ON CHANGE_LOG (USER_ID, ID);
+-- удаление изменений старше срока хранения
+CREATE INDEX IDX_CHANGE_LOG_CHANGED ON CHANGE_LOG (CHANGED);
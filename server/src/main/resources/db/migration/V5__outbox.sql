@@ -0,0 +1,11 @@
+-- Outbox: изменения бронирований, вещей, запросов и отзывов записываются в той же транзакции, что и сами изменения,
+-- а обрабатываются позже фоновым OutboxDispatcher. Обработанные строки удаляются, поэтому таблица остается короткой.
+-- Узлы сервера разбирают ее параллельно: SELECT ... FOR UPDATE SKIP LOCKED пропускает строки, захваченные другим узлом.
+CREATE SEQUENCE OUTBOX_SEQ START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE OUTBOX (
+    ID BIGINT PRIMARY KEY,
+    ENTITY VARCHAR(20) NOT NULL,
+    ENTITY_ID INTEGER NOT NULL,
+    CREATED TIMESTAMP NOT NULL
+);
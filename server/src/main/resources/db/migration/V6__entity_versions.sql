@@ -0,0 +1,6 @@
+-- Версии строк для оптимистической блокировки (@Version): UPDATE пользователя или вещи проверяет версию,
+-- прочитанную вместе со строкой, поэтому из двух одновременных правок вторая не затирает первую, а получает 409.
+-- Статус бронирования версией не защищается: он меняется одним условным UPDATE (см. BookingStorage.updateStatus).
+ALTER TABLE USERS ADD COLUMN VERSION INTEGER DEFAULT 0 NOT NULL;
+
+ALTER TABLE ITEMS ADD COLUMN VERSION INTEGER DEFAULT 0 NOT NULL;
@@ -0,0 +1,8 @@
+-- Повторы outbox: строка, на которой падает обработчик, обрабатывается отдельно от пакета и откладывается
+-- с растущей задержкой (NEXT_ATTEMPT), а после shareit.outbox.max-attempts попыток остается в таблице
+-- отложенной навсегда (PARKED) для разбора, не мешая обработке остальных изменений.
+ALTER TABLE OUTBOX ADD COLUMN ATTEMPTS INTEGER DEFAULT 0 NOT NULL;
+
+ALTER TABLE OUTBOX ADD COLUMN NEXT_ATTEMPT TIMESTAMP;
+
+ALTER TABLE OUTBOX ADD COLUMN PARKED BOOLEAN DEFAULT FALSE NOT NULL;
@@ -0,0 +1,12 @@
+-- Владелец вещи хранится и в бронировании: списки бронирований владельца фильтруют по OWNER_ID и сортируют
+-- по START_DATE, а через соединение с ITEMS ни один индекс не отдает строки в порядке START_DATE сразу
+-- по всем вещам владельца. Владелец вещи не меняется, поэтому колонка заполняется один раз при создании.
+ALTER TABLE BOOKINGS ADD COLUMN OWNER_ID INTEGER REFERENCES USERS(ID);
+
+UPDATE BOOKINGS SET OWNER_ID = (SELECT I.OWNER_ID FROM ITEMS I WHERE I.ID = BOOKINGS.ITEM_ID);
+
+ALTER TABLE BOOKINGS ALTER COLUMN OWNER_ID SET NOT NULL;
+
+CREATE INDEX IDX_BOOKINGS_OWNER_START ON BOOKINGS (OWNER_ID, START_DATE, ID);
+
+CREATE INDEX IDX_BOOKINGS_OWNER_STATUS_START ON BOOKINGS (OWNER_ID, STATUS, START_DATE, ID);
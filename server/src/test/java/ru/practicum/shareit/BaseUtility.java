@@ -140,6 +140,7 @@ public abstract class BaseUtility {
         booking.setEnd(end);
         booking.setStatus(status);
         booking.setItem(item);
+        booking.setOwnerId(item.getOwner().getId());
         return booking;
     }
 
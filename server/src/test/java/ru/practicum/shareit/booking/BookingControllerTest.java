@@ -9,6 +9,7 @@ import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabas
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 import ru.practicum.shareit.BaseControllerHelper;
@@ -23,14 +24,22 @@ import ru.practicum.shareit.user.storage.UserStorage;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
 
 import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @AutoConfigureMockMvc
 @AutoConfigureTestDatabase
+@ActiveProfiles("test")
 @SpringBootTest
 public class BookingControllerTest extends BaseControllerHelper {
     @Autowired
@@ -69,8 +78,9 @@ public class BookingControllerTest extends BaseControllerHelper {
         itemDto = createFirstInputItemDto(createdOwnerId);
         createdItemId = createItem(createdOwnerId, itemDto);
 
-        start = LocalDateTime.now().minusDays(10);
-        end = LocalDateTime.now().minusDays(5);
+        //без долей секунды: БД округляет время до микросекунд, и стыкующиеся бронирования начинали пересекаться
+        start = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS).minusDays(10);
+        end = start.plusDays(5);
 
 
         inputBookingDto = new InputBookingDto();
@@ -121,6 +131,108 @@ public class BookingControllerTest extends BaseControllerHelper {
                 .andExpect(status().is4xxClientError());
     }
 
+    @DisplayName("Пакет бронирований создается целиком")
+    @Test
+    @SneakyThrows
+    void shouldCreateBookingsBatch() {
+        InputBookingDto secondBookingDto = new InputBookingDto();
+        secondBookingDto.setStart(end.plusDays(1));
+        secondBookingDto.setEnd(end.plusDays(2));
+        secondBookingDto.setItemId(createdItemId);
+
+        mockMvc.perform(post("/bookings/batch")
+                        .header(Common.USER_HEADER, createdBookerId)
+                        .content(objectMapper.writeValueAsString(List.of(inputBookingDto, secondBookingDto)))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].id").isNumber())
+                .andExpect(jsonPath("$[0].status").value(BookingStatus.WAITING.name()))
+                .andExpect(jsonPath("$[0].booker.id").value(createdBookerId))
+                .andExpect(jsonPath("$[1].id").isNumber())
+                .andExpect(jsonPath("$[1].item.id").value(createdItemId));
+    }
+
+    @DisplayName("Пакет с некорректным бронированием не создается даже частично")
+    @Test
+    @SneakyThrows
+    void shouldNotCreateBookingsBatchWithWrongBooking() {
+        InputBookingDto wrongBookingDto = new InputBookingDto();
+        wrongBookingDto.setStart(end);
+        wrongBookingDto.setEnd(start);
+        wrongBookingDto.setItemId(createdItemId);
+
+        mockMvc.perform(post("/bookings/batch")
+                        .header(Common.USER_HEADER, createdBookerId)
+                        .content(objectMapper.writeValueAsString(List.of(inputBookingDto, wrongBookingDto)))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+
+        assertEquals(0, bookingStorage.count());
+    }
+
+    @DisplayName("Арендатор и владелец получают событие о созданном бронировании, другие пользователи - нет")
+    @Test
+    @SneakyThrows
+    void shouldStreamBookingEventToBookerAndOwner() {
+        UserDto otherUserDto = new UserDto();
+        otherUserDto.setName("Other");
+        otherUserDto.setEmail("other@mail.ru");
+        int otherUserId = createUser(otherUserDto);
+        MvcResult bookerStream = subscribe(createdBookerId);
+        MvcResult ownerStream = subscribe(createdOwnerId);
+        MvcResult otherStream = subscribe(otherUserId);
+
+        String result = mockMvc.perform(post("/bookings")
+                        .header(Common.USER_HEADER, createdBookerId)
+                        .content(objectMapper.writeValueAsString(inputBookingDto))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        int bookingId = JsonPath.read(result, "$.id");
+
+        //событие пишется в поток по частям - ждем его конца, данные события заканчиваются статусом
+        String event = "event:booking\nid:" + bookingId + "\n";
+        assertTrue(awaitContent(bookerStream, "\"status\":\"WAITING\"}").contains(event));
+        assertTrue(awaitContent(ownerStream, "\"status\":\"WAITING\"}").contains(event));
+        assertTrue(ownerStream.getResponse().getContentAsString().contains("\"itemId\":" + createdItemId));
+        assertFalse(otherStream.getResponse().getContentAsString().contains("event:booking"));
+    }
+
+    @DisplayName("Несуществующий пользователь на события бронирований не подписывается")
+    @Test
+    @SneakyThrows
+    void shouldNotStreamEventsToUnknownUser() {
+        mockMvc.perform(get("/bookings/events")
+                        .header(Common.USER_HEADER, 999))
+                .andExpect(status().isNotFound());
+    }
+
+    @SneakyThrows
+    private MvcResult subscribe(int userId) {
+        MvcResult result = mockMvc.perform(get("/bookings/events")
+                        .header(Common.USER_HEADER, userId)
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        awaitContent(result, ":connected");
+        return result;
+    }
+
+    @SneakyThrows
+    private String awaitContent(MvcResult result, String expected) {
+        long deadline = System.currentTimeMillis() + 5000;
+        String content = result.getResponse().getContentAsString();
+        while (!content.contains(expected) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            content = result.getResponse().getContentAsString();
+        }
+        assertTrue(content.contains(expected), content);
+        return content;
+    }
+
     private int createUser(UserDto userDto) throws Exception {
         MvcResult result = mockMvc.perform(post("/users")
                         .content(objectMapper.writeValueAsString(userDto))
@@ -243,6 +355,73 @@ public class BookingControllerTest extends BaseControllerHelper {
                     .andExpect(jsonPath("$[0].id").value(createdBookingId));
         }
 
+        @DisplayName("Список бронирований владельца отдается страницами по курсору")
+        @Test
+        @SneakyThrows
+        void shouldPageOwnersBookingsByCursor() {
+            inputBookingDto.setStart(start.minusDays(10));
+            inputBookingDto.setEnd(end.minusDays(10));
+            String result = mockMvc.perform(post("/bookings")
+                            .header(Common.USER_HEADER, createdBookerId)
+                            .content(objectMapper.writeValueAsString(inputBookingDto))
+                            .contentType(MediaType.APPLICATION_JSON))
+                    .andReturn()
+                    .getResponse()
+                    .getContentAsString();
+            int olderBookingId = JsonPath.read(result, "$.id");
+
+            String nextCursor = mockMvc.perform(get("/bookings/owner")
+                            .header(Common.USER_HEADER, createdOwnerId)
+                            .param("state", "ALL")
+                            .param("limit", "1"))
+                    .andExpect(status().isOk())
+                    .andExpect(header().exists(Common.NEXT_CURSOR_HEADER))
+                    .andExpect(jsonPath("$", hasSize(1)))
+                    .andExpect(jsonPath("$[0].id").value(createdBookingId))
+                    .andReturn()
+                    .getResponse()
+                    .getHeader(Common.NEXT_CURSOR_HEADER);
+
+            mockMvc.perform(get("/bookings/owner")
+                            .header(Common.USER_HEADER, createdOwnerId)
+                            .param("state", "ALL")
+                            .param("limit", "1")
+                            .param("after", nextCursor))
+                    .andExpect(status().isOk())
+                    .andExpect(header().doesNotExist(Common.NEXT_CURSOR_HEADER))
+                    .andExpect(jsonPath("$", hasSize(1)))
+                    .andExpect(jsonPath("$[0].id").value(olderBookingId));
+        }
+
+        @DisplayName("Без limit список бронирований отдается целиком, без курсора")
+        @Test
+        @SneakyThrows
+        void shouldListAllOwnersBookingsWithoutLimit() {
+            inputBookingDto.setStart(start.minusDays(10));
+            inputBookingDto.setEnd(end.minusDays(10));
+            mockMvc.perform(post("/bookings")
+                    .header(Common.USER_HEADER, createdBookerId)
+                    .content(objectMapper.writeValueAsString(inputBookingDto))
+                    .contentType(MediaType.APPLICATION_JSON));
+
+            mockMvc.perform(get("/bookings/owner")
+                            .header(Common.USER_HEADER, createdOwnerId)
+                            .param("state", "ALL"))
+                    .andExpect(status().isOk())
+                    .andExpect(header().doesNotExist(Common.NEXT_CURSOR_HEADER))
+                    .andExpect(jsonPath("$", hasSize(2)));
+        }
+
+        @DisplayName("Некорректный курсор отклоняется")
+        @Test
+        @SneakyThrows
+        void shouldNotListBookingsWithIncorrectCursor() {
+            mockMvc.perform(get("/bookings")
+                            .header(Common.USER_HEADER, createdBookerId)
+                            .param("after", "не курсор"))
+                    .andExpect(status().isBadRequest());
+        }
+
         @DisplayName("Арендатор может получить список всех бронирований, ожидающих подтверждения")
         @Test
         @SneakyThrows
@@ -267,6 +446,66 @@ public class BookingControllerTest extends BaseControllerHelper {
                     .andExpect(jsonPath("$[0].id").value(createdBookingId));
         }
 
+        @DisplayName("Нельзя подтвердить бронирование, пересекающееся с подтвержденным")
+        @Test
+        @SneakyThrows
+        void shouldNotApproveOverlappingBooking() {
+            mockMvc.perform(patch("/bookings/{bookingId}", createdBookingId)
+                            .header(Common.USER_HEADER, createdOwnerId)
+                            .param("approved", "true"))
+                    .andExpect(status().isOk());
+            inputBookingDto.setStart(start.plusDays(1));
+            inputBookingDto.setEnd(end.plusDays(1));
+
+            //новое бронирование на занятое время не создается
+            mockMvc.perform(post("/bookings")
+                            .header(Common.USER_HEADER, createdBookerId)
+                            .content(objectMapper.writeValueAsString(inputBookingDto))
+                            .contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isConflict());
+            //бронирование сразу за подтвержденным создается
+            inputBookingDto.setStart(end);
+            inputBookingDto.setEnd(end.plusDays(1));
+            mockMvc.perform(post("/bookings")
+                            .header(Common.USER_HEADER, createdBookerId)
+                            .content(objectMapper.writeValueAsString(inputBookingDto))
+                            .contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isOk());
+        }
+
+        @DisplayName("Из двух ожидающих бронирований на одно время подтвердить можно только одно")
+        @Test
+        @SneakyThrows
+        void shouldApproveOnlyOneOfCompetingBookings() {
+            String result = mockMvc.perform(post("/bookings")
+                            .header(Common.USER_HEADER, createdBookerId)
+                            .content(objectMapper.writeValueAsString(inputBookingDto))
+                            .contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isOk())
+                    .andReturn()
+                    .getResponse()
+                    .getContentAsString();
+            int competingBookingId = JsonPath.read(result, "$.id");
+
+            mockMvc.perform(patch("/bookings/{bookingId}", createdBookingId)
+                            .header(Common.USER_HEADER, createdOwnerId)
+                            .param("approved", "true"))
+                    .andExpect(status().isOk());
+            mockMvc.perform(patch("/bookings/{bookingId}", competingBookingId)
+                            .header(Common.USER_HEADER, createdOwnerId)
+                            .param("approved", "true"))
+                    .andExpect(status().isConflict());
+            //после отказа первому время освобождается
+            mockMvc.perform(patch("/bookings/{bookingId}", createdBookingId)
+                            .header(Common.USER_HEADER, createdOwnerId)
+                            .param("approved", "false"))
+                    .andExpect(status().isOk());
+            mockMvc.perform(patch("/bookings/{bookingId}", competingBookingId)
+                            .header(Common.USER_HEADER, createdOwnerId)
+                            .param("approved", "true"))
+                    .andExpect(status().isOk());
+        }
+
         @DisplayName("Арендатор может получить список всех отклоненных бронирований")
         @Test
         @SneakyThrows
@@ -0,0 +1,145 @@
+package ru.practicum.shareit.booking;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.booking.events.BookingEvent;
+import ru.practicum.shareit.booking.events.BookingEventStream;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.exceptions.ResourceNotFoundException;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BookingEventStreamTest {
+    private final UserService userService = mock(UserService.class);
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final List<RecordingEmitter> emitters = new CopyOnWriteArrayList<>();
+    private boolean blockSends;
+
+    private BookingEventStream stream;
+
+    @AfterEach
+    void afterEach() {
+        release.countDown();
+        stream.shutdown();
+    }
+
+    @DisplayName("Без событий подключению уходит heartbeat")
+    @Test
+    void shouldSendHeartbeat() {
+        stream = createStream(Duration.ofMillis(50), 4);
+
+        stream.subscribe(1);
+
+        await(() -> emitters.getFirst().contains(":heartbeat"));
+    }
+
+    @DisplayName("Событие уходит арендатору и владельцу")
+    @Test
+    void shouldDeliverToBookerAndOwner() {
+        stream = createStream(Duration.ofMinutes(1), 4);
+        stream.subscribe(1);
+        stream.subscribe(2);
+        stream.subscribe(3);
+
+        stream.onBookingEvent(new BookingEvent(10, 20, 1, 2, BookingStatus.APPROVED));
+
+        await(() -> emitters.get(0).contains("APPROVED") && emitters.get(1).contains("APPROVED"));
+        assertEquals(0, emitters.get(2).events.stream().filter(BookingEvent.class::isInstance).count());
+    }
+
+    @DisplayName("Подключение, не успевающее читать события, закрывается")
+    @Test
+    void shouldCloseOverflowedConnection() {
+        stream = createStream(Duration.ofMinutes(1), 2);
+        blockSends = true;
+        stream.subscribe(1);
+        await(() -> emitters.getFirst().blocked.getCount() == 0);
+
+        for (int i = 1; i <= 3; i++) {
+            stream.onBookingEvent(new BookingEvent(i, 20, 1, 2, BookingStatus.WAITING));
+        }
+
+        assertTrue(emitters.getFirst().completed);
+        assertEquals(1.0, meterRegistry.get("shareit.bookings.events.overflows").counter().count());
+        assertEquals(0.0, meterRegistry.get("shareit.bookings.events.connections").gauge().value());
+    }
+
+    @DisplayName("Несуществующий пользователь не подписывается")
+    @Test
+    void shouldNotSubscribeUnknownUser() {
+        stream = createStream(Duration.ofMinutes(1), 2);
+        when(userService.getUserById(9)).thenThrow(new ResourceNotFoundException("Пользователь 9 не найден"));
+
+        assertThrows(ResourceNotFoundException.class, () -> stream.subscribe(9));
+        assertEquals(0.0, meterRegistry.get("shareit.bookings.events.connections").gauge().value());
+    }
+
+    private BookingEventStream createStream(Duration heartbeat, int bufferSize) {
+        return new BookingEventStream(userService, meterRegistry, heartbeat, Duration.ofMinutes(1), bufferSize) {
+            @Override
+            protected SseEmitter createEmitter(long timeout) {
+                RecordingEmitter emitter = new RecordingEmitter(blockSends);
+                emitters.add(emitter);
+                return emitter;
+            }
+        };
+    }
+
+    @SneakyThrows
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+
+    //запоминает отправленное; заблокированный - зависает на первой отправке, как клиент, который не читает
+    private class RecordingEmitter extends SseEmitter {
+        private final boolean block;
+        private final CountDownLatch blocked = new CountDownLatch(1);
+        private final List<Object> events = new CopyOnWriteArrayList<>();
+        private volatile boolean completed;
+
+        RecordingEmitter(boolean block) {
+            this.block = block;
+        }
+
+        @Override
+        @SneakyThrows
+        public void send(SseEventBuilder builder) throws IOException {
+            if (block) {
+                blocked.countDown();
+                release.await();
+            }
+            builder.build().forEach(data -> events.add(data.getData()));
+        }
+
+        @Override
+        public void complete() {
+            completed = true;
+        }
+
+        boolean contains(String text) {
+            return events.stream().anyMatch(event -> String.valueOf(event).contains(text));
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.BaseUtility;
+import ru.practicum.shareit.booking.interval.BookingIntervalIndex;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.storage.BookingStorage;
+import ru.practicum.shareit.exceptions.CustomValidationException;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.storage.ItemStorage;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BookingIntervalIndexTest extends BaseUtility {
+    @Mock
+    private BookingStorage bookingStorage;
+    @Mock
+    private ItemStorage itemStorage;
+
+    @InjectMocks
+    private BookingIntervalIndex bookingIntervalIndex;
+
+    private User booker;
+    private Item item;
+    private LocalDateTime start;
+
+    @BeforeEach
+    void beforeEach() {
+        User owner = createUser(1, "Андрей", "some@mail.ru");
+        booker = createUser(2, "Фома", "foma@mail.ru");
+        item = createItem(1, "Дрель", "Простая дрель", true, owner, null);
+        start = LocalDateTime.now().plusDays(1);
+    }
+
+    @DisplayName("Подтвержденные бронирования подгружаются из базы один раз")
+    @Test
+    void shouldLoadApprovedBookingsOnce() {
+        Booking approved = booking(1, start, start.plusDays(2), BookingStatus.APPROVED);
+        when(bookingStorage.findAllByItemIdAndStatusAndEndAfter(eq(item.getId()), eq(BookingStatus.APPROVED),
+                any(LocalDateTime.class))).thenReturn(List.of(approved));
+
+        Booking inside = booking(2, start.plusDays(1), start.plusDays(3), BookingStatus.WAITING);
+        Booking after = booking(3, start.plusDays(2), start.plusDays(3), BookingStatus.WAITING);
+
+        assertThrows(CustomValidationException.class, () -> bookingIntervalIndex.checkFree(inside));
+        assertDoesNotThrow(() -> bookingIntervalIndex.checkFree(after));
+        verify(bookingStorage, times(1)).findAllByItemIdAndStatusAndEndAfter(eq(item.getId()),
+                eq(BookingStatus.APPROVED), any(LocalDateTime.class));
+    }
+
+    @DisplayName("Период, охватывающий подтвержденное бронирование, тоже занят")
+    @Test
+    void shouldFindEnclosedBooking() {
+        bookingIntervalIndex.reserve(booking(1, start.plusDays(1), start.plusDays(2),
+                BookingStatus.APPROVED));
+
+        Booking outer = booking(2, start, start.plusDays(5), BookingStatus.WAITING);
+
+        assertThrows(CustomValidationException.class, () -> bookingIntervalIndex.checkFree(outer));
+    }
+
+    @DisplayName("Закончившееся бронирование выгружается из памяти, период в прошлом сверяется с базой")
+    @Test
+    void shouldEvictEndedBooking() throws InterruptedException {
+        LocalDateTime now = LocalDateTime.now();
+        Booking ended = booking(1, now.minusDays(1), now.plusNanos(50_000_000), BookingStatus.APPROVED);
+        bookingIntervalIndex.reserve(ended);
+        Booking past = booking(2, now.minusDays(2), now.minusHours(1), BookingStatus.WAITING);
+
+        Thread.sleep(100);
+        bookingIntervalIndex.evict();
+
+        assertDoesNotThrow(() -> bookingIntervalIndex.checkFree(past));
+        when(bookingStorage.findAllByItemIdAndStatusAndStartBeforeAndEndAfter(item.getId(), BookingStatus.APPROVED,
+                past.getEnd(), past.getStart())).thenReturn(List.of(ended));
+        assertThrows(CustomValidationException.class, () -> bookingIntervalIndex.checkFree(past));
+    }
+
+    @DisplayName("Закончившийся период незавершенной транзакции из памяти не выгружается")
+    @Test
+    void shouldKeepEndedIntervalUntilTransactionCompletes() {
+        LocalDateTime now = LocalDateTime.now();
+        Booking past = booking(2, now.minusDays(2), now.minusHours(1), BookingStatus.WAITING);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            bookingIntervalIndex.reserve(booking(1, now.minusDays(3), now.minusDays(1), BookingStatus.APPROVED));
+            bookingIntervalIndex.evict();
+
+            assertThrows(CustomValidationException.class, () -> bookingIntervalIndex.checkFree(past));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @DisplayName("После отказа период освобождается")
+    @Test
+    void shouldReleaseRejectedBooking() {
+        Booking approved = booking(1, start, start.plusDays(2), BookingStatus.APPROVED);
+        bookingIntervalIndex.reserve(approved);
+        bookingIntervalIndex.release(approved);
+
+        Booking same = booking(2, start, start.plusDays(2), BookingStatus.WAITING);
+
+        assertDoesNotThrow(() -> bookingIntervalIndex.reserve(same));
+    }
+
+    @DisplayName("Откат убирает период, который подгрузка вещи прочитала из той же транзакции")
+    @Test
+    void shouldRemoveOwnLoadedIntervalOnRollback() {
+        Booking approved = booking(1, start, start.plusDays(2), BookingStatus.APPROVED);
+        //UPDATE статуса этой транзакции уже виден подгрузке вещи
+        when(bookingStorage.findAllByItemIdAndStatusAndEndAfter(eq(item.getId()), eq(BookingStatus.APPROVED),
+                any(LocalDateTime.class))).thenReturn(List.of(approved));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            bookingIntervalIndex.reserve(approved);
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        Booking other = booking(2, start.plusDays(1), start.plusDays(3), BookingStatus.WAITING);
+        assertDoesNotThrow(() -> bookingIntervalIndex.checkFree(other));
+    }
+
+    @DisplayName("Подтверждение сверяется с базой под блокировкой строки вещи")
+    @Test
+    void shouldCheckDatabaseUnderItemLock() {
+        Booking approved = booking(1, start, start.plusDays(2), BookingStatus.APPROVED);
+        Booking overlapping = booking(2, start.plusDays(1), start.plusDays(3), BookingStatus.WAITING);
+        when(bookingStorage.findAllByItemIdAndStatusAndStartBeforeAndEndAfter(item.getId(), BookingStatus.APPROVED,
+                overlapping.getEnd(), overlapping.getStart())).thenReturn(List.of(approved));
+
+        assertThrows(CustomValidationException.class, () -> bookingIntervalIndex.reserve(overlapping));
+
+        InOrder inOrder = inOrder(itemStorage, bookingStorage);
+        inOrder.verify(itemStorage).lockItem(item.getId());
+        inOrder.verify(bookingStorage).findAllByItemIdAndStatusAndStartBeforeAndEndAfter(item.getId(),
+                BookingStatus.APPROVED, overlapping.getEnd(), overlapping.getStart());
+    }
+
+    @DisplayName("Период, отклоненный на другом экземпляре сервера, не мешает подтверждению")
+    @Test
+    void shouldReplaceIntervalRejectedElsewhere() {
+        Booking stale = booking(1, start, start.plusDays(2), BookingStatus.APPROVED);
+        bookingIntervalIndex.reserve(stale);
+        Booking overlapping = booking(2, start.plusDays(1), start.plusDays(3), BookingStatus.WAITING);
+
+        //база пересечений не находит: отказ в бронировании 1 зафиксирован другим экземпляром
+        assertDoesNotThrow(() -> bookingIntervalIndex.reserve(overlapping));
+
+        Booking afterStale = booking(3, start.plusHours(1), start.plusDays(1), BookingStatus.WAITING);
+        assertDoesNotThrow(() -> bookingIntervalIndex.checkFree(afterStale));
+        Booking insideNew = booking(4, start.plusDays(2), start.plusDays(2).plusHours(1), BookingStatus.WAITING);
+        assertThrows(CustomValidationException.class, () -> bookingIntervalIndex.checkFree(insideNew));
+    }
+
+    //createBooking из BaseUtility всегда ставит Id = 1, а индексу важны разные Id
+    private Booking booking(int id, LocalDateTime start, LocalDateTime end, BookingStatus status) {
+        Booking booking = createBooking(id, booker, item, start, end, status);
+        booking.setId(id);
+        return booking;
+    }
+}
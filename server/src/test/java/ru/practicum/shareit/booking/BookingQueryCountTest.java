@@ -0,0 +1,190 @@
+package ru.practicum.shareit.booking;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.BaseUtility;
+import ru.practicum.shareit.SqlStatementCounter;
+import ru.practicum.shareit.booking.dto.InputBookingDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.storage.BookingStorage;
+import ru.practicum.shareit.common.Common;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.storage.ItemStorage;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.storage.ItemRequestStorage;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.storage.UserStorage;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/*
+Число SQL-запросов на список бронирований не должно зависеть от числа бронирований в нем:
+один запрос страницы (вещи, владельцы, запросы и авторы читаются им же) и не больше одного
+поиска пользователя. Пакет новых бронирований тоже не должен стоить запроса на каждое.
+Плановая обработка outbox отключена профилем test: ее запросы попали бы в общий счетчик Hibernate.
+ */
+@AutoConfigureMockMvc
+@AutoConfigureTestDatabase
+@ActiveProfiles("test")
+@SpringBootTest
+class BookingQueryCountTest extends BaseUtility {
+    private static final int ITEMS = 4;
+    private static final long MAX_STATEMENTS = 2;
+    private static final int BATCH = 40;
+    /* арендатор, вещь, ее подтвержденные бронирования для проверки пересечений, блок Id и один пакет INSERT;
+       outbox: блок Id и пакет INSERT (журнал изменений пишется уже при обработке outbox) */
+    private static final long MAX_BATCH_STATEMENTS = 7;
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private UserStorage userStorage;
+    @Autowired
+    private ItemStorage itemStorage;
+    @Autowired
+    private ItemRequestStorage itemRequestStorage;
+    @Autowired
+    private BookingStorage bookingStorage;
+
+    private SqlStatementCounter statementCounter;
+    private User owner;
+    private User booker;
+    private Item bookedItem;
+
+    @BeforeEach
+    void beforeEach() {
+        statementCounter = new SqlStatementCounter(entityManagerFactory);
+        owner = userStorage.save(newUser("owner", "count-owner@mail.ru"));
+        booker = userStorage.save(newUser("booker", "count-booker@mail.ru"));
+        List<User> otherBookers = new ArrayList<>();
+        for (int i = 0; i < ITEMS; i++) {
+            otherBookers.add(userStorage.save(newUser("booker " + i, "count-booker" + i + "@mail.ru")));
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < ITEMS; i++) {
+            ItemRequest request = new ItemRequest();
+            request.setDescription("Нужна вещь " + i);
+            request.setRequester(otherBookers.get(i));
+            request.setCreated(now);
+            request = itemRequestStorage.save(request);
+
+            Item item = createItem(0, "Вещь " + i, "Описание " + i, true, owner, request);
+            item.setId(null);
+            item = itemStorage.save(item);
+            bookedItem = item;
+
+            for (User user : List.of(booker, otherBookers.get(i))) {
+                bookingStorage.save(newBooking(item, user, now.minusDays(10), now.minusDays(9), BookingStatus.APPROVED));
+                bookingStorage.save(newBooking(item, user, now.minusDays(1), now.plusDays(1), BookingStatus.APPROVED));
+                bookingStorage.save(newBooking(item, user, now.plusDays(5), now.plusDays(6), BookingStatus.WAITING));
+                bookingStorage.save(newBooking(item, user, now.plusDays(7), now.plusDays(8), BookingStatus.REJECTED));
+            }
+        }
+    }
+
+    @AfterEach
+    void afterEach() {
+        bookingStorage.deleteAll();
+        itemStorage.deleteAll();
+        itemRequestStorage.deleteAll();
+        userStorage.deleteAll();
+    }
+
+    @DisplayName("Список бронирований арендатора читается постоянным числом запросов")
+    @ParameterizedTest
+    @ValueSource(strings = {"ALL", "CURRENT", "PAST", "FUTURE", "WAITING", "REJECTED"})
+    void shouldListBookersBookingsWithConstantStatements(String state) {
+        assertStatements("/bookings", booker, state);
+    }
+
+    @DisplayName("Список бронирований владельца читается постоянным числом запросов")
+    @ParameterizedTest
+    @ValueSource(strings = {"ALL", "CURRENT", "PAST", "FUTURE", "WAITING", "REJECTED"})
+    void shouldListOwnersBookingsWithConstantStatements(String state) {
+        assertStatements("/bookings/owner", owner, state);
+    }
+
+    @DisplayName("Пакет бронирований сохраняется пакетными INSERT, а не запросом на каждое")
+    @Test
+    @SneakyThrows
+    void shouldCreateBookingsBatchWithConstantStatements() {
+        LocalDateTime start = LocalDateTime.now().plusDays(100);
+        List<InputBookingDto> bookingDtoList = new ArrayList<>();
+        for (int i = 0; i < BATCH; i++) {
+            InputBookingDto bookingDto = new InputBookingDto();
+            bookingDto.setItemId(bookedItem.getId());
+            bookingDto.setStart(start.plusDays(2L * i));
+            bookingDto.setEnd(start.plusDays(2L * i + 1));
+            bookingDtoList.add(bookingDto);
+        }
+        statementCounter.reset();
+
+        mockMvc.perform(post("/bookings/batch")
+                        .header(Common.USER_HEADER, booker.getId())
+                        .content(objectMapper.writeValueAsString(bookingDtoList))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+
+        long statements = statementCounter.count();
+        assertTrue(statements <= MAX_BATCH_STATEMENTS,
+                String.format("Пакет из %d бронирований выполнил %d SQL-запросов", BATCH, statements));
+    }
+
+    @SneakyThrows
+    private void assertStatements(String path, User user, String state) {
+        statementCounter.reset();
+
+        mockMvc.perform(get(path)
+                        .header(Common.USER_HEADER, user.getId())
+                        .param("state", state))
+                .andExpect(status().isOk());
+
+        long statements = statementCounter.count();
+        assertTrue(statements <= MAX_STATEMENTS,
+                String.format("%s?state=%s выполнил %d SQL-запросов", path, state, statements));
+    }
+
+    private User newUser(String name, String email) {
+        User user = new User();
+        user.setName(name);
+        user.setEmail(email);
+        return user;
+    }
+
+    private Booking newBooking(Item item, User user, LocalDateTime start, LocalDateTime end, BookingStatus status) {
+        Booking booking = new Booking();
+        booking.setItem(item);
+        booking.setBooker(user);
+        booking.setStart(start);
+        booking.setEnd(end);
+        booking.setStatus(status);
+        return booking;
+    }
+}
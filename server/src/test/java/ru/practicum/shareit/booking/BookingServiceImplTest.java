@@ -7,17 +7,25 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import ru.practicum.shareit.BaseUtility;
+import ru.practicum.shareit.booking.dto.BookingPageDto;
 import ru.practicum.shareit.booking.dto.InputBookingDto;
 import ru.practicum.shareit.booking.dto.OutputBookingDto;
+import ru.practicum.shareit.booking.interval.BookingIntervalIndex;
 import ru.practicum.shareit.booking.mapper.SimpleBookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.service.BookingServiceImpl;
+import ru.practicum.shareit.booking.service.LastAndNextBookingsService;
 import ru.practicum.shareit.booking.storage.BookingStorage;
 import ru.practicum.shareit.booking.strategy.BookingFindStrategy;
 import ru.practicum.shareit.booking.strategy.BookingStrategyFactory;
 import ru.practicum.shareit.booking.strategy.FindBookingStateEnum;
+import ru.practicum.shareit.common.Common;
+import ru.practicum.shareit.common.KeysetCursor;
+import ru.practicum.shareit.exceptions.CustomValidationException;
 import ru.practicum.shareit.exceptions.LogicalException;
 import ru.practicum.shareit.exceptions.ResourceNotFoundException;
 import ru.practicum.shareit.exceptions.RightsException;
@@ -53,8 +61,15 @@ class BookingServiceImplTest extends BaseUtility {
     @Mock
     private BookingStrategyFactory strategyFactory;
     @Mock
+    private LastAndNextBookingsService lastAndNextBookingsService;
+    @Mock
+    private BookingIntervalIndex bookingIntervalIndex;
+    @Mock
     private BookingFindStrategy bookingFindStrategy; // Мок стратегии для использования в тестах
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private BookingServiceImpl bookingService;
 
@@ -145,44 +160,80 @@ class BookingServiceImplTest extends BaseUtility {
     void shouldApproveBookingSuccess() {
         OutputBookingDto bookingApproveDto = createOutputBookingDto(1, itemDto, bookerDto,
                 start, end, BookingStatus.APPROVED);
-        Booking bookingApproved = createBooking(1, booker, item, start, end, BookingStatus.APPROVED);
-        when(bookingStorage.findById(outBooking.getId())).thenReturn(Optional.of(outBooking));
-        when(bookingStorage.save(any(Booking.class))).thenReturn(bookingApproved);
-        when(bookingMapper.bookingToDto(bookingApproved, itemMapper)).thenReturn(bookingApproveDto);
+        when(bookingStorage.lockById(outBooking.getId())).thenReturn(Optional.of(outBooking));
+        when(bookingMapper.bookingToDto(outBooking, itemMapper)).thenReturn(bookingApproveDto);
 
         OutputBookingDto result = bookingService.updateBooking(owner.getId(), inputBooking.getId(), true);
 
         assertNotNull(result);
         assertEquals(BookingStatus.APPROVED, result.getStatus());
-        verify(bookingStorage, times(1)).save(bookingApproved);
+        assertEquals(BookingStatus.APPROVED, outBooking.getStatus());
+        verify(bookingStorage, never()).save(any(Booking.class));
+        verify(lastAndNextBookingsService, times(1)).refresh(item.getId());
+        verify(bookingIntervalIndex, times(1)).reserve(outBooking);
     }
 
-    @DisplayName("Выбрасывается исключение, если бронирование подтверждает не владелец вещи")
+    @DisplayName("Отказ в подтвержденном бронировании освобождает его период")
     @Test
-    void shouldThrowRightsException_WhenUserIsNotOwner() {
+    void shouldReleaseInterval_WhenApprovedBookingRejected() {
+        outBooking.setStatus(BookingStatus.APPROVED);
+        when(bookingStorage.lockById(outBooking.getId())).thenReturn(Optional.of(outBooking));
 
+        bookingService.updateBooking(owner.getId(), outBooking.getId(), false);
 
-        when(bookingStorage.findById(outBooking.getId())).thenReturn(Optional.of(outBooking));
+        assertEquals(BookingStatus.REJECTED, outBooking.getStatus());
+        verify(bookingIntervalIndex, times(1)).release(outBooking);
+        verify(bookingIntervalIndex, never()).reserve(any());
+        verify(lastAndNextBookingsService, times(1)).refresh(item.getId());
+    }
+
+    @DisplayName("Повторное подтверждение бронирование не меняет")
+    @Test
+    void shouldNotUpdateBooking_WhenAlreadyApproved() {
+        outBooking.setStatus(BookingStatus.APPROVED);
+        when(bookingStorage.lockById(outBooking.getId())).thenReturn(Optional.of(outBooking));
+
+        bookingService.updateBooking(owner.getId(), outBooking.getId(), true);
+
+        verify(bookingIntervalIndex, never()).reserve(any());
+        verify(lastAndNextBookingsService, never()).refresh(anyInt());
+    }
+
+    @DisplayName("Бронирование не подтверждается, если время уже занято")
+    @Test
+    void shouldNotApproveBooking_WhenTimeIsTaken() {
+        when(bookingStorage.lockById(outBooking.getId())).thenReturn(Optional.of(outBooking));
+        doThrow(new CustomValidationException("Вещь уже забронирована")).when(bookingIntervalIndex).reserve(outBooking);
+
+        assertThrows(CustomValidationException.class, () -> bookingService.updateBooking(owner.getId(),
+                outBooking.getId(), true));
+        assertEquals(BookingStatus.WAITING, outBooking.getStatus());
+        verify(lastAndNextBookingsService, never()).refresh(anyInt());
+    }
+
+    @DisplayName("Выбрасывается исключение, если бронирование подтверждает не владелец вещи")
+    @Test
+    void shouldThrowRightsException_WhenUserIsNotOwner() {
+        when(bookingStorage.lockById(outBooking.getId())).thenReturn(Optional.of(outBooking));
 
         assertThrows(RightsException.class, () -> bookingService.updateBooking(booker.getId(), outBooking.getId(), true));
-        verify(bookingStorage, never()).save(any(Booking.class));
+        assertEquals(BookingStatus.WAITING, outBooking.getStatus());
     }
 
     @DisplayName("Владелец вещи может отклонить бронирование")
     @Test
     void shouldRejectBooking() {
-        OutputBookingDto bookingApproveDto = createOutputBookingDto(1, itemDto, bookerDto,
+        OutputBookingDto bookingRejectDto = createOutputBookingDto(1, itemDto, bookerDto,
                 start, end, BookingStatus.REJECTED);
-        Booking bookingApproved = createBooking(1, booker, item, start, end, BookingStatus.APPROVED);
-        when(bookingStorage.findById(outBooking.getId())).thenReturn(Optional.of(outBooking));
-        when(bookingStorage.save(any(Booking.class))).thenReturn(bookingApproved);
-        when(bookingMapper.bookingToDto(bookingApproved, itemMapper)).thenReturn(bookingApproveDto);
+        when(bookingStorage.lockById(outBooking.getId())).thenReturn(Optional.of(outBooking));
+        when(bookingMapper.bookingToDto(outBooking, itemMapper)).thenReturn(bookingRejectDto);
 
         OutputBookingDto result = bookingService.updateBooking(owner.getId(), inputBooking.getId(), false);
 
         assertNotNull(result);
         assertEquals(BookingStatus.REJECTED, result.getStatus());
-        verify(bookingStorage, times(1)).save(bookingApproved);
+        assertEquals(BookingStatus.REJECTED, outBooking.getStatus());
+        verify(bookingStorage, never()).save(any(Booking.class));
     }
 
     @DisplayName("Выбрасывается исключение, если бронирование отклоняет не владелец вещи")
@@ -190,10 +241,9 @@ class BookingServiceImplTest extends BaseUtility {
     void shouldThrowRightsException_WhenUserIsNotOwnerRejecting() {
         outBooking.setStatus(BookingStatus.REJECTED);
 
-        when(bookingStorage.findById(outBooking.getId())).thenReturn(Optional.of(outBooking));
+        when(bookingStorage.lockById(outBooking.getId())).thenReturn(Optional.of(outBooking));
 
         assertThrows(RightsException.class, () -> bookingService.updateBooking(booker.getId(), outBooking.getId(), false));
-        verify(bookingStorage, never()).save(any(Booking.class));
     }
 
     @DisplayName("Автор бронирование может получить свое бронирование")
@@ -247,15 +297,17 @@ class BookingServiceImplTest extends BaseUtility {
 
         when(userService.getUserById(booker.getId())).thenReturn(booker);
         when(strategyFactory.getStrategyByState(FindBookingStateEnum.ALL_USERS)).thenReturn(bookingFindStrategy);
-        when(bookingFindStrategy.findBooking(any(User.class))).thenReturn(expectedBookings);
+        when(bookingFindStrategy.findBooking(any(User.class), any(KeysetCursor.class), any(Limit.class)))
+                .thenReturn(expectedBookings);
         when(bookingMapper.bookingToDto(any(Booking.class), any(SimpleItemMapper.class))).thenReturn(outputDto);
 
-        List<OutputBookingDto> result = bookingService.getUsersBooking(booker.getId(), state);
+        BookingPageDto result = bookingService.getUsersBooking(booker.getId(), state, null, 10);
 
         assertNotNull(result);
-        assertEquals(1, result.size());
-        assertEquals(1, result.getFirst().getId());
-        verify(bookingFindStrategy, times(1)).findBooking(booker);
+        assertEquals(1, result.getBookings().size());
+        assertEquals(1, result.getBookings().getFirst().getId());
+        assertNull(result.getNextCursor());
+        verify(bookingFindStrategy, times(1)).findBooking(booker, KeysetCursor.first(), Limit.of(11));
     }
 
     @DisplayName("Владелец может получить список бронирований, ожидающих подтверждения (WAITING)")
@@ -266,26 +318,67 @@ class BookingServiceImplTest extends BaseUtility {
 
         when(userService.getUserById(anyInt())).thenReturn(owner);
         when(strategyFactory.getStrategyByState(eq(FindBookingStateEnum.WAITING_OWNERS))).thenReturn(bookingFindStrategy);
-        when(bookingFindStrategy.findBooking(owner)).thenReturn(expectedBookings);
+        when(bookingFindStrategy.findBooking(eq(owner), any(KeysetCursor.class), any(Limit.class)))
+                .thenReturn(expectedBookings);
         when(bookingMapper.bookingToDto(outBooking, itemMapper)).thenReturn(outputDto);
 
-        List<OutputBookingDto> result = bookingService.getOwnersBookings(owner.getId(), state);
+        BookingPageDto result = bookingService.getOwnersBookings(owner.getId(), state, null, 10);
 
         assertNotNull(result);
-        assertEquals(1, result.size());
-        verify(bookingFindStrategy, times(1)).findBooking(owner);
+        assertEquals(1, result.getBookings().size());
+        verify(bookingFindStrategy, times(1)).findBooking(eq(owner), any(KeysetCursor.class), any(Limit.class));
+    }
+
+    @DisplayName("Если бронирований больше, чем limit, возвращается курсор следующей страницы")
+    @Test
+    void shouldReturnNextCursorWhenMoreBookingsThanLimit() {
+        Booking olderBooking = createBooking(2, booker, item, start.minusDays(3), end.minusDays(3),
+                BookingStatus.WAITING);
+        olderBooking.setId(2);
+        KeysetCursor after = new KeysetCursor(start.plusDays(10), 100);
+
+        when(userService.getUserById(booker.getId())).thenReturn(booker);
+        when(strategyFactory.getStrategyByState(FindBookingStateEnum.ALL_USERS)).thenReturn(bookingFindStrategy);
+        when(bookingFindStrategy.findBooking(booker, after, Limit.of(2))).thenReturn(List.of(outBooking, olderBooking));
+        when(bookingMapper.bookingToDto(outBooking, itemMapper)).thenReturn(outputDto);
+
+        BookingPageDto result = bookingService.getUsersBooking(booker.getId(), "ALL", after.encode(), 1);
+
+        assertEquals(1, result.getBookings().size());
+        assertEquals(new KeysetCursor(outBooking.getStart(), outBooking.getId()),
+                KeysetCursor.decode(result.getNextCursor()));
+        verify(bookingMapper, never()).bookingToDto(olderBooking, itemMapper);
+    }
+
+    @DisplayName("Выбрасывается исключение при некорректном курсоре")
+    @Test
+    void shouldThrowExceptionWhenIncorrectCursor() {
+        when(userService.getUserById(booker.getId())).thenReturn(booker);
+        when(strategyFactory.getStrategyByState(FindBookingStateEnum.ALL_USERS)).thenReturn(bookingFindStrategy);
+
+        assertThrows(ValidationException.class, () -> bookingService.getUsersBooking(booker.getId(), "ALL",
+                "не курсор", 10));
+        verify(bookingFindStrategy, never()).findBooking(any(User.class), any(KeysetCursor.class), any(Limit.class));
+    }
+
+    @DisplayName("Выбрасывается исключение при недопустимом размере страницы")
+    @Test
+    void shouldThrowExceptionWhenIncorrectLimit() {
+        assertThrows(ValidationException.class, () -> bookingService.getUsersBooking(booker.getId(), "ALL", null, 0));
+        assertThrows(ValidationException.class, () -> bookingService.getOwnersBookings(owner.getId(), "ALL", null,
+                Common.MAX_PAGE_SIZE + 1));
+        verify(userService, never()).getUserById(anyInt());
     }
 
     @DisplayName("Выбрасывается исключение, если владелец пытается получить список бронирований с левым STATE")
     @Test
     void shouldThrowExceptionWhenIncorrectSate() {
-        List<Booking> expectedBookings = List.of(outBooking);
         String state = "CUSTOM";
 
         when(userService.getUserById(anyInt())).thenReturn(owner);
 
-        assertThrows(ValidationException.class, () -> bookingService.getOwnersBookings(owner.getId(), state));
-        verify(bookingFindStrategy, never()).findBooking(owner);
+        assertThrows(ValidationException.class, () -> bookingService.getOwnersBookings(owner.getId(), state, null, 10));
+        verify(bookingFindStrategy, never()).findBooking(any(User.class), any(KeysetCursor.class), any(Limit.class));
     }
 
 
@@ -7,41 +7,59 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.context.annotation.Import;
 import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.shareit.booking.interval.BookingIntervalIndex;
 import ru.practicum.shareit.booking.mapper.SimpleBookingMapperImpl;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.model.LastAndNextBookings;
+import ru.practicum.shareit.booking.service.LastAndNextBookingsServiceImpl;
 import ru.practicum.shareit.booking.storage.BookingStorage;
+import ru.practicum.shareit.booking.storage.LastAndNextBookingsStorage;
 import ru.practicum.shareit.comment.mapper.SimpleCommentMapperImpl;
 import ru.practicum.shareit.comment.storage.CommentStorage;
+import ru.practicum.shareit.common.ParallelReadsConfig;
+import ru.practicum.shareit.exceptions.CustomValidationException;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.mapper.SimpleItemMapperImpl;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
 import ru.practicum.shareit.item.service.ItemServiceImpl;
+import ru.practicum.shareit.item.service.ItemLookup;
 import ru.practicum.shareit.item.storage.ItemStorage;
 import ru.practicum.shareit.request.mapper.SimpleItemRequestMapper;
 import ru.practicum.shareit.request.mapper.SimpleItemRequestMapperImpl;
 import ru.practicum.shareit.request.service.ItemRequestServiceImpl;
+import ru.practicum.shareit.request.service.ItemRequestLookup;
 import ru.practicum.shareit.user.mapper.SimpleUserMapperImpl;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.UserServiceImpl;
+import ru.practicum.shareit.user.service.UserLookup;
 import ru.practicum.shareit.user.storage.UserStorage;
 
 import java.time.LocalDateTime;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 @DataJpaTest
 @ActiveProfiles("test")
 @Import({
         ItemServiceImpl.class,
+        ItemLookup.class,
+        ItemSearchIndex.class,
+        LastAndNextBookingsServiceImpl.class,
         UserServiceImpl.class,
+        UserLookup.class,
         SimpleItemMapperImpl.class,
         SimpleBookingMapperImpl.class,
         SimpleCommentMapperImpl.class,
         SimpleUserMapperImpl.class,
         ItemRequestServiceImpl.class,
-        SimpleItemRequestMapperImpl.class
+        ItemRequestLookup.class,
+        SimpleItemRequestMapperImpl.class,
+        ParallelReadsConfig.class
 })
 public class BookingServiceIntegrationTest {
     @Autowired
@@ -60,6 +78,10 @@ public class BookingServiceIntegrationTest {
     private ItemRequestServiceImpl itemRequestService;
     @Autowired
     private SimpleItemRequestMapper itemRequestMapper;
+    @Autowired
+    private LastAndNextBookingsServiceImpl lastAndNextBookingsService;
+    @Autowired
+    private LastAndNextBookingsStorage lastAndNextBookingsStorage;
 
     private User owner;
     private User booker;
@@ -102,6 +124,61 @@ public class BookingServiceIntegrationTest {
         assertEquals(savedItem.getId(), result.getItem().getId());
     }
 
+    @DisplayName("Начавшееся следующее бронирование становится последним")
+    @Test
+    void shouldRolloverStartedNextBooking() {
+        Integer itemId = itemService.createItem(itemDto).getId();
+        Item savedItem = itemStorage.findById(itemId).get();
+        Booking started = bookingStorage.save(createBooking(savedItem, LocalDateTime.now().minusHours(1),
+                LocalDateTime.now().plusDays(1), booker));
+        LastAndNextBookings outdated = new LastAndNextBookings(itemId);
+        outdated.setNextBooking(started);
+        lastAndNextBookingsStorage.save(outdated);
+
+        assertEquals(started.getId(), lastAndNextBookingsService.getByItemId(itemId).getLastBooking().getId());
+
+        lastAndNextBookingsService.rollover();
+        LastAndNextBookings actual = lastAndNextBookingsStorage.findById(itemId).get();
+
+        assertEquals(started.getId(), actual.getLastBooking().getId());
+        assertNull(actual.getNextBooking());
+    }
+
+    @DisplayName("Пересборка при старте считает только вещи без записи витрины")
+    @Test
+    void shouldRebuildOnlyMissingLastAndNextBookings() {
+        Item counted = itemStorage.findById(itemService.createItem(itemDto).getId()).get();
+        Item missing = itemStorage.findById(itemService.createItem(itemDto).getId()).get();
+        bookingStorage.save(createBooking(counted, LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(2),
+                booker));
+        Booking past = bookingStorage.save(createBooking(missing, LocalDateTime.now().minusDays(2),
+                LocalDateTime.now().minusDays(1), booker));
+        lastAndNextBookingsStorage.save(new LastAndNextBookings(counted.getId()));
+
+        lastAndNextBookingsService.rebuild();
+
+        assertNull(lastAndNextBookingsStorage.findById(counted.getId()).get().getNextBooking());
+        assertEquals(past.getId(), lastAndNextBookingsStorage.findById(missing.getId()).get().getLastBooking().getId());
+    }
+
+    @DisplayName("Подтверждение сверяется с базой, а не только с индексом своего экземпляра")
+    @Test
+    void shouldRejectApprovalConflictingWithOtherInstance() {
+        Integer itemId = itemService.createItem(itemDto).getId();
+        Item savedItem = itemStorage.findById(itemId).get();
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        BookingIntervalIndex index = new BookingIntervalIndex(bookingStorage, itemStorage);
+        //индекс этого экземпляра подгрузил вещь, пока подтвержденных бронирований еще не было
+        index.checkFree(createBooking(savedItem, start, start.plusDays(1), booker));
+        //подтверждение, зафиксированное другим экземпляром
+        bookingStorage.save(createBooking(savedItem, start, start.plusDays(2), booker));
+        Booking waiting = createBooking(savedItem, start.plusDays(1), start.plusDays(3), booker);
+        waiting.setStatus(BookingStatus.WAITING);
+        Booking overlapping = bookingStorage.save(waiting);
+
+        assertThrows(CustomValidationException.class, () -> index.reserve(overlapping));
+    }
+
     private Booking createBooking(Item item, LocalDateTime start, LocalDateTime end, User booker) {
         Booking booking = new Booking();
         booking.setStart(start);
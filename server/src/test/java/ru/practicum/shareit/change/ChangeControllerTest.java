@@ -0,0 +1,252 @@
+package ru.practicum.shareit.change;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jayway.jsonpath.JsonPath;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.BaseControllerHelper;
+import ru.practicum.shareit.booking.dto.InputBookingDto;
+import ru.practicum.shareit.booking.storage.BookingStorage;
+import ru.practicum.shareit.common.Common;
+import ru.practicum.shareit.common.change.EntityChangedEvent;
+import ru.practicum.shareit.item.storage.ItemStorage;
+import ru.practicum.shareit.outbox.service.OutboxDispatcher;
+import ru.practicum.shareit.outbox.storage.OutboxStorage;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.storage.UserStorage;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@AutoConfigureMockMvc
+@AutoConfigureTestDatabase
+@ActiveProfiles("test")
+@SpringBootTest
+public class ChangeControllerTest extends BaseControllerHelper {
+    @Autowired
+    private UserStorage userStorage;
+    @Autowired
+    private ItemStorage itemStorage;
+    @Autowired
+    private BookingStorage bookingStorage;
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    @Autowired
+    private OutboxDispatcher outboxDispatcher;
+    @Autowired
+    private OutboxStorage outboxStorage;
+
+    private int ownerId;
+    private int bookerId;
+    private long ownerCursor;
+    private long bookerCursor;
+
+    @BeforeEach
+    @SneakyThrows
+    void beforeEach() {
+        ownerId = createUser(createFirstUserDto());
+        bookerId = createUser(createSecondUserDto());
+        ownerCursor = currentCursor(ownerId);
+        bookerCursor = currentCursor(bookerId);
+    }
+
+    @AfterEach
+    void afterEach() {
+        bookingStorage.deleteAll();
+        itemStorage.deleteAll();
+        userStorage.deleteAll();
+    }
+
+    @DisplayName("Без курсора возвращается только текущий курсор")
+    @Test
+    @SneakyThrows
+    void shouldReturnCursorWithoutChanges() {
+        mockMvc.perform(get("/changes").header(Common.USER_HEADER, ownerId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(0)))
+                .andExpect(header().string(Common.NEXT_CURSOR_HEADER, String.valueOf(ownerCursor)));
+    }
+
+    @DisplayName("Бронирование попадает в журнал арендатора и владельца, вещь - только владельца")
+    @Test
+    @SneakyThrows
+    void shouldLogChangesForEveryInterestedUser() {
+        int itemId = createItem(ownerId);
+        int bookingId = createBooking(bookerId, itemId);
+        dispatchOutbox();
+
+        mockMvc.perform(get("/changes")
+                        .header(Common.USER_HEADER, ownerId)
+                        .param("since", String.valueOf(ownerCursor)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                //обработанные одним пакетом outbox изменения идут в журнале в порядке сущностей, а не записи
+                .andExpect(jsonPath("$[*].entity", containsInAnyOrder(EntityChangedEvent.ITEMS,
+                        EntityChangedEvent.BOOKINGS)))
+                .andExpect(jsonPath("$[*].entityId", containsInAnyOrder(itemId, bookingId)));
+        mockMvc.perform(get("/changes")
+                        .header(Common.USER_HEADER, bookerId)
+                        .param("since", String.valueOf(bookerCursor)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].entity").value(EntityChangedEvent.BOOKINGS))
+                .andExpect(jsonPath("$[0].entityId").value(bookingId));
+    }
+
+    @DisplayName("С курсора из ответа читаются только следующие изменения, страница ограничена limit")
+    @Test
+    @SneakyThrows
+    void shouldContinueFromCursor() {
+        int itemId = createItem(ownerId);
+        //вещь раньше бронирования и в журнале
+        dispatchOutbox();
+        int bookingId = createBooking(bookerId, itemId);
+        dispatchOutbox();
+
+        MvcResult firstPage = mockMvc.perform(get("/changes")
+                        .header(Common.USER_HEADER, ownerId)
+                        .param("since", String.valueOf(ownerCursor))
+                        .param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].entityId").value(itemId))
+                .andReturn();
+        long cursor = Long.parseLong(firstPage.getResponse().getHeader(Common.NEXT_CURSOR_HEADER));
+
+        mockMvc.perform(patch("/bookings/" + bookingId)
+                        .header(Common.USER_HEADER, ownerId)
+                        .param("approved", "true"))
+                .andExpect(status().isOk());
+        dispatchOutbox();
+
+        //подтверждение меняет бронирование и последнее/следующее бронирования вещи
+        MvcResult secondPage = mockMvc.perform(get("/changes")
+                        .header(Common.USER_HEADER, ownerId)
+                        .param("since", String.valueOf(cursor)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(3)))
+                .andExpect(jsonPath("$[0].entityId").value(bookingId))
+                .andExpect(jsonPath("$[1].entityId").value(bookingId))
+                .andExpect(jsonPath("$[2].entity").value(EntityChangedEvent.ITEMS))
+                .andReturn();
+        List<Integer> ids = JsonPath.read(secondPage.getResponse().getContentAsString(), "$[*].id");
+        assertEquals(String.valueOf(ids.getLast()), secondPage.getResponse().getHeader(Common.NEXT_CURSOR_HEADER));
+    }
+
+    @DisplayName("Изменение откаченной транзакции в журнал не попадает, позиция журнала не сдвигается")
+    @Test
+    @SneakyThrows
+    void shouldNotLogRolledBackChange() {
+        int itemId = createItem(ownerId);
+        long cursor = currentCursor(ownerId);
+
+        transactionTemplate.executeWithoutResult(transaction -> {
+            eventPublisher.publishEvent(new EntityChangedEvent(EntityChangedEvent.ITEMS, itemId));
+            transaction.setRollbackOnly();
+        });
+        dispatchOutbox();
+
+        mockMvc.perform(get("/changes")
+                        .header(Common.USER_HEADER, ownerId)
+                        .param("since", String.valueOf(cursor)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(0)))
+                .andExpect(header().string(Common.NEXT_CURSOR_HEADER, String.valueOf(cursor)));
+    }
+
+    @DisplayName("Некорректный limit отклоняется")
+    @Test
+    @SneakyThrows
+    void shouldRejectInvalidLimit() {
+        mockMvc.perform(get("/changes")
+                        .header(Common.USER_HEADER, ownerId)
+                        .param("since", "0")
+                        .param("limit", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    //плановая обработка могла захватить часть строк раньше теста - ждем, пока она их обработает
+    @SneakyThrows
+    private void dispatchOutbox() {
+        outboxDispatcher.dispatchAll();
+        while (outboxStorage.count() > 0) {
+            Thread.sleep(10);
+            outboxDispatcher.dispatchAll();
+        }
+    }
+
+    @SneakyThrows
+    private long currentCursor(int userId) {
+        dispatchOutbox();
+        MvcResult result = mockMvc.perform(get("/changes").header(Common.USER_HEADER, userId))
+                .andExpect(status().isOk())
+                .andReturn();
+        return Long.parseLong(result.getResponse().getHeader(Common.NEXT_CURSOR_HEADER));
+    }
+
+    private int createUser(UserDto userDto) throws Exception {
+        MvcResult result = mockMvc.perform(post("/users")
+                        .content(objectMapper.writeValueAsString(userDto))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andReturn();
+        return JsonPath.read(result.getResponse().getContentAsString(), "$.id");
+    }
+
+    private int createItem(int userId) throws Exception {
+        MvcResult result = mockMvc.perform(post("/items")
+                        .header(Common.USER_HEADER, userId)
+                        .content(objectMapper.writeValueAsString(createFirstInputItemDto(userId)))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andReturn();
+        return JsonPath.read(result.getResponse().getContentAsString(), "$.id");
+    }
+
+    private int createBooking(int userId, int itemId) throws Exception {
+        MvcResult result = mockMvc.perform(post("/bookings")
+                        .header(Common.USER_HEADER, userId)
+                        .content(objectMapper.writeValueAsString(bookingDto(itemId)))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andReturn();
+        return JsonPath.read(result.getResponse().getContentAsString(), "$.id");
+    }
+
+    private InputBookingDto bookingDto(int itemId) {
+        LocalDateTime start = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS).plusDays(1);
+        InputBookingDto bookingDto = new InputBookingDto();
+        bookingDto.setItemId(itemId);
+        bookingDto.setStart(start);
+        bookingDto.setEnd(start.plusDays(1));
+        return bookingDto;
+    }
+}
@@ -0,0 +1,154 @@
+package ru.practicum.shareit.change;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+import ru.practicum.shareit.change.dto.ChangeDto;
+import ru.practicum.shareit.change.dto.ChangePageDto;
+import ru.practicum.shareit.change.mapper.SimpleChangeMapper;
+import ru.practicum.shareit.change.model.ChangeAudience;
+import ru.practicum.shareit.change.model.ChangeLogEntry;
+import ru.practicum.shareit.change.service.ChangeLogServiceImpl;
+import ru.practicum.shareit.change.storage.ChangeLogStorage;
+import ru.practicum.shareit.common.change.EntityChangedEvent;
+import ru.practicum.shareit.exceptions.ExpiredCursorException;
+import ru.practicum.shareit.exceptions.ValidationException;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ChangeLogServiceImplTest {
+    @Mock
+    private ChangeLogStorage changeLogStorage;
+
+    @Mock
+    private SimpleChangeMapper changeMapper;
+
+    @Mock
+    private UserService userService;
+
+    @InjectMocks
+    private ChangeLogServiceImpl changeLogService;
+
+    @DisplayName("Курсор старше первой оставшейся записи журнала устарел")
+    @Test
+    void getChanges_expiredCursor() {
+        when(changeLogStorage.getPosition()).thenReturn(100L);
+        when(changeLogStorage.getFirstId()).thenReturn(50L);
+
+        assertThrows(ExpiredCursorException.class, () -> changeLogService.getChanges(1, 10L, 10));
+        verify(changeLogStorage, never()).findAllByUserIdAndIdGreaterThanOrderById(anyInt(), anyLong(), any());
+    }
+
+    @DisplayName("Если журнал удален целиком, устарел любой курсор меньше текущей позиции")
+    @Test
+    void getChanges_expiredCursorWhenLogEmpty() {
+        when(changeLogStorage.getPosition()).thenReturn(100L);
+        when(changeLogStorage.getFirstId()).thenReturn(null);
+
+        assertThrows(ExpiredCursorException.class, () -> changeLogService.getChanges(1, 99L, 10));
+    }
+
+    @DisplayName("На полной странице курсор - последняя запись, на неполной - текущая позиция журнала")
+    @Test
+    void getChanges_nextCursor() {
+        ChangeLogEntry first = entry(51L);
+        ChangeLogEntry second = entry(57L);
+        when(changeLogStorage.getPosition()).thenReturn(100L);
+        when(changeLogStorage.getFirstId()).thenReturn(50L);
+        when(changeMapper.entryToDto(any())).thenReturn(new ChangeDto());
+        when(changeLogStorage.findAllByUserIdAndIdGreaterThanOrderById(1, 50L, Limit.of(2)))
+                .thenReturn(List.of(first, second));
+        when(changeLogStorage.findAllByUserIdAndIdGreaterThanOrderById(1, 50L, Limit.of(3)))
+                .thenReturn(List.of(first, second));
+
+        assertEquals(57L, changeLogService.getChanges(1, 50L, 2).getNextCursor());
+        assertEquals(100L, changeLogService.getChanges(1, 50L, 3).getNextCursor());
+    }
+
+    @DisplayName("Курсор не сдвигается назад, если журнал прочитан с отстающей реплики")
+    @Test
+    void getChanges_cursorAheadOfReplica() {
+        when(changeLogStorage.getPosition()).thenReturn(100L);
+        when(changeLogStorage.getFirstId()).thenReturn(1L);
+        when(changeLogStorage.findAllByUserIdAndIdGreaterThanOrderById(1, 120L, Limit.of(10))).thenReturn(List.of());
+
+        ChangePageDto page = changeLogService.getChanges(1, 120L, 10);
+
+        assertTrue(page.getChanges().isEmpty());
+        assertEquals(120L, page.getNextCursor());
+    }
+
+    @DisplayName("Некорректные since и limit отклоняются")
+    @Test
+    void getChanges_invalidParameters() {
+        assertThrows(ValidationException.class, () -> changeLogService.getChanges(1, -1L, 10));
+        assertThrows(ValidationException.class, () -> changeLogService.getChanges(1, 0L, 0));
+        verify(userService, never()).getUserById(anyInt());
+    }
+
+    @DisplayName("Изменения получают позиции подряд после зарезервированных, бронирование - и арендатору, и владельцу")
+    @Test
+    void append() {
+        when(changeLogStorage.getBookers(List.of(5))).thenReturn(List.of(new ChangeAudience(5, 2)));
+        when(changeLogStorage.getBookedItemOwners(List.of(5))).thenReturn(List.of(new ChangeAudience(5, 1)));
+        when(changeLogStorage.getItemOwners(List.of(7))).thenReturn(List.of(new ChangeAudience(7, 1)));
+        when(changeLogStorage.getPosition()).thenReturn(13L);
+
+        changeLogService.append(List.of(
+                new EntityChangedEvent(EntityChangedEvent.BOOKINGS, 5),
+                new EntityChangedEvent(EntityChangedEvent.ITEMS, 7),
+                new EntityChangedEvent(EntityChangedEvent.COMMENTS, 3)));
+
+        verify(changeLogStorage).reservePositions(3);
+        verify(changeLogStorage).saveAll(List.of(entry(11L), entry(12L), entry(13L)));
+    }
+
+    @DisplayName("Изменения без заинтересованных пользователей позицию журнала не занимают")
+    @Test
+    void append_withoutAudience() {
+        changeLogService.append(List.of(new EntityChangedEvent(EntityChangedEvent.USERS, 1)));
+
+        verify(changeLogStorage, never()).reservePositions(anyLong());
+        verify(changeLogStorage, never()).saveAll(anyList());
+    }
+
+    @DisplayName("Удаляются записи старше срока хранения")
+    @Test
+    void purge() {
+        ReflectionTestUtils.setField(changeLogService, "retention", Duration.ofDays(7));
+        when(changeLogStorage.deleteAllByChangedBefore(any())).thenReturn(0);
+
+        changeLogService.purge();
+
+        verify(changeLogStorage).deleteAllByChangedBefore(argThat(date ->
+                date.isBefore(LocalDateTime.now().minusDays(7).plusMinutes(1))
+                        && date.isAfter(LocalDateTime.now().minusDays(7).minusMinutes(1))));
+    }
+
+    private static ChangeLogEntry entry(Long id) {
+        ChangeLogEntry entry = new ChangeLogEntry();
+        entry.setId(id);
+        return entry;
+    }
+}
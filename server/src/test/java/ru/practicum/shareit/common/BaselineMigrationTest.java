@@ -0,0 +1,61 @@
+package ru.practicum.shareit.common;
+
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.output.MigrateResult;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/*
+Существующая база создана по schema.sql до перехода на миграции и принимается Flyway за версию 1
+(baseline-version=1), поэтому V1 на ней не выполняется: все, чего не было в schema.sql,
+должно создаваться миграциями после V1. baseline/schema.sql - копия той схемы.
+ */
+class BaselineMigrationTest {
+    private static final String BASELINE_SCHEMA = "baseline/schema.sql";
+
+    @DisplayName("V1 совпадает со схемой, по которой созданы существующие базы")
+    @Test
+    void shouldKeepInitMigrationEqualToBaselineSchema() throws IOException {
+        assertArrayEquals(new ClassPathResource(BASELINE_SCHEMA).getContentAsByteArray(),
+                new ClassPathResource("db/migration/V1__init.sql").getContentAsByteArray());
+    }
+
+    @DisplayName("База, созданная по schema.sql, мигрирует до последней версии с сохранением данных")
+    @Test
+    void shouldMigrateDatabaseCreatedFromBaselineSchema() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:baseline;DB_CLOSE_DELAY=-1",
+                "sa", "");
+        new ResourceDatabasePopulator(new ClassPathResource(BASELINE_SCHEMA)).execute(dataSource);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.update("INSERT INTO USERS (NAME, EMAIL) VALUES ('owner', 'owner@shareit.ru')");
+        jdbcTemplate.update("INSERT INTO USERS (NAME, EMAIL) VALUES ('booker', 'booker@shareit.ru')");
+        jdbcTemplate.update("INSERT INTO ITEMS (NAME, DESCRIPTION, IS_AVIALABLE, OWNER_ID) "
+                + "VALUES ('Дрель', 'Простая дрель', TRUE, 1)");
+        jdbcTemplate.update("INSERT INTO BOOKINGS (START_DATE, END_DATE, ITEM_ID, BOOKER_ID, STATUS) "
+                + "VALUES (CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, 1, 2, 'APPROVED')");
+
+        MigrateResult result = Flyway.configure()
+                .dataSource(dataSource)
+                .baselineOnMigrate(true)
+                .baselineVersion("1")
+                .load()
+                .migrate();
+
+        assertTrue(result.success);
+        assertTrue(result.migrations.stream().noneMatch(migration -> migration.version.equals("1")));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM ITEM_LAST_NEXT_BOOKINGS", Integer.class));
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT OWNER_ID FROM BOOKINGS WHERE ID = 1", Integer.class));
+        //последовательности продолжают Id, уже выданные IDENTITY-колонками
+        assertEquals(3, jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR USERS_SEQ", Integer.class));
+    }
+}
@@ -0,0 +1,109 @@
+package ru.practicum.shareit.common;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.exceptions.ResourceNotFoundException;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+import ru.practicum.shareit.user.storage.UserStorage;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+//экспорт метрик в тестах по умолчанию выключен, без него нет эндпоинта prometheus
+@AutoConfigureObservability
+@AutoConfigureMockMvc
+@AutoConfigureTestDatabase
+@ActiveProfiles("test")
+@SpringBootTest
+class MetricsAspectTest {
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private UserStorage userStorage;
+
+    private Integer userId;
+
+    @BeforeEach
+    void beforeEach() {
+        UserDto userDto = new UserDto();
+        userDto.setName("Андрей");
+        userDto.setEmail("metrics@mail.ru");
+        userId = userService.createUser(userDto).getId();
+    }
+
+    @AfterEach
+    void afterEach() {
+        userStorage.deleteAll();
+    }
+
+    @DisplayName("Поиск бронирований пишет время сервиса, время стратегии по state и число строк репозитория")
+    @Test
+    void shouldRecordServiceStrategyAndRepositoryMetrics() {
+        bookingService.getUsersBooking(userId, "ALL", null, 10);
+
+        Timer serviceTimer = meterRegistry.find(MetricsAspect.SERVICE_METRIC)
+                .tags("class", "BookingServiceImpl", "method", "getUsersBooking", "exception", "none")
+                .timer();
+        assertNotNull(serviceTimer);
+        assertTrue(serviceTimer.count() > 0);
+        Timer strategyTimer = meterRegistry.find(MetricsAspect.FIND_BOOKINGS_METRIC)
+                .tag("state", "ALL_USERS")
+                .timer();
+        assertNotNull(strategyTimer);
+        assertTrue(strategyTimer.count() > 0);
+        DistributionSummary rows = meterRegistry.find(MetricsAspect.REPOSITORY_ROWS_METRIC)
+                .tags("repository", "BookingStorage", "method", "getAllBookingsForBooker")
+                .summary();
+        assertNotNull(rows);
+        assertTrue(rows.count() > 0);
+    }
+
+    @DisplayName("Исключение сервиса попадает в тег exception")
+    @Test
+    void shouldTagServiceException() {
+        assertThrows(ResourceNotFoundException.class, () -> userService.getUserById(-1));
+
+        assertNotNull(meterRegistry.find(MetricsAspect.SERVICE_METRIC)
+                .tags("class", "UserServiceImpl", "method", "getUserById",
+                        "exception", "ResourceNotFoundException")
+                .timer());
+    }
+
+    @DisplayName("Метрики отдаются в формате Prometheus вместе с гистограммой")
+    @Test
+    @SneakyThrows
+    void shouldExposePrometheusHistogram() {
+        bookingService.getOwnersBookings(userId, "ALL", null, 10);
+
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("shareit_bookings_find_seconds_bucket")))
+                .andExpect(content().string(containsString("spring_data_repository_invocations_seconds_bucket")));
+    }
+}
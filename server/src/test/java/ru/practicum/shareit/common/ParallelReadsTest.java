@@ -0,0 +1,121 @@
+package ru.practicum.shareit.common;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.common.replica.ReplicaRoutingDataSource;
+import ru.practicum.shareit.exceptions.ResourceNotFoundException;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ParallelReadsTest {
+    private ParallelReads parallelReads;
+
+    @AfterEach
+    void afterEach() {
+        if (parallelReads != null) {
+            parallelReads.close();
+        }
+        ReplicaRoutingDataSource.clearCurrentUser();
+    }
+
+    @DisplayName("Ветки выполняются одновременно в потоках исполнителя и получают пользователя запроса")
+    @Test
+    void shouldRunBranchesConcurrentlyAsCurrentUser() {
+        parallelReads = new ParallelReads(Executors.newFixedThreadPool(2), null);
+        ReplicaRoutingDataSource.setCurrentUser(7);
+        CountDownLatch bothStarted = new CountDownLatch(2);
+
+        CompletableFuture<Integer> first = parallelReads.fork(() -> awaitOther(bothStarted));
+        CompletableFuture<Integer> second = parallelReads.fork(() -> awaitOther(bothStarted));
+
+        assertEquals(7, ParallelReads.join(first));
+        assertEquals(7, ParallelReads.join(second));
+    }
+
+    @DisplayName("Исключение ветки бросается из join как есть")
+    @Test
+    void shouldRethrowBranchException() {
+        parallelReads = new ParallelReads(Executors.newSingleThreadExecutor(), null);
+
+        CompletableFuture<Object> branch = parallelReads.fork(() -> {
+            throw new ResourceNotFoundException("Не нашел вещь с Id = 1");
+        });
+
+        assertThrows(ResourceNotFoundException.class, () -> ParallelReads.join(branch));
+    }
+
+    @DisplayName("Ветка сверх очереди выполняется в потоке запроса и не меняет его пользователя")
+    @Test
+    void shouldKeepCallerUserWhenRunInCaller() {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(1), new ThreadPoolExecutor.CallerRunsPolicy());
+        parallelReads = new ParallelReads(executor, null);
+        CountDownLatch release = new CountDownLatch(1);
+        parallelReads.fork(() -> await(release));
+        parallelReads.fork(() -> await(release));
+        ReplicaRoutingDataSource.setCurrentUser(3);
+        Thread caller = Thread.currentThread();
+
+        CompletableFuture<Thread> overflow = parallelReads.fork(Thread::currentThread);
+
+        release.countDown();
+        assertEquals(caller, ParallelReads.join(overflow));
+        assertEquals(3, ReplicaRoutingDataSource.getCurrentUser());
+    }
+
+    @DisplayName("Без исполнителя ветки выполняются сразу в потоке запроса")
+    @Test
+    void shouldRunInlineWithoutExecutor() {
+        parallelReads = new ParallelReads(null, null);
+        Thread caller = Thread.currentThread();
+
+        CompletableFuture<Thread> branch = parallelReads.fork(Thread::currentThread);
+
+        assertTrue(branch.isDone());
+        assertEquals(caller, ParallelReads.join(branch));
+        assertThrows(ResourceNotFoundException.class, () -> ParallelReads.join(parallelReads.fork(() -> {
+            throw new ResourceNotFoundException("Не нашел вещь с Id = 1");
+        })));
+    }
+
+    @DisplayName("В транзакции вызывающего ветки выполняются в ней, а не в потоках исполнителя")
+    @Test
+    void shouldRunInCallerTransaction() {
+        parallelReads = new ParallelReads(Executors.newSingleThreadExecutor(), null);
+        Thread caller = Thread.currentThread();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        try {
+            assertEquals(caller, ParallelReads.join(parallelReads.fork(Thread::currentThread)));
+        } finally {
+            TransactionSynchronizationManager.clear();
+        }
+    }
+
+    private static Integer awaitOther(CountDownLatch bothStarted) {
+        assertNotEquals("main", Thread.currentThread().getName());
+        bothStarted.countDown();
+        assertTrue(await(bothStarted), "ветки выполнялись по очереди");
+        return ReplicaRoutingDataSource.getCurrentUser();
+    }
+
+    private static Boolean await(CountDownLatch latch) {
+        try {
+            return latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,296 @@
+package ru.practicum.shareit.common;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.storage.BookingStorage;
+import ru.practicum.shareit.booking.storage.LastAndNextBookingsStorage;
+import ru.practicum.shareit.change.storage.ChangeLogStorage;
+import ru.practicum.shareit.comment.storage.CommentStorage;
+import ru.practicum.shareit.item.storage.ItemStorage;
+import ru.practicum.shareit.outbox.storage.OutboxStorage;
+import ru.practicum.shareit.request.storage.ItemRequestStorage;
+import ru.practicum.shareit.user.storage.UserStorage;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/*
+План каждого запроса хранилищ на засеянной базе со схемой из миграций: EXPLAIN SQL, который Hibernate
+отправил в базу, не должен содержать полного просмотра таблицы (в H2 - tableScan).
+База засевается один раз на класс: ANALYZE фиксирует транзакцию, так что откатывать тестовые транзакции нечего.
+H2 сам индексирует внешние ключи, поэтому тест ловит отсутствие индекса только там, где FK не покрывает запрос.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class QueryPlanTest {
+    private static final int USERS = 100;
+    private static final int ITEMS = 500;
+    private static final int REQUESTS = 200;
+    private static final int BOOKINGS_PER_ITEM = 10;
+    private static final int COMMENTS_PER_ITEM = 2;
+    private static final int CHANGES = 5000;
+    private static final int OUTBOX = 1000;
+    private static final Integer LAST_ID = Integer.MAX_VALUE;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private StatementCapture statementCapture;
+    @Autowired
+    private UserStorage userStorage;
+    @Autowired
+    private ItemStorage itemStorage;
+    @Autowired
+    private ItemRequestStorage itemRequestStorage;
+    @Autowired
+    private BookingStorage bookingStorage;
+    @Autowired
+    private LastAndNextBookingsStorage lastAndNextStorage;
+    @Autowired
+    private CommentStorage commentStorage;
+    @Autowired
+    private ChangeLogStorage changeLogStorage;
+    @Autowired
+    private OutboxStorage outboxStorage;
+
+    private LocalDateTime now;
+
+    @BeforeEach
+    void beforeEach() {
+        now = LocalDateTime.now();
+        if (userStorage.count() == 0) {
+            seed();
+        }
+    }
+
+    @DisplayName("Пользователь, вещь, запрос и бронирование по Id читаются по первичному ключу")
+    @Test
+    void shouldFindByIdWithPrimaryKey() {
+        assertIndexed(() -> userStorage.findById(1));
+        assertIndexed(() -> itemStorage.findById(1));
+        assertIndexed(() -> itemRequestStorage.findById(1));
+        assertIndexed(() -> bookingStorage.findById(1));
+        assertIndexed(() -> bookingStorage.lockById(1));
+    }
+
+    @DisplayName("Бронирования арендатора читаются по индексу для каждого state")
+    @Test
+    void shouldListBookersBookingsWithIndex() {
+        assertIndexed(() -> bookingStorage.getAllBookingsForBooker(1, now, LAST_ID, Limit.of(20)));
+        assertIndexed(() -> bookingStorage.getBookingsForBookerByStatus(1, now, LAST_ID, BookingStatus.WAITING,
+                Limit.of(20)));
+        assertIndexed(() -> bookingStorage.getCurrentBookingForBooker(1, now, LAST_ID, now, Limit.of(20)));
+        assertIndexed(() -> bookingStorage.getPastBookingForBooker(1, now, LAST_ID, now, Limit.of(20)));
+        assertIndexed(() -> bookingStorage.getFutureBookingForBooker(1, now, LAST_ID, now, Limit.of(20)));
+    }
+
+    @DisplayName("Бронирования владельца читаются по индексу для каждого state")
+    @Test
+    void shouldListOwnersBookingsWithIndex() {
+        assertIndexed(() -> bookingStorage.getAllBookingsForOwner(1, now, LAST_ID, Limit.of(20)));
+        assertIndexed(() -> bookingStorage.getBookingsForOwnerByStatus(1, now, LAST_ID, BookingStatus.WAITING,
+                Limit.of(20)));
+        assertIndexed(() -> bookingStorage.getCurrentBookingForOwner(1, now, LAST_ID, now, Limit.of(20)));
+        assertIndexed(() -> bookingStorage.getPastBookingForOwner(1, now, LAST_ID, now, Limit.of(20)));
+        assertIndexed(() -> bookingStorage.getFutureBookingForOwner(1, now, LAST_ID, now, Limit.of(20)));
+    }
+
+    @DisplayName("Бронирования вещи читаются по индексу")
+    @Test
+    void shouldFindItemsBookingsWithIndex() {
+        assertIndexed(() -> bookingStorage.findFirstByItemIdAndStatusAndStartBeforeOrderByStartDesc(1,
+                BookingStatus.APPROVED, now));
+        assertIndexed(() -> bookingStorage.findFirstByItemIdAndStatusAndStartAfterOrderByStart(1,
+                BookingStatus.APPROVED, now));
+        assertIndexed(() -> bookingStorage.findAllByItemIdAndStatusAndEndAfter(1, BookingStatus.APPROVED, now));
+        assertIndexed(() -> bookingStorage.findAllByItemIdAndStatusAndStartBeforeAndEndAfter(1,
+                BookingStatus.APPROVED, now, now.minusDays(1)));
+        assertIndexed(() -> bookingStorage.getItemsWithoutLastAndNext(0, Limit.of(100)));
+    }
+
+    @DisplayName("Вещи владельца, ответы на запросы и завершенные бронирования автора отзыва читаются по индексу")
+    @Test
+    void shouldFindItemsWithIndex() {
+        assertIndexed(() -> itemStorage.findAllByIdGreaterThanOrderById(100, Limit.of(100)));
+        assertIndexed(() -> itemStorage.findAllByOwner(userStorage.getReferenceById(1)));
+        assertIndexed(() -> itemStorage.getItemsWasCompleteBookingByUser(1, 2, now));
+        assertIndexed(() -> itemStorage.findAllByRequestOrderById(itemRequestStorage.getReferenceById(1)));
+        assertIndexed(() -> itemStorage.findAllByRequestInOrderById(List.of(
+                itemRequestStorage.getReferenceById(1), itemRequestStorage.getReferenceById(2))));
+    }
+
+    @DisplayName("Отзывы к вещам читаются по индексу")
+    @Test
+    void shouldFindCommentsWithIndex() {
+        assertIndexed(() -> commentStorage.findAllByItemInOrderByCreatedDesc(List.of(
+                itemStorage.getReferenceById(1), itemStorage.getReferenceById(2))));
+        assertIndexed(() -> commentStorage.findAllByItemIdInOrderByCreatedDesc(List.of(1, 2)));
+    }
+
+    @DisplayName("Свои и чужие запросы читаются по индексу")
+    @Test
+    void shouldFindRequestsWithIndex() {
+        assertIndexed(() -> itemRequestStorage.findAllByRequesterOrderByCreatedDesc(userStorage.getReferenceById(1)));
+        assertIndexed(() -> itemRequestStorage.getOtherUsersRequests(1, now.minusDays(1), LAST_ID, Limit.of(20)));
+    }
+
+    @DisplayName("Последнее и следующее бронирования вещей читаются по индексу")
+    @Test
+    void shouldFindLastAndNextBookingsWithIndex() {
+        assertIndexed(() -> lastAndNextStorage.findAllByItemIdIn(List.of(1, 2, 3)));
+        assertIndexed(() -> itemStorage.lockItem(1));
+        assertIndexed(() -> lastAndNextStorage.getItemsWithStartedNextBooking(now));
+    }
+
+    @DisplayName("Журнал изменений пользователя, его начало и устаревшие записи читаются по индексу")
+    @Test
+    void shouldFindChangesWithIndex() {
+        assertIndexed(() -> changeLogStorage.findAllByUserIdAndIdGreaterThanOrderById(1, 100L, Limit.of(100)));
+        assertIndexed(() -> changeLogStorage.getPosition());
+        assertIndexed(() -> changeLogStorage.getFirstId());
+        //старше засеянных записей: удалять нечего, проверяется только план
+        assertIndexed(() -> changeLogStorage.deleteAllByChangedBefore(now.minusYears(1)));
+        assertIndexed(() -> changeLogStorage.getBookers(List.of(1, 2)));
+        assertIndexed(() -> changeLogStorage.getBookedItemOwners(List.of(1, 2)));
+        assertIndexed(() -> changeLogStorage.getItemOwners(List.of(1, 2)));
+    }
+
+    @DisplayName("Пакет outbox захватывается и удаляется по первичному ключу")
+    @Test
+    void shouldClaimOutboxWithPrimaryKey() {
+        assertIndexed(() -> outboxStorage.claimBatch(100, now));
+        //Id за пределами засеянных: удалять нечего, проверяется только план
+        assertIndexed(() -> outboxStorage.deleteAllByIdInBatch(List.of((long) OUTBOX + 1, (long) OUTBOX + 2)));
+    }
+
+    private void assertIndexed(Runnable query) {
+        statementCapture.clear();
+        //lockItem берет блокировку и требует транзакции
+        transactionTemplate.executeWithoutResult(status -> query.run());
+        List<String> statements = statementCapture.statements();
+        assertFalse(statements.isEmpty(), "Запрос не дошел до базы");
+        for (String sql : statements) {
+            String plan = explain(sql);
+            assertTrue(!plan.contains(".tableScan"), "Полный просмотр таблицы:\n" + sql + "\n" + plan);
+        }
+    }
+
+    //параметры не влияют на выбор индекса, поэтому в EXPLAIN подставляются NULL
+    private String explain(String sql) {
+        int parameters = (int) sql.chars().filter(c -> c == '?').count();
+        return jdbcTemplate.query("EXPLAIN " + sql, ps -> {
+            for (int i = 1; i <= parameters; i++) {
+                ps.setObject(i, null);
+            }
+        }, rs -> {
+            StringBuilder plan = new StringBuilder();
+            while (rs.next()) {
+                plan.append(rs.getString(1)).append('\n');
+            }
+            return plan.toString();
+        });
+    }
+
+    //Id задаются явно: последовательности выдают их блоками по 50, а засеянные строки ссылаются на Id подряд
+    private void seed() {
+        batch("INSERT INTO USERS (ID, NAME, EMAIL) VALUES (?, ?, ?)", USERS,
+                i -> new Object[]{i + 1, "user" + i, "user" + i + "@plan.ru"});
+        batch("INSERT INTO REQUESTS (ID, DESCRIPTION, REQUESTER_ID, CREATED) VALUES (?, ?, ?, ?)", REQUESTS,
+                i -> new Object[]{i + 1, "Нужна вещь " + i, i % USERS + 1, time(now.minusHours(i))});
+        batch("INSERT INTO ITEMS (ID, NAME, DESCRIPTION, IS_AVIALABLE, OWNER_ID, REQUEST_ID) "
+                        + "VALUES (?, ?, ?, ?, ?, ?)", ITEMS, i -> new Object[]{i + 1, "Вещь " + i, "Описание " + i, true, i % USERS + 1,
+                        i % 5 == 0 ? i % REQUESTS + 1 : null});
+        batch("INSERT INTO BOOKINGS (ID, START_DATE, END_DATE, ITEM_ID, OWNER_ID, BOOKER_ID, STATUS) "
+                        + "VALUES (?, ?, ?, ?, ?, ?, ?)",
+                ITEMS * BOOKINGS_PER_ITEM, i -> {
+                    int k = i % BOOKINGS_PER_ITEM;
+                    LocalDateTime start = now.plusDays(2L * (k - BOOKINGS_PER_ITEM + 2));
+                    return new Object[]{i + 1, time(start), time(start.plusDays(1)), i / BOOKINGS_PER_ITEM + 1,
+                            i / BOOKINGS_PER_ITEM % USERS + 1, (i + 7) % USERS + 1,
+                            (k % 3 == 0 ? BookingStatus.WAITING : BookingStatus.APPROVED).name()};
+                });
+        batch("INSERT INTO COMMENTS (ID, TEXT, ITEM_ID, AUTHOR_ID, CREATED) VALUES (?, ?, ?, ?, ?)",
+                ITEMS * COMMENTS_PER_ITEM, i -> new Object[]{i + 1, "Отзыв " + i, i / COMMENTS_PER_ITEM + 1,
+                        (i + 7) % USERS + 1, time(now.minusHours(i))});
+        batch("INSERT INTO ITEM_LAST_NEXT_BOOKINGS (ITEM_ID, LAST_BOOKING_ID, NEXT_BOOKING_ID, NEXT_START) "
+                        + "VALUES (?, ?, ?, ?)", ITEMS,
+                i -> new Object[]{i + 1, i * BOOKINGS_PER_ITEM + BOOKINGS_PER_ITEM - 2,
+                        i * BOOKINGS_PER_ITEM + BOOKINGS_PER_ITEM - 1, time(now.plusDays(2))});
+        batch("INSERT INTO CHANGE_LOG (ID, USER_ID, ENTITY, ENTITY_ID, CHANGED) VALUES (?, ?, ?, ?, ?)", CHANGES,
+                i -> new Object[]{i + 1, i % USERS + 1, i % 2 == 0 ? "bookings" : "items", i % ITEMS + 1,
+                        time(now.minusMinutes(CHANGES - i))});
+        batch("INSERT INTO OUTBOX (ID, ENTITY, ENTITY_ID, CREATED) VALUES (?, ?, ?, ?)", OUTBOX,
+                i -> new Object[]{(long) i + 1, i % 2 == 0 ? "bookings" : "items", i % ITEMS + 1,
+                        time(now.minusSeconds(OUTBOX - i))});
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    private void batch(String sql, int count, IntFunction<Object[]> row) {
+        List<Object[]> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            rows.add(row.apply(i));
+        }
+        jdbcTemplate.batchUpdate(sql, rows);
+    }
+
+    private static Timestamp time(LocalDateTime dateTime) {
+        return Timestamp.valueOf(dateTime);
+    }
+
+    //SQL, который Hibernate отправляет в базу, с параметрами-заглушками
+    static class StatementCapture implements StatementInspector {
+        private final List<String> statements = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            statements.add(sql);
+            return sql;
+        }
+
+        List<String> statements() {
+            return List.copyOf(statements);
+        }
+
+        void clear() {
+            statements.clear();
+        }
+    }
+
+    @TestConfiguration
+    static class StatementCaptureConfig {
+        @Bean
+        StatementCapture statementCapture() {
+            return new StatementCapture();
+        }
+
+        @Bean
+        HibernatePropertiesCustomizer statementCaptureCustomizer(StatementCapture statementCapture) {
+            return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, statementCapture);
+        }
+    }
+}
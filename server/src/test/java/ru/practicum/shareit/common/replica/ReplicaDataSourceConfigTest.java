@@ -0,0 +1,78 @@
+package ru.practicum.shareit.common.replica;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+import ru.practicum.shareit.user.storage.UserStorage;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+//"реплика" - та же база H2, что и основная, поэтому отставание всегда нулевое
+@ActiveProfiles("test")
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:replicas",
+        "spring.datasource.driverClassName=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "shareit.datasource.replicas[0].url=jdbc:h2:mem:replicas",
+        "shareit.datasource.lag-query=SELECT 0"
+})
+class ReplicaDataSourceConfigTest {
+    @Autowired
+    private DataSource dataSource;
+    @Autowired
+    private ReplicaLagMonitor replicaLagMonitor;
+    @Autowired
+    private CacheManager cacheManager;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private UserStorage userStorage;
+
+    @AfterEach
+    void afterEach() {
+        userStorage.deleteAll();
+    }
+
+    @DisplayName("С заданными репликами источник данных маршрутизирует соединения, кэш повторяет сброс")
+    @Test
+    void shouldWireReplicaRouting() {
+        assertInstanceOf(LazyConnectionDataSourceProxy.class, dataSource);
+        assertInstanceOf(ReplicaRoutingDataSource.class,
+                ((LazyConnectionDataSourceProxy) dataSource).getTargetDataSource());
+        assertInstanceOf(ReplicaLagCacheManager.class, cacheManager);
+    }
+
+    @DisplayName("Чтение в транзакции readOnly уходит на реплику")
+    @Test
+    void shouldReadFromReplica() {
+        replicaLagMonitor.check();
+        UserDto userDto = new UserDto();
+        userDto.setName("Андрей");
+        userDto.setEmail("replica@mail.ru");
+        userService.createUser(userDto);
+        double before = replicaReads().count();
+
+        assertEquals("replica@mail.ru", userService.getUserList().getFirst().getEmail());
+        assertTrue(replicaReads().count() > before);
+    }
+
+    private Counter replicaReads() {
+        return meterRegistry.get(ReplicaRoutingDataSource.READS_METRIC).tag("target", "replica").counter();
+    }
+}
@@ -0,0 +1,154 @@
+package ru.practicum.shareit.common.replica;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ReplicaRoutingDataSourceTest {
+    private static final String FIRST = "replica-0";
+    private static final String SECOND = "replica-1";
+
+    private SimpleMeterRegistry meterRegistry;
+    private ReplicaRoutingDataSource routingDataSource;
+
+    @BeforeEach
+    void beforeEach() {
+        meterRegistry = new SimpleMeterRegistry();
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        replicas.put(FIRST, mock(DataSource.class));
+        replicas.put(SECOND, mock(DataSource.class));
+        routingDataSource = new ReplicaRoutingDataSource(mock(DataSource.class), replicas, Duration.ofMinutes(1),
+                meterRegistry);
+        routingDataSource.afterPropertiesSet();
+        routingDataSource.setReplicaHealthy(FIRST, true);
+        routingDataSource.setReplicaHealthy(SECOND, true);
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void afterEach() {
+        TransactionSynchronizationManager.clear();
+        ReplicaRoutingDataSource.clearCurrentUser();
+    }
+
+    @DisplayName("Транзакция записи идет в основную базу")
+    @Test
+    void shouldRouteReadWriteTransactionToPrimary() {
+        assertEquals(ReplicaRoutingDataSource.PRIMARY, routingDataSource.determineCurrentLookupKey());
+    }
+
+    @DisplayName("Транзакции readOnly читают с реплик по кругу")
+    @Test
+    void shouldRouteReadOnlyTransactionsToReplicasInTurn() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertEquals(FIRST, routingDataSource.determineCurrentLookupKey());
+        assertEquals(SECOND, routingDataSource.determineCurrentLookupKey());
+        assertEquals(FIRST, routingDataSource.determineCurrentLookupKey());
+        assertEquals(3.0, readsCount("replica"));
+    }
+
+    @DisplayName("Отстающая реплика пропускается, без реплик чтение идет в основную базу")
+    @Test
+    void shouldSkipUnhealthyReplicas() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        routingDataSource.setReplicaHealthy(FIRST, false);
+
+        assertEquals(SECOND, routingDataSource.determineCurrentLookupKey());
+        assertEquals(SECOND, routingDataSource.determineCurrentLookupKey());
+
+        routingDataSource.setReplicaHealthy(SECOND, false);
+        assertEquals(ReplicaRoutingDataSource.PRIMARY, routingDataSource.determineCurrentLookupKey());
+        assertEquals(1.0, readsCount(ReplicaRoutingDataSource.PRIMARY));
+    }
+
+    @DisplayName("После фиксации записи пользователь читает из основной базы, остальные - с реплик")
+    @Test
+    void shouldReadOwnWritesFromPrimaryAfterCommit() {
+        ReplicaRoutingDataSource.setCurrentUser(1);
+        routingDataSource.determineCurrentLookupKey();
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+
+        //до фиксации изменение видно только самой транзакции записи
+        assertEquals(FIRST, readOnlyLookup(1));
+
+        TransactionSynchronizationUtils.invokeAfterCommit(synchronizations);
+        TransactionSynchronizationUtils.invokeAfterCompletion(synchronizations,
+                TransactionSynchronization.STATUS_COMMITTED);
+
+        assertEquals(ReplicaRoutingDataSource.PRIMARY, readOnlyLookup(1));
+        assertEquals(SECOND, readOnlyLookup(2));
+    }
+
+    @DisplayName("Откаченная запись не переводит пользователя на основную базу")
+    @Test
+    void shouldNotStickAfterRollback() {
+        ReplicaRoutingDataSource.setCurrentUser(1);
+        routingDataSource.determineCurrentLookupKey();
+        TransactionSynchronizationUtils.invokeAfterCompletion(TransactionSynchronizationManager.getSynchronizations(),
+                TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        assertEquals(FIRST, readOnlyLookup(1));
+    }
+
+    @DisplayName("Монитор выводит из чтения отстающую и недоступную реплику")
+    @Test
+    void shouldExcludeLaggingAndUnavailableReplicas() throws SQLException {
+        DataSource unavailable = mock(DataSource.class);
+        when(unavailable.getConnection()).thenThrow(new SQLException("connection refused"));
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        replicas.put("fresh", new DriverManagerDataSource("jdbc:h2:mem:fresh", "sa", ""));
+        replicas.put("unavailable", unavailable);
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(mock(DataSource.class), replicas,
+                Duration.ofMinutes(1), meterRegistry);
+        ReplicaProperties properties = new ReplicaProperties(List.of(), Duration.ofSeconds(5), null,
+                "SELECT 1");
+        ReplicaLagMonitor monitor = new ReplicaLagMonitor(routing, properties, meterRegistry);
+
+        monitor.check();
+
+        assertTrue(routing.isReplicaHealthy("fresh"));
+        assertFalse(routing.isReplicaHealthy("unavailable"));
+        assertEquals(1.0, meterRegistry.get(ReplicaLagMonitor.LAG_METRIC).tag("replica", "fresh").gauge().value());
+
+        ReplicaLagMonitor lagging = new ReplicaLagMonitor(routing, new ReplicaProperties(List.of(),
+                Duration.ofSeconds(5), null, "SELECT 30"), new SimpleMeterRegistry());
+        lagging.check();
+
+        assertFalse(routing.isReplicaHealthy("fresh"));
+    }
+
+    private Object readOnlyLookup(Integer userId) {
+        boolean readOnly = TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+        ReplicaRoutingDataSource.setCurrentUser(userId);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        try {
+            return routingDataSource.determineCurrentLookupKey();
+        } finally {
+            TransactionSynchronizationManager.setCurrentTransactionReadOnly(readOnly);
+        }
+    }
+
+    private double readsCount(String target) {
+        return meterRegistry.get(ReplicaRoutingDataSource.READS_METRIC).tag("target", target).counter().count();
+    }
+}
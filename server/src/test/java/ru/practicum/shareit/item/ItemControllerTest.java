@@ -9,6 +9,7 @@ import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabas
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.transaction.annotation.Transactional;
@@ -19,19 +20,25 @@ import ru.practicum.shareit.comment.dto.CommentDto;
 import ru.practicum.shareit.comment.storage.CommentStorage;
 import ru.practicum.shareit.common.Common;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
 import ru.practicum.shareit.item.storage.ItemStorage;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.storage.UserStorage;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
+import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.startsWith;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @AutoConfigureMockMvc
 @AutoConfigureTestDatabase
+@ActiveProfiles("test")
 @SpringBootTest
 class ItemControllerTest extends BaseControllerHelper {
 
@@ -47,6 +54,8 @@ class ItemControllerTest extends BaseControllerHelper {
     private BookingStorage bookingStorage;
     @Autowired
     private CommentStorage commentStorage;
+    @Autowired
+    private ItemSearchIndex itemSearchIndex;
 
     private int createdOwnerId;
 
@@ -56,6 +65,8 @@ class ItemControllerTest extends BaseControllerHelper {
     @BeforeEach
     @SneakyThrows
     void beforeEach() {
+        //другие тесты чистят вещи напрямую через хранилище, минуя индекс
+        itemSearchIndex.rebuild();
         UserDto ownerDto = createFirstUserDto();
         String result = mockMvc.perform(post("/users")
                         .content(objectMapper.writeValueAsString(ownerDto))
@@ -108,6 +119,32 @@ class ItemControllerTest extends BaseControllerHelper {
                 .andExpect(status().is(404));
     }
 
+    @SneakyThrows
+    @DisplayName("Пакет вещей создается у владельца из заголовка")
+    @Test
+    void shouldCreateItemsBatch() {
+        ItemDto secondItemDto = createSecondItemDto(666);
+
+        mockMvc.perform(post("/items/batch")
+                        .header(Common.USER_HEADER, createdOwnerId)
+                        .content(objectMapper.writeValueAsString(List.of(itemDto, secondItemDto)))
+                        .contentType(MediaType.APPLICATION_JSON)
+                )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].id").isNumber())
+                .andExpect(jsonPath("$[0].name").value(itemDto.getName()))
+                .andExpect(jsonPath("$[0].owner").value(createdOwnerId))
+                .andExpect(jsonPath("$[1].name").value(secondItemDto.getName()))
+                .andExpect(jsonPath("$[1].owner").value(createdOwnerId));
+
+        mockMvc.perform(get("/items/search")
+                        .header(Common.USER_HEADER, createdOwnerId)
+                        .param("text", "вещь"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)));
+    }
+
     @Nested
     @DisplayName("Обновление, поиск, удаление вещи")
     class CrudItemClassTest {
@@ -328,6 +365,39 @@ class ItemControllerTest extends BaseControllerHelper {
                     .andExpect(jsonPath("$[0].available").value(itemDto.getAvailable()));
         }
 
+        @DisplayName("Результаты поиска отдаются постранично")
+        @Test
+        @SneakyThrows
+        void shouldPageItemsFoundByContext() {
+            mockMvc.perform(get("/items/search")
+                            .param("text", "вещ")
+                            .param("from", "1")
+                            .param("limit", "1")
+                            .header(Common.USER_HEADER, createdOwnerId))
+                    .andExpect(status().is(200))
+                    .andExpect(jsonPath("$", hasSize(1)))
+                    .andExpect(jsonPath("$[0].id").value(anotherCreatedItemId));
+        }
+
+        @DisplayName("Отключенная вещь пропадает из поиска")
+        @Test
+        @SneakyThrows
+        void shouldNotFindUnavailableItem() {
+            itemDto.setAvailable(false);
+            mockMvc.perform(patch("/items/" + createdItemId)
+                            .header(Common.USER_HEADER, createdOwnerId)
+                            .content(objectMapper.writeValueAsString(itemDto))
+                            .contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(status().is(200));
+
+            mockMvc.perform(get("/items/search")
+                            .param("text", "вещ")
+                            .header(Common.USER_HEADER, createdOwnerId))
+                    .andExpect(status().is(200))
+                    .andExpect(jsonPath("$", hasSize(1)))
+                    .andExpect(jsonPath("$[0].id").value(anotherCreatedItemId));
+        }
+
         @DisplayName("Поиск вещей с пустым текстом возвращает пустой список")
         @Test
         @SneakyThrows
@@ -374,7 +444,60 @@ class ItemControllerTest extends BaseControllerHelper {
                             .content(objectMapper.writeValueAsString(commentDto))
                             .contentType(MediaType.APPLICATION_JSON))
                     .andExpect(status().isOk())
-                    .andExpect(jsonPath("$.text").value("Норм"));
+                    .andExpect(jsonPath("$.text").value("Норм"))
+                    .andExpect(header().stringValues(Common.CHANGED_HEADER, hasItem("items:" + createdItemId)));
+        }
+
+        @DisplayName("Ответ на изменение вещи сообщает, какая вещь изменилась")
+        @Test
+        @SneakyThrows
+        void shouldReportChangedItem() {
+            itemDto.setDescription("изменено описание");
+
+            mockMvc.perform(patch("/items/" + createdItemId)
+                            .header(Common.USER_HEADER, createdOwnerId)
+                            .content(objectMapper.writeValueAsString(itemDto))
+                            .contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isOk())
+                    .andExpect(header().stringValues(Common.CHANGED_HEADER, "items:" + createdItemId));
+        }
+
+        @DisplayName("Ответ владельцу со следующим бронированием можно хранить только до его начала")
+        @Test
+        @SneakyThrows
+        void shouldLimitCachingUntilNextBooking() {
+            String result = mockMvc.perform(post("/users")
+                            .content(objectMapper.writeValueAsString(createSecondUserDto()))
+                            .contentType(MediaType.APPLICATION_JSON))
+                    .andReturn()
+                    .getResponse()
+                    .getContentAsString();
+            int createdBookerId = JsonPath.read(result, "$.id");
+            InputBookingDto bookingDto = new InputBookingDto();
+            bookingDto.setStart(LocalDateTime.now().plusDays(1));
+            bookingDto.setEnd(LocalDateTime.now().plusDays(2));
+            bookingDto.setItemId(createdItemId);
+            result = mockMvc.perform(post("/bookings")
+                            .header(Common.USER_HEADER, createdBookerId)
+                            .content(objectMapper.writeValueAsString(bookingDto))
+                            .contentType(MediaType.APPLICATION_JSON))
+                    .andReturn()
+                    .getResponse()
+                    .getContentAsString();
+            int createdBookingId = JsonPath.read(result, "$.id");
+            mockMvc.perform(patch("/bookings/" + createdBookingId)
+                            .header(Common.USER_HEADER, createdOwnerId)
+                            .param("approved", "true"))
+                    .andExpect(header().stringValues(Common.CHANGED_HEADER, hasItem("items:" + createdItemId)));
+
+            mockMvc.perform(get("/items/" + createdItemId)
+                            .header(Common.USER_HEADER, createdOwnerId))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string("Cache-Control", startsWith("max-age=")));
+            mockMvc.perform(get("/items/" + createdItemId)
+                            .header(Common.USER_HEADER, createdBookerId))
+                    .andExpect(status().isOk())
+                    .andExpect(header().doesNotExist("Cache-Control"));
         }
 
         private InputBookingDto createInputBooking() {
@@ -0,0 +1,160 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import ru.practicum.shareit.BaseUtility;
+import ru.practicum.shareit.change.model.ChangeLogEntry;
+import ru.practicum.shareit.change.storage.ChangeLogStorage;
+import ru.practicum.shareit.common.change.EntityChangedEvent;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.mapper.SimpleItemMapper;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.item.storage.ItemStorage;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ItemSearchIndexTest extends BaseUtility {
+
+    @Mock
+    private ItemStorage itemStorage;
+
+    @Mock
+    private ChangeLogStorage changeLogStorage;
+
+    @Mock
+    private SimpleItemMapper itemMapper;
+
+    @InjectMocks
+    private ItemSearchIndex itemSearchIndex;
+
+    private ItemDto drill;
+    private ItemDto screwdriver;
+    private ItemDto hiddenDrill;
+
+    @BeforeEach
+    void beforeEach() {
+        drill = createItemDto(1, "Дрель", "Простая дрель", true, 1, null);
+        screwdriver = createItemDto(2, "Отвертка", "Аккумуляторная, работает как дрель", true, 1, null);
+        hiddenDrill = createItemDto(3, "Дрель ударная", "Сейчас в ремонте", false, 1, null);
+        itemSearchIndex.index(screwdriver);
+        itemSearchIndex.index(drill);
+        itemSearchIndex.index(hiddenDrill);
+    }
+
+    @DisplayName("Совпадение в названии ранжируется выше совпадения в описании")
+    @Test
+    void shouldRankNameMatchFirst() {
+        List<ItemDto> result = itemSearchIndex.search("дрель", 0, 10);
+
+        assertEquals(List.of(drill, screwdriver), result);
+    }
+
+    @DisplayName("Короткий запрос ищется по n-грамме напрямую")
+    @Test
+    void shouldFindByShortQuery() {
+        List<ItemDto> result = itemSearchIndex.search("ОТ", 0, 10);
+
+        assertEquals(List.of(screwdriver), result);
+    }
+
+    @DisplayName("Результаты поиска отдаются постранично")
+    @Test
+    void shouldPageResults() {
+        assertEquals(List.of(screwdriver), itemSearchIndex.search("дрель", 1, 1));
+        assertTrue(itemSearchIndex.search("дрель", 2, 1).isEmpty());
+    }
+
+    @DisplayName("После обновления вещь ищется по новому тексту и не ищется по старому")
+    @Test
+    void shouldReindexUpdatedItem() {
+        itemSearchIndex.index(createItemDto(1, "Перфоратор", "Мощный", true, 1, null));
+
+        assertEquals(List.of(screwdriver), itemSearchIndex.search("дрель", 0, 10));
+        assertEquals(1, itemSearchIndex.search("перфоратор", 0, 10).size());
+    }
+
+    @DisplayName("Индекс строится из хранилища и не затирает более свежие изменения")
+    @Test
+    void shouldRebuildFromStorage() {
+        User owner = createUser(1, "Андрей", "some@mail.ru");
+        Item item = createItem(4, "Стремянка", "Высокая", true, owner, null);
+        ItemDto itemDto = createItemDto(4, "Стремянка", "Высокая", true, 1, null);
+        when(itemStorage.findAllByIdGreaterThanOrderById(anyInt(), any(Limit.class))).thenReturn(List.of(item));
+        when(itemMapper.itemToDto(item)).thenReturn(itemDto);
+
+        itemSearchIndex.rebuild();
+
+        assertEquals(List.of(itemDto), itemSearchIndex.search("стрем", 0, 10));
+        assertTrue(itemSearchIndex.search("дрель", 0, 10).isEmpty());
+    }
+
+    @DisplayName("Во время построения поиск отвечает по прежнему индексу, а изменения не теряются")
+    @Test
+    void shouldSearchPreviousIndexWhileRebuilding() {
+        User owner = createUser(1, "Андрей", "some@mail.ru");
+        Item item = createItem(4, "Стремянка", "Высокая", true, owner, null);
+        ItemDto itemDto = createItemDto(4, "Стремянка", "Высокая", true, 1, null);
+        ItemDto ladder = createItemDto(5, "Лестница", "Складная", true, 1, null);
+        when(itemStorage.findAllByIdGreaterThanOrderById(anyInt(), any(Limit.class))).thenAnswer(invocation -> {
+            assertEquals(List.of(drill, screwdriver), itemSearchIndex.search("дрель", 0, 10));
+            itemSearchIndex.index(ladder);
+            return List.of(item);
+        });
+        when(itemMapper.itemToDto(item)).thenReturn(itemDto);
+
+        itemSearchIndex.rebuild();
+
+        assertEquals(List.of(itemDto), itemSearchIndex.search("стрем", 0, 10));
+        assertEquals(List.of(ladder), itemSearchIndex.search("лестн", 0, 10));
+        assertTrue(itemSearchIndex.search("дрель", 0, 10).isEmpty());
+    }
+
+    @DisplayName("Вещи, измененные на других экземплярах, переиндексируются из журнала изменений")
+    @Test
+    void shouldSyncItemsFromChangeLog() {
+        User owner = createUser(1, "Андрей", "some@mail.ru");
+        Item item = createItem(1, "Перфоратор", "Мощный", true, owner, null);
+        ItemDto itemDto = createItemDto(1, "Перфоратор", "Мощный", true, 1, null);
+        LocalDateTime now = LocalDateTime.now();
+        when(changeLogStorage.getPosition()).thenReturn(10L);
+        when(itemStorage.findAllByIdGreaterThanOrderById(anyInt(), any(Limit.class))).thenReturn(List.of());
+        when(changeLogStorage.findAllByIdGreaterThanOrderById(eq(10L), any(Limit.class))).thenReturn(List.of(
+                new ChangeLogEntry(11L, 1, EntityChangedEvent.ITEMS, 1, now),
+                new ChangeLogEntry(12L, 2, EntityChangedEvent.BOOKINGS, 7, now),
+                new ChangeLogEntry(13L, 1, EntityChangedEvent.ITEMS, 1, now)));
+        when(changeLogStorage.findAllByIdGreaterThanOrderById(eq(13L), any(Limit.class))).thenReturn(List.of());
+        when(itemStorage.findAllByIdIn(Set.of(1))).thenReturn(List.of(item));
+        when(itemMapper.itemToDto(item)).thenReturn(itemDto);
+        //до построения индекса позиция журнала неизвестна
+        itemSearchIndex.sync();
+        itemSearchIndex.rebuild();
+
+        itemSearchIndex.sync();
+        itemSearchIndex.sync();
+
+        assertEquals(List.of(itemDto), itemSearchIndex.search("перфоратор", 0, 10));
+        verify(itemStorage, times(1)).findAllByIdIn(Set.of(1));
+        verify(changeLogStorage, times(1)).findAllByIdGreaterThanOrderById(eq(10L), any(Limit.class));
+        verify(changeLogStorage, times(1)).findAllByIdGreaterThanOrderById(eq(13L), any(Limit.class));
+    }
+}
@@ -0,0 +1,85 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.shareit.BaseUtility;
+import ru.practicum.shareit.common.Common;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.item.storage.ItemStorage;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+import ru.practicum.shareit.user.storage.UserStorage;
+
+import java.util.Objects;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@AutoConfigureTestDatabase
+@ActiveProfiles("test")
+@SpringBootTest
+class ItemServiceCacheTest extends BaseUtility {
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private UserStorage userStorage;
+    @Autowired
+    private CacheManager cacheManager;
+    @SpyBean
+    private ItemStorage itemStorage;
+
+    private Integer ownerId;
+    private Integer itemId;
+
+    @BeforeEach
+    void beforeEach() {
+        UserDto userDto = new UserDto();
+        userDto.setName("Андрей");
+        userDto.setEmail("item-cache@mail.ru");
+        ownerId = userService.createUser(userDto).getId();
+        itemId = itemService.createItem(createItemDto(null, "Дрель", "Простая дрель", true, ownerId, null)).getId();
+    }
+
+    @AfterEach
+    void afterEach() {
+        itemStorage.deleteAll();
+        userStorage.deleteAll();
+        Objects.requireNonNull(cacheManager.getCache(Common.ITEMS_CACHE)).clear();
+        Objects.requireNonNull(cacheManager.getCache(Common.USERS_CACHE)).clear();
+    }
+
+    @DisplayName("Вещь для GET /items/{id} повторно читается из кэша, а не из базы")
+    @Test
+    void shouldReadItemDtoFromCache() {
+        itemService.getItemDtoById(itemId, ownerId);
+        itemService.getItemDtoById(itemId, ownerId);
+
+        verify(itemStorage, times(1)).findById(itemId);
+    }
+
+    @DisplayName("Правка вещи читает ее из базы и сбрасывает кэш")
+    @Test
+    void shouldEvictItemOnUpdate() {
+        itemService.getItemDtoById(itemId, ownerId);
+        itemService.updateItem(ItemDto.builder()
+                .id(itemId)
+                .name("Перфоратор")
+                .owner(ownerId)
+                .build());
+
+        assertEquals("Перфоратор", itemService.getItemDtoById(itemId, ownerId).getName());
+        verify(itemStorage, times(3)).findById(itemId);
+    }
+}
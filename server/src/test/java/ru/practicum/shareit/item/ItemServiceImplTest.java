@@ -6,20 +6,27 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import ru.practicum.shareit.BaseUtility;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.model.LastAndNextBookings;
-import ru.practicum.shareit.booking.storage.BookingStorage;
+import ru.practicum.shareit.booking.service.LastAndNextBookingsService;
 import ru.practicum.shareit.comment.storage.CommentStorage;
+import ru.practicum.shareit.common.ParallelReads;
 import ru.practicum.shareit.exceptions.CustomValidationException;
 import ru.practicum.shareit.exceptions.ResourceNotFoundException;
 import ru.practicum.shareit.exceptions.RightsException;
+import ru.practicum.shareit.exceptions.ValidationException;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemOutDtoWithDates;
 import ru.practicum.shareit.item.mapper.SimpleItemMapper;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemSnapshot;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.item.service.ItemLookup;
 import ru.practicum.shareit.item.service.ItemServiceImpl;
 import ru.practicum.shareit.item.storage.ItemStorage;
 import ru.practicum.shareit.request.service.ItemRequestService;
@@ -29,6 +36,7 @@ import ru.practicum.shareit.user.service.UserService;
 import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -42,11 +50,14 @@ class ItemServiceImplTest extends BaseUtility {
     @Mock
     private ItemStorage itemStorage;
 
+    @Mock
+    private ItemLookup itemLookup;
+
     @Mock
     private UserService userService;
 
     @Mock
-    private BookingStorage bookingStorage;
+    private LastAndNextBookingsService lastAndNextBookingsService;
 
     @Mock
     private CommentStorage commentStorage;
@@ -57,6 +68,15 @@ class ItemServiceImplTest extends BaseUtility {
     @Mock
     private SimpleItemMapper itemMapper;
 
+    @Mock
+    private ItemSearchIndex itemSearchIndex;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Spy
+    private ParallelReads parallelReads = new ParallelReads(null, null);
+
     @InjectMocks
     private ItemServiceImpl itemService;
 
@@ -74,7 +94,6 @@ class ItemServiceImplTest extends BaseUtility {
     @DisplayName("Item успешно создается")
     @Test
     void shouldCreateItem() {
-        when(userService.getUserById(anyInt())).thenReturn(owner);
         when(itemStorage.save(any(Item.class))).thenReturn(item);
         when(itemMapper.dtoToItem(itemDto, itemRequestService)).thenReturn(item);
         when(itemMapper.itemToDto(item)).thenReturn(itemDto);
@@ -101,9 +120,11 @@ class ItemServiceImplTest extends BaseUtility {
     @DisplayName("Нельзя создать item для несуществующего пользователя")
     @Test
     void shouldNotCreateItem_WithNotFoundUser() {
-        when(userService.getUserById(itemDto.getOwner())).thenThrow(new ResourceNotFoundException("Нет такого пользователя"));
+        when(itemMapper.dtoToItem(itemDto, itemRequestService))
+                .thenThrow(new ResourceNotFoundException("Нет такого пользователя"));
 
         assertThrows(ResourceNotFoundException.class, () -> itemService.createItem(itemDto));
+        verify(userService, never()).getUserById(anyInt());
         verify(itemStorage, never()).save(any(Item.class));
     }
 
@@ -166,7 +187,7 @@ class ItemServiceImplTest extends BaseUtility {
     @Test
     void shouldReturnItemIfExists() {
         item.setId(1);
-        when(itemStorage.findById(anyInt())).thenReturn(Optional.of(item));
+        when(itemLookup.getItem(anyInt())).thenReturn(ItemSnapshot.of(item));
 
         Item result = itemService.getItemById(item.getId());
 
@@ -179,7 +200,7 @@ class ItemServiceImplTest extends BaseUtility {
     void shouldNotReturnItemIfNotExists() {
         item.setId(666);
 
-        when(itemStorage.findById(666)).thenThrow(new ResourceNotFoundException(""));
+        when(itemLookup.getItem(666)).thenThrow(new ResourceNotFoundException(""));
 
 
         assertThrows(ResourceNotFoundException.class, () -> itemService.getItemById(item.getId()),
@@ -204,10 +225,9 @@ class ItemServiceImplTest extends BaseUtility {
         twoBookings.setNextBooking(nextBooking);
         ItemOutDtoWithDates expectedDto = createItemDtoWithDates(1, item, lastBooking, nextBooking);
 
-        when(itemStorage.findById(item.getId())).thenReturn(Optional.of(item));
-        when(bookingStorage.getBookingsByItemOwner(item.getId(), item.getOwner().getId()))
-                .thenReturn(List.of(lastBooking, nextBooking));
-        when(commentStorage.findAllByItemInOrderByCreatedDesc(anyList())).thenReturn(Collections.emptyList());
+        when(itemLookup.getItem(item.getId())).thenReturn(ItemSnapshot.of(item));
+        when(lastAndNextBookingsService.getByItemId(item.getId())).thenReturn(twoBookings);
+        when(commentStorage.findAllByItemIdInOrderByCreatedDesc(anyList())).thenReturn(Collections.emptyList());
         when(itemMapper.toItemOutDtoWithDate(item, twoBookings, Collections.emptyList())).thenReturn(expectedDto);
 
         ItemOutDtoWithDates result = itemService.getItemDtoById(item.getId(), item.getOwner().getId());
@@ -228,10 +248,9 @@ class ItemServiceImplTest extends BaseUtility {
         twoBookings.setLastBooking(lastBooking);
         ItemOutDtoWithDates expectedDto = createItemDtoWithDates(1, item, lastBooking, null);
 
-        when(itemStorage.findById(item.getId())).thenReturn(Optional.of(item));
-        when(bookingStorage.getBookingsByItemOwner(item.getId(), item.getOwner().getId()))
-                .thenReturn(List.of(lastBooking));
-        when(commentStorage.findAllByItemInOrderByCreatedDesc(anyList())).thenReturn(Collections.emptyList());
+        when(itemLookup.getItem(item.getId())).thenReturn(ItemSnapshot.of(item));
+        when(lastAndNextBookingsService.getByItemId(item.getId())).thenReturn(twoBookings);
+        when(commentStorage.findAllByItemIdInOrderByCreatedDesc(anyList())).thenReturn(Collections.emptyList());
         when(itemMapper.toItemOutDtoWithDate(item, twoBookings, Collections.emptyList())).thenReturn(expectedDto);
 
         ItemOutDtoWithDates result = itemService.getItemDtoById(item.getId(), item.getOwner().getId());
@@ -247,10 +266,9 @@ class ItemServiceImplTest extends BaseUtility {
         LastAndNextBookings twoBookings = new LastAndNextBookings();
         ItemOutDtoWithDates expectedDto = createItemDtoWithDates(1, item, null, null);
 
-        when(itemStorage.findById(item.getId())).thenReturn(Optional.of(item));
-        when(bookingStorage.getBookingsByItemOwner(item.getId(), item.getOwner().getId()))
-                .thenReturn(Collections.emptyList());
-        when(commentStorage.findAllByItemInOrderByCreatedDesc(anyList())).thenReturn(Collections.emptyList());
+        when(itemLookup.getItem(item.getId())).thenReturn(ItemSnapshot.of(item));
+        when(lastAndNextBookingsService.getByItemId(item.getId())).thenReturn(twoBookings);
+        when(commentStorage.findAllByItemIdInOrderByCreatedDesc(anyList())).thenReturn(Collections.emptyList());
         when(itemMapper.toItemOutDtoWithDate(item, twoBookings, Collections.emptyList())).thenReturn(expectedDto);
 
         ItemOutDtoWithDates result = itemService.getItemDtoById(item.getId(), item.getOwner().getId());
@@ -259,6 +277,22 @@ class ItemServiceImplTest extends BaseUtility {
         assertEquals(expectedDto, result);
     }
 
+    @DisplayName("Не владельцу даты бронирований вещи не показываются")
+    @Test
+    void getItemDtoById_notOwner() {
+        item.setId(1);
+        ItemOutDtoWithDates expectedDto = createItemDtoWithDates(1, item, null, null);
+
+        when(itemLookup.getItem(item.getId())).thenReturn(ItemSnapshot.of(item));
+        when(commentStorage.findAllByItemIdInOrderByCreatedDesc(anyList())).thenReturn(Collections.emptyList());
+        when(itemMapper.toItemOutDtoWithDate(eq(item), any(LastAndNextBookings.class), anyList())).thenReturn(expectedDto);
+
+        ItemOutDtoWithDates result = itemService.getItemDtoById(item.getId(), 666);
+
+        assertEquals(expectedDto, result);
+        verify(lastAndNextBookingsService, never()).getByItemId(anyInt());
+    }
+
     @DisplayName("Если Item не найден, то выбрасывается исключение")
     @Test
     void getItemDtoByIdWhenItemNotFound() {
@@ -266,7 +300,7 @@ class ItemServiceImplTest extends BaseUtility {
         LastAndNextBookings twoBookings = new LastAndNextBookings();
         ItemOutDtoWithDates expectedDto = createItemDtoWithDates(1, item, null, null);
 
-        when(itemStorage.findById(item.getId())).thenThrow(new ResourceNotFoundException("Не найден"));
+        when(itemLookup.getItem(item.getId())).thenThrow(new ResourceNotFoundException("Не найден"));
 
         assertThrows(ResourceNotFoundException.class, () -> itemService.getItemDtoById(item.getId(), item.getOwner().getId()),
                 "не выбрасывается исключение ResourceNotFoundException");
@@ -275,39 +309,47 @@ class ItemServiceImplTest extends BaseUtility {
     @DisplayName("Поиск вещей по контексту")
     @Test
     void getItemsByContext() {
-        List<Item> foundItems = List.of(item);
         List<ItemDto> expectedDtos = List.of(itemDto);
-        String context = "НОСОК";
+        String context = "носок";
 
-        when(itemStorage.contextSearch(context)).thenReturn(foundItems);
-        when(itemMapper.itemToDto(item)).thenReturn(itemDto);
+        when(itemSearchIndex.search(context, 0, 10)).thenReturn(expectedDtos);
 
-        List<ItemDto> result = itemService.getItemsByContext(context);
+        List<ItemDto> result = itemService.getItemsByContext(context, 0, 10);
 
         assertNotNull(result);
         assertFalse(result.isEmpty());
         assertEquals(expectedDtos.size(), result.size());
-        verify(itemStorage, times(1)).contextSearch(context);
+        verify(itemSearchIndex, times(1)).search(context, 0, 10);
+    }
+
+    @DisplayName("Поиск вещей с некорректными параметрами страницы")
+    @Test
+    void getItemsByContext_WithIncorrectPage() {
+        assertThrows(ValidationException.class, () -> itemService.getItemsByContext("носок", -1, 10),
+                "не выбрасывается исключение ValidationException");
+        assertThrows(ValidationException.class, () -> itemService.getItemsByContext("носок", 0, 0),
+                "не выбрасывается исключение ValidationException");
+        verify(itemSearchIndex, never()).search(anyString(), anyInt(), anyInt());
     }
 
     @DisplayName("Поиск вещей по пустому контексту возвращает пустой список")
     @Test
     void getItemsByContext_WithEmptyText() {
-        List<ItemDto> result = itemService.getItemsByContext("");
+        List<ItemDto> result = itemService.getItemsByContext("", 0, 10);
 
         assertNotNull(result);
         assertTrue(result.isEmpty());
-        verify(itemStorage, never()).contextSearch(anyString());
+        verify(itemSearchIndex, never()).search(anyString(), anyInt(), anyInt());
     }
 
     @DisplayName("Поиск вещей по контекту с одними пробелам")
     @Test
     void getItemsByContext_WithBlancText() {
-        List<ItemDto> result = itemService.getItemsByContext("    ");
+        List<ItemDto> result = itemService.getItemsByContext("    ", 0, 10);
 
         assertNotNull(result);
         assertTrue(result.isEmpty());
-        verify(itemStorage, never()).contextSearch(anyString());
+        verify(itemSearchIndex, never()).search(anyString(), anyInt(), anyInt());
     }
 
     @DisplayName("Возвращает список вещей с законченными бронированиями")
@@ -340,23 +382,23 @@ class ItemServiceImplTest extends BaseUtility {
         LastAndNextBookings twoBookings = new LastAndNextBookings();
         twoBookings.setLastBooking(lastBooking);
         twoBookings.setNextBooking(nextBooking);
-        List<Booking> approvedBookings = List.of(lastBooking, nextBooking);
         ItemOutDtoWithDates expectedDto = createItemDtoWithDates(1, item, lastBooking, nextBooking);
         List<Item> itemList = List.of(item);
 
 
         when(userService.getUserById(owner.getId())).thenReturn(owner);
         when(itemStorage.findAllByOwner(owner)).thenReturn(itemList);
-        when(bookingStorage.findAllByItemInAndStatusOrderByStart(anyList(), eq(BookingStatus.APPROVED))).thenReturn(approvedBookings);
+        when(lastAndNextBookingsService.getByItemIds(List.of(item.getId())))
+                .thenReturn(Map.of(item.getId(), twoBookings));
         when(commentStorage.findAllByItemInOrderByCreatedDesc(anyList())).thenReturn(Collections.emptyList());
 
-        when(itemMapper.toItemOutDtoWithDate(any(Item.class), any(LastAndNextBookings.class), anyList())).thenReturn(expectedDto);
+        when(itemMapper.toItemOutDtoWithDate(item, twoBookings, Collections.emptyList())).thenReturn(expectedDto);
 
         List<ItemOutDtoWithDates> result = itemService.getUsersItems(owner.getId());
 
         assertNotNull(result);
         assertEquals(1, result.size());
-        verify(bookingStorage, times(1)).findAllByItemInAndStatusOrderByStart(anyList(), any());
+        verify(lastAndNextBookingsService, times(1)).getByItemIds(anyList());
         verify(commentStorage, times(1)).findAllByItemInOrderByCreatedDesc(anyList());
     }
 
@@ -364,23 +406,24 @@ class ItemServiceImplTest extends BaseUtility {
     @Test
     void shouldReturnItemsWhenBookingsNotExist_GetUsersItems() {
         item.setId(1);
-        List<Booking> approvedBookings = Collections.emptyList();
+        LastAndNextBookings twoBookings = new LastAndNextBookings(item.getId());
         ItemOutDtoWithDates expectedDto = createItemDtoWithDates(1, item, null, null);
         List<Item> itemList = List.of(item);
 
 
         when(userService.getUserById(owner.getId())).thenReturn(owner);
         when(itemStorage.findAllByOwner(owner)).thenReturn(itemList);
-        when(bookingStorage.findAllByItemInAndStatusOrderByStart(anyList(), eq(BookingStatus.APPROVED))).thenReturn(approvedBookings);
+        when(lastAndNextBookingsService.getByItemIds(List.of(item.getId())))
+                .thenReturn(Map.of(item.getId(), twoBookings));
         when(commentStorage.findAllByItemInOrderByCreatedDesc(anyList())).thenReturn(Collections.emptyList());
 
-        when(itemMapper.toItemOutDtoWithDate(any(Item.class), any(LastAndNextBookings.class), anyList())).thenReturn(expectedDto);
+        when(itemMapper.toItemOutDtoWithDate(item, twoBookings, Collections.emptyList())).thenReturn(expectedDto);
 
         List<ItemOutDtoWithDates> result = itemService.getUsersItems(owner.getId());
 
         assertNotNull(result);
         assertEquals(1, result.size());
-        verify(bookingStorage, times(1)).findAllByItemInAndStatusOrderByStart(anyList(), any());
+        verify(lastAndNextBookingsService, times(1)).getByItemIds(anyList());
         verify(commentStorage, times(1)).findAllByItemInOrderByCreatedDesc(anyList());
     }
 
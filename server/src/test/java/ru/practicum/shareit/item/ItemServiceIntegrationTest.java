@@ -5,44 +5,60 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.context.annotation.Import;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.context.ActiveProfiles;
 import ru.practicum.shareit.booking.mapper.SimpleBookingMapperImpl;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.service.LastAndNextBookingsService;
+import ru.practicum.shareit.booking.service.LastAndNextBookingsServiceImpl;
 import ru.practicum.shareit.booking.storage.BookingStorage;
 import ru.practicum.shareit.comment.mapper.SimpleCommentMapperImpl;
 import ru.practicum.shareit.comment.storage.CommentStorage;
+import ru.practicum.shareit.common.ParallelReadsConfig;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemOutDtoWithDates;
 import ru.practicum.shareit.item.mapper.SimpleItemMapperImpl;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
 import ru.practicum.shareit.item.service.ItemServiceImpl;
+import ru.practicum.shareit.item.service.ItemLookup;
 import ru.practicum.shareit.item.storage.ItemStorage;
 import ru.practicum.shareit.request.mapper.SimpleItemRequestMapper;
 import ru.practicum.shareit.request.mapper.SimpleItemRequestMapperImpl;
 import ru.practicum.shareit.request.service.ItemRequestServiceImpl;
+import ru.practicum.shareit.request.service.ItemRequestLookup;
 import ru.practicum.shareit.user.mapper.SimpleUserMapperImpl;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.UserServiceImpl;
+import ru.practicum.shareit.user.service.UserLookup;
 import ru.practicum.shareit.user.storage.UserStorage;
 
 import java.time.LocalDateTime;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 @DataJpaTest
 @ActiveProfiles("test")
 @Import({
         ItemServiceImpl.class,
+        ItemLookup.class,
+        ItemSearchIndex.class,
+        LastAndNextBookingsServiceImpl.class,
         UserServiceImpl.class,
+        UserLookup.class,
         SimpleItemMapperImpl.class,
         SimpleBookingMapperImpl.class,
         SimpleCommentMapperImpl.class,
         SimpleUserMapperImpl.class,
         ItemRequestServiceImpl.class,
-        SimpleItemRequestMapperImpl.class
+        ItemRequestLookup.class,
+        SimpleItemRequestMapperImpl.class,
+        ParallelReadsConfig.class
 })
 public class ItemServiceIntegrationTest {
     @Autowired
@@ -61,6 +77,10 @@ public class ItemServiceIntegrationTest {
     private ItemRequestServiceImpl itemRequestService;
     @Autowired
     private SimpleItemRequestMapper itemRequestMapper;
+    @Autowired
+    private LastAndNextBookingsService lastAndNextBookingsService;
+    @Autowired
+    private TestEntityManager entityManager;
 
     private User owner;
     private User booker;
@@ -112,6 +132,8 @@ public class ItemServiceIntegrationTest {
                 booker);
         bookingStorage.save(pastBooking);
         bookingStorage.save(futureBooking);
+        //бронирования сохранены в обход BookingService, поэтому пересчитываем их сами
+        lastAndNextBookingsService.refresh(itemId);
 
         ItemOutDtoWithDates result = itemService.getItemDtoById(itemId, owner.getId());
 
@@ -122,6 +144,27 @@ public class ItemServiceIntegrationTest {
         assertEquals(futureBooking.getId(), result.getNextBooking().getId());
     }
 
+    @DisplayName("Вещь, прочитанная до чужой правки, не сохраняется поверх нее")
+    @Test
+    void shouldNotOverwriteConcurrentUpdate() {
+        Integer itemId = itemService.createItem(itemDto).getId();
+        itemStorage.flush();
+        Item staleItem = itemStorage.findById(itemId).get();
+        entityManager.detach(staleItem);
+
+        ItemDto update = ItemDto.builder()
+                .id(itemId)
+                .name("Новый холодильник")
+                .owner(owner.getId())
+                .build();
+        itemService.updateItem(update);
+        itemStorage.flush();
+        staleItem.setDescription("Старый холодильник");
+
+        assertEquals(staleItem.getVersion() + 1, itemStorage.findById(itemId).get().getVersion());
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> itemStorage.saveAndFlush(staleItem));
+    }
+
     private Booking createBooking(Item item, LocalDateTime start, LocalDateTime end, User booker) {
         Booking booking = new Booking();
         booking.setStart(start);
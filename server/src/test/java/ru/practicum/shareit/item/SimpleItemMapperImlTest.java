@@ -6,6 +6,7 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemShortOutDto;
@@ -18,6 +19,7 @@ import ru.practicum.shareit.user.storage.UserStorage;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 
+@ActiveProfiles("test")
 @SpringBootTest
 public class SimpleItemMapperImlTest {
     @Autowired
@@ -78,7 +80,11 @@ public class SimpleItemMapperImlTest {
     @DisplayName("Корректно конвертирует DTO в Item")
     @Transactional
     void shouldConvertDtoToItem() {
-        userStorage.save(owner);
+        //новый пользователь сохраняется без Id, Id выдает последовательность
+        owner.setId(null);
+        owner = userStorage.save(owner);
+        item.setOwner(owner);
+        itemDto.setOwner(owner.getId());
         Item actualItem = itemMapper.dtoToItem(itemDto, itemRequestService);
         Item expectedItem = item;
 
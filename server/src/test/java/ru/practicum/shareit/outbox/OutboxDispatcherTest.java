@@ -0,0 +1,165 @@
+package ru.practicum.shareit.outbox;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.common.change.EntityChangedEvent;
+import ru.practicum.shareit.outbox.model.OutboxMessage;
+import ru.practicum.shareit.outbox.service.OutboxDispatcher;
+import ru.practicum.shareit.outbox.service.OutboxHandler;
+import ru.practicum.shareit.outbox.storage.OutboxStorage;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+//транзакции настоящие: захват строк проверяется двумя транзакциями одновременно
+@DataJpaTest
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OutboxDispatcherTest {
+    @Autowired
+    private OutboxStorage outboxStorage;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<List<EntityChangedEvent>> handled = new CopyOnWriteArrayList<>();
+
+    @AfterEach
+    void afterEach() {
+        outboxStorage.deleteAll();
+    }
+
+    @DisplayName("Outbox обрабатывается пакетами до конца, обработанные строки удаляются, повторы внутри пакета схлопываются")
+    @Test
+    void shouldDispatchInBatches() {
+        write(1, 2, 2, 3, 4);
+
+        int dispatched = dispatcher(2, handled::add).dispatchAll();
+
+        assertEquals(5, dispatched);
+        assertEquals(List.of(List.of(event(1), event(2)), List.of(event(2), event(3)), List.of(event(4))), handled);
+        assertEquals(0, outboxStorage.count());
+    }
+
+    @DisplayName("Ошибка обработчика откладывает строки пакета: они обрабатываются снова после задержки")
+    @Test
+    void shouldRetryBatchWhenHandlerFails() {
+        write(1, 2);
+        OutboxDispatcher failing = dispatcher(10, events -> {
+            throw new IllegalStateException("обработчик недоступен");
+        });
+
+        assertEquals(0, failing.dispatchAll());
+
+        assertEquals(2, outboxStorage.count());
+        outboxStorage.findAll().forEach(message -> assertEquals(1, message.getAttempts()));
+        assertEquals(3.0, meterRegistry.get("shareit.outbox.failures").counter().count());
+        assertEquals(2, dispatcher(10, handled::add).dispatchAll());
+        assertEquals(0, outboxStorage.count());
+    }
+
+    @DisplayName("Изменение, на котором падает обработчик, не держит остальные изменения пакета")
+    @Test
+    void shouldDispatchOthersWhenOneChangeFails() {
+        write(1, 2, 3);
+        OutboxHandler failingOnSecond = events -> {
+            if (events.contains(event(2))) {
+                throw new IllegalStateException("нарушено ограничение");
+            }
+            handled.add(events);
+        };
+
+        int dispatched = dispatcher(10, failingOnSecond, 10, Duration.ofHours(1)).dispatchAll();
+
+        assertEquals(2, dispatched);
+        assertEquals(List.of(List.of(event(1)), List.of(event(3))), handled);
+        OutboxMessage postponed = outboxStorage.findAll().getFirst();
+        assertEquals(2, postponed.getEntityId());
+        assertTrue(postponed.getNextAttempt().isAfter(LocalDateTime.now()));
+        assertEquals(0, dispatcher(10, handled::add, 10, Duration.ofHours(1)).dispatchAll());
+    }
+
+    @DisplayName("После исчерпания попыток изменение паркуется и больше не захватывается")
+    @Test
+    void shouldParkChangeAfterMaxAttempts() {
+        write(1);
+        OutboxDispatcher failing = dispatcher(10, events -> {
+            throw new IllegalStateException("нарушено ограничение");
+        }, 2, Duration.ZERO);
+
+        failing.dispatchAll();
+        failing.dispatchAll();
+
+        assertTrue(outboxStorage.findAll().getFirst().isParked());
+        assertEquals(1.0, meterRegistry.get("shareit.outbox.parked").counter().count());
+        assertEquals(0, dispatcher(10, handled::add).dispatchAll());
+    }
+
+    @DisplayName("Строки, захваченные другим узлом, пропускаются без ожидания")
+    @Test
+    void shouldSkipRowsClaimedByAnotherNode() throws Exception {
+        write(1, 2, 3, 4);
+        CountDownLatch claimed = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> otherNode = CompletableFuture.runAsync(() ->
+                new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                    outboxStorage.claimBatch(2, LocalDateTime.now());
+                    claimed.countDown();
+                    await(release);
+                }));
+        await(claimed);
+
+        int dispatched = dispatcher(10, handled::add).dispatchAll();
+        release.countDown();
+        otherNode.get(5, TimeUnit.SECONDS);
+
+        assertEquals(2, dispatched);
+        assertEquals(List.of(List.of(event(3), event(4))), handled);
+        assertEquals(2, outboxStorage.count());
+    }
+
+    private OutboxDispatcher dispatcher(int batchSize, OutboxHandler handler) {
+        return dispatcher(batchSize, handler, 10, Duration.ZERO);
+    }
+
+    private OutboxDispatcher dispatcher(int batchSize, OutboxHandler handler, int maxAttempts, Duration retryDelay) {
+        return new OutboxDispatcher(outboxStorage, List.of(handler), transactionManager, meterRegistry, batchSize,
+                maxAttempts, retryDelay);
+    }
+
+    private void write(int... itemIds) {
+        outboxStorage.saveAll(IntStream.of(itemIds)
+                .mapToObj(id -> new OutboxMessage(EntityChangedEvent.ITEMS, id, LocalDateTime.now()))
+                .toList());
+    }
+
+    private static EntityChangedEvent event(int itemId) {
+        return new EntityChangedEvent(EntityChangedEvent.ITEMS, itemId);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
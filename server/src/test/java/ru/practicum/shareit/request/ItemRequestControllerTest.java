@@ -9,10 +9,12 @@ import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabas
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.common.Common;
+import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.storage.ItemStorage;
 import ru.practicum.shareit.request.dto.ItemRequestInDto;
 import ru.practicum.shareit.request.storage.ItemRequestStorage;
@@ -22,11 +24,13 @@ import ru.practicum.shareit.user.storage.UserStorage;
 import static org.hamcrest.Matchers.hasSize;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @AutoConfigureMockMvc
 @AutoConfigureTestDatabase
+@ActiveProfiles("test")
 @SpringBootTest
 public class ItemRequestControllerTest {
     @Autowired
@@ -47,7 +51,6 @@ public class ItemRequestControllerTest {
     @BeforeEach
     void beforeEach() {
         user = new User();
-        user.setId(1);
         user.setName("name");
         user.setEmail("some@mail.ru");
         user = userStorage.save(user);
@@ -131,6 +134,73 @@ public class ItemRequestControllerTest {
                     .andExpect(jsonPath("$[1].id").value(createdRequestId));
         }
 
+        @DisplayName("Лента чужих запросов не содержит запросов самого пользователя")
+        @Test
+        @SneakyThrows
+        void shouldNotReturnOwnRequestsInFeed() {
+            mockMvc.perform(get("/requests/all")
+                            .header(Common.USER_HEADER, user.getId()))
+                    .andExpect(status().is(200))
+                    .andExpect(jsonPath("$", hasSize(0)))
+                    .andExpect(header().doesNotExist(Common.NEXT_CURSOR_HEADER));
+        }
+
+        @DisplayName("Лента чужих запросов без limit отдается целиком, от новых запросов к старым")
+        @Test
+        @SneakyThrows
+        void shouldReturnWholeFeedNewestFirst() {
+            User other = new User();
+            other.setName("other");
+            other.setEmail("other@mail.ru");
+            other = userStorage.save(other);
+
+            mockMvc.perform(get("/requests/all")
+                            .header(Common.USER_HEADER, other.getId()))
+                    .andExpect(status().is(200))
+                    .andExpect(jsonPath("$", hasSize(2)))
+                    .andExpect(jsonPath("$[0].id").value(anotherRequestId))
+                    .andExpect(jsonPath("$[1].id").value(createdRequestId))
+                    .andExpect(header().doesNotExist(Common.NEXT_CURSOR_HEADER));
+        }
+
+        @DisplayName("Лента чужих запросов отдается страницами, ответы привязаны к своим запросам")
+        @Test
+        @SneakyThrows
+        void shouldReturnOtherUsersRequestsByPages() {
+            User other = new User();
+            other.setName("other");
+            other.setEmail("other@mail.ru");
+            other = userStorage.save(other);
+            Item item = new Item();
+            item.setName("Велосипед");
+            item.setDescription("Почти новый");
+            item.setAvailable(true);
+            item.setOwner(other);
+            item.setRequest(itemRequestStorage.findById(createdRequestId).orElseThrow());
+            item = itemStorage.save(item);
+
+            MvcResult firstPage = mockMvc.perform(get("/requests/all")
+                            .header(Common.USER_HEADER, other.getId())
+                            .param("limit", "1"))
+                    .andExpect(status().is(200))
+                    .andExpect(jsonPath("$", hasSize(1)))
+                    .andExpect(jsonPath("$[0].id").value(anotherRequestId))
+                    .andExpect(jsonPath("$[0].items", hasSize(0)))
+                    .andExpect(header().exists(Common.NEXT_CURSOR_HEADER))
+                    .andReturn();
+
+            mockMvc.perform(get("/requests/all")
+                            .header(Common.USER_HEADER, other.getId())
+                            .param("limit", "1")
+                            .param("after", firstPage.getResponse().getHeader(Common.NEXT_CURSOR_HEADER)))
+                    .andExpect(status().is(200))
+                    .andExpect(jsonPath("$", hasSize(1)))
+                    .andExpect(jsonPath("$[0].id").value(createdRequestId))
+                    .andExpect(jsonPath("$[0].items", hasSize(1)))
+                    .andExpect(jsonPath("$[0].items[0].id").value(item.getId()))
+                    .andExpect(header().doesNotExist(Common.NEXT_CURSOR_HEADER));
+        }
+
         @DisplayName("Возвращает ошибку для левого пользователя")
         @Test
         @SneakyThrows
@@ -7,16 +7,23 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.domain.Sort;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import ru.practicum.shareit.BaseUtility;
+import ru.practicum.shareit.common.Common;
+import ru.practicum.shareit.common.KeysetCursor;
 import ru.practicum.shareit.exceptions.ResourceNotFoundException;
+import ru.practicum.shareit.exceptions.ValidationException;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.storage.ItemStorage;
 import ru.practicum.shareit.request.dto.ItemRequestDtoWithItems;
 import ru.practicum.shareit.request.dto.ItemRequestInDto;
 import ru.practicum.shareit.request.dto.ItemRequestOutDto;
+import ru.practicum.shareit.request.dto.ItemRequestPageDto;
 import ru.practicum.shareit.request.mapper.SimpleItemRequestMapper;
 import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.model.ItemRequestSnapshot;
+import ru.practicum.shareit.request.service.ItemRequestLookup;
 import ru.practicum.shareit.request.service.ItemRequestServiceImpl;
 import ru.practicum.shareit.request.storage.ItemRequestStorage;
 import ru.practicum.shareit.user.model.User;
@@ -24,7 +31,6 @@ import ru.practicum.shareit.user.service.UserService;
 
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -34,12 +40,17 @@ class ItemRequestServiceImplTest extends BaseUtility {
     @Mock
     private ItemRequestStorage itemRequestStorage;
     @Mock
+    private ItemRequestLookup itemRequestLookup;
+    @Mock
     private ItemStorage itemStorage;
     @Mock
     private SimpleItemRequestMapper itemRequestMapper;
     @Mock
     private UserService userService;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private ItemRequestServiceImpl itemRequestService;
 
@@ -104,21 +115,49 @@ class ItemRequestServiceImplTest extends BaseUtility {
         List<Item> itemList = List.of(item);
         ItemRequestDtoWithItems dtoWithItems = createItemRequestDtoWithItems(itemRequest, itemList);
 
-        when(itemRequestStorage.findAll(any(Sort.class))).thenReturn(requestList);
+        when(itemRequestStorage.getOtherUsersRequests(eq(user1.getId()), any(LocalDateTime.class), anyInt(),
+                any(Limit.class))).thenReturn(requestList);
         when(itemStorage.findAllByRequestInOrderById(anyList())).thenReturn(itemList);
-        when(itemRequestMapper.itemToItemRequestWithItems(any(ItemRequest.class), anyList())).thenReturn(dtoWithItems);
+        when(itemRequestMapper.itemToItemRequestWithItems(itemRequest, itemList)).thenReturn(dtoWithItems);
 
-        List<ItemRequestDtoWithItems> result = itemRequestService.getAllRequests();
+        ItemRequestPageDto result = itemRequestService.getAllRequests(user1.getId(), null, 10);
 
         assertNotNull(result);
-        assertEquals(1, result.size());
-        verify(itemRequestStorage, times(1)).findAll(any(Sort.class));
+        assertEquals(1, result.getRequests().size());
+        assertNull(result.getNextCursor());
+        verify(itemRequestStorage, times(1)).getOtherUsersRequests(user1.getId(),
+                KeysetCursor.first().getTime(), KeysetCursor.first().getId(), Limit.of(11));
+    }
+
+    @DisplayName("Если запросов больше страницы, возвращается курсор следующей страницы")
+    @Test
+    void shouldReturnNextCursorWhenMoreRequests_getAllRequests() {
+        ItemRequest olderRequest = createItemRequest(2, user, "Нужна дрель", created.minusDays(1));
+
+        when(itemRequestStorage.getOtherUsersRequests(eq(user1.getId()), any(LocalDateTime.class), anyInt(),
+                any(Limit.class))).thenReturn(List.of(itemRequest, olderRequest));
+        when(itemStorage.findAllByRequestInOrderById(List.of(itemRequest))).thenReturn(List.of());
+
+        ItemRequestPageDto result = itemRequestService.getAllRequests(user1.getId(), null, 1);
+
+        assertEquals(1, result.getRequests().size());
+        assertEquals(new KeysetCursor(itemRequest.getCreated(), itemRequest.getId()),
+                KeysetCursor.decode(result.getNextCursor()));
+    }
+
+    @DisplayName("Недопустимый размер страницы запросов отклоняется")
+    @Test
+    void shouldThrowExceptionWhenLimitInvalid_getAllRequests() {
+        assertThrows(ValidationException.class, () -> itemRequestService.getAllRequests(user1.getId(), null, 0));
+        assertThrows(ValidationException.class,
+                () -> itemRequestService.getAllRequests(user1.getId(), null, Common.MAX_PAGE_SIZE + 1));
+        verifyNoInteractions(itemRequestStorage);
     }
 
     @DisplayName("Получить запрос по ID")
     @Test
     void shouldReturnItemRequest_getRequestById() {
-        when(itemRequestStorage.findById(itemRequest.getId())).thenReturn(Optional.of(itemRequest));
+        when(itemRequestLookup.getRequest(itemRequest.getId())).thenReturn(ItemRequestSnapshot.of(itemRequest));
 
         ItemRequest result = itemRequestService.getRequestById(itemRequest.getId());
 
@@ -129,7 +168,7 @@ class ItemRequestServiceImplTest extends BaseUtility {
     @DisplayName("Выбрасываем исключение, если запрос не найден")
     @Test
     void shouldThrowExceptionWhenRequestNotFound_getRequestById() {
-        when(itemRequestStorage.findById(anyInt())).thenReturn(Optional.empty());
+        when(itemRequestLookup.getRequest(anyInt())).thenThrow(new ResourceNotFoundException("Не найден"));
 
         assertThrows(ResourceNotFoundException.class, () -> itemRequestService.getRequestById(666));
     }
@@ -140,7 +179,7 @@ class ItemRequestServiceImplTest extends BaseUtility {
         List<Item> itemsList = List.of(item);
         ItemRequestDtoWithItems expectedDto = createItemRequestDtoWithItems(itemRequest, itemsList);
 
-        when(itemRequestStorage.findById(anyInt())).thenReturn(Optional.of(itemRequest));
+        when(itemRequestLookup.getRequest(anyInt())).thenReturn(ItemRequestSnapshot.of(itemRequest));
         when(itemStorage.findAllByRequestOrderById(any(ItemRequest.class))).thenReturn(itemsList);
         when(itemRequestMapper.itemToItemRequestWithItems(any(ItemRequest.class), anyList())).thenReturn(expectedDto);
 
@@ -7,20 +7,26 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.context.annotation.Import;
 import ru.practicum.shareit.booking.mapper.SimpleBookingMapperImpl;
+import ru.practicum.shareit.booking.service.LastAndNextBookingsServiceImpl;
 import ru.practicum.shareit.booking.storage.BookingStorage;
 import ru.practicum.shareit.comment.mapper.SimpleCommentMapperImpl;
 import ru.practicum.shareit.comment.storage.CommentStorage;
+import ru.practicum.shareit.common.ParallelReadsConfig;
 import ru.practicum.shareit.item.mapper.SimpleItemMapperImpl;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
 import ru.practicum.shareit.item.service.ItemServiceImpl;
+import ru.practicum.shareit.item.service.ItemLookup;
 import ru.practicum.shareit.item.storage.ItemStorage;
 import ru.practicum.shareit.request.mapper.SimpleItemRequestMapper;
 import ru.practicum.shareit.request.mapper.SimpleItemRequestMapperImpl;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.service.ItemRequestServiceImpl;
+import ru.practicum.shareit.request.service.ItemRequestLookup;
 import ru.practicum.shareit.request.storage.ItemRequestStorage;
 import ru.practicum.shareit.user.mapper.SimpleUserMapperImpl;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.UserServiceImpl;
+import ru.practicum.shareit.user.service.UserLookup;
 import ru.practicum.shareit.user.storage.UserStorage;
 
 import java.time.LocalDateTime;
@@ -31,13 +37,19 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 @DataJpaTest
 @Import({
         ItemServiceImpl.class,
+        ItemLookup.class,
+        ItemSearchIndex.class,
+        LastAndNextBookingsServiceImpl.class,
         UserServiceImpl.class,
+        UserLookup.class,
         SimpleItemMapperImpl.class,
         SimpleBookingMapperImpl.class,
         SimpleCommentMapperImpl.class,
         SimpleUserMapperImpl.class,
         ItemRequestServiceImpl.class,
-        SimpleItemRequestMapperImpl.class
+        ItemRequestLookup.class,
+        SimpleItemRequestMapperImpl.class,
+        ParallelReadsConfig.class
 })
 public class ItemRequestServiceIntegrationTest {
     @Autowired
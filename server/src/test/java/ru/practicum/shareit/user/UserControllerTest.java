@@ -9,12 +9,15 @@ import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabas
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 import ru.practicum.shareit.BaseControllerHelper;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.storage.UserStorage;
 
+import java.util.List;
+
 import static org.hamcrest.Matchers.hasSize;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
@@ -22,6 +25,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
 @AutoConfigureMockMvc
 @AutoConfigureTestDatabase
+@ActiveProfiles("test")
 @SpringBootTest
 class UserControllerTest extends BaseControllerHelper {
 
@@ -91,6 +95,38 @@ class UserControllerTest extends BaseControllerHelper {
                 .andExpect(jsonPath("$.description").isString());
     }
 
+    @DisplayName("Пакет пользователей создается целиком")
+    @Test
+    @SneakyThrows
+    void shouldCreateUsersBatch() {
+        UserDto secondDto = createSecondUserDto();
+
+        mockMvc.perform(post("/users/batch")
+                        .content(objectMapper.writeValueAsString(List.of(ownerDto, secondDto)))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].id").isNumber())
+                .andExpect(jsonPath("$[0].email").value(ownerDto.getEmail()))
+                .andExpect(jsonPath("$[1].id").isNumber())
+                .andExpect(jsonPath("$[1].email").value(secondDto.getEmail()));
+    }
+
+    @DisplayName("Пакет с повторяющимся e-mail не создается даже частично")
+    @Test
+    @SneakyThrows
+    void shouldNotCreateUsersBatchWithTheSameEmail() {
+
+        mockMvc.perform(post("/users/batch")
+                        .content(objectMapper.writeValueAsString(List.of(ownerDto, createSecondUserDto(), ownerDto)))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isConflict());
+
+        mockMvc.perform(get("/users"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(0)));
+    }
+
     private UserDto createOwnerDto() {
         UserDto userDto = new UserDto();
         userDto.setName("Item Owner");
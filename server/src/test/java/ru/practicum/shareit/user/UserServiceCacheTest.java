@@ -0,0 +1,96 @@
+package ru.practicum.shareit.user;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.shareit.BaseUtility;
+import ru.practicum.shareit.common.Common;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.service.UserService;
+import ru.practicum.shareit.user.storage.UserStorage;
+
+import java.util.Objects;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@AutoConfigureTestDatabase
+@ActiveProfiles("test")
+@SpringBootTest
+class UserServiceCacheTest extends BaseUtility {
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private CacheManager cacheManager;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @SpyBean
+    private UserStorage userStorage;
+
+    private Integer userId;
+
+    @BeforeEach
+    void beforeEach() {
+        UserDto userDto = new UserDto();
+        userDto.setName("Андрей");
+        userDto.setEmail("cached@mail.ru");
+        userId = userService.createUser(userDto).getId();
+    }
+
+    @AfterEach
+    void afterEach() {
+        userStorage.deleteAll();
+        Objects.requireNonNull(cacheManager.getCache(Common.USERS_CACHE)).clear();
+    }
+
+    @DisplayName("Повторный поиск пользователя по Id не идет в базу")
+    @Test
+    void shouldReadUserFromCache() {
+        userService.getUserById(userId);
+        userService.getUserById(userId);
+
+        verify(userStorage, times(1)).findById(userId);
+        double hits = meterRegistry.get("cache.gets")
+                .tag("cache", Common.USERS_CACHE)
+                .tag("result", "hit")
+                .functionCounter()
+                .count();
+        assertTrue(hits >= 1, "попадание в кэш не попало в метрики");
+    }
+
+    @DisplayName("После обновления пользователь перечитывается из базы")
+    @Test
+    void shouldEvictUserOnUpdate() {
+        userService.getUserById(userId);
+        UserDto updateDto = new UserDto();
+        updateDto.setId(userId);
+        updateDto.setName("Новое имя");
+        userService.updateUser(updateDto);
+
+        assertEquals("Новое имя", userService.getUserById(userId).getName());
+    }
+
+    @DisplayName("Каждый вызов получает свою копию пользователя из кэша")
+    @Test
+    void shouldReturnOwnCopyFromCache() {
+        User first = userService.getUserById(userId);
+        first.setName("Измененное имя");
+        User second = userService.getUserById(userId);
+
+        assertNotSame(first, second);
+        assertEquals("Андрей", second.getName());
+        verify(userStorage, times(1)).findById(userId);
+    }
+}
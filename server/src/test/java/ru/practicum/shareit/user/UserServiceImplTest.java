@@ -7,12 +7,15 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import ru.practicum.shareit.BaseUtility;
 import ru.practicum.shareit.exceptions.CustomValidationException;
 import ru.practicum.shareit.exceptions.ResourceNotFoundException;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.mapper.SimpleUserMapper;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.model.UserSnapshot;
+import ru.practicum.shareit.user.service.UserLookup;
 import ru.practicum.shareit.user.service.UserServiceImpl;
 import ru.practicum.shareit.user.storage.UserStorage;
 
@@ -29,9 +32,15 @@ class UserServiceImplTest extends BaseUtility {
     @Mock
     private UserStorage userStorage;
 
+    @Mock
+    private UserLookup userLookup;
+
     @Mock
     private SimpleUserMapper userMapper;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private UserServiceImpl userService;
 
@@ -51,35 +60,35 @@ class UserServiceImplTest extends BaseUtility {
     @DisplayName("Возвращает существующего пользователя")
     @Test
     void getUserByIdWhenUserFound() {
-        when(userStorage.findById(1)).thenReturn(Optional.of(user));
+        when(userLookup.getUser(1)).thenReturn(UserSnapshot.of(user));
 
         User result = userService.getUserById(1);
 
         assertNotNull(result);
         assertEquals(user.getId(), result.getId());
-        verify(userStorage, times(1)).findById(1);
+        verify(userLookup, times(1)).getUser(1);
     }
 
     @DisplayName("Выбрасывает исключительную ситуацию, если пользователь не найден")
     @Test
     void getUserById_whenUserNotFound() {
-        when(userStorage.findById(666)).thenReturn(Optional.empty());
+        when(userLookup.getUser(666)).thenThrow(new ResourceNotFoundException("Не найден"));
 
         assertThrows(ResourceNotFoundException.class, () -> userService.getUserById(666));
-        verify(userStorage, times(1)).findById(666);
+        verify(userLookup, times(1)).getUser(666);
     }
 
     @DisplayName("Возвращает UserDto, если пользователь найден")
     @Test
     void getUserDtoById_whenUserFound() {
-        when(userStorage.findById(1)).thenReturn(Optional.of(user));
+        when(userLookup.getUser(1)).thenReturn(UserSnapshot.of(user));
         when(userMapper.userToDto(user)).thenReturn(userDto);
 
         UserDto result = userService.getUserDtoById(1);
 
         assertNotNull(result);
         assertEquals(userDto.getEmail(), result.getEmail());
-        verify(userStorage, times(1)).findById(1);
+        verify(userLookup, times(1)).getUser(1);
         verify(userMapper, times(1)).userToDto(user);
     }
 
@@ -217,7 +226,7 @@ class UserServiceImplTest extends BaseUtility {
     @DisplayName("Удаление существующего пользователя")
     @Test
     void deleteUser_whenUserExists() {
-        when(userStorage.findById(anyInt())).thenReturn(Optional.of(user));
+        when(userLookup.getUser(anyInt())).thenReturn(UserSnapshot.of(user));
         doNothing().when(userStorage).deleteById(1);
 
         userService.deleteUser(1);
@@ -228,6 +237,7 @@ class UserServiceImplTest extends BaseUtility {
     @DisplayName("Удаление несуществуюшего пользователя")
     @Test
     void deleteUser_whenUserDoesNotExist() {
+        when(userLookup.getUser(666)).thenThrow(new ResourceNotFoundException("Не найден"));
 
         assertThrows(ResourceNotFoundException.class, () -> userService.deleteUser(666));
     }
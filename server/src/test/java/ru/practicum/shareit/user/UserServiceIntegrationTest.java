@@ -12,13 +12,14 @@ import ru.practicum.shareit.BaseUtility;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.mapper.SimpleUserMapperImpl;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.service.UserLookup;
 import ru.practicum.shareit.user.service.UserServiceImpl;
 import ru.practicum.shareit.user.storage.UserStorage;
 
 import static org.junit.jupiter.api.Assertions.*;
 
 @DataJpaTest
-@Import({UserServiceImpl.class, SimpleUserMapperImpl.class})
+@Import({UserServiceImpl.class, UserLookup.class, SimpleUserMapperImpl.class})
 @ActiveProfiles("test")
 public class UserServiceIntegrationTest extends BaseUtility {
     @Autowired
@@ -56,7 +57,11 @@ public class UserServiceIntegrationTest extends BaseUtility {
         anotherUserDto.setName("какой-то");
         anotherUserDto.setEmail(createUserDto.getEmail());
 
-        assertThrows(DataIntegrityViolationException.class, () -> userService.createUser(anotherUserDto));
+        //Id берется из последовательности, и INSERT уходит в базу только при сбросе сессии
+        assertThrows(DataIntegrityViolationException.class, () -> {
+            userService.createUser(anotherUserDto);
+            userStorage.flush();
+        });
 
     }
 